@@ -0,0 +1,148 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS com.google.code.gson:gson:2.10.1
+//JAVA_OPTIONS -Xmx1g
+//SOURCES ../scripts/AnalyzeDiffs.java
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DiffParserBenchmark - Microbenchmark for the unified-diff parser in AnalyzeDiffs
+ *
+ * Compares the streaming parser (reads the diff line by line from a stream, as
+ * AnalyzeDiffs.streamPRDiff does with gh output) against the previous approach
+ * (collect the whole diff into a String, then split it) on synthetic diffs of
+ * 1, 10 and 50 MB. Reports average time and bytes allocated per operation.
+ *
+ * JMH cannot be used here: it requires benchmark classes in a named package,
+ * and the scripts live in the default package. This follows the JMH pattern
+ * instead (warmup iterations, then measured iterations, results consumed).
+ *
+ * Usage: jbang bench/DiffParserBenchmark.java [warmup-iterations] [measured-iterations] [sizes-mb...]
+ *   jbang bench/DiffParserBenchmark.java 3 5 1 10 50
+ */
+public class DiffParserBenchmark {
+
+    private static volatile Object sink;
+
+    interface Parser {
+        Object parse(byte[] diff) throws IOException;
+    }
+
+    static Object streaming(byte[] diff) throws IOException {
+        try (BufferedReader reader = open(diff)) {
+            return AnalyzeDiffs.parseDiff(reader);
+        }
+    }
+
+    static Object materialized(byte[] diff) throws IOException {
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = open(diff)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.append(line).append("\n");
+            }
+        }
+        return splitParse(output.toString());
+    }
+
+    private static BufferedReader open(byte[] diff) {
+        return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(diff), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The parser as it was before streaming: split the whole diff, look up the file per line.
+     */
+    private static Map<String, int[]> splitParse(String diffContent) {
+        Map<String, int[]> fileStats = new HashMap<>();
+        String currentFile = null;
+        for (String line : diffContent.split("\n")) {
+            if (line.startsWith("diff --git")) {
+                String[] parts = line.split(" ");
+                if (parts.length >= 4) {
+                    currentFile = parts[3].substring(2);
+                    fileStats.put(currentFile, new int[2]);
+                }
+            } else if (currentFile != null) {
+                if (line.startsWith("+") && !line.startsWith("+++")) {
+                    fileStats.get(currentFile)[0]++;
+                } else if (line.startsWith("-") && !line.startsWith("---")) {
+                    fileStats.get(currentFile)[1]++;
+                }
+            }
+        }
+        return fileStats;
+    }
+
+    /**
+     * Build a diff of roughly the requested size: many files, each with a few
+     * hunks of added, removed and context lines.
+     */
+    static String syntheticDiff(long targetBytes) {
+        StringBuilder sb = new StringBuilder((int) Math.min(targetBytes + 4096, Integer.MAX_VALUE - 8));
+        int file = 0;
+        while (sb.length() < targetBytes) {
+            String path = "src/module" + (file % 50) + "/Generated" + file + ".java";
+            sb.append("diff --git a/").append(path).append(" b/").append(path).append('\n')
+                .append("index 1a2b3c4..5d6e7f8 100644\n")
+                .append("--- a/").append(path).append('\n')
+                .append("+++ b/").append(path).append('\n');
+            for (int hunk = 0; hunk < 4; hunk++) {
+                sb.append("@@ -").append(hunk * 40 + 1).append(",12 +").append(hunk * 40 + 1).append(",14 @@\n");
+                for (int line = 0; line < 12; line++) {
+                    char kind = line % 3 == 0 ? '+' : line % 3 == 1 ? '-' : ' ';
+                    sb.append(kind).append("    private final String field").append(line)
+                        .append(" = \"generated value for line ").append(line).append("\";\n");
+                }
+            }
+            file++;
+        }
+        return sb.toString();
+    }
+
+    private static void run(String name, Parser parser, byte[] diff, int warmups, int iterations) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < warmups; i++) {
+            sink = parser.parse(diff);
+        }
+
+        long totalNanos = 0;
+        long totalAllocated = 0;
+        for (int i = 0; i < iterations; i++) {
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            sink = parser.parse(diff);
+            totalNanos += System.nanoTime() - start;
+            totalAllocated += threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        }
+
+        System.out.printf("%-14s %6d MB %10.1f ms/op %10.1f MB alloc/op%n",
+            name, diff.length / (1024 * 1024), totalNanos / 1e6 / iterations,
+            totalAllocated / (1024.0 * 1024.0) / iterations);
+    }
+
+    public static void main(String... args) throws IOException {
+        int warmups = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int[] sizes = args.length > 2
+            ? java.util.Arrays.stream(args, 2, args.length).mapToInt(Integer::parseInt).toArray()
+            : new int[] {1, 10, 50};
+
+        System.out.printf("%-14s %9s %16s %20s%n", "Benchmark", "Size", "Time", "Allocated");
+        for (int size : sizes) {
+            byte[] diff = syntheticDiff(size * 1024L * 1024L).getBytes(StandardCharsets.UTF_8);
+            run("streaming", DiffParserBenchmark::streaming, diff, warmups, iterations);
+            run("materialized", DiffParserBenchmark::materialized, diff, warmups, iterations);
+            diff = null;
+        }
+    }
+}
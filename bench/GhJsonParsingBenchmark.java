@@ -0,0 +1,149 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS com.google.code.gson:gson:2.10.1
+//JAVA_OPTIONS -Xmx1g
+//SOURCES ../scripts/domain/activity/Commit.java
+//SOURCES ../scripts/domain/activity/PullRequest.java
+//SOURCES ../scripts/domain/activity/Issue.java
+//SOURCES ../scripts/domain/activity/Review.java
+//SOURCES ../scripts/domain/activity/Activity.java
+//SOURCES ../scripts/domain/shared/DateRange.java
+//SOURCES ../scripts/domain/shared/Repository.java
+//SOURCES ../scripts/domain/report/DiffSummary.java
+//SOURCES ../scripts/ports/ActivityPort.java
+//SOURCES ../scripts/ports/DiffPort.java
+//SOURCES ../scripts/infrastructure/github/GitHubCliAdapter.java
+//SOURCES ../scripts/infrastructure/github/WindowedSearch.java
+//SOURCES ../scripts/infrastructure/github/GhRequestScheduler.java
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * GhJsonParsingBenchmark - Cost of turning `gh search prs --json ...` output into records
+ *
+ * Compares the old path (read stdout into one String, parse a JsonArray tree,
+ * copy into PullRequest records) against GitHubCliAdapter's JsonReader parser
+ * reading the same bytes as a stream. The process pipe is simulated in memory.
+ *
+ * Same harness pattern as DiffParserBenchmark (JMH needs a named package).
+ *
+ * Usage: jbang bench/GhJsonParsingBenchmark.java [warmup-iterations] [measured-iterations] [items...]
+ *   jbang bench/GhJsonParsingBenchmark.java 20 50 100 1000
+ */
+public class GhJsonParsingBenchmark {
+
+    private static final Gson gson = new Gson();
+    private static volatile Object sink;
+
+    interface Parser {
+        List<PullRequest> parse(InputStream stdout) throws IOException;
+    }
+
+    /**
+     * The pre-streaming GitHubCliAdapter.fetchPullRequests body.
+     */
+    static List<PullRequest> tree(InputStream stdout) throws IOException {
+        String json;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stdout))) {
+            json = reader.lines().collect(Collectors.joining("\n"));
+        }
+        JsonArray items = gson.fromJson(json, JsonArray.class);
+        List<PullRequest> prs = new ArrayList<>();
+        for (JsonElement element : items) {
+            JsonObject obj = element.getAsJsonObject();
+            int number = obj.has("number") ? obj.get("number").getAsInt() : 0;
+            String title = obj.has("title") ? obj.get("title").getAsString() : null;
+            String state = obj.has("state") ? obj.get("state").getAsString() : null;
+            String url = obj.has("url") ? obj.get("url").getAsString() : null;
+            int additions = obj.has("additions") ? obj.get("additions").getAsInt() : 0;
+            int deletions = obj.has("deletions") ? obj.get("deletions").getAsInt() : 0;
+            Instant createdAt = obj.has("createdAt") ? Instant.parse(obj.get("createdAt").getAsString()) : null;
+            JsonObject repoObj = obj.has("repository") ? obj.getAsJsonObject("repository") : null;
+            String repoName = repoObj != null ? repoObj.get("nameWithOwner").getAsString() : null;
+            if (number > 0 && title != null && state != null) {
+                prs.add(new PullRequest(number, title, state, url, repoName, additions, deletions, createdAt));
+            }
+        }
+        return prs;
+    }
+
+    static List<PullRequest> streaming(InputStream stdout) throws IOException {
+        try (Reader reader = new BufferedReader(new InputStreamReader(stdout, StandardCharsets.UTF_8))) {
+            return GitHubCliAdapter.parseArray(reader, GitHubCliAdapter::readPullRequest);
+        }
+    }
+
+    /**
+     * Output shaped like `gh search prs --json=number,title,state,url,repository,createdAt`,
+     * pretty-printed the way gh writes it.
+     */
+    static byte[] syntheticSearchOutput(int items) {
+        JsonArray array = new JsonArray();
+        for (int i = 1; i <= items; i++) {
+            JsonObject repo = new JsonObject();
+            repo.addProperty("name", "project-" + (i % 12));
+            repo.addProperty("nameWithOwner", "octocat/project-" + (i % 12));
+            JsonObject pr = new JsonObject();
+            pr.addProperty("number", i);
+            pr.addProperty("title", "Improve handling of edge case " + i + " in the report pipeline");
+            pr.addProperty("state", i % 3 == 0 ? "merged" : "open");
+            pr.addProperty("url", "https://github.com/octocat/project-" + (i % 12) + "/pull/" + i);
+            pr.addProperty("createdAt", "2024-05-0" + (1 + i % 9) + "T10:15:30Z");
+            pr.add("repository", repo);
+            array.add(pr);
+        }
+        return new com.google.gson.GsonBuilder().setPrettyPrinting().create()
+            .toJson(array).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void run(String name, Parser parser, byte[] output, int items,
+                            int warmups, int iterations) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < warmups; i++) {
+            sink = parser.parse(new ByteArrayInputStream(output));
+        }
+
+        long totalNanos = 0;
+        long totalAllocated = 0;
+        for (int i = 0; i < iterations; i++) {
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            sink = parser.parse(new ByteArrayInputStream(output));
+            totalNanos += System.nanoTime() - start;
+            totalAllocated += threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        }
+
+        System.out.printf("%-10s %7d %10.3f ms/op %10.2f MB alloc/op%n",
+            name, items, totalNanos / 1e6 / iterations, totalAllocated / (1024.0 * 1024.0) / iterations);
+    }
+
+    public static void main(String... args) throws IOException {
+        int warmups = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int[] sizes = args.length > 2
+            ? java.util.Arrays.stream(args, 2, args.length).mapToInt(Integer::parseInt).toArray()
+            : new int[] {100, 1000};
+
+        System.out.printf("%-10s %7s %16s %20s%n", "Parser", "Items", "Time", "Allocated");
+        for (int items : sizes) {
+            byte[] output = syntheticSearchOutput(items);
+            if (!tree(new ByteArrayInputStream(output)).equals(streaming(new ByteArrayInputStream(output)))) {
+                throw new IllegalStateException("Parsers disagree at " + items + " items");
+            }
+            run("tree", GhJsonParsingBenchmark::tree, output, items, warmups, iterations);
+            run("streaming", GhJsonParsingBenchmark::streaming, output, items, warmups, iterations);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS com.google.code.gson:gson:2.10.1
+//JAVA_OPTIONS -Xmx1g
+//SOURCES ../scripts/StageIO.java
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * StageTransportBenchmark - Cost of handing an activity payload to the next stage
+ *
+ * Compares the old argv transport (pretty-printed JSON string, copied into the
+ * exec argument block, decoded and re-parsed as a String by the child) against
+ * StageIO (compact JSON streamed through a pipe and parsed from the stream).
+ * The pipe is simulated in memory so only serialization and copy costs are
+ * measured, not process startup.
+ *
+ * Same harness pattern as DiffParserBenchmark (JMH needs a named package).
+ *
+ * Usage: jbang bench/StageTransportBenchmark.java [warmup-iterations] [measured-iterations] [items...]
+ *   jbang bench/StageTransportBenchmark.java 5 20 100 1000 5000
+ */
+public class StageTransportBenchmark {
+
+    // Linux MAX_ARG_STRLEN: the largest single argv entry exec accepts
+    private static final int MAX_ARG_STRLEN = 128 * 1024;
+
+    private static final Gson pretty = new GsonBuilder().setPrettyPrinting().create();
+    private static volatile Object sink;
+
+    interface Transport {
+        JsonElement send(JsonObject payload) throws IOException;
+    }
+
+    static JsonElement argv(JsonObject payload) {
+        String arg = pretty.toJson(payload);
+        byte[] argBlock = arg.getBytes(StandardCharsets.UTF_8);          // exec copies argv
+        String received = new String(argBlock, StandardCharsets.UTF_8);  // child decodes it
+        return JsonParser.parseString(received);
+    }
+
+    static JsonElement stdin(JsonObject payload) throws IOException {
+        ByteArrayOutputStream pipe = new ByteArrayOutputStream(64 * 1024);
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(pipe, StandardCharsets.UTF_8))) {
+            StageIO.Payload.json(payload).writeTo(out);
+        }
+        try (Reader in = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(pipe.toByteArray()), StandardCharsets.UTF_8))) {
+            return JsonParser.parseReader(in);
+        }
+    }
+
+    /**
+     * Activity shaped like CollectActivity output: commits, PRs and issues in a 2:1:1 mix.
+     */
+    static JsonObject syntheticActivity(int items) {
+        JsonArray commits = new JsonArray();
+        JsonArray prs = new JsonArray();
+        JsonArray issues = new JsonArray();
+        for (int i = 0; i < items; i++) {
+            JsonObject repo = new JsonObject();
+            repo.addProperty("nameWithOwner", "octocat/project-" + (i % 12));
+            if (i % 4 < 2) {
+                JsonObject commit = new JsonObject();
+                commit.addProperty("sha", String.format("%040x", (long) i * 2654435761L));
+                JsonObject inner = new JsonObject();
+                inner.addProperty("message", "Refactor module " + i + " to use the shared configuration loader");
+                JsonObject author = new JsonObject();
+                author.addProperty("date", "2024-05-0" + (1 + i % 9) + "T10:15:30Z");
+                inner.add("author", author);
+                commit.add("commit", inner);
+                commit.add("repository", repo);
+                commits.add(commit);
+            } else {
+                JsonObject item = new JsonObject();
+                item.addProperty("number", i);
+                item.addProperty("title", "Improve handling of edge case " + i + " in the report pipeline");
+                item.addProperty("state", i % 3 == 0 ? "closed" : "open");
+                item.addProperty("createdAt", "2024-05-01T09:00:00Z");
+                item.addProperty("updatedAt", "2024-05-02T17:30:00Z");
+                item.addProperty("url", "https://github.com/octocat/project-" + (i % 12) + "/pull/" + i);
+                item.add("repository", repo);
+                (i % 4 == 2 ? prs : issues).add(item);
+            }
+        }
+        JsonObject activity = new JsonObject();
+        activity.add("commits", commits);
+        activity.add("pull_requests", prs);
+        activity.add("issues", issues);
+        return activity;
+    }
+
+    private static void run(String name, Transport transport, JsonObject payload, int items,
+                            int warmups, int iterations) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < warmups; i++) {
+            sink = transport.send(payload);
+        }
+
+        long totalNanos = 0;
+        long totalAllocated = 0;
+        for (int i = 0; i < iterations; i++) {
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            sink = transport.send(payload);
+            totalNanos += System.nanoTime() - start;
+            totalAllocated += threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        }
+
+        System.out.printf("%-8s %7d %10.2f ms/op %10.2f MB alloc/op%n",
+            name, items, totalNanos / 1e6 / iterations, totalAllocated / (1024.0 * 1024.0) / iterations);
+    }
+
+    public static void main(String... args) throws IOException {
+        int warmups = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int[] sizes = args.length > 2
+            ? java.util.Arrays.stream(args, 2, args.length).mapToInt(Integer::parseInt).toArray()
+            : new int[] {1000};
+
+        for (int items : sizes) {
+            JsonObject payload = syntheticActivity(items);
+            int prettyBytes = pretty.toJson(payload).getBytes(StandardCharsets.UTF_8).length;
+            int compactBytes = StageIO.COMPACT.toJson(payload).getBytes(StandardCharsets.UTF_8).length;
+            System.out.printf("%d items: argv payload %d KB%s, stdin payload %d KB%n", items,
+                prettyBytes / 1024, prettyBytes > MAX_ARG_STRLEN ? " (over the 128 KB argv limit)" : "",
+                compactBytes / 1024);
+        }
+
+        System.out.printf("%-8s %7s %16s %20s%n", "Transport", "Items", "Time", "Allocated");
+        for (int items : sizes) {
+            JsonObject payload = syntheticActivity(items);
+            run("argv", StageTransportBenchmark::argv, payload, items, warmups, iterations);
+            run("stdin", StageTransportBenchmark::stdin, payload, items, warmups, iterations);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+#!/bin/bash
+# startup-benchmark.sh - Compare in-process vs one-JVM-per-stage orchestration
+#
+# Runs Main.java with --no-claude (prompt only, no AI call) in both execution
+# modes and reports wall-clock time per run. The GitHub/git work is identical
+# in both modes, so the difference is JVM spawn + jbang cache-check overhead.
+#
+# Usage: bench/startup-benchmark.sh [runs] [-- extra Main.java args]
+#   bench/startup-benchmark.sh 5 -- --user octocat --days 3
+
+set -e
+
+RUNS="${1:-5}"
+shift || true
+if [ "$1" = "--" ]; then
+    shift
+fi
+EXTRA_ARGS=("$@")
+
+SCRIPT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+MAIN="$SCRIPT_DIR/scripts/Main.java"
+
+command -v jbang >/dev/null 2>&1 || {
+    echo "❌ Error: jbang not found"
+    exit 1
+}
+
+# Warm the jbang compile cache so neither mode pays for the first build
+echo "Warming jbang cache..."
+jbang build "$MAIN" >/dev/null 2>&1
+for script in CollectActivity AnalyzeDiffs ActivityAggregator LocalChangesDetector; do
+    jbang build "$SCRIPT_DIR/scripts/$script.java" >/dev/null 2>&1
+done
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# run_mode LABEL [flags...] - prints per-run and average milliseconds
+run_mode() {
+    local label="$1"
+    shift
+    local total=0
+    echo ""
+    echo "== $label =="
+    for i in $(seq 1 "$RUNS"); do
+        local start end elapsed
+        start=$(now_ms)
+        (cd "$SCRIPT_DIR" && jbang "$MAIN" --no-claude "$@" "${EXTRA_ARGS[@]}" >/dev/null 2>&1) || true
+        end=$(now_ms)
+        elapsed=$((end - start))
+        total=$((total + elapsed))
+        echo "  run $i: ${elapsed}ms"
+    done
+    echo "  average: $((total / RUNS))ms"
+}
+
+run_mode "before: --subprocess (one jbang JVM per stage)" --subprocess
+run_mode "after: in-process (single JVM)"
@@ -0,0 +1,113 @@
+#!/bin/bash
+# startup-time.sh - Cold-start time and memory of the standup entry point, per launch mode
+#
+# Compares, for the same Main arguments:
+#   jbang      jbang scripts/Main.java (compile cache warmed first)
+#   jar        java -jar build/standup.jar with default JVM flags
+#   jar+cds    fat jar + AppCDS archive + short-run JVM flags (as bin/standup runs it)
+#   native     build/standup-native (GraalVM native image), when built
+#
+# Each mode gets one discarded warm-up run (so the OS file cache is hot for
+# every mode), then RUNS measured runs. min / median / mean wall-clock
+# milliseconds are reported, plus the peak resident set size of the largest
+# process (the JVM jbang launches, not jbang itself) from the warm-up run.
+# Build the images first with bin/build-fast-start.sh and bin/build-native.sh.
+#
+# Without Main args it measures the run the fast-start image is trained on:
+# --no-claude --days 1 with HOME and user.home in a scratch directory (so no
+# watermark, cache or report survives), or --help when gh is not authenticated.
+#
+# Usage: bench/startup-time.sh [runs] [-- Main args]
+#   bench/startup-time.sh 10                       # measures --no-claude --days 1
+#   bench/startup-time.sh 10 -- --help
+
+set -e
+
+RUNS="${1:-10}"
+shift || true
+if [ "$1" = "--" ]; then
+    shift
+fi
+MAIN_ARGS=("$@")
+SCRATCH_HOME="$(mktemp -d)"
+trap 'rm -rf "$SCRATCH_HOME"' EXIT
+RUN_ENV=()
+NATIVE_OPTS=()
+if [ ${#MAIN_ARGS[@]} -eq 0 ]; then
+    if command -v gh >/dev/null 2>&1 && gh auth status >/dev/null 2>&1; then
+        MAIN_ARGS=(--no-claude --days 1)
+        # The JVM takes user.home from the password database, not HOME, so set both;
+        # jbang keeps its warmed cache and gh its login
+        RUN_ENV=(HOME="$SCRATCH_HOME" JAVA_TOOL_OPTIONS="-Duser.home=$SCRATCH_HOME"
+            GH_CONFIG_DIR="${GH_CONFIG_DIR:-$HOME/.config/gh}" JBANG_DIR="${JBANG_DIR:-$HOME/.jbang}")
+        NATIVE_OPTS=(-Duser.home="$SCRATCH_HOME")
+    else
+        MAIN_ARGS=(--help)
+    fi
+fi
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+JAR="$ROOT/build/standup.jar"
+ARCHIVE="$ROOT/build/standup.jsa"
+BINARY="$ROOT/build/standup-native"
+
+if [ ! -f "$JAR" ]; then
+    echo "❌ Error: $JAR not found - run bin/build-fast-start.sh first"
+    exit 1
+fi
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# peak_rss_mb command... - runs once, prints the largest child's max RSS in MB
+peak_rss_mb() {
+    (cd "$ROOT" && env "${RUN_ENV[@]}" python3 -c '
+import resource, subprocess, sys
+subprocess.run(sys.argv[1:], stdin=subprocess.DEVNULL, stdout=subprocess.DEVNULL, stderr=subprocess.DEVNULL)
+print(resource.getrusage(resource.RUSAGE_CHILDREN).ru_maxrss // 1024)
+' "$@" "${MAIN_ARGS[@]}") 2>/dev/null || echo "-"
+}
+
+# measure LABEL command... - prints min/median/mean over RUNS runs and peak RSS
+measure() {
+    local label="$1"
+    shift
+    local rss
+    rss=$(peak_rss_mb "$@")
+
+    local times=()
+    for _ in $(seq 1 "$RUNS"); do
+        local start end
+        start=$(now_ms)
+        (cd "$ROOT" && env "${RUN_ENV[@]}" "$@" "${MAIN_ARGS[@]}" >/dev/null 2>&1 </dev/null) || true
+        end=$(now_ms)
+        times+=($((end - start)))
+    done
+
+    printf '%s\n' "${times[@]}" | sort -n | awk -v label="$label" -v rss="$rss" '
+        { t[NR] = $1; sum += $1 }
+        END {
+            median = (NR % 2) ? t[(NR + 1) / 2] : (t[NR / 2] + t[NR / 2 + 1]) / 2
+            printf "%-10s %8d %8d %8d %8s\n", label, t[1], median, sum / NR, rss
+        }'
+}
+
+echo "java: $(java -version 2>&1 | head -1)"
+echo "args: ${MAIN_ARGS[*]}   runs: $RUNS"
+printf "%-10s %8s %8s %8s %8s\n" "Mode" "min ms" "median" "mean" "RSS MB"
+
+if command -v jbang >/dev/null 2>&1; then
+    jbang build "$ROOT/scripts/Main.java" >/dev/null 2>&1
+    measure "jbang" jbang "$ROOT/scripts/Main.java"
+else
+    echo "jbang      (not installed, skipped)"
+fi
+measure "jar" java -jar "$JAR"
+measure "jar+cds" java -XX:TieredStopAtLevel=1 -XX:+UseSerialGC -Xshare:auto \
+    -XX:SharedArchiveFile="$ARCHIVE" -Xlog:cds=off -Xlog:cds+dynamic=off -jar "$JAR"
+if [ -x "$BINARY" ]; then
+    measure "native" "$BINARY" "${NATIVE_OPTS[@]}"
+else
+    echo "native     (not built, skipped - run bin/build-native.sh)"
+fi
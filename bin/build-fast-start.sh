@@ -0,0 +1,104 @@
+#!/bin/bash
+# build-fast-start.sh - Build the warm-start image used by bin/standup
+#
+# Compiles every script in scripts/ (plus the files they pull in via //SOURCES)
+# into one fat jar with Gson unpacked inside, then records an AppCDS archive
+# from a training run so later JVMs map the already-parsed classes instead of
+# loading them one by one.
+#
+#   build/standup.jar   fat jar, Main-Class: Main
+#   build/standup.jsa   dynamic class-data-sharing archive (JDK 13+)
+#
+# The archive only works with the JVM that created it; bin/standup uses the
+# same `java`, and a mismatched archive is ignored rather than fatal.
+#
+# Usage: bin/build-fast-start.sh [training args for Main...]
+#   Default training run: --no-claude --days 1, so collection, local changes and
+#   diff analysis are all recorded. It runs with HOME (and user.home) in a
+#   scratch directory, so its watermark, diff cache and reports are thrown away;
+#   only gh's own config is shared. Without an authenticated gh it trains on --help.
+#   Other args are a real run (GitHub quota, watermark, diff cache, reports).
+#
+# Environment:
+#   GSON_JAR   gson-2.10.1.jar to bundle (default: the copy jbang resolved into ~/.m2)
+
+set -e
+
+GSON_VERSION="2.10.1"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+BUILD_DIR="$ROOT/build"
+JAR="$BUILD_DIR/standup.jar"
+ARCHIVE="$BUILD_DIR/standup.jsa"
+CLASSES="$(mktemp -d)"
+TRAINING_HOME="$(mktemp -d)"
+
+cleanup() {
+    rm -rf "$CLASSES" "$TRAINING_HOME"
+}
+trap cleanup EXIT
+
+command -v javac >/dev/null 2>&1 || {
+    echo "❌ Error: javac not found (a JDK is required to build the image)"
+    exit 1
+}
+
+JAVA_MAJOR=$(java -XshowSettings:properties -version 2>&1 | awk -F'= ' '/java.specification.version/ {print $2}')
+if [ "${JAVA_MAJOR%%.*}" -lt 17 ] 2>/dev/null; then
+    echo "❌ Error: Java 17+ required (found $JAVA_MAJOR)"
+    exit 1
+fi
+
+# 1. Locate Gson (jbang resolves //DEPS into the local Maven repository)
+if [ -z "$GSON_JAR" ]; then
+    GSON_JAR="$HOME/.m2/repository/com/google/code/gson/gson/$GSON_VERSION/gson-$GSON_VERSION.jar"
+    if [ ! -f "$GSON_JAR" ] && command -v jbang >/dev/null 2>&1; then
+        jbang build "$ROOT/scripts/Main.java" >/dev/null 2>&1 || true
+    fi
+fi
+if [ ! -f "$GSON_JAR" ]; then
+    echo "❌ Error: gson-$GSON_VERSION.jar not found (set GSON_JAR or run: jbang build scripts/Main.java)"
+    exit 1
+fi
+
+# 2. Compile every script together with the sources they include
+cd "$ROOT/scripts"
+SOURCES=$( (ls *.java; grep -h '^//SOURCES ' *.java | awk '{print $2}') | sort -u)
+echo "Compiling $(echo "$SOURCES" | wc -l | tr -d ' ') source files..."
+# shellcheck disable=SC2086
+javac -encoding UTF-8 -nowarn -d "$CLASSES" -cp "$GSON_JAR" $SOURCES 2>&1 | grep -v '^Note:' || true
+if [ ! -f "$CLASSES/Main.class" ]; then
+    echo "❌ Error: compilation failed"
+    exit 1
+fi
+
+# 3. Unpack Gson next to the scripts and build the fat jar
+(cd "$CLASSES" && jar --extract --file "$GSON_JAR" && rm -rf META-INF)
+mkdir -p "$BUILD_DIR"
+rm -f "$JAR" "$ARCHIVE"
+jar --create --file "$JAR" --main-class Main -C "$CLASSES" .
+echo "✓ Built $JAR ($(( $(wc -c < "$JAR") / 1024 )) KB)"
+
+# 4. Training run: record the classes a real invocation loads
+TRAINING_ENV=()
+TRAINING_OPTS=()
+if [ $# -gt 0 ]; then
+    TRAINING_ARGS=("$@")
+elif command -v gh >/dev/null 2>&1 && gh auth status >/dev/null 2>&1; then
+    TRAINING_ARGS=(--no-claude --days 1)
+    # The JVM takes user.home from the password database, not HOME, so set both
+    TRAINING_ENV=(HOME="$TRAINING_HOME" GH_CONFIG_DIR="${GH_CONFIG_DIR:-$HOME/.config/gh}")
+    TRAINING_OPTS=(-Duser.home="$TRAINING_HOME")
+else
+    echo "gh is not authenticated; training on --help only"
+    TRAINING_ARGS=(--help)
+fi
+echo "Training run: Main ${TRAINING_ARGS[*]}"
+(cd "$ROOT" && env "${TRAINING_ENV[@]}" java "${TRAINING_OPTS[@]}" \
+    -XX:ArchiveClassesAtExit="$ARCHIVE" -Xlog:cds=off -Xlog:cds+dynamic=off \
+    -jar "$JAR" "${TRAINING_ARGS[@]}" >/dev/null 2>&1 </dev/null) || true
+
+if [ -f "$ARCHIVE" ]; then
+    echo "✓ Built $ARCHIVE ($(( $(wc -c < "$ARCHIVE") / 1024 / 1024 )) MB)"
+else
+    echo "⚠ Warning: No class-data-sharing archive was written; bin/standup will run the jar without it"
+fi
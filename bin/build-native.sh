@@ -0,0 +1,100 @@
+#!/bin/bash
+# build-native.sh - Build a GraalVM native executable of the standup pipeline
+#
+# Compiles the fat jar from bin/build-fast-start.sh ahead of time into one
+# self-contained binary. Main, CollectActivity, LocalChangesDetector,
+# AnalyzeDiffs and ConfigManager all run in-process inside it, so it takes the
+# same options as Main.java without a JVM, jbang or Gson on the machine.
+#
+#   build/standup-native   native executable (bin/standup prefers it when fresh)
+#
+# Gson reads and writes the config, diff-cache and local-changes classes by
+# reflection; those are registered in native-image/reflect-config.json. With
+# NATIVE_AGENT=1 a training run under the native-image tracing agent merges
+# whatever else it sees into that directory first (review the diff before
+# committing it).
+#
+# Like the jar, --subprocess (or inProcess=false) still spawns one jbang JVM
+# per stage, so keep jbang installed for that mode.
+#
+# Usage: bin/build-native.sh [training args for Main...]
+#   Default training run: --no-claude --days 1 in a scratch HOME, or --help when
+#   gh is not authenticated (the same run as bin/build-fast-start.sh)
+#
+# Environment:
+#   NATIVE_IMAGE        native-image command (default: native-image on PATH, then $GRAALVM_HOME/bin)
+#   NATIVE_AGENT=1      refresh native-image/ with the tracing agent before building
+#   NATIVE_IMAGE_OPTS   extra native-image options (e.g. -march=native or -Ob)
+
+set -e
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+BUILD_DIR="$ROOT/build"
+JAR="$BUILD_DIR/standup.jar"
+BINARY="$BUILD_DIR/standup-native"
+CONFIG_DIR="$ROOT/native-image"
+TRAINING_HOME="$(mktemp -d)"
+trap 'rm -rf "$TRAINING_HOME"' EXIT
+
+# 1. Locate native-image (GraalVM 22.3+ / Oracle GraalVM for JDK 17+)
+if [ -z "$NATIVE_IMAGE" ]; then
+    if command -v native-image >/dev/null 2>&1; then
+        NATIVE_IMAGE="native-image"
+    elif [ -n "$GRAALVM_HOME" ] && [ -x "$GRAALVM_HOME/bin/native-image" ]; then
+        NATIVE_IMAGE="$GRAALVM_HOME/bin/native-image"
+    else
+        echo "❌ Error: native-image not found (install GraalVM and set GRAALVM_HOME, or put native-image on PATH)"
+        exit 1
+    fi
+fi
+
+# 2. (Re)build the fat jar when it is missing or older than any script
+if [ ! -f "$JAR" ] || [ -n "$(find "$ROOT/scripts" -name '*.java' -newer "$JAR" -print -quit)" ]; then
+    "$ROOT/bin/build-fast-start.sh" "$@"
+fi
+
+TRAINING_ENV=()
+TRAINING_OPTS=()
+if [ $# -gt 0 ]; then
+    TRAINING_ARGS=("$@")
+elif command -v gh >/dev/null 2>&1 && gh auth status >/dev/null 2>&1; then
+    TRAINING_ARGS=(--no-claude --days 1)
+    # The JVM takes user.home from the password database, not HOME, so set both
+    TRAINING_ENV=(HOME="$TRAINING_HOME" GH_CONFIG_DIR="${GH_CONFIG_DIR:-$HOME/.config/gh}")
+    TRAINING_OPTS=(-Duser.home="$TRAINING_HOME")
+else
+    TRAINING_ARGS=(--help)
+fi
+
+# 3. Optional: record reflection use from a real run
+if [ "$NATIVE_AGENT" = "1" ]; then
+    echo "Tracing agent run: Main ${TRAINING_ARGS[*]}"
+    (cd "$ROOT" && env "${TRAINING_ENV[@]}" java "${TRAINING_OPTS[@]}" \
+        -agentlib:native-image-agent=config-merge-dir="$CONFIG_DIR" \
+        -jar "$JAR" "${TRAINING_ARGS[@]}" >/dev/null 2>&1 </dev/null) || true
+fi
+
+# 4. Compile
+echo "Building native image (this takes a few minutes)..."
+rm -f "$BINARY"
+# shellcheck disable=SC2086
+"$NATIVE_IMAGE" \
+    --no-fallback \
+    -H:ConfigurationFileDirectories="$CONFIG_DIR" \
+    -H:+ReportExceptionStackTraces \
+    $NATIVE_IMAGE_OPTS \
+    -jar "$JAR" \
+    -o "$BINARY"
+
+if [ ! -x "$BINARY" ]; then
+    echo "❌ Error: native-image did not produce $BINARY"
+    exit 1
+fi
+echo "✓ Built $BINARY ($(( $(wc -c < "$BINARY") / 1024 / 1024 )) MB)"
+
+# 5. Smoke test: the binary must at least parse its options
+if ! "$BINARY" --help >/dev/null 2>&1; then
+    echo "⚠ Warning: $BINARY --help failed; bin/standup will keep using the jar"
+    rm -f "$BINARY"
+    exit 1
+fi
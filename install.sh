@@ -170,6 +170,33 @@ if ! chmod +x "$INSTALL_DIR/scripts"/*.java 2>/dev/null; then
     echo "   You may need to run: chmod +x ~/.claude-gh-standup/scripts/*.java"
 fi
 
+if ! chmod +x "$INSTALL_DIR/bin"/* 2>/dev/null; then
+    echo "⚠ Warning: Could not make launchers executable"
+    echo "   You may need to run: chmod +x ~/.claude-gh-standup/bin/*"
+fi
+
+# 5b. Build the warm-start image (fat jar + class-data-sharing archive)
+echo ""
+echo "Building fast-start image (one-time, speeds up every run)..."
+if "$INSTALL_DIR/bin/build-fast-start.sh"; then
+    echo "✓ Fast-start image built"
+else
+    echo "⚠ Warning: Fast-start image build failed; bin/standup will use jbang"
+    echo "   Retry later with: ~/.claude-gh-standup/bin/build-fast-start.sh"
+fi
+
+# 5c. Native executable, only when GraalVM's native-image is available
+if command -v native-image >/dev/null 2>&1 || [ -x "${GRAALVM_HOME:-/nonexistent}/bin/native-image" ]; then
+    echo ""
+    echo "GraalVM detected - building native executable (takes a few minutes)..."
+    if "$INSTALL_DIR/bin/build-native.sh"; then
+        echo "✓ Native executable built"
+    else
+        echo "⚠ Warning: Native build failed; bin/standup will use the fast-start jar"
+        echo "   Retry later with: ~/.claude-gh-standup/bin/build-native.sh"
+    fi
+fi
+
 # 6. Offer to install shell aliases
 echo ""
 echo "═══════════════════════════════════════════════"
@@ -232,9 +259,9 @@ if [[ $REPLY =~ ^[Yy]$ ]]; then
         echo ""
         cat <<'EOF'
 # === claude-gh-standup aliases ===
-alias standup-yesterday='jbang ~/.claude-gh-standup/scripts/Main.java --yesterday'
-alias standup-week='jbang ~/.claude-gh-standup/scripts/Main.java --last-week'
-alias standup='jbang ~/.claude-gh-standup/scripts/Main.java'
+alias standup-yesterday='~/.claude-gh-standup/bin/standup --yesterday'
+alias standup-week='~/.claude-gh-standup/bin/standup --last-week'
+alias standup='~/.claude-gh-standup/bin/standup'
 EOF
         echo ""
         echo "Common shell config files:"
@@ -253,18 +280,18 @@ EOF
                 cat >> "$SHELL_RC" <<'EOF'
 
 # === claude-gh-standup aliases ===
-alias standup-yesterday 'jbang ~/.claude-gh-standup/scripts/Main.java --yesterday'
-alias standup-week 'jbang ~/.claude-gh-standup/scripts/Main.java --last-week'
-alias standup 'jbang ~/.claude-gh-standup/scripts/Main.java'
+alias standup-yesterday '~/.claude-gh-standup/bin/standup --yesterday'
+alias standup-week '~/.claude-gh-standup/bin/standup --last-week'
+alias standup '~/.claude-gh-standup/bin/standup'
 EOF
             else
                 # Bash/Zsh/Ksh syntax
                 cat >> "$SHELL_RC" <<'EOF'
 
 # === claude-gh-standup aliases ===
-alias standup-yesterday='jbang ~/.claude-gh-standup/scripts/Main.java --yesterday'
-alias standup-week='jbang ~/.claude-gh-standup/scripts/Main.java --last-week'
-alias standup='jbang ~/.claude-gh-standup/scripts/Main.java'
+alias standup-yesterday='~/.claude-gh-standup/bin/standup --yesterday'
+alias standup-week='~/.claude-gh-standup/bin/standup --last-week'
+alias standup='~/.claude-gh-standup/bin/standup'
 EOF
             fi
             echo "✓ Aliases added to $SHELL_RC"
@@ -311,7 +338,8 @@ echo "   standup-yesterday"
 echo "   standup-week"
 echo "   standup --days 3"
 echo ""
-echo "3. Direct jbang call:"
+echo "3. Fast-start launcher or direct jbang call:"
+echo "   ~/.claude-gh-standup/bin/standup --yesterday"
 echo "   jbang ~/.claude-gh-standup/scripts/Main.java --yesterday"
 echo ""
 echo "Next steps:"
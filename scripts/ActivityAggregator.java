@@ -1,23 +1,55 @@
 ///usr/bin/env jbang "$0" "$@" ; exit $?
 
 //DEPS com.google.code.gson:gson:2.10.1
+//SOURCES CollectActivity.java
+//SOURCES LocalChangesDetector.java
+//SOURCES LocalChangesDaemon.java
+//SOURCES StageIO.java
 
 import com.google.gson.*;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.stream.Collectors;
 
 /**
  * ActivityAggregator - Orchestrate multi-directory data collection
  *
- * Usage: jbang ActivityAggregator.java <config-json> <user> <days> [--debug]
+ * Usage: jbang ActivityAggregator.java <config-json|-|@file> <user> <days> [--debug] [--subprocess] [--multi-pass] [--no-daemon]
+ *                                     [--local-parallelism N] [--local-timeout S]
+ *                                     [--sequential] [--full] [--search-parallelism N] [--no-rate-limit]
+ *
+ * By default CollectActivity and LocalChangesDetector run in-process (same JVM).
+ * --subprocess restores the legacy behaviour of one jbang JVM per stage.
+ * Local changes are taken from a running LocalChangesDaemon when there is one;
+ * --no-daemon always detects them directly.
+ *
+ * Directories are scanned concurrently (virtual threads on Java 21+, otherwise
+ * a pool sized from the core count; --local-parallelism N fixes the pool size).
+ * Directories still running after --local-timeout seconds are cancelled and
+ * their git processes killed. metadata.localChangesLatencyMs records each
+ * directory's time (null when it timed out).
+ *
+ * Local-change and GitHub collection run concurrently; metadata.stageTimingsMs
+ * records each stage and the overall wall time.
+ *
+ * --sequential, --full, --search-parallelism and --no-rate-limit configure the
+ * GitHub collection as they do for CollectActivity, and are passed on to it in
+ * --subprocess mode.
  */
 public class ActivityAggregator {
 
     private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
-    private static boolean DEBUG = false;
+    static boolean DEBUG = false;
+    static boolean IN_PROCESS = true;
+    static boolean USE_DAEMON = true;
+    static int LOCAL_PARALLELISM = 0;       // 0 = adaptive (virtual threads, or sized from cores)
+    static int LOCAL_TIMEOUT_SECONDS = 30;
+
+    // Local-change tasks spend nearly all their time waiting on git subprocesses
+    private static final int IO_BLOCKING_FACTOR = 4;
 
     private static void debug(String message) {
         if (DEBUG) {
@@ -43,9 +75,28 @@ public class ActivityAggregator {
     public static void main(String... args) {
         // Parse --debug flag from any position
         List<String> positionalArgs = new ArrayList<>();
-        for (String arg : args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
             if (arg.equals("--debug") || arg.equals("-D")) {
                 DEBUG = true;
+            } else if (arg.equals("--local-parallelism") && i + 1 < args.length) {
+                LOCAL_PARALLELISM = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--local-timeout") && i + 1 < args.length) {
+                LOCAL_TIMEOUT_SECONDS = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--subprocess")) {
+                IN_PROCESS = false;
+            } else if (arg.equals("--multi-pass")) {
+                LocalChangesDetector.SINGLE_PASS = false;
+            } else if (arg.equals("--no-daemon")) {
+                USE_DAEMON = false;
+            } else if (arg.equals("--sequential")) {
+                CollectActivity.CONCURRENT = false;
+            } else if (arg.equals("--full")) {
+                CollectActivity.INCREMENTAL = false;
+            } else if (arg.equals("--search-parallelism") && i + 1 < args.length) {
+                CollectActivity.SEARCH_PARALLELISM = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--no-rate-limit")) {
+                CollectActivity.RATE_LIMITING = false;
             } else {
                 positionalArgs.add(arg);
             }
@@ -55,45 +106,18 @@ public class ActivityAggregator {
         debug("Positional args count: " + positionalArgs.size());
 
         if (positionalArgs.size() < 3) {
-            System.err.println("Usage: ActivityAggregator <config-json> <user> <days> [--debug]");
+            System.err.println("Usage: ActivityAggregator <config-json|-|@file> <user> <days> [--debug] [--subprocess] [--multi-pass] [--no-daemon] [--local-parallelism N] [--local-timeout S] [--sequential] [--full] [--search-parallelism N] [--no-rate-limit]");
             System.exit(1);
         }
 
-        String configJson = positionalArgs.get(0);
         String user = positionalArgs.get(1);
         int days = Integer.parseInt(positionalArgs.get(2));
 
         debug("user=" + user + ", days=" + days);
-        debug("Config JSON length: " + configJson.length() + " chars");
 
         try {
-            // Parse config
-            JsonObject config = gson.fromJson(configJson, JsonObject.class);
-            JsonArray dirsArray = config.getAsJsonArray("directories");
-
-            List<Directory> directories = new ArrayList<>();
-            for (JsonElement elem : dirsArray) {
-                Directory dir = gson.fromJson(elem, Directory.class);
-                directories.add(dir);
-            }
-
-            debug("Loaded " + directories.size() + " directories from config");
-
-            // Filter enabled directories
-            List<Directory> enabledDirs = directories.stream()
-                .filter(d -> d.enabled)
-                .filter(d -> {
-                    String expandedPath = expandTilde(d.path);
-                    if (!Files.exists(Paths.get(expandedPath))) {
-                        debug("Directory not found: " + d.path);
-                        System.err.println("⚠️  Directory not found: " + d.path + " (skipping)");
-                        return false;
-                    }
-                    return true;
-                })
-                .collect(Collectors.toList());
-
-            debug("Filtered to " + enabledDirs.size() + " enabled directories");
+            JsonObject config = StageIO.readJson(positionalArgs.get(0)).getAsJsonObject();
+            List<Directory> enabledDirs = loadEnabledDirectories(config);
 
             if (enabledDirs.isEmpty()) {
                 System.err.println("❌ No valid directories to process");
@@ -104,7 +128,7 @@ public class ActivityAggregator {
             AggregatedActivity aggregated = aggregateActivities(enabledDirs, user, days);
 
             // Output JSON
-            String outputJson = gson.toJson(aggregated);
+            String outputJson = StageIO.COMPACT.toJson(aggregated);
             debug("Output JSON length: " + outputJson.length() + " chars");
             System.out.println(outputJson);
 
@@ -115,6 +139,48 @@ public class ActivityAggregator {
         }
     }
 
+    /**
+     * In-process entry point used by Main (no JSON round trip through argv/stdout).
+     *
+     * @throws IllegalStateException if no enabled directory exists on disk
+     */
+    public static AggregatedActivity aggregate(JsonObject config, String user, int days) throws Exception {
+        List<Directory> enabledDirs = loadEnabledDirectories(config);
+        if (enabledDirs.isEmpty()) {
+            throw new IllegalStateException("No valid directories to process");
+        }
+        return aggregateActivities(enabledDirs, user, days);
+    }
+
+    private static List<Directory> loadEnabledDirectories(JsonObject config) {
+        JsonArray dirsArray = config.getAsJsonArray("directories");
+
+        List<Directory> directories = new ArrayList<>();
+        for (JsonElement elem : dirsArray) {
+            Directory dir = gson.fromJson(elem, Directory.class);
+            directories.add(dir);
+        }
+
+        debug("Loaded " + directories.size() + " directories from config");
+
+        // Filter enabled directories
+        List<Directory> enabledDirs = directories.stream()
+            .filter(d -> d.enabled)
+            .filter(d -> {
+                String expandedPath = expandTilde(d.path);
+                if (!Files.exists(Paths.get(expandedPath))) {
+                    debug("Directory not found: " + d.path);
+                    System.err.println("⚠️  Directory not found: " + d.path + " (skipping)");
+                    return false;
+                }
+                return true;
+            })
+            .collect(Collectors.toList());
+
+        debug("Filtered to " + enabledDirs.size() + " enabled directories");
+        return enabledDirs;
+    }
+
     private static String expandTilde(String path) {
         if (path.startsWith("~/")) {
             return System.getProperty("user.home") + path.substring(1);
@@ -132,27 +198,48 @@ public class ActivityAggregator {
         debug("Grouped into " + repoMap.size() + " unique repositories");
         System.err.println("Processing " + directories.size() + " directories across " + repoMap.size() + " repositories...");
 
-        // Collect local changes in parallel
-        debug("Starting local changes collection");
-        long startLocal = System.currentTimeMillis();
-        JsonArray localChanges = collectLocalChangesParallel(directories);
-        long localElapsed = System.currentTimeMillis() - startLocal;
-        debug("Local changes collected in " + localElapsed + "ms");
-        aggregated.localChanges = localChanges;
-
-        // Collect GitHub activity from ALL user repositories (not filtered by config)
-        debug("Starting GitHub activity collection");
-        long startGithub = System.currentTimeMillis();
-        JsonObject githubActivity = collectGitHubActivityAllRepos(user, days);
-        long githubElapsed = System.currentTimeMillis() - startGithub;
-        debug("GitHub activity collected in " + githubElapsed + "ms");
-        aggregated.githubActivity = githubActivity;
+        // Local changes (disk-bound) and GitHub activity (network-bound) are independent:
+        // run both stages at once and join them, so wall time is max(local, github)
+        long pipelineStart = System.currentTimeMillis();
+        JsonObject localLatencies = new JsonObject();
+        ExecutorService stages = Executors.newFixedThreadPool(2);
+        Timed<JsonArray> local;
+        Timed<JsonObject> github;
+        try {
+            debug("Starting local changes and GitHub activity collection");
+            CompletableFuture<Timed<JsonArray>> localStage = CompletableFuture.supplyAsync(
+                () -> timed(() -> collectLocalChangesParallel(directories, localLatencies)), stages);
+            // Collect GitHub activity from ALL user repositories (not filtered by config)
+            CompletableFuture<Timed<JsonObject>> githubStage = CompletableFuture.supplyAsync(
+                () -> timed(() -> collectGitHubActivityAllRepos(user, days)), stages);
+            CompletableFuture.allOf(localStage, githubStage).join();
+            local = localStage.join();
+            github = githubStage.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            stages.shutdownNow();
+        }
+        long pipelineElapsed = System.currentTimeMillis() - pipelineStart;
+        debug("Local changes collected in " + local.millis() + "ms, GitHub activity in " + github.millis() +
+              "ms, " + pipelineElapsed + "ms overall");
+        aggregated.localChanges = local.value();
+        aggregated.githubActivity = github.value();
 
         // Add metadata
         aggregated.metadata.addProperty("user", user);
         aggregated.metadata.addProperty("days", days);
         aggregated.metadata.addProperty("directoryCount", directories.size());
         aggregated.metadata.addProperty("repoCount", repoMap.size());
+        aggregated.metadata.add("localChangesLatencyMs", localLatencies);
+        JsonObject stageTimings = new JsonObject();
+        stageTimings.addProperty("localChanges", local.millis());
+        stageTimings.addProperty("githubActivity", github.millis());
+        stageTimings.addProperty("total", pipelineElapsed);
+        aggregated.metadata.add("stageTimingsMs", stageTimings);
 
         // Add configured repos to metadata (shows which repos have local tracking)
         JsonArray configuredRepos = new JsonArray();
@@ -165,52 +252,142 @@ public class ActivityAggregator {
         return aggregated;
     }
 
-    private static JsonArray collectLocalChangesParallel(List<Directory> directories) throws Exception {
-        int threadCount = Math.min(directories.size(), 4);
-        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
-        List<Future<JsonObject>> futures = new ArrayList<>();
+    private record Timed<T>(T value, long millis) {
+    }
+
+    private interface Stage<T> {
+        T run() throws Exception;
+    }
 
-        debug("Creating thread pool with " + threadCount + " threads");
-        System.err.println("Collecting local changes (parallel with " + threadCount + " threads)...");
+    private static <T> Timed<T> timed(Stage<T> stage) {
+        long start = System.currentTimeMillis();
+        try {
+            return new Timed<>(stage.run(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
 
-        for (Directory dir : directories) {
+    private static JsonArray collectLocalChangesParallel(List<Directory> directories, JsonObject latencies) throws Exception {
+        int count = directories.size();
+        ExecutorService executor = newLocalChangesExecutor(count);
+        CompletionService<Integer> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Integer>> futures = new ArrayList<>();
+        JsonObject[] results = new JsonObject[count];
+        long[] elapsedMillis = new long[count];
+        AtomicReferenceArray<Thread> workers = new AtomicReferenceArray<>(count);
+        boolean[] completed = new boolean[count];
+
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            Directory dir = directories.get(i);
             debug("Submitting LocalChangesDetector task for: " + dir.id);
-            Future<JsonObject> future = executor.submit(() -> {
+            futures.add(completion.submit(() -> {
+                workers.set(index, Thread.currentThread());
+                long start = System.nanoTime();
                 try {
-                    return callLocalChangesDetector(dir);
+                    results[index] = callLocalChangesDetector(dir);
                 } catch (Exception e) {
                     debug("Failed to collect local changes for " + dir.id + ": " + e.getMessage());
                     System.err.println("⚠️  Failed to collect local changes for " + dir.id + ": " + e.getMessage());
-                    // Return empty result on error
-                    JsonObject empty = new JsonObject();
-                    empty.addProperty("directoryId", dir.id);
-                    empty.addProperty("path", dir.path);
-                    empty.addProperty("branch", dir.branch);
-                    empty.add("uncommitted", new JsonObject());
-                    empty.add("unpushed", new JsonObject());
-                    return empty;
+                    results[index] = emptyLocalChanges(dir);
+                } finally {
+                    elapsedMillis[index] = (System.nanoTime() - start) / 1_000_000;
                 }
-            });
-            futures.add(future);
+                return index;
+            }));
         }
 
-        JsonArray localChanges = new JsonArray();
-        for (Future<JsonObject> future : futures) {
-            try {
-                JsonObject result = future.get(30, TimeUnit.SECONDS);
-                localChanges.add(result);
-            } catch (TimeoutException e) {
-                debug("LocalChangesDetector task timed out");
-                System.err.println("⚠️  Local changes detection timed out (skipping)");
+        // Take results as they complete; every directory shares one deadline
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(LOCAL_TIMEOUT_SECONDS);
+        try {
+            for (int done = 0; done < count; done++) {
+                Future<Integer> future = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (future == null) {
+                    break;
+                }
+                int index = future.get();
+                completed[index] = true;
+                latencies.addProperty(directories.get(index).id, elapsedMillis[index]);
+                debug("Local changes for " + directories.get(index).id + " in " + elapsedMillis[index] + "ms");
             }
+        } finally {
+            // Cancel stragglers and kill the git processes they started
+            for (int i = 0; i < count; i++) {
+                if (!completed[i]) {
+                    futures.get(i).cancel(true);
+                    Thread worker = workers.get(i);
+                    if (worker != null) {
+                        LocalChangesDetector.destroyProcesses(worker);
+                    }
+                    debug("LocalChangesDetector task for " + directories.get(i).id + " timed out");
+                    System.err.println("⚠️  Local changes detection for " + directories.get(i).id +
+                        " timed out after " + LOCAL_TIMEOUT_SECONDS + "s (skipping)");
+                    latencies.add(directories.get(i).id, JsonNull.INSTANCE);
+                }
+            }
+            executor.shutdownNow();
         }
 
-        executor.shutdown();
+        // Report in config order regardless of completion order
+        JsonArray localChanges = new JsonArray();
+        for (int i = 0; i < count; i++) {
+            if (completed[i]) {
+                localChanges.add(results[i]);
+            }
+        }
         debug("Collected local changes from " + localChanges.size() + " directories");
         return localChanges;
     }
 
+    /**
+     * Virtual threads when the runtime has them (Java 21+), otherwise a pool
+     * sized for tasks that mostly wait on git subprocesses.
+     */
+    private static ExecutorService newLocalChangesExecutor(int taskCount) {
+        if (LOCAL_PARALLELISM <= 0) {
+            try {
+                ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                System.err.println("Collecting local changes (virtual threads)...");
+                return executor;
+            } catch (ReflectiveOperationException e) {
+                debug("Virtual threads not available, using a platform thread pool");
+            }
+        }
+        int threads = LOCAL_PARALLELISM > 0
+            ? LOCAL_PARALLELISM
+            : Runtime.getRuntime().availableProcessors() * IO_BLOCKING_FACTOR;
+        threads = Math.max(1, Math.min(taskCount, threads));
+        System.err.println("Collecting local changes (parallel with " + threads + " threads)...");
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    private static JsonObject emptyLocalChanges(Directory dir) {
+        JsonObject empty = new JsonObject();
+        empty.addProperty("directoryId", dir.id);
+        empty.addProperty("path", dir.path);
+        empty.addProperty("branch", dir.branch);
+        empty.add("uncommitted", new JsonObject());
+        empty.add("unpushed", new JsonObject());
+        return empty;
+    }
+
     private static JsonObject callLocalChangesDetector(Directory dir) throws Exception {
+        if (USE_DAEMON) {
+            JsonObject cached = LocalChangesDaemon.query(dir.id, expandTilde(dir.path), dir.branch);
+            if (cached != null) {
+                debug("Local changes for " + dir.id + " answered by LocalChangesDaemon");
+                return cached;
+            }
+        }
+        if (IN_PROCESS) {
+            debug("Detecting local changes in-process for " + dir.id + ": " + dir.path);
+            LocalChangesDetector.LocalChanges changes =
+                LocalChangesDetector.detectChanges(dir.id, expandTilde(dir.path), dir.branch);
+            return gson.toJsonTree(changes).getAsJsonObject();
+        }
+
         String installDir = System.getProperty("user.home") + "/.claude-gh-standup";
         String scriptPath = installDir + "/scripts/LocalChangesDetector.java";
 
@@ -223,11 +400,14 @@ public class ActivityAggregator {
         if (DEBUG) {
             command.add("--debug");
         }
+        if (!LocalChangesDetector.SINGLE_PASS) {
+            command.add("--multi-pass");
+        }
 
         debug("Calling LocalChangesDetector for " + dir.id + ": " + dir.path);
         ProcessBuilder pb = new ProcessBuilder(command);
 
-        Process process = pb.start();
+        Process process = LocalChangesDetector.start(pb);
         StringBuilder output = new StringBuilder();
 
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
@@ -285,6 +465,11 @@ public class ActivityAggregator {
     }
 
     private static JsonObject callCollectActivity(String user, int days, String repo) throws Exception {
+        if (IN_PROCESS) {
+            debug("Collecting activity in-process: user=" + user + ", days=" + days + ", repo=" + repo);
+            return CollectActivity.collectAllActivity(user, days, repo);
+        }
+
         String installDir = System.getProperty("user.home") + "/.claude-gh-standup";
         String scriptPath = installDir + "/scripts/CollectActivity.java";
 
@@ -299,6 +484,18 @@ public class ActivityAggregator {
         if (DEBUG) {
             command.add("--debug");
         }
+        // Same collection settings as the in-process path
+        if (!CollectActivity.CONCURRENT) {
+            command.add("--sequential");
+        }
+        if (!CollectActivity.INCREMENTAL) {
+            command.add("--full");
+        }
+        command.add("--search-parallelism");
+        command.add(String.valueOf(CollectActivity.SEARCH_PARALLELISM));
+        if (!CollectActivity.RATE_LIMITING) {
+            command.add("--no-rate-limit");
+        }
 
         debug("Calling CollectActivity: user=" + user + ", days=" + days + ", repo=" + repo);
         ProcessBuilder pb = new ProcessBuilder(command);
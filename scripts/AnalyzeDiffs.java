@@ -1,6 +1,8 @@
 ///usr/bin/env jbang "$0" "$@" ; exit $?
 
 //DEPS com.google.code.gson:gson:2.10.1
+//SOURCES StageIO.java
+//SOURCES infrastructure/github/GhRequestScheduler.java
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -11,21 +13,65 @@ import com.google.gson.JsonParser;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * AnalyzeDiffs - Analyzes file diffs for PRs and commits
  *
- * Usage: jbang AnalyzeDiffs.java <activity-json> [--debug]
+ * Usage: jbang AnalyzeDiffs.java <activity-json|-|@file> [--debug] [--parallelism N] [--pr-timeout SECONDS] [--no-cache]
+ *
+ * PR diffs are fetched and parsed on a pool of up to --parallelism workers
+ * (default 4; 1 runs them one after another) and merged in PR order. A
+ * `gh pr diff` that runs longer than --pr-timeout (default 60s) is killed
+ * and the PR is skipped with a warning.
+ *
+ * Parsed results are cached in ~/.claude-gh-standup/cache/diffs keyed by
+ * (repo, PR number, head commit SHA), so a PR is only diffed again after new
+ * commits are pushed. Head SHAs for all PRs come from one `gh api graphql`
+ * call. The cache is size-bounded and evicts least recently used entries.
+ *
+ * Every gh call takes a core token from the shared GhRequestScheduler, so
+ * diffs run alongside searches stay under GitHub's rate limits and
+ * rate-limited calls are retried.
  */
 public class AnalyzeDiffs {
 
     private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
-    private static boolean DEBUG = false;
+    static boolean DEBUG = false;
+    static int PARALLELISM = 4;
+    static int PR_TIMEOUT_SECONDS = 60;
+    static boolean CACHE_ENABLED = true;
+    static Path CACHE_DIR = Paths.get(System.getProperty("user.home"), ".claude-gh-standup", "cache", "diffs");
+    static long CACHE_MAX_BYTES = 50L * 1024 * 1024;
+    static GhRequestScheduler SCHEDULER = GhRequestScheduler.shared();
 
     private static void debug(String message) {
         if (DEBUG) {
@@ -60,6 +106,38 @@ public class AnalyzeDiffs {
     }
 
     public static String analyzePRDiff(String repo, int prNumber) throws IOException, InterruptedException {
+        String diff = runPRDiff(repo, prNumber, reader -> {
+            StringBuilder output = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.append(line).append("\n");
+            }
+            return output.toString();
+        });
+        if (diff != null) {
+            debug("PR #" + prNumber + " diff received, length: " + diff.length() + " chars");
+        }
+        return diff;
+    }
+
+    /**
+     * Fetch a PR diff and parse it while it streams from gh, without holding the diff in memory.
+     * Returns null if the diff is unavailable.
+     */
+    public static DiffSummary streamPRDiff(String repo, int prNumber) throws IOException, InterruptedException {
+        return runPRDiff(repo, prNumber, AnalyzeDiffs::parseDiff);
+    }
+
+    @FunctionalInterface
+    private interface DiffReader<T> {
+        T read(BufferedReader reader) throws IOException;
+    }
+
+    private static <T> T runPRDiff(String repo, int prNumber, DiffReader<T> diffReader) throws IOException, InterruptedException {
+        return scheduled(() -> runPRDiffOnce(repo, prNumber, diffReader));
+    }
+
+    private static <T> T runPRDiffOnce(String repo, int prNumber, DiffReader<T> diffReader) throws IOException, InterruptedException {
         List<String> command = new ArrayList<>();
         command.add("gh");
         command.add("pr");
@@ -71,47 +149,100 @@ public class AnalyzeDiffs {
         debug("Executing: " + String.join(" ", command));
         ProcessBuilder pb = new ProcessBuilder(command);
         Process process = pb.start();
-
-        StringBuilder output = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
+        CompletableFuture<String> stderr = drain(process);
+
+        // Kill gh if it runs past the timeout; the reader then sees EOF
+        AtomicBoolean timedOut = new AtomicBoolean(false);
+        CompletableFuture.delayedExecutor(PR_TIMEOUT_SECONDS, TimeUnit.SECONDS).execute(() -> {
+            if (process.isAlive()) {
+                timedOut.set(true);
+                process.destroyForcibly();
             }
+        });
+
+        T result;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            result = diffReader.read(reader);
         }
 
         int exitCode = process.waitFor();
+        if (timedOut.get()) {
+            System.err.println("Warning: Diff for PR #" + prNumber + " timed out after " + PR_TIMEOUT_SECONDS + "s");
+            return null;
+        }
         if (exitCode != 0) {
-            debug("PR diff request failed with exit code: " + exitCode);
+            String errors = stderr.join().trim();
+            if (GhRequestScheduler.isRateLimited(errors)) {
+                throw new GhRequestScheduler.RateLimitedException(errors);
+            }
+            debug("PR diff request failed with exit code: " + exitCode + " " + errors);
             return null; // PR diff unavailable
         }
+        return result;
+    }
+
+    /**
+     * Run a gh call under the shared scheduler's core quota.
+     */
+    private static <T> T scheduled(GhRequestScheduler.Request<T> request) throws IOException, InterruptedException {
+        try {
+            return SCHEDULER.execute(GhRequestScheduler.Resource.CORE, request);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
 
-        debug("PR #" + prNumber + " diff received, length: " + output.length() + " chars");
-        return output.toString();
+    /**
+     * Read a process's stderr in the background so it can never fill up and block gh.
+     */
+    private static CompletableFuture<String> drain(Process process) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (InputStream err = process.getErrorStream()) {
+                return new String(err.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                return "";
+            }
+        });
     }
 
     public static DiffSummary parseDiff(String diffContent) {
-        DiffSummary summary = new DiffSummary();
         if (diffContent == null || diffContent.isEmpty()) {
-            return summary;
+            return new DiffSummary();
         }
+        try {
+            return parseDiff(new BufferedReader(new StringReader(diffContent)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // StringReader does not fail
+        }
+    }
 
+    /**
+     * Parse a unified diff line by line. Only the current line and the per-file
+     * counters are held, so memory does not grow with the size of the diff.
+     */
+    public static DiffSummary parseDiff(BufferedReader reader) throws IOException {
+        DiffSummary summary = new DiffSummary();
         Map<String, FileStat> fileStats = new HashMap<>();
-        String currentFile = null;
+        FileStat current = null;
 
-        for (String line : diffContent.split("\n")) {
+        String line;
+        while ((line = reader.readLine()) != null) {
             if (line.startsWith("diff --git")) {
                 // Extract file path: diff --git a/path/to/file.java b/path/to/file.java
                 String[] parts = line.split(" ");
                 if (parts.length >= 4) {
-                    currentFile = parts[3].substring(2); // Remove "b/" prefix
-                    fileStats.put(currentFile, new FileStat(currentFile));
+                    String file = parts[3].substring(2); // Remove "b/" prefix
+                    current = new FileStat(file);
+                    fileStats.put(file, current);
                 }
-            } else if (currentFile != null) {
-                if (line.startsWith("+") && !line.startsWith("+++")) {
-                    fileStats.get(currentFile).additions++;
-                } else if (line.startsWith("-") && !line.startsWith("---")) {
-                    fileStats.get(currentFile).deletions++;
+            } else if (current != null && !line.isEmpty()) {
+                char first = line.charAt(0);
+                if (first == '+' && !line.startsWith("+++")) {
+                    current.additions++;
+                } else if (first == '-' && !line.startsWith("---")) {
+                    current.deletions++;
                 }
             }
         }
@@ -131,34 +262,292 @@ public class AnalyzeDiffs {
         DiffSummary totalSummary = new DiffSummary();
         debug("Analyzing diffs for " + prs.size() + " PRs");
 
+        List<JsonObject> prObjects = new ArrayList<>();
         for (JsonElement prElement : prs) {
-            JsonObject pr = prElement.getAsJsonObject();
-            int prNumber = pr.get("number").getAsInt();
+            prObjects.add(prElement.getAsJsonObject());
+        }
 
-            // Extract repository name from repository object
-            JsonObject repoObj = pr.getAsJsonObject("repository");
-            String repoName = repoObj.get("nameWithOwner").getAsString();
+        Map<String, String> headShas = CACHE_ENABLED ? fetchHeadShas(prObjects) : Map.of();
 
-            debug("Analyzing PR #" + prNumber + " in " + repoName);
+        if (PARALLELISM <= 1 || prObjects.size() <= 1) {
+            for (JsonObject pr : prObjects) {
+                addTo(totalSummary, analyzePR(pr, headShas));
+            }
+        } else {
+            int threadCount = Math.min(PARALLELISM, prObjects.size());
+            debug("Analyzing diffs on " + threadCount + " workers");
+            ExecutorService executor = Executors.newFixedThreadPool(threadCount);
             try {
-                String diffContent = analyzePRDiff(repoName, prNumber);
-                if (diffContent != null) {
-                    DiffSummary prSummary = parseDiff(diffContent);
-                    totalSummary.filesChanged += prSummary.filesChanged;
-                    totalSummary.totalAdditions += prSummary.totalAdditions;
-                    totalSummary.totalDeletions += prSummary.totalDeletions;
-                    totalSummary.files.addAll(prSummary.files);
+                List<Future<DiffSummary>> futures = new ArrayList<>();
+                for (JsonObject pr : prObjects) {
+                    futures.add(executor.submit(() -> analyzePR(pr, headShas)));
                 }
-            } catch (Exception e) {
-                debug("Error analyzing PR #" + prNumber + ": " + e.getMessage());
-                System.err.println("Warning: Could not analyze diff for PR #" + prNumber + ": " + e.getMessage());
+
+                // Merge in PR order so the file list does not depend on completion order
+                for (int i = 0; i < futures.size(); i++) {
+                    addTo(totalSummary, awaitPR(futures.get(i), prObjects.get(i)));
+                }
+            } finally {
+                executor.shutdownNow();
             }
         }
 
+        if (CACHE_ENABLED) {
+            evictDiffCache();
+        }
+
         debug("Total diff summary: " + totalSummary.filesChanged + " files, +" + totalSummary.totalAdditions + "/-" + totalSummary.totalDeletions);
         return totalSummary;
     }
 
+    /**
+     * Fetch and parse one PR diff, or reuse the cached result for its head SHA.
+     * Returns null if the diff is unavailable.
+     */
+    static DiffSummary analyzePR(JsonObject pr, Map<String, String> headShas) {
+        int prNumber = pr.get("number").getAsInt();
+
+        // Extract repository name from repository object
+        JsonObject repoObj = pr.getAsJsonObject("repository");
+        String repoName = repoObj.get("nameWithOwner").getAsString();
+        String headSha = headShas.get(repoName + "#" + prNumber);
+
+        if (headSha != null) {
+            DiffSummary cached = readCachedDiff(repoName, prNumber, headSha);
+            if (cached != null) {
+                debug("PR #" + prNumber + " in " + repoName + " unchanged at " + headSha + ", using cached diff");
+                return cached;
+            }
+        }
+
+        debug("Analyzing PR #" + prNumber + " in " + repoName);
+        try {
+            DiffSummary summary = streamPRDiff(repoName, prNumber);
+            cacheDiff(repoName, prNumber, headSha, summary);
+            return summary;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            debug("Error analyzing PR #" + prNumber + ": " + e.getMessage());
+            System.err.println("Warning: Could not analyze diff for PR #" + prNumber + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static DiffSummary awaitPR(Future<DiffSummary> future, JsonObject pr) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            // analyzePR handles its own failures, so only unexpected errors get here
+            System.err.println("Warning: Could not analyze diff for PR #" + pr.get("number") + ": " + e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    // --- Diff cache keyed by head SHA ---
+
+    /**
+     * Look up the head commit SHA of every PR with a single GraphQL call.
+     * Returns "owner/repo#number" -> SHA; empty if the lookup fails (no caching then).
+     */
+    static Map<String, String> fetchHeadShas(List<JsonObject> prs) {
+        Map<String, List<Integer>> numbersByRepo = new LinkedHashMap<>();
+        for (JsonObject pr : prs) {
+            String repoName = pr.getAsJsonObject("repository").get("nameWithOwner").getAsString();
+            // Names are inlined into the query, so only accept plain owner/name pairs
+            if (repoName.matches("[A-Za-z0-9._-]+/[A-Za-z0-9._-]+")) {
+                numbersByRepo.computeIfAbsent(repoName, k -> new ArrayList<>()).add(pr.get("number").getAsInt());
+            }
+        }
+        if (numbersByRepo.isEmpty()) {
+            return Map.of();
+        }
+
+        List<String> repoNames = new ArrayList<>(numbersByRepo.keySet());
+        StringBuilder query = new StringBuilder("query {");
+        for (int i = 0; i < repoNames.size(); i++) {
+            String[] ownerAndName = repoNames.get(i).split("/");
+            query.append(" r").append(i).append(": repository(owner: \"").append(ownerAndName[0])
+                .append("\", name: \"").append(ownerAndName[1]).append("\") {");
+            for (int number : numbersByRepo.get(repoNames.get(i))) {
+                query.append(" p").append(number).append(": pullRequest(number: ").append(number).append(") { headRefOid }");
+            }
+            query.append(" }");
+        }
+        query.append(" }");
+
+        List<String> command = List.of("gh", "api", "graphql", "-f", "query=" + query);
+        debug("Executing: gh api graphql (head SHAs for " + prs.size() + " PRs)");
+        try {
+            JsonObject response = scheduled(() -> queryGraphQL(command));
+            if (response == null) {
+                return Map.of();
+            }
+
+            Map<String, String> heads = new HashMap<>();
+            JsonObject data = response.getAsJsonObject("data");
+            for (int i = 0; i < repoNames.size(); i++) {
+                JsonElement repoEl = data.get("r" + i);
+                if (repoEl == null || !repoEl.isJsonObject()) {
+                    continue;
+                }
+                for (int number : numbersByRepo.get(repoNames.get(i))) {
+                    JsonElement prEl = repoEl.getAsJsonObject().get("p" + number);
+                    if (prEl != null && prEl.isJsonObject() && prEl.getAsJsonObject().has("headRefOid")) {
+                        heads.put(repoNames.get(i) + "#" + number, prEl.getAsJsonObject().get("headRefOid").getAsString());
+                    }
+                }
+            }
+            debug("Resolved head SHAs for " + heads.size() + " of " + prs.size() + " PRs");
+            return heads;
+        } catch (IOException | RuntimeException e) {
+            debug("Head SHA lookup failed: " + e.getMessage());
+            return Map.of();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Map.of();
+        }
+    }
+
+    /**
+     * Run a gh api graphql call; returns the response if it carries data, null otherwise.
+     */
+    private static JsonObject queryGraphQL(List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).start();
+        CompletableFuture<String> stderr = drain(process);
+        JsonElement response;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            response = JsonParser.parseReader(reader);
+        }
+        int exitCode = process.waitFor();
+        // gh exits non-zero on partial GraphQL errors (e.g. a deleted PR); keep what resolved
+        if (!response.isJsonObject() || !response.getAsJsonObject().has("data")
+                || !response.getAsJsonObject().get("data").isJsonObject()) {
+            String errors = stderr.join().trim();
+            if (GhRequestScheduler.isRateLimited(errors)) {
+                throw new GhRequestScheduler.RateLimitedException(errors);
+            }
+            debug("Head SHA lookup failed with exit code: " + exitCode + " " + errors);
+            return null;
+        }
+        return response.getAsJsonObject();
+    }
+
+    static Path cachedDiffFile(String repoName, int prNumber, String headSha) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest((repoName + "#" + prNumber + "@" + headSha).getBytes(StandardCharsets.UTF_8));
+            return CACHE_DIR.resolve(HexFormat.of().formatHex(digest) + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    static DiffSummary readCachedDiff(String repoName, int prNumber, String headSha) {
+        Path file = cachedDiffFile(repoName, prNumber, headSha);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            DiffSummary summary = gson.fromJson(Files.readString(file), DiffSummary.class);
+            // Mark as recently used for LRU eviction
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return summary;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Warning: Ignoring unreadable diff cache entry " + file + " - " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Store a freshly parsed diff under the PR's head SHA.
+     */
+    static void cacheDiff(String repoName, int prNumber, String headSha, DiffSummary summary) {
+        // Never pin an empty result to a head SHA; it may be a transient gh failure
+        if (summary != null && summary.filesChanged > 0 && headSha != null) {
+            writeCachedDiff(repoName, prNumber, headSha, summary);
+        }
+    }
+
+    private static void writeCachedDiff(String repoName, int prNumber, String headSha, DiffSummary summary) {
+        Path file = cachedDiffFile(repoName, prNumber, headSha);
+        Path tempPath = null;
+        try {
+            Files.createDirectories(CACHE_DIR);
+            // Atomic write: write to a temp file unique to this writer, then rename,
+            // so two runs diffing the same PR never clobber each other's partial file
+            tempPath = Files.createTempFile(CACHE_DIR, file.getFileName() + ".", ".tmp");
+            Files.writeString(tempPath, gson.toJson(summary));
+            Files.move(tempPath, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Warning: Could not write diff cache entry " + file + " - " + e.getMessage());
+            if (tempPath != null) {
+                try {
+                    Files.deleteIfExists(tempPath);
+                } catch (IOException ignored) {
+                    // Best effort: a stray temp file is never read back
+                }
+            }
+        }
+    }
+
+    /**
+     * Delete least recently used entries until the cache fits in CACHE_MAX_BYTES.
+     */
+    static void evictDiffCache() {
+        if (!Files.isDirectory(CACHE_DIR)) {
+            return;
+        }
+        List<Path> entries;
+        try (Stream<Path> files = Files.list(CACHE_DIR)) {
+            entries = files.filter(p -> p.getFileName().toString().endsWith(".json")).collect(Collectors.toList());
+        } catch (IOException e) {
+            return;
+        }
+
+        Map<Path, FileTime> lastUsed = new HashMap<>();
+        Map<Path, Long> sizes = new HashMap<>();
+        long total = 0;
+        for (Path entry : entries) {
+            try {
+                lastUsed.put(entry, Files.getLastModifiedTime(entry));
+                sizes.put(entry, Files.size(entry));
+                total += sizes.get(entry);
+            } catch (IOException e) {
+                // Deleted while listing
+            }
+        }
+
+        List<Path> oldestFirst = new ArrayList<>(lastUsed.keySet());
+        oldestFirst.sort(Comparator.comparing(lastUsed::get));
+        for (Path entry : oldestFirst) {
+            if (total <= CACHE_MAX_BYTES) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(entry);
+                total -= sizes.get(entry);
+                debug("Evicted diff cache entry " + entry.getFileName());
+            } catch (IOException e) {
+                System.err.println("Warning: Could not evict diff cache entry " + entry + " - " + e.getMessage());
+            }
+        }
+    }
+
+    private static void addTo(DiffSummary total, DiffSummary prSummary) {
+        if (prSummary == null) {
+            return;
+        }
+        total.filesChanged += prSummary.filesChanged;
+        total.totalAdditions += prSummary.totalAdditions;
+        total.totalDeletions += prSummary.totalDeletions;
+        total.files.addAll(prSummary.files);
+    }
+
     public static String formatDiffSummary(DiffSummary summary) {
         if (summary.filesChanged == 0) {
             return "No file changes analyzed.";
@@ -184,9 +573,22 @@ public class AnalyzeDiffs {
         try {
             // Parse --debug flag from any position
             List<String> positionalArgs = new ArrayList<>();
+            String pendingOption = null;
             for (String arg : args) {
                 if (arg.equals("--debug") || arg.equals("-D")) {
                     DEBUG = true;
+                } else if (arg.equals("--no-cache")) {
+                    CACHE_ENABLED = false;
+                } else if (arg.equals("--parallelism") || arg.equals("--pr-timeout")) {
+                    pendingOption = arg;
+                } else if (pendingOption != null) {
+                    int value = Integer.parseInt(arg);
+                    if (pendingOption.equals("--parallelism")) {
+                        PARALLELISM = value;
+                    } else {
+                        PR_TIMEOUT_SECONDS = value;
+                    }
+                    pendingOption = null;
                 } else {
                     positionalArgs.add(arg);
                 }
@@ -195,13 +597,11 @@ public class AnalyzeDiffs {
             debug("Debug mode enabled");
 
             if (positionalArgs.size() < 1) {
-                System.err.println("Usage: jbang AnalyzeDiffs.java <activity-json> [--debug]");
+                System.err.println("Usage: jbang AnalyzeDiffs.java <activity-json|-|@file> [--debug] [--parallelism N] [--pr-timeout SECONDS] [--no-cache]");
                 System.exit(1);
             }
 
-            String activityJson = positionalArgs.get(0);
-            debug("Activity JSON length: " + activityJson.length() + " chars");
-            JsonObject activity = JsonParser.parseString(activityJson).getAsJsonObject();
+            JsonObject activity = StageIO.readJson(positionalArgs.get(0)).getAsJsonObject();
 
             JsonArray prs = activity.getAsJsonArray("pull_requests");
             debug("Found " + prs.size() + " PRs to analyze");
@@ -1,31 +1,86 @@
 ///usr/bin/env jbang "$0" "$@" ; exit $?
 
 //DEPS com.google.code.gson:gson:2.10.1
+//SOURCES StageIO.java
+//SOURCES domain/shared/DateRange.java
+//SOURCES infrastructure/github/WindowedSearch.java
+//SOURCES infrastructure/github/GhRequestScheduler.java
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.io.File;
 
 /**
  * CollectActivity - Collects GitHub activity using gh CLI
  *
- * Usage: jbang CollectActivity.java <username> <days> [repo] [--debug]
+ * Usage: jbang CollectActivity.java <username> <days> [repo] [--debug] [--sequential] [--full]
+ *                                   [--search-parallelism N] [--no-rate-limit]
+ *
+ * The commit, PR and issue searches run concurrently by default;
+ * --sequential runs them one after another.
+ *
+ * A search that hits GitHub's 1000-result cap is split into smaller date
+ * windows, fetched up to --search-parallelism at a time (default 4), so long
+ * ranges for busy users are not truncated.
+ *
+ * Searches and the state refresh are spaced under GitHub's rate limits and
+ * rate-limited calls are retried with backoff (see GhRequestScheduler); the
+ * requests used are reported as githubQuota in the output. --no-rate-limit
+ * sends them unscheduled.
+ *
+ * Collection is incremental by default: a per-user watermark under
+ * ~/.claude-gh-standup/cache/watermarks remembers the last run and its results,
+ * so a rolling window only searches the days since then. PRs and issues carried
+ * over from that snapshot while still open have their state re-read with one
+ * GraphQL call. --full ignores the watermark.
  */
 public class CollectActivity {
 
     private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
-    private static boolean DEBUG = false;
+    static boolean DEBUG = false;
+    static boolean CONCURRENT = true;
+    static boolean INCREMENTAL = true;
+    static int SEARCH_PARALLELISM = WindowedSearch.DEFAULT_PARALLELISM;
+    static boolean RATE_LIMITING = true;
+    static GhRequestScheduler SCHEDULER = GhRequestScheduler.shared();
+    static Path WATERMARK_DIR = Paths.get(System.getProperty("user.home"), ".claude-gh-standup", "cache", "watermarks");
+    private static final int STATE_REFRESH_TIMEOUT_SECONDS = 30;
 
     private static void debug(String message) {
         if (DEBUG) {
@@ -80,156 +135,288 @@ public class CollectActivity {
     }
 
     public static String getUserCommits(String username, int days) throws IOException, InterruptedException {
-        LocalDate since = LocalDate.now().minusDays(days);
-        String sinceStr = since.format(DateTimeFormatter.ISO_DATE);
-
-        List<String> command = new ArrayList<>();
-        command.add("gh");
-        command.add("search");
-        command.add("commits");
-        command.add("--author=" + username);
-        command.add("--committer-date=>" + sinceStr);
-        command.add("--json");
-        command.add("sha,commit,repository");
-        command.add("--limit");
-        command.add("1000");
+        String result = searchCommits(username, LocalDate.now().minusDays(days));
+        return result != null ? result : "[]";
+    }
 
-        debug("Executing: " + String.join(" ", command));
-        ProcessBuilder pb = new ProcessBuilder(command);
-        Process process = pb.start();
+    public static String getUserPRs(String username, int days, String repo) throws IOException, InterruptedException {
+        String result = searchPRs(username, LocalDate.now().minusDays(days), repo);
+        return result != null ? result : "[]";
+    }
 
-        StringBuilder output = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
-            }
-        }
+    public static String getUserIssues(String username, int days, String repo) throws IOException, InterruptedException {
+        String result = searchIssues(username, LocalDate.now().minusDays(days), repo);
+        return result != null ? result : "[]";
+    }
 
-        int exitCode = process.waitFor();
-        if (exitCode != 0) {
-            debug("Commit search failed with exit code: " + exitCode);
+    /**
+     * Search commits authored after the given date. Returns null if the search failed.
+     */
+    private static String searchCommits(String username, LocalDate since) throws IOException, InterruptedException {
+        String result = searchWindows("commits", since, window -> {
+            List<String> command = new ArrayList<>();
+            command.add("gh");
+            command.add("search");
+            command.add("commits");
+            command.add("--author=" + username);
+            command.add("--committer-date=" + window.searchWindow());
+            command.add("--json");
+            command.add("sha,commit,repository");
+            command.add("--limit");
+            command.add(String.valueOf(WindowedSearch.SEARCH_API_CAP));
+            return command;
+        }, CollectActivity::commitKey);
+
+        if (result == null) {
             System.err.println("Warning: Commit search failed (this is common due to GitHub restrictions)");
-            return "[]";
         }
+        return result;
+    }
+
+    /**
+     * Search PRs created after the given date. Returns null if the search failed.
+     */
+    private static String searchPRs(String username, LocalDate since, String repo) throws IOException, InterruptedException {
+        String result = searchWindows("pull requests", since, window -> {
+            List<String> command = new ArrayList<>();
+            command.add("gh");
+            command.add("search");
+            command.add("prs");
+            command.add("--author=" + username);
+            command.add("--created=" + window.searchWindow());
+            command.add("--json");
+            command.add("number,title,state,repository,url,createdAt");
+            command.add("--limit");
+            command.add(String.valueOf(WindowedSearch.SEARCH_API_CAP));
+
+            if (repo != null && !repo.isEmpty()) {
+                command.add("-R");
+                command.add(repo);
+            }
+            return command;
+        }, CollectActivity::itemKey);
 
-        String result = output.toString().trim();
-        JsonArray commits = JsonParser.parseString(result).getAsJsonArray();
-        debug("Found " + commits.size() + " commits");
+        if (result == null) {
+            System.err.println("Warning: PR search failed");
+        }
         return result;
     }
 
-    public static String getUserPRs(String username, int days, String repo) throws IOException, InterruptedException {
-        LocalDate since = LocalDate.now().minusDays(days);
-        String sinceStr = since.format(DateTimeFormatter.ISO_DATE);
-
-        List<String> command = new ArrayList<>();
-        command.add("gh");
-        command.add("search");
-        command.add("prs");
-        command.add("--author=" + username);
-        command.add("--created=>" + sinceStr);
-        command.add("--json");
-        command.add("number,title,state,repository,url");
-        command.add("--limit");
-        command.add("1000");
+    /**
+     * Search issues created after the given date. Returns null if the search failed.
+     */
+    private static String searchIssues(String username, LocalDate since, String repo) throws IOException, InterruptedException {
+        String result = searchWindows("issues", since, window -> {
+            List<String> command = new ArrayList<>();
+            command.add("gh");
+            command.add("search");
+            command.add("issues");
+            command.add("--author=" + username);
+            command.add("--created=" + window.searchWindow());
+            command.add("--json");
+            command.add("number,title,state,repository,url,createdAt");
+            command.add("--limit");
+            command.add(String.valueOf(WindowedSearch.SEARCH_API_CAP));
+
+            if (repo != null && !repo.isEmpty()) {
+                command.add("-R");
+                command.add(repo);
+            }
+            return command;
+        }, CollectActivity::itemKey);
 
-        if (repo != null && !repo.isEmpty()) {
-            command.add("-R");
-            command.add(repo);
+        if (result == null) {
+            System.err.println("Warning: Issue search failed");
+        }
+        return result;
+    }
+
+    // --- Windowed search ---
+    //
+    // A search returns at most 1000 results. Each search covers the days after `since`
+    // through tomorrow (one day of slack for time zones ahead of UTC). If that window
+    // comes back full, WindowedSearch splits it into halves until every window is under
+    // the cap, runs them SEARCH_PARALLELISM at a time, and deduplicates the results.
+    // Each gh call takes a search token from the shared GhRequestScheduler, which keeps
+    // the run under GitHub's search rate limit and retries rate-limited calls.
+
+    private static String searchWindows(String kind, LocalDate since, Function<DateRange, List<String>> commandFor,
+                                        Function<JsonObject, String> keyOf) throws IOException, InterruptedException {
+        DateRange range = new DateRange(since, LocalDate.now().plusDays(1));
+        WindowedSearch windowedSearch = new WindowedSearch(WindowedSearch.SEARCH_API_CAP,
+            CONCURRENT ? Math.max(1, SEARCH_PARALLELISM) : 1);
+        try {
+            List<JsonObject> items = windowedSearch.collect(range, window -> RATE_LIMITING
+                ? SCHEDULER.execute(GhRequestScheduler.Resource.SEARCH, () -> runSearch(kind, commandFor.apply(window)))
+                : runSearch(kind, commandFor.apply(window)), keyOf);
+            debug("Found " + items.size() + " " + kind);
+            JsonArray array = new JsonArray();
+            items.forEach(array::add);
+            return array.toString();
+        } catch (SearchFailedException e) {
+            debug(e.getMessage());
+            return null;
+        } catch (GhRequestScheduler.RateLimitedException e) {
+            System.err.println("Warning: GitHub rate limit hit searching " + kind + " - " + e.getMessage());
+            return null;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Search for " + kind + " failed: " + e.getMessage(), e);
         }
+    }
 
+    private static List<JsonObject> runSearch(String kind, List<String> command) throws IOException, InterruptedException {
         debug("Executing: " + String.join(" ", command));
         ProcessBuilder pb = new ProcessBuilder(command);
-        Process process = pb.start();
+        Process process = start(pb);
+        CompletableFuture<String> stderr = CompletableFuture.supplyAsync(() -> {
+            try (InputStream err = process.getErrorStream()) {
+                return new String(err.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                return "";
+            }
+        });
 
-        StringBuilder output = new StringBuilder();
+        JsonElement output;
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
-            }
+            output = JsonParser.parseReader(reader);
+        } catch (JsonParseException e) {
+            process.destroy();
+            throw new SearchFailedException("Search for " + kind + " returned unreadable output: " + e.getMessage());
         }
 
         int exitCode = process.waitFor();
         if (exitCode != 0) {
-            debug("PR search failed with exit code: " + exitCode);
-            System.err.println("Warning: PR search failed");
-            return "[]";
+            String errors = stderr.join().trim();
+            if (GhRequestScheduler.isRateLimited(errors)) {
+                throw new GhRequestScheduler.RateLimitedException(errors);
+            }
+            throw new SearchFailedException("Search for " + kind + " failed with exit code: " + exitCode + " " + errors);
         }
 
-        String result = output.toString().trim();
-        JsonArray prs = JsonParser.parseString(result).getAsJsonArray();
-        debug("Found " + prs.size() + " pull requests");
-        return result;
+        List<JsonObject> items = new ArrayList<>();
+        if (output.isJsonArray()) {
+            for (JsonElement element : output.getAsJsonArray()) {
+                items.add(element.getAsJsonObject());
+            }
+        }
+        return items;
     }
 
-    public static String getUserIssues(String username, int days, String repo) throws IOException, InterruptedException {
-        LocalDate since = LocalDate.now().minusDays(days);
-        String sinceStr = since.format(DateTimeFormatter.ISO_DATE);
-
-        List<String> command = new ArrayList<>();
-        command.add("gh");
-        command.add("search");
-        command.add("issues");
-        command.add("--author=" + username);
-        command.add("--created=>" + sinceStr);
-        command.add("--json");
-        command.add("number,title,state,repository,url");
-        command.add("--limit");
-        command.add("1000");
+    // --- Process tracking ---
 
-        if (repo != null && !repo.isEmpty()) {
-            command.add("-R");
-            command.add(repo);
+    // The thread that called collectAllActivity; search pools it creates inherit it
+    private static final InheritableThreadLocal<Thread> OWNER = new InheritableThreadLocal<>() {
+        @Override
+        protected Thread initialValue() {
+            return Thread.currentThread();
         }
+    };
 
-        debug("Executing: " + String.join(" ", command));
-        ProcessBuilder pb = new ProcessBuilder(command);
+    // gh searches per owning thread, so a caller can kill the searches of a stuck collection
+    private static final Map<Thread, Set<Process>> RUNNING = new ConcurrentHashMap<>();
+
+    static Process start(ProcessBuilder pb) throws IOException {
         Process process = pb.start();
+        RUNNING.keySet().removeIf(t -> !t.isAlive());
+        Set<Process> processes = RUNNING.computeIfAbsent(OWNER.get(), t -> ConcurrentHashMap.newKeySet());
+        processes.removeIf(p -> !p.isAlive());
+        processes.add(process);
+        return process;
+    }
 
-        StringBuilder output = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
-            }
+    /**
+     * Forcibly stop every search (and its children) started by a collection
+     * running on the given thread.
+     */
+    static void destroyProcesses(Thread owner) {
+        Set<Process> processes = RUNNING.remove(owner);
+        if (processes == null) {
+            return;
         }
-
-        int exitCode = process.waitFor();
-        if (exitCode != 0) {
-            debug("Issue search failed with exit code: " + exitCode);
-            System.err.println("Warning: Issue search failed");
-            return "[]";
+        for (Process process : processes) {
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
         }
+    }
 
-        String result = output.toString().trim();
-        JsonArray issues = JsonParser.parseString(result).getAsJsonArray();
-        debug("Found " + issues.size() + " issues");
-        return result;
+    /**
+     * gh exited with an error; reported as a failed search rather than a crash.
+     */
+    private static class SearchFailedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        SearchFailedException(String message) {
+            super(message);
+        }
     }
 
     public static JsonObject collectAllActivity(String username, int days, String repo) throws IOException, InterruptedException {
         JsonObject result = new JsonObject();
+        OWNER.get();  // Search threads created from here on inherit this thread as their owner
+
+        LocalDate since = LocalDate.now().minusDays(days);
+        Instant runStarted = Instant.now();
+        GhRequestScheduler.Usage quotaBefore = SCHEDULER.usage();
+
+        // With a watermark, each search only needs the days since its last successful run
+        JsonObject watermark = INCREMENTAL ? loadWatermark(username, repo) : new JsonObject();
+        LocalDate commitsSince = fetchSince(watermark, "commits", since);
+        LocalDate prsSince = fetchSince(watermark, "pull_requests", since);
+        LocalDate issuesSince = fetchSince(watermark, "issues", since);
+
+        String commitsJson;
+        String prsJson;
+        String issuesJson;
+
+        if (CONCURRENT) {
+            debug("Collecting commits, PRs and issues concurrently for " + username + " (last " + days + " days)");
+            ExecutorService executor = Executors.newFixedThreadPool(3);
+            try {
+                Future<String> commitsFuture = executor.submit(() -> searchCommits(username, commitsSince));
+                Future<String> prsFuture = executor.submit(() -> searchPRs(username, prsSince, repo));
+                Future<String> issuesFuture = executor.submit(() -> searchIssues(username, issuesSince, repo));
+
+                commitsJson = awaitSearch(commitsFuture);
+                prsJson = awaitSearch(prsFuture);
+                issuesJson = awaitSearch(issuesFuture);
+            } finally {
+                executor.shutdownNow();
+            }
+        } else {
+            debug("Collecting commits for " + username + " (last " + days + " days)");
+            commitsJson = searchCommits(username, commitsSince);
+
+            debug("Collecting PRs for " + username);
+            prsJson = searchPRs(username, prsSince, repo);
+
+            debug("Collecting issues for " + username);
+            issuesJson = searchIssues(username, issuesSince, repo);
+        }
 
-        debug("Collecting commits for " + username + " (last " + days + " days)");
         // Collect commits
-        String commitsJson = getUserCommits(username, days);
-        JsonArray commits = JsonParser.parseString(commitsJson).getAsJsonArray();
+        JsonArray commits = mergeWithWatermark(watermark, "commits", commitsJson, since, commitsSince, runStarted,
+            CollectActivity::commitKey, CollectActivity::commitDate);
         result.add("commits", commits);
 
-        debug("Collecting PRs for " + username);
         // Collect PRs
-        String prsJson = getUserPRs(username, days, repo);
-        JsonArray prs = JsonParser.parseString(prsJson).getAsJsonArray();
+        JsonArray prs = mergeWithWatermark(watermark, "pull_requests", prsJson, since, prsSince, runStarted,
+            CollectActivity::itemKey, CollectActivity::createdDate);
         result.add("pull_requests", prs);
 
-        debug("Collecting issues for " + username);
         // Collect issues
-        String issuesJson = getUserIssues(username, days, repo);
-        JsonArray issues = JsonParser.parseString(issuesJson).getAsJsonArray();
+        JsonArray issues = mergeWithWatermark(watermark, "issues", issuesJson, since, issuesSince, runStarted,
+            CollectActivity::itemKey, CollectActivity::createdDate);
         result.add("issues", issues);
 
+        if (INCREMENTAL) {
+            List<JsonObject> carriedOpen = new ArrayList<>(carriedOpenItems(prs, prsJson));
+            carriedOpen.addAll(carriedOpenItems(issues, issuesJson));
+            refreshStates(carriedOpen);
+            saveWatermark(username, repo, watermark);
+        }
+
         // Add metadata
         result.addProperty("username", username);
         result.addProperty("days", days);
@@ -237,17 +424,391 @@ public class CollectActivity {
             result.addProperty("repository", repo);
         }
 
+        if (RATE_LIMITING) {
+            JsonObject quota = SCHEDULER.usage().since(quotaBefore).toJson();
+            result.add("githubQuota", quota);
+            debug("GitHub quota used: " + quota);
+        }
+
         debug("Total activity: " + commits.size() + " commits, " + prs.size() + " PRs, " + issues.size() + " issues");
         return result;
     }
 
+    // --- Incremental collection watermark ---
+    //
+    // For each search kind the watermark stores the start of its last successful run,
+    // the window start it covered and the items it returned. A later run whose window
+    // starts no earlier than the stored one only searches from the day before the last
+    // run (one day of overlap absorbs time zone differences) and merges the results into
+    // the stored items, replacing entries it sees again. Items older than the window are
+    // dropped. Stored PRs and issues that were still open are re-read afterwards (see
+    // refreshStates), so a PR merged since the last run is not reported as open.
+
+    static Path watermarkFile(String username, String repo) {
+        String repoKey = repo != null && !repo.isEmpty() ? repo.replace('/', '-') : "all";
+        return WATERMARK_DIR.resolve(sanitize(username)).resolve(sanitize(repoKey) + ".json");
+    }
+
+    private static String sanitize(String segment) {
+        return segment.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static JsonObject loadWatermark(String username, String repo) {
+        Path file = watermarkFile(username, repo);
+        if (!Files.exists(file)) {
+            debug("No watermark at " + file + ", doing a full fetch");
+            return new JsonObject();
+        }
+        try {
+            return JsonParser.parseString(Files.readString(file)).getAsJsonObject();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Warning: Ignoring unreadable watermark " + file + " - " + e.getMessage());
+            return new JsonObject();
+        }
+    }
+
+    private static void saveWatermark(String username, String repo, JsonObject watermark) {
+        Path file = watermarkFile(username, repo);
+        Path tempPath = null;
+        try {
+            Files.createDirectories(file.getParent());
+            // Atomic write: write to a temp file unique to this writer, then rename,
+            // so two runs for the same user never clobber each other's partial file
+            tempPath = Files.createTempFile(file.getParent(), file.getFileName() + ".", ".tmp");
+            Files.writeString(tempPath, watermark.toString());
+            Files.move(tempPath, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Warning: Could not write watermark " + file + " - " + e.getMessage());
+            if (tempPath != null) {
+                try {
+                    Files.deleteIfExists(tempPath);
+                } catch (IOException ignored) {
+                    // Best effort: a stray temp file is never read back
+                }
+            }
+        }
+    }
+
+    /**
+     * Start date to search from: the full window, or the delta since the last run.
+     */
+    static LocalDate fetchSince(JsonObject watermark, String kind, LocalDate since) {
+        if (!watermark.has(kind)) {
+            return since;
+        }
+        try {
+            JsonObject section = watermark.getAsJsonObject(kind);
+            LocalDate coveredSince = LocalDate.parse(section.get("coveredSince").getAsString());
+            if (coveredSince.isAfter(since)) {
+                return since;  // Window grew beyond what the snapshot holds
+            }
+            LocalDate lastRunDay = Instant.parse(section.get("lastRun").getAsString())
+                .atZone(ZoneId.systemDefault()).toLocalDate();
+            LocalDate deltaSince = lastRunDay.minusDays(1);
+            if (deltaSince.isAfter(since)) {
+                debug("Incremental " + kind + " fetch since " + deltaSince + " (window since " + since + ")");
+                return deltaSince;
+            }
+            return since;
+        } catch (RuntimeException e) {
+            debug("Ignoring malformed " + kind + " watermark: " + e.getMessage());
+            return since;
+        }
+    }
+
+    /**
+     * Merge fresh search results with the stored snapshot and advance the watermark.
+     *
+     * A failed search (null) leaves the watermark untouched and falls back to the
+     * snapshot, which is what the previous run reported for those days.
+     */
+    static JsonArray mergeWithWatermark(JsonObject watermark, String kind, String freshJson, LocalDate since,
+                                        LocalDate fetchedSince, Instant runStarted, Function<JsonObject, String> keyOf,
+                                        Function<JsonObject, LocalDate> dateOf) {
+        Map<String, JsonObject> merged = new LinkedHashMap<>();
+        List<JsonObject> unkeyed = new ArrayList<>();
+
+        if (freshJson != null) {
+            for (JsonElement element : JsonParser.parseString(freshJson).getAsJsonArray()) {
+                addItem(element.getAsJsonObject(), keyOf, merged, unkeyed);
+            }
+        }
+        boolean incremental = fetchedSince.isAfter(since);
+        JsonArray stored = incremental ? watermark.getAsJsonObject(kind).getAsJsonArray("items") : null;
+        if (stored != null) {
+            for (JsonElement element : stored) {
+                JsonObject item = element.getAsJsonObject();
+                String key = keyOf.apply(item);
+                if (key == null || !merged.containsKey(key)) {
+                    addItem(item, keyOf, merged, unkeyed);
+                }
+            }
+        }
+
+        JsonArray items = new JsonArray();
+        for (JsonObject item : merged.values()) {
+            LocalDate date = dateOf.apply(item);
+            if (date == null || date.isAfter(since)) {
+                items.add(item);
+            }
+        }
+        unkeyed.forEach(items::add);
+
+        if (freshJson != null) {
+            JsonObject section = new JsonObject();
+            section.addProperty("lastRun", runStarted.toString());
+            section.addProperty("coveredSince", since.toString());
+            section.add("items", items);
+            watermark.add(kind, section);
+        } else if (incremental) {
+            debug("Search for " + kind + " failed, keeping watermark and reusing " + items.size() + " stored items");
+        }
+        return items;
+    }
+
+    // --- State refresh for carried-over items ---
+    //
+    // An incremental search only returns items created since the last run, so a PR or
+    // issue taken from the snapshot keeps the state it was stored with. The ones that were
+    // still open are looked up again with a single gh api graphql call and updated in
+    // place, which also updates the watermark that holds them.
+
+    /**
+     * Open items in the merged result that did not come from the fresh search.
+     */
+    static List<JsonObject> carriedOpenItems(JsonArray items, String freshJson) {
+        Set<String> freshKeys = new HashSet<>();
+        if (freshJson != null) {
+            for (JsonElement element : JsonParser.parseString(freshJson).getAsJsonArray()) {
+                String key = itemKey(element.getAsJsonObject());
+                if (key != null) {
+                    freshKeys.add(key);
+                }
+            }
+        }
+
+        List<JsonObject> carried = new ArrayList<>();
+        for (JsonElement element : items) {
+            JsonObject item = element.getAsJsonObject();
+            String key = itemKey(item);
+            boolean open = item.has("state") && "open".equalsIgnoreCase(item.get("state").getAsString());
+            if (open && key != null && !freshKeys.contains(key)) {
+                carried.add(item);
+            }
+        }
+        return carried;
+    }
+
+    /**
+     * Re-read the state of the given PRs and issues and update them in place.
+     * Items that cannot be resolved keep their stored state.
+     */
+    static void refreshStates(List<JsonObject> items) {
+        Map<String, List<JsonObject>> byRepo = groupByRepository(items);
+        if (byRepo.isEmpty()) {
+            return;
+        }
+
+        List<String> command = List.of("gh", "api", "graphql", "-f", "query=" + stateQuery(byRepo));
+        debug("Executing: gh api graphql (state of " + items.size() + " carried-over items)");
+        try {
+            JsonObject data = RATE_LIMITING
+                ? SCHEDULER.execute(GhRequestScheduler.Resource.CORE, () -> queryStates(command))
+                : queryStates(command);
+            if (data == null) {
+                return;
+            }
+            int updated = applyStates(data, byRepo);
+            debug("Refreshed state of " + updated + " of " + items.size() + " carried-over items");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Warning: Could not refresh the state of stored PRs and issues - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Run the state query; returns its data, or null (after a warning) when nothing resolved.
+     */
+    private static JsonObject queryStates(List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).start();
+        CompletableFuture<String> stderr = CompletableFuture.supplyAsync(() -> {
+            try (InputStream err = process.getErrorStream()) {
+                return new String(err.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                return "";
+            }
+        });
+        // Kill gh if it hangs; the reader then sees EOF and the stored states are kept
+        CompletableFuture.delayedExecutor(STATE_REFRESH_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            .execute(process::destroyForcibly);
+        JsonElement response;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            response = JsonParser.parseReader(reader);
+        }
+        int exitCode = process.waitFor();
+        // gh exits non-zero on partial GraphQL errors (e.g. a deleted issue); keep what resolved
+        if (!response.isJsonObject() || !response.getAsJsonObject().has("data")
+                || !response.getAsJsonObject().get("data").isJsonObject()) {
+            String errors = stderr.join().trim();
+            if (GhRequestScheduler.isRateLimited(errors)) {
+                throw new GhRequestScheduler.RateLimitedException(errors);
+            }
+            System.err.println("Warning: Could not refresh the state of stored PRs and issues (exit code " + exitCode + ")");
+            return null;
+        }
+        return response.getAsJsonObject().getAsJsonObject("data");
+    }
+
+    private static Map<String, List<JsonObject>> groupByRepository(List<JsonObject> items) {
+        Map<String, List<JsonObject>> byRepo = new LinkedHashMap<>();
+        for (JsonObject item : items) {
+            if (!item.has("repository") || !item.has("number")) {
+                continue;
+            }
+            JsonObject repository = item.getAsJsonObject("repository");
+            String repoName = repository.has("nameWithOwner") ? repository.get("nameWithOwner").getAsString() : "";
+            // Names are inlined into the query, so only accept plain owner/name pairs
+            if (repoName.matches("[A-Za-z0-9._-]+/[A-Za-z0-9._-]+")) {
+                byRepo.computeIfAbsent(repoName, k -> new ArrayList<>()).add(item);
+            }
+        }
+        return byRepo;
+    }
+
+    /**
+     * One query for every item: r<i> aliases a repository, n<number> one of its PRs or issues.
+     */
+    static String stateQuery(Map<String, List<JsonObject>> byRepo) {
+        StringBuilder query = new StringBuilder("query {");
+        int i = 0;
+        for (Map.Entry<String, List<JsonObject>> entry : byRepo.entrySet()) {
+            String[] ownerAndName = entry.getKey().split("/");
+            query.append(" r").append(i++).append(": repository(owner: \"").append(ownerAndName[0])
+                .append("\", name: \"").append(ownerAndName[1]).append("\") {");
+            Set<Integer> numbers = new HashSet<>();
+            for (JsonObject item : entry.getValue()) {
+                int number = item.get("number").getAsInt();
+                if (numbers.add(number)) {
+                    query.append(" n").append(number).append(": issueOrPullRequest(number: ").append(number)
+                        .append(") { ... on PullRequest { state } ... on Issue { state } }");
+                }
+            }
+            query.append(" }");
+        }
+        return query.append(" }").toString();
+    }
+
+    /**
+     * Copy the states from a stateQuery response onto the items, lower-cased as gh search reports them.
+     *
+     * @return Number of items whose state was resolved
+     */
+    static int applyStates(JsonObject data, Map<String, List<JsonObject>> byRepo) {
+        int resolved = 0;
+        int i = 0;
+        for (List<JsonObject> repoItems : byRepo.values()) {
+            JsonElement repoEl = data.get("r" + i++);
+            if (repoEl == null || !repoEl.isJsonObject()) {
+                continue;
+            }
+            for (JsonObject item : repoItems) {
+                JsonElement itemEl = repoEl.getAsJsonObject().get("n" + item.get("number").getAsInt());
+                if (itemEl != null && itemEl.isJsonObject() && itemEl.getAsJsonObject().has("state")) {
+                    item.addProperty("state", itemEl.getAsJsonObject().get("state").getAsString().toLowerCase(Locale.ROOT));
+                    resolved++;
+                }
+            }
+        }
+        return resolved;
+    }
+
+    private static void addItem(JsonObject item, Function<JsonObject, String> keyOf,
+                                Map<String, JsonObject> merged, List<JsonObject> unkeyed) {
+        String key = keyOf.apply(item);
+        if (key != null) {
+            merged.put(key, item);
+        } else {
+            unkeyed.add(item);
+        }
+    }
+
+    static String commitKey(JsonObject commit) {
+        return commit.has("sha") ? commit.get("sha").getAsString() : null;
+    }
+
+    static String itemKey(JsonObject item) {
+        if (item.has("url")) {
+            return item.get("url").getAsString();
+        }
+        if (item.has("repository") && item.has("number")) {
+            return item.getAsJsonObject("repository").get("nameWithOwner").getAsString() + "#" + item.get("number").getAsInt();
+        }
+        return null;
+    }
+
+    static LocalDate commitDate(JsonObject commit) {
+        if (!commit.has("commit")) {
+            return null;
+        }
+        JsonObject details = commit.getAsJsonObject("commit");
+        for (String person : List.of("committer", "author")) {
+            if (details.has(person) && details.getAsJsonObject(person).has("date")) {
+                return toLocalDate(details.getAsJsonObject(person).get("date").getAsString());
+            }
+        }
+        return null;
+    }
+
+    static LocalDate createdDate(JsonObject item) {
+        return item.has("createdAt") ? toLocalDate(item.get("createdAt").getAsString()) : null;
+    }
+
+    private static LocalDate toLocalDate(String timestamp) {
+        try {
+            return OffsetDateTime.parse(timestamp).atZoneSameInstant(ZoneId.systemDefault()).toLocalDate();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Wait for a concurrent search, rethrowing its failure as the sequential path would.
+     */
+    private static String awaitSearch(Future<String> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof InterruptedException interrupted) {
+                throw interrupted;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Search failed: " + cause.getMessage(), cause);
+        }
+    }
+
     public static void main(String... args) {
         try {
             // Parse --debug flag from any position
             List<String> positionalArgs = new ArrayList<>();
-            for (String arg : args) {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
                 if (arg.equals("--debug") || arg.equals("-D")) {
                     DEBUG = true;
+                } else if (arg.equals("--sequential")) {
+                    CONCURRENT = false;
+                } else if (arg.equals("--full")) {
+                    INCREMENTAL = false;
+                } else if (arg.equals("--no-rate-limit")) {
+                    RATE_LIMITING = false;
+                } else if (arg.equals("--search-parallelism") && i + 1 < args.length) {
+                    SEARCH_PARALLELISM = Integer.parseInt(args[++i]);
                 } else {
                     positionalArgs.add(arg);
                 }
@@ -257,7 +818,7 @@ public class CollectActivity {
             debug("Positional args: " + positionalArgs);
 
             if (positionalArgs.size() < 2) {
-                System.err.println("Usage: jbang CollectActivity.java <username> <days> [repo] [--debug]");
+                System.err.println("Usage: jbang CollectActivity.java <username> <days> [repo] [--debug] [--sequential] [--full] [--search-parallelism N] [--no-rate-limit]");
                 System.exit(1);
             }
 
@@ -281,7 +842,7 @@ public class CollectActivity {
             }
 
             JsonObject activity = collectAllActivity(username, days, repo);
-            System.out.println(gson.toJson(activity));
+            System.out.println(StageIO.COMPACT.toJson(activity));
 
         } catch (NumberFormatException e) {
             System.err.println("Error: days must be a valid integer");
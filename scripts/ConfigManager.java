@@ -22,6 +22,7 @@ public class ConfigManager {
         List<Directory> directories = new ArrayList<>();
         ReportSettings reportSettings = new ReportSettings();
         DebugSettings debugSettings = new DebugSettings();
+        PerformanceSettings performanceSettings = new PerformanceSettings();
     }
 
     static class Directory {
@@ -48,6 +49,27 @@ public class ConfigManager {
         boolean verboseGitHubAPICalls = true;
     }
 
+    static class PerformanceSettings {
+        boolean inProcess = true;
+        boolean concurrentSearches = true;
+        boolean incrementalCollection = true;
+        int searchWindowParallelism = 4;
+        boolean githubRateLimiting = true;
+        int diffParallelism = 4;
+        int diffTimeoutSeconds = 60;
+        boolean diffCache = true;
+        int diffCacheMaxMegabytes = 50;
+        boolean singlePassLocalChanges = true;
+        boolean localChangesDaemon = true;
+        int localChangesParallelism = 0;
+        int localChangesTimeoutSeconds = 30;
+        boolean commitDedup = true;
+        int promptTokenBudget = 20000;
+        boolean reportCache = true;
+        int teamParallelism = 4;
+        int teamMemberTimeoutSeconds = 300;
+    }
+
     public static void main(String... args) {
         if (args.length == 0) {
             printUsage();
@@ -172,6 +194,9 @@ public class ConfigManager {
         if (config.debugSettings == null) {
             config.debugSettings = new DebugSettings();
         }
+        if (config.performanceSettings == null) {
+            config.performanceSettings = new PerformanceSettings();
+        }
     }
 
     private static void loadAndPrintConfig() throws IOException {
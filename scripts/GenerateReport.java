@@ -1,6 +1,7 @@
 ///usr/bin/env jbang "$0" "$@" ; exit $?
 
 //DEPS com.google.code.gson:gson:2.10.1
+//SOURCES StageIO.java
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
@@ -15,7 +16,7 @@ import java.nio.file.Paths;
 /**
  * GenerateReport - Generates standup report using Claude AI
  *
- * Usage: jbang GenerateReport.java <activity-json> <diff-summary> [prompt-path]
+ * Usage: jbang GenerateReport.java <activity-json|-|@file> <diff-summary> [prompt-path]
  */
 public class GenerateReport {
 
@@ -147,15 +148,14 @@ public class GenerateReport {
     public static void main(String... args) {
         try {
             if (args.length < 2) {
-                System.err.println("Usage: jbang GenerateReport.java <activity-json> <diff-summary> [prompt-path]");
+                System.err.println("Usage: jbang GenerateReport.java <activity-json|-|@file> <diff-summary> [prompt-path]");
                 System.exit(1);
             }
 
-            String activityJson = args[0];
             String diffSummary = args[1];
             String promptPath = args.length > 2 ? args[2] : "prompts/standup.prompt.md";
 
-            JsonObject activity = JsonParser.parseString(activityJson).getAsJsonObject();
+            JsonObject activity = StageIO.readJson(args[0]).getAsJsonObject();
 
             String result = generateStandupReport(activity, diffSummary, promptPath);
 
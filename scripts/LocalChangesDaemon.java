@@ -0,0 +1,494 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS com.google.code.gson:gson:2.10.1
+//SOURCES LocalChangesDetector.java
+//SOURCES ConfigManager.java
+
+import com.google.gson.*;
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * LocalChangesDaemon - Keep local WIP state warm for ActivityAggregator
+ *
+ * Usage: jbang LocalChangesDaemon.java [--debug]   Run in the foreground
+ *        jbang LocalChangesDaemon.java --stop      Stop a running daemon
+ *
+ * Registers a WatchService on every enabled directory in config.json (working
+ * tree plus the git dir's HEAD, index and refs) and keeps the
+ * LocalChangesDetector result for each one in memory. A change marks the
+ * directory dirty and it is recomputed shortly after. Ignored directories
+ * (node_modules, build output), including ones created later, are not
+ * watched. The git dir comes from `git rev-parse`, so linked worktrees and
+ * submodules (where .git is a file) are watched too. ActivityAggregator asks
+ * over a Unix domain socket at ~/.claude-gh-standup/local-changes.sock and
+ * falls back to detecting changes itself when no daemon answers.
+ *
+ * Protocol: one JSON request line ({"directoryId","path","branch"} or
+ * {"command":"stop"}) and one JSON response line per connection.
+ */
+public class LocalChangesDaemon {
+
+    private static final Gson gson = new Gson();
+    static boolean DEBUG = false;
+
+    static Path SOCKET_PATH = Paths.get(System.getProperty("user.home"), ".claude-gh-standup", "local-changes.sock");
+
+    private static final long DEBOUNCE_MILLIS = 300;
+    // Backstop for missed events (e.g. the polling WatchService on macOS)
+    private static final long MAX_SNAPSHOT_AGE_MILLIS = 5 * 60 * 1000;
+
+    private static void debug(String message) {
+        if (DEBUG) {
+            System.err.println("[DEBUG] LocalChangesDaemon: " + message);
+        }
+    }
+
+    /**
+     * One watched checkout and its last computed local changes.
+     */
+    static class WatchedDirectory {
+        final String id;
+        final String path;
+        final String branch;
+        final AtomicBoolean refreshScheduled = new AtomicBoolean();
+        volatile boolean dirty = true;
+        volatile boolean watched = true;   // False when registration failed: recompute every time
+        volatile Path root;
+        volatile List<Path> gitDirs = List.of();   // Git dir, plus the common dir of a linked worktree
+        private LocalChangesDetector.LocalChanges snapshot;
+        private long computedAt;
+
+        WatchedDirectory(String id, String path, String branch) {
+            this.id = id;
+            this.path = path;
+            this.branch = branch;
+        }
+
+        synchronized LocalChangesDetector.LocalChanges current() throws Exception {
+            long now = System.currentTimeMillis();
+            if (snapshot == null || dirty || !watched || now - computedAt > MAX_SNAPSHOT_AGE_MILLIS) {
+                // Clear first so events arriving during detection trigger another pass
+                dirty = false;
+                snapshot = LocalChangesDetector.detectChanges(id, path, branch);
+                computedAt = now;
+                debug("Refreshed " + id);
+            }
+            return snapshot;
+        }
+    }
+
+    private static final Map<String, WatchedDirectory> directories = new ConcurrentHashMap<>();
+    private static final Map<WatchKey, WatchedDirectory> watchKeys = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "local-changes-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static WatchService watchService;
+    private static volatile ServerSocketChannel server;
+
+    public static void main(String... args) {
+        boolean stop = false;
+        for (String arg : args) {
+            if (arg.equals("--debug") || arg.equals("-D")) {
+                DEBUG = true;
+                LocalChangesDetector.DEBUG = true;
+            } else if (arg.equals("--stop")) {
+                stop = true;
+            }
+        }
+
+        try {
+            if (stop) {
+                System.err.println(stop() ? "✓ LocalChangesDaemon stopped" : "LocalChangesDaemon is not running");
+                return;
+            }
+            serve(ConfigManager.loadConfig());
+        } catch (Exception e) {
+            System.err.println("Error running LocalChangesDaemon: " + e.getMessage());
+            if (DEBUG) {
+                e.printStackTrace();
+            }
+            System.exit(1);
+        }
+    }
+
+    // --- Client ---
+
+    /**
+     * Ask a running daemon for the local changes of a directory.
+     *
+     * @return LocalChanges JSON, or null when no daemon answers (caller detects changes itself)
+     */
+    static JsonObject query(String directoryId, String path, String branch) {
+        JsonObject request = new JsonObject();
+        request.addProperty("directoryId", directoryId);
+        request.addProperty("path", path);
+        request.addProperty("branch", branch);
+        JsonObject response = send(request);
+        if (response == null || response.has("error")) {
+            return null;
+        }
+        return response;
+    }
+
+    /**
+     * Ask a running daemon to stop.
+     *
+     * @return Whether a daemon answered
+     */
+    static boolean stop() {
+        JsonObject request = new JsonObject();
+        request.addProperty("command", "stop");
+        return send(request) != null;
+    }
+
+    private static JsonObject send(JsonObject request) {
+        if (!Files.exists(SOCKET_PATH)) {
+            return null;
+        }
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(SOCKET_PATH))) {
+            channel.write(ByteBuffer.wrap((gson.toJson(request) + "\n").getBytes(StandardCharsets.UTF_8)));
+            BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+            String line = reader.readLine();
+            return line != null ? gson.fromJson(line, JsonObject.class) : null;
+        } catch (IOException | JsonParseException e) {
+            return null;   // Stale socket file or daemon shutting down
+        }
+    }
+
+    // --- Server ---
+
+    /**
+     * Watch the configured directories and answer queries until a stop request.
+     */
+    static void serve(ConfigManager.Config config) throws Exception {
+        Files.createDirectories(SOCKET_PATH.getParent());
+        if (send(new JsonObject()) != null) {
+            throw new IllegalStateException("LocalChangesDaemon is already running on " + SOCKET_PATH);
+        }
+        Files.deleteIfExists(SOCKET_PATH);
+
+        watchService = FileSystems.getDefault().newWatchService();
+        if (config != null) {
+            for (ConfigManager.Directory dir : config.directories) {
+                if (dir.enabled) {
+                    directory(dir.id, ConfigManager.expandTilde(dir.path), dir.branch);
+                }
+            }
+        }
+        System.err.println("Watching " + directories.size() + " directories");
+
+        Thread watcher = new Thread(LocalChangesDaemon::watchLoop, "local-changes-watch");
+        watcher.setDaemon(true);
+        watcher.start();
+
+        ExecutorService handlers = Executors.newFixedThreadPool(4);
+        Path socket = SOCKET_PATH;
+        Thread cleanup = new Thread(() -> {
+            try {
+                Files.deleteIfExists(socket);
+            } catch (IOException e) {
+                // Next start removes it
+            }
+        });
+        try (ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server = channel;
+            channel.bind(UnixDomainSocketAddress.of(socket));
+            Runtime.getRuntime().addShutdownHook(cleanup);
+            System.err.println("✓ LocalChangesDaemon listening on " + socket);
+
+            while (true) {
+                SocketChannel client;
+                try {
+                    client = channel.accept();
+                } catch (ClosedChannelException e) {
+                    break;   // Stop request
+                }
+                handlers.submit(() -> handle(client));
+            }
+        } finally {
+            handlers.shutdownNow();
+            watchService.close();
+            directories.clear();
+            watchKeys.clear();
+            server = null;
+            Files.deleteIfExists(socket);
+            Runtime.getRuntime().removeShutdownHook(cleanup);
+        }
+    }
+
+    private static void handle(SocketChannel client) {
+        try (client) {
+            BufferedReader reader = new BufferedReader(Channels.newReader(client, StandardCharsets.UTF_8));
+            String line = reader.readLine();
+            JsonObject response;
+            try {
+                JsonObject request = gson.fromJson(line, JsonObject.class);
+                if (request != null && request.has("command") && request.get("command").getAsString().equals("stop")) {
+                    respond(client, new JsonObject());
+                    System.err.println("Stopping LocalChangesDaemon");
+                    ServerSocketChannel channel = server;
+                    if (channel != null) {
+                        channel.close();   // Ends serve()'s accept loop
+                    }
+                    return;
+                }
+                if (request == null || !request.has("path")) {
+                    response = new JsonObject();   // Ping
+                } else {
+                    WatchedDirectory dir = directory(request.get("directoryId").getAsString(),
+                        request.get("path").getAsString(), request.get("branch").getAsString());
+                    response = gson.toJsonTree(dir.current()).getAsJsonObject();
+                }
+            } catch (Exception e) {
+                response = new JsonObject();
+                response.addProperty("error", String.valueOf(e.getMessage()));
+            }
+            respond(client, response);
+        } catch (IOException e) {
+            debug("Client disconnected: " + e.getMessage());
+        }
+    }
+
+    private static void respond(SocketChannel client, JsonObject response) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap((gson.toJson(response) + "\n").getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            client.write(bytes);
+        }
+    }
+
+    /**
+     * Get the watched entry for a directory, registering watches the first time it is seen.
+     */
+    private static WatchedDirectory directory(String id, String path, String branch) {
+        return directories.computeIfAbsent(path + "\0" + branch, key -> {
+            WatchedDirectory dir = new WatchedDirectory(id, path, branch);
+            try {
+                register(dir);
+                debug("Registered " + id + ": " + path);
+            } catch (IOException e) {
+                dir.watched = false;
+                System.err.println("⚠️  Could not watch " + path + " (will recompute on every request): " + e.getMessage());
+            }
+            scheduleRefresh(dir);
+            return dir;
+        });
+    }
+
+    // --- Watching ---
+
+    private static final List<String> WATCHED_REFS = List.of("refs/heads", "refs/remotes");
+
+    private static void register(WatchedDirectory dir) throws IOException {
+        Path root = Paths.get(dir.path).toAbsolutePath().normalize();
+        dir.root = root;
+        dir.gitDirs = gitDirs(root);
+        Set<Path> ignored = ignoredDirectories(root);
+        registerTree(root, dir, ignored);
+
+        // Staged changes, HEAD moves, commits and fetches all show up in the git dir
+        // (index and HEAD) and the common dir (refs and packed-refs, shared by worktrees)
+        for (Path gitDir : dir.gitDirs) {
+            registerOne(gitDir, dir);
+            for (String refs : WATCHED_REFS) {
+                Path refsDir = gitDir.resolve(refs);
+                if (Files.isDirectory(refsDir)) {
+                    registerTree(refsDir, dir, Set.of());
+                }
+            }
+        }
+    }
+
+    /**
+     * The git dir and, for a linked worktree, the common dir, as absolute paths.
+     * Falls back to root/.git when git cannot tell.
+     */
+    static List<Path> gitDirs(Path root) {
+        Set<Path> dirs = new LinkedHashSet<>();
+        try {
+            Process process = new ProcessBuilder("git", "-C", root.toString(), "rev-parse", "--git-dir", "--git-common-dir")
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+            List<String> lines;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                lines = reader.lines().toList();
+            }
+            if (process.waitFor() == 0) {
+                for (String line : lines) {
+                    if (!line.isBlank()) {
+                        dirs.add(root.resolve(line.strip()).normalize());   // Relative output is relative to root
+                    }
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            debug("Could not resolve the git dir of " + root + ": " + e.getMessage());
+        }
+        if (dirs.isEmpty() && Files.isDirectory(root.resolve(".git"))) {
+            dirs.add(root.resolve(".git"));
+        }
+        dirs.removeIf(path -> !Files.isDirectory(path));
+        return List.copyOf(dirs);
+    }
+
+    private static void registerTree(Path start, WatchedDirectory dir, Set<Path> ignored) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes attrs) throws IOException {
+                if (path.getFileName() != null && path.getFileName().toString().equals(".git") && !path.equals(start)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                if (ignored.contains(path)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                registerOne(path, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Whether a directory created after startup should be watched: not inside
+     * the git dir (apart from new ref namespaces) and not ignored by git.
+     */
+    static boolean shouldWatchNewDirectory(WatchedDirectory dir, Path created) {
+        for (Path gitDir : dir.gitDirs) {
+            if (created.startsWith(gitDir)) {
+                return WATCHED_REFS.stream().anyMatch(refs -> created.startsWith(gitDir.resolve(refs)));
+            }
+        }
+        Path root = dir.root;
+        if (root == null || !created.startsWith(root)) {
+            return false;
+        }
+        return !isIgnored(root, root.relativize(created));
+    }
+
+    private static boolean isIgnored(Path root, Path relative) {
+        try {
+            // Trailing slash: match directory-only patterns like "build/"
+            Process process = new ProcessBuilder("git", "-C", root.toString(), "check-ignore", "-q", "--",
+                relative.toString() + "/")
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+            return process.waitFor() == 0;
+        } catch (IOException | InterruptedException e) {
+            debug("Could not check whether " + relative + " is ignored: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Number of directories currently watched (for tests).
+     */
+    static int watchCount() {
+        return watchKeys.size();
+    }
+
+    private static void registerOne(Path path, WatchedDirectory dir) throws IOException {
+        WatchKey key = path.register(watchService,
+            StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watchKeys.put(key, dir);
+    }
+
+    /**
+     * Ignored directories (build output, node_modules) never affect git state,
+     * so they are not watched.
+     */
+    private static Set<Path> ignoredDirectories(Path root) {
+        Set<Path> ignored = new HashSet<>();
+        try {
+            Process process = new ProcessBuilder("git", "-C", root.toString(),
+                "ls-files", "--others", "--ignored", "--exclude-standard", "--directory", "-z").start();
+            String output;
+            try (InputStream in = process.getInputStream()) {
+                output = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            process.waitFor();
+            for (String entry : output.split("\0")) {
+                if (entry.endsWith("/")) {
+                    ignored.add(root.resolve(entry.substring(0, entry.length() - 1)));
+                }
+            }
+        } catch (Exception e) {
+            debug("Could not list ignored directories in " + root + ": " + e.getMessage());
+        }
+        return ignored;
+    }
+
+    private static void watchLoop() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            WatchedDirectory dir = watchKeys.get(key);
+            Path watchedPath = (Path) key.watchable();
+            boolean relevant = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    relevant = true;
+                    continue;
+                }
+                Path changed = watchedPath.resolve((Path) event.context());
+                // Lock files come and go around every git command
+                if (changed.getFileName().toString().endsWith(".lock")) {
+                    continue;
+                }
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && dir != null && Files.isDirectory(changed, LinkOption.NOFOLLOW_LINKS)) {
+                    if (!shouldWatchNewDirectory(dir, changed)) {
+                        // An ignored directory (npm install, build output) never changes git state
+                        relevant |= dir.gitDirs.stream().anyMatch(changed::startsWith);
+                        continue;
+                    }
+                    boolean inGitDir = dir.gitDirs.stream().anyMatch(changed::startsWith);
+                    try {
+                        registerTree(changed, dir, inGitDir ? Set.of() : ignoredDirectories(changed));
+                    } catch (IOException e) {
+                        dir.watched = false;
+                    }
+                }
+                relevant = true;
+            }
+            if (!key.reset()) {
+                watchKeys.remove(key);
+            }
+            if (relevant && dir != null) {
+                dir.dirty = true;
+                scheduleRefresh(dir);
+            }
+        }
+    }
+
+    /**
+     * Recompute shortly after a burst of events so queries find a warm snapshot.
+     */
+    private static void scheduleRefresh(WatchedDirectory dir) {
+        if (dir.refreshScheduled.compareAndSet(false, true)) {
+            refresher.schedule(() -> {
+                dir.refreshScheduled.set(false);
+                try {
+                    dir.current();
+                } catch (Exception e) {
+                    System.err.println("⚠️  Failed to refresh local changes for " + dir.id + ": " + e.getMessage());
+                }
+            }, DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 ///usr/bin/env jbang "$0" "$@" ; exit $?
 
 //DEPS com.google.code.gson:gson:2.10.1
+//SOURCES StageIO.java
 
 import com.google.gson.*;
 import java.io.*;
@@ -10,12 +11,20 @@ import java.util.*;
 /**
  * LocalChangesDetector - Detect uncommitted and unpushed changes in a git directory
  *
- * Usage: jbang LocalChangesDetector.java <directoryId> <path> <branch> [--debug]
+ * Usage: jbang LocalChangesDetector.java <directoryId> <path> <branch> [--debug] [--multi-pass]
+ *
+ * By default changes are read in a single pass: one `git status --porcelain=v2
+ * --branch -z --untracked-files=no` yields staged/unstaged files and the
+ * ahead count, then one `git diff HEAD --numstat` builds the summary (only
+ * when there are changes) and one `git log` lists unpushed commits (only when
+ * ahead). --multi-pass runs the original one-command-per-question sequence
+ * instead.
  */
 public class LocalChangesDetector {
 
     private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
-    private static boolean DEBUG = false;
+    static boolean DEBUG = false;
+    static boolean SINGLE_PASS = true;
 
     private static void debug(String message) {
         if (DEBUG) {
@@ -51,6 +60,8 @@ public class LocalChangesDetector {
         for (String arg : args) {
             if (arg.equals("--debug") || arg.equals("-D")) {
                 DEBUG = true;
+            } else if (arg.equals("--multi-pass")) {
+                SINGLE_PASS = false;
             } else {
                 positionalArgs.add(arg);
             }
@@ -59,7 +70,7 @@ public class LocalChangesDetector {
         debug("Debug mode enabled");
 
         if (positionalArgs.size() < 3) {
-            System.err.println("Usage: LocalChangesDetector <directoryId> <path> <branch> [--debug]");
+            System.err.println("Usage: LocalChangesDetector <directoryId> <path> <branch> [--debug] [--multi-pass]");
             System.exit(1);
         }
 
@@ -71,7 +82,7 @@ public class LocalChangesDetector {
 
         try {
             LocalChanges changes = detectChanges(directoryId, path, branch);
-            System.out.println(gson.toJson(changes));
+            System.out.println(StageIO.COMPACT.toJson(changes));
         } catch (Exception e) {
             System.err.println("Error detecting changes: " + e.getMessage());
             e.printStackTrace();
@@ -86,7 +97,7 @@ public class LocalChangesDetector {
         return path;
     }
 
-    private static LocalChanges detectChanges(String directoryId, String path, String branch) throws Exception {
+    static LocalChanges detectChanges(String directoryId, String path, String branch) throws Exception {
         LocalChanges changes = new LocalChanges();
         changes.directoryId = directoryId;
         changes.path = path;
@@ -101,6 +112,13 @@ public class LocalChangesDetector {
 
         debug("Directory exists, detecting changes");
 
+        if (SINGLE_PASS) {
+            detectChangesSinglePass(path, branch, changes);
+            debug("Detection complete: " + changes.uncommitted.filesChanged + " files changed, " +
+                  changes.unpushed.count + " unpushed commits");
+            return changes;
+        }
+
         // Detect uncommitted changes
         detectUncommittedChanges(path, changes.uncommitted);
 
@@ -113,11 +131,175 @@ public class LocalChangesDetector {
         return changes;
     }
 
+    // --- Single-pass detection ---
+
+    /**
+     * What one `git status --porcelain=v2 --branch -z` tells us about a directory.
+     */
+    static class StatusSnapshot {
+        String head;            // Checked-out branch, "(detached)" when detached
+        boolean initial;        // No commits yet
+        String upstream;        // e.g. "origin/main", null when not set
+        Integer ahead;          // Commits ahead of upstream, null when the upstream ref is missing
+        List<String> staged = new ArrayList<>();
+        List<String> unstaged = new ArrayList<>();
+    }
+
+    private static void detectChangesSinglePass(String path, String branch, LocalChanges changes) throws Exception {
+        debug("Running: git -C " + path + " status --porcelain=v2 --branch -z --untracked-files=no");
+        // No untracked scan: those files are not reported, and walking a large tree for them is the slow part
+        ProcessBuilder pb = new ProcessBuilder("git", "-C", path, "status", "--porcelain=v2", "--branch", "-z",
+            "--untracked-files=no");
+        // Read-only: don't refresh .git/index (which would also wake LocalChangesDaemon's watcher)
+        pb.environment().put("GIT_OPTIONAL_LOCKS", "0");
+        Process process = start(pb);
+        String output;
+        try (InputStream in = process.getInputStream()) {
+            output = new String(in.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
+        }
+        int exitCode = process.waitFor();
+        debug("Status exit code: " + exitCode);
+        if (exitCode != 0) {
+            return;  // Not a git repository; same outcome as the multi-pass commands failing
+        }
+
+        StatusSnapshot status = parseStatus(output);
+        UncommittedChanges uncommitted = changes.uncommitted;
+        uncommitted.staged.addAll(status.staged);
+        uncommitted.unstaged.addAll(status.unstaged);
+        uncommitted.filesChanged = uncommitted.staged.size() + uncommitted.unstaged.size();
+        uncommitted.hasChanges = uncommitted.filesChanged > 0;
+        debug("Staged: " + status.staged.size() + ", unstaged: " + status.unstaged.size());
+
+        if (uncommitted.hasChanges) {
+            debug("Generating diff summary");
+            uncommitted.summary = generateNumstatSummary(path, status.initial);
+        }
+
+        // Status reports ahead/behind against the checked-out branch's upstream; when
+        // that is origin/<branch> it answers the unpushed question without rev-parse
+        if (branch.equals(status.head) && ("origin/" + branch).equals(status.upstream)) {
+            if (status.ahead == null) {
+                debug("Upstream 'origin/" + branch + "' is gone");
+                System.err.println("⚠️  No remote branch 'origin/" + branch + "' (local-only branch)");
+            } else if (status.ahead > 0) {
+                listUnpushedCommits(path, branch, changes.unpushed);
+            } else {
+                debug("Branch is up to date with origin/" + branch);
+            }
+        } else {
+            detectUnpushedCommits(path, branch, changes.unpushed);
+        }
+    }
+
+    /**
+     * Parse NUL-separated `git status --porcelain=v2 --branch -z` output.
+     * Untracked and ignored entries (not requested, but tolerated) are skipped,
+     * matching `git diff --name-only`.
+     */
+    static StatusSnapshot parseStatus(String output) {
+        StatusSnapshot status = new StatusSnapshot();
+        String[] records = output.split("\0");
+        for (int i = 0; i < records.length; i++) {
+            String record = records[i];
+            if (record.isEmpty()) {
+                continue;
+            }
+            switch (record.charAt(0)) {
+                case '#' -> parseBranchHeader(record, status);
+                case '1' -> addEntry(status, record.substring(2, 4), record.split(" ", 9)[8]);
+                case '2' -> {
+                    addEntry(status, record.substring(2, 4), record.split(" ", 10)[9]);
+                    i++;  // Next record is the rename/copy source path
+                }
+                case 'u' -> {
+                    // Unmerged paths show up in both `git diff` and `git diff --cached`
+                    String file = record.split(" ", 11)[10];
+                    status.staged.add(file);
+                    status.unstaged.add(file);
+                }
+                default -> { }  // '?' untracked, '!' ignored
+            }
+        }
+        return status;
+    }
+
+    private static void parseBranchHeader(String record, StatusSnapshot status) {
+        String[] parts = record.split(" ");
+        if (parts.length < 3) {
+            return;
+        }
+        switch (parts[1]) {
+            case "branch.oid" -> status.initial = parts[2].equals("(initial)");
+            case "branch.head" -> status.head = parts[2];
+            case "branch.upstream" -> status.upstream = parts[2];
+            case "branch.ab" -> status.ahead = Integer.parseInt(parts[2].substring(1));
+            default -> { }
+        }
+    }
+
+    private static void addEntry(StatusSnapshot status, String xy, String file) {
+        if (xy.charAt(0) != '.') {
+            status.staged.add(file);
+        }
+        if (xy.charAt(1) != '.') {
+            status.unstaged.add(file);
+        }
+    }
+
+    /**
+     * Summarize staged and unstaged changes together with one numstat call,
+     * formatted like the summary line of `git diff --stat`.
+     */
+    private static String generateNumstatSummary(String path, boolean initial) throws Exception {
+        List<String> command = initial
+            ? List.of("git", "-C", path, "diff", "--cached", "--numstat")
+            : List.of("git", "-C", path, "diff", "HEAD", "--numstat");
+        debug("Running: " + String.join(" ", command));
+        Process process = start(new ProcessBuilder(command));
+        List<String> lines = readLines(process);
+        process.waitFor();
+
+        int files = 0;
+        int insertions = 0;
+        int deletions = 0;
+        for (String line : lines) {
+            String[] parts = line.split("\t", 3);
+            if (parts.length < 3) {
+                continue;
+            }
+            files++;
+            // Binary files report "-" for both counts
+            if (!parts[0].equals("-")) insertions += Integer.parseInt(parts[0]);
+            if (!parts[1].equals("-")) deletions += Integer.parseInt(parts[1]);
+        }
+        if (files == 0) {
+            return "";
+        }
+        String summary = formatStatSummary(files, insertions, deletions);
+        debug("Summary: " + summary);
+        return summary;
+    }
+
+    static String formatStatSummary(int files, int insertions, int deletions) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(files).append(files == 1 ? " file changed" : " files changed");
+        if (insertions > 0 || deletions == 0) {
+            sb.append(", ").append(insertions).append(insertions == 1 ? " insertion(+)" : " insertions(+)");
+        }
+        if (deletions > 0 || insertions == 0) {
+            sb.append(", ").append(deletions).append(deletions == 1 ? " deletion(-)" : " deletions(-)");
+        }
+        return sb.toString();
+    }
+
+    // --- Multi-pass detection ---
+
     private static void detectUncommittedChanges(String path, UncommittedChanges uncommitted) throws Exception {
         // Detect unstaged changes
         debug("Running: git -C " + path + " diff --name-only");
         ProcessBuilder pb = new ProcessBuilder("git", "-C", path, "diff", "--name-only");
-        Process process = pb.start();
+        Process process = start(pb);
         List<String> unstaged = readLines(process);
         int exitCode = process.waitFor();
         debug("Unstaged files exit code: " + exitCode + ", count: " + unstaged.size());
@@ -130,7 +312,7 @@ public class LocalChangesDetector {
         // Detect staged changes
         debug("Running: git -C " + path + " diff --cached --name-only");
         pb = new ProcessBuilder("git", "-C", path, "diff", "--cached", "--name-only");
-        process = pb.start();
+        process = start(pb);
         List<String> staged = readLines(process);
         exitCode = process.waitFor();
         debug("Staged files exit code: " + exitCode + ", count: " + staged.size());
@@ -154,14 +336,14 @@ public class LocalChangesDetector {
         // Get stat summary from git diff
         debug("Running: git -C " + path + " diff --stat");
         ProcessBuilder pb = new ProcessBuilder("git", "-C", path, "diff", "--stat");
-        Process process = pb.start();
+        Process process = start(pb);
         List<String> lines = readLines(process);
         process.waitFor();
 
         // Get cached stat summary
         debug("Running: git -C " + path + " diff --cached --stat");
         pb = new ProcessBuilder("git", "-C", path, "diff", "--cached", "--stat");
-        process = pb.start();
+        process = start(pb);
         List<String> cachedLines = readLines(process);
         process.waitFor();
 
@@ -184,7 +366,7 @@ public class LocalChangesDetector {
         // Check if remote branch exists
         debug("Running: git -C " + path + " rev-parse --verify origin/" + branch);
         ProcessBuilder pb = new ProcessBuilder("git", "-C", path, "rev-parse", "--verify", "origin/" + branch);
-        Process process = pb.start();
+        Process process = start(pb);
         int exitCode = process.waitFor();
         debug("Remote branch check exit code: " + exitCode);
 
@@ -195,12 +377,16 @@ public class LocalChangesDetector {
             return;
         }
 
+        listUnpushedCommits(path, branch, unpushed);
+    }
+
+    private static void listUnpushedCommits(String path, String branch, UnpushedCommits unpushed) throws Exception {
         // Get unpushed commits
         debug("Running: git -C " + path + " log origin/" + branch + "..HEAD --oneline");
-        pb = new ProcessBuilder("git", "-C", path, "log", "origin/" + branch + "..HEAD", "--oneline", "--format=%h %s");
-        process = pb.start();
+        ProcessBuilder pb = new ProcessBuilder("git", "-C", path, "log", "origin/" + branch + "..HEAD", "--oneline", "--format=%h %s");
+        Process process = start(pb);
         List<String> commits = readLines(process);
-        exitCode = process.waitFor();
+        int exitCode = process.waitFor();
         debug("Unpushed commits exit code: " + exitCode + ", count: " + commits.size());
 
         if (exitCode == 0 && !commits.isEmpty()) {
@@ -210,6 +396,35 @@ public class LocalChangesDetector {
         }
     }
 
+    // --- Process tracking ---
+
+    // git processes per calling thread, so a caller can kill the work of a stuck detection
+    private static final Map<Thread, Set<Process>> RUNNING = new java.util.concurrent.ConcurrentHashMap<>();
+
+    static Process start(ProcessBuilder pb) throws IOException {
+        Process process = pb.start();
+        RUNNING.keySet().removeIf(t -> !t.isAlive());
+        Set<Process> processes = RUNNING.computeIfAbsent(Thread.currentThread(),
+            t -> java.util.concurrent.ConcurrentHashMap.newKeySet());
+        processes.removeIf(p -> !p.isAlive());
+        processes.add(process);
+        return process;
+    }
+
+    /**
+     * Forcibly stop every process (and its children) started by the given thread.
+     */
+    static void destroyProcesses(Thread thread) {
+        Set<Process> processes = RUNNING.remove(thread);
+        if (processes == null) {
+            return;
+        }
+        for (Process process : processes) {
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+        }
+    }
+
     private static List<String> readLines(Process process) throws IOException {
         List<String> lines = new ArrayList<>();
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
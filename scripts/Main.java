@@ -1,6 +1,19 @@
 ///usr/bin/env jbang "$0" "$@" ; exit $?
 
 //DEPS com.google.code.gson:gson:2.10.1
+//SOURCES CollectActivity.java
+//SOURCES AnalyzeDiffs.java
+//SOURCES LocalChangesDetector.java
+//SOURCES ActivityAggregator.java
+//SOURCES ConfigManager.java
+//SOURCES StageIO.java
+//SOURCES infrastructure/github/GhRequestScheduler.java
+//SOURCES infrastructure/github/CommitDeduplicator.java
+//SOURCES infrastructure/ai/ClaudeStream.java
+//SOURCES infrastructure/ai/PromptBudget.java
+//SOURCES infrastructure/cache/ReportCache.java
+//SOURCES infrastructure/ai/TeamReportPipeline.java
+//SOURCES TeamAggregator.java
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -9,14 +22,14 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.StringReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -24,12 +37,19 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Main - Entry point for claude-gh-standup slash command
  *
  * Usage: jbang Main.java [--days N] [--user USERNAME] [--repo REPO] [--format FORMAT] [--team USERS...] [--output FILE]
+ *
+ * Pipeline stages (CollectActivity, AnalyzeDiffs, ActivityAggregator, LocalChangesDetector)
+ * are compiled into this script via //SOURCES and run in-process by default.
+ * --subprocess (or performanceSettings.inProcess=false) spawns one jbang JVM per stage instead.
  */
 public class Main {
 
@@ -45,6 +65,24 @@ public class Main {
     private static boolean CAPTURE_SCRIPT_OUTPUT = true;  // From config
     private static boolean VERBOSE_GIT_COMMANDS = true;   // From config
     private static boolean VERBOSE_GITHUB_API = true;     // From config
+    private static boolean IN_PROCESS = true;             // From config (performanceSettings)
+    private static boolean CONCURRENT_SEARCHES = true;    // From config (performanceSettings)
+    private static boolean INCREMENTAL_COLLECTION = true; // From config (performanceSettings)
+    private static int SEARCH_WINDOW_PARALLELISM = 4;     // From config (performanceSettings)
+    private static boolean GITHUB_RATE_LIMITING = true;   // From config (performanceSettings)
+    private static int DIFF_PARALLELISM = 4;              // From config (performanceSettings)
+    private static int DIFF_TIMEOUT_SECONDS = 60;         // From config (performanceSettings)
+    private static boolean DIFF_CACHE = true;             // From config (performanceSettings)
+    private static int DIFF_CACHE_MAX_MB = 50;            // From config (performanceSettings)
+    private static boolean SINGLE_PASS_LOCAL_CHANGES = true; // From config (performanceSettings)
+    private static boolean LOCAL_CHANGES_DAEMON = true;   // From config (performanceSettings)
+    private static int LOCAL_CHANGES_PARALLELISM = 0;     // From config (performanceSettings)
+    private static int LOCAL_CHANGES_TIMEOUT_SECONDS = 30; // From config (performanceSettings)
+    private static boolean COMMIT_DEDUP = true;           // From config (performanceSettings)
+    private static int PROMPT_TOKEN_BUDGET = PromptBudget.DEFAULT_BUDGET_TOKENS; // From config (performanceSettings)
+    private static boolean REPORT_CACHE = true;           // From config (performanceSettings)
+    private static int TEAM_PARALLELISM = TeamReportPipeline.DEFAULT_PARALLELISM; // From config (performanceSettings)
+    private static int TEAM_MEMBER_TIMEOUT_SECONDS = TeamReportPipeline.DEFAULT_MEMBER_TIMEOUT_SECONDS; // From config (performanceSettings)
 
     /**
      * Initialize debug session - creates debug directory and session log
@@ -140,6 +178,13 @@ public class Main {
         }
     }
 
+    /**
+     * Whether script output is written to the debug directory
+     */
+    private static boolean capturesScriptOutput() {
+        return DEBUG && CAPTURE_SCRIPT_OUTPUT && DEBUG_DIR != null && DEBUG_SESSION_ID != null;
+    }
+
     /**
      * Save script execution details to a markdown file
      */
@@ -147,7 +192,7 @@ public class Main {
                                             String stdout, String stderr,
                                             int exitCode, long durationMs,
                                             String directorySuffix) {
-        if (!DEBUG || !CAPTURE_SCRIPT_OUTPUT || DEBUG_DIR == null || DEBUG_SESSION_ID == null) return;
+        if (!capturesScriptOutput()) return;
 
         try {
             String suffix = directorySuffix != null ? "-" + directorySuffix : "";
@@ -208,6 +253,92 @@ public class Main {
         }
     }
 
+    /**
+     * Apply performance settings from config.json - called before CLI args override
+     */
+    private static void applyPerformanceSettings(JsonObject config) {
+        if (config == null || !config.has("performanceSettings")) return;
+
+        JsonObject performanceSettings = config.getAsJsonObject("performanceSettings");
+
+        if (performanceSettings.has("inProcess")) {
+            IN_PROCESS = performanceSettings.get("inProcess").getAsBoolean();
+        }
+        if (performanceSettings.has("concurrentSearches")) {
+            CONCURRENT_SEARCHES = performanceSettings.get("concurrentSearches").getAsBoolean();
+        }
+        if (performanceSettings.has("incrementalCollection")) {
+            INCREMENTAL_COLLECTION = performanceSettings.get("incrementalCollection").getAsBoolean();
+        }
+        if (performanceSettings.has("searchWindowParallelism")) {
+            SEARCH_WINDOW_PARALLELISM = performanceSettings.get("searchWindowParallelism").getAsInt();
+        }
+        if (performanceSettings.has("githubRateLimiting")) {
+            GITHUB_RATE_LIMITING = performanceSettings.get("githubRateLimiting").getAsBoolean();
+        }
+        if (performanceSettings.has("diffParallelism")) {
+            DIFF_PARALLELISM = performanceSettings.get("diffParallelism").getAsInt();
+        }
+        if (performanceSettings.has("diffTimeoutSeconds")) {
+            DIFF_TIMEOUT_SECONDS = performanceSettings.get("diffTimeoutSeconds").getAsInt();
+        }
+        if (performanceSettings.has("diffCache")) {
+            DIFF_CACHE = performanceSettings.get("diffCache").getAsBoolean();
+        }
+        if (performanceSettings.has("diffCacheMaxMegabytes")) {
+            DIFF_CACHE_MAX_MB = performanceSettings.get("diffCacheMaxMegabytes").getAsInt();
+        }
+        if (performanceSettings.has("singlePassLocalChanges")) {
+            SINGLE_PASS_LOCAL_CHANGES = performanceSettings.get("singlePassLocalChanges").getAsBoolean();
+        }
+        if (performanceSettings.has("localChangesDaemon")) {
+            LOCAL_CHANGES_DAEMON = performanceSettings.get("localChangesDaemon").getAsBoolean();
+        }
+        if (performanceSettings.has("localChangesParallelism")) {
+            LOCAL_CHANGES_PARALLELISM = performanceSettings.get("localChangesParallelism").getAsInt();
+        }
+        if (performanceSettings.has("localChangesTimeoutSeconds")) {
+            LOCAL_CHANGES_TIMEOUT_SECONDS = performanceSettings.get("localChangesTimeoutSeconds").getAsInt();
+        }
+        if (performanceSettings.has("commitDedup")) {
+            COMMIT_DEDUP = performanceSettings.get("commitDedup").getAsBoolean();
+        }
+        if (performanceSettings.has("promptTokenBudget")) {
+            PROMPT_TOKEN_BUDGET = performanceSettings.get("promptTokenBudget").getAsInt();
+        }
+        if (performanceSettings.has("reportCache")) {
+            REPORT_CACHE = performanceSettings.get("reportCache").getAsBoolean();
+        }
+        if (performanceSettings.has("teamParallelism")) {
+            TEAM_PARALLELISM = performanceSettings.get("teamParallelism").getAsInt();
+        }
+        if (performanceSettings.has("teamMemberTimeoutSeconds")) {
+            TEAM_MEMBER_TIMEOUT_SECONDS = performanceSettings.get("teamMemberTimeoutSeconds").getAsInt();
+        }
+    }
+
+    /**
+     * Share the debug flag and performance settings with stages that run in this JVM
+     */
+    private static void propagateStageSettings() {
+        CollectActivity.CONCURRENT = CONCURRENT_SEARCHES;
+        CollectActivity.INCREMENTAL = INCREMENTAL_COLLECTION;
+        CollectActivity.SEARCH_PARALLELISM = SEARCH_WINDOW_PARALLELISM;
+        CollectActivity.RATE_LIMITING = GITHUB_RATE_LIMITING;
+        CollectActivity.DEBUG = DEBUG;
+        AnalyzeDiffs.DEBUG = DEBUG;
+        AnalyzeDiffs.PARALLELISM = DIFF_PARALLELISM;
+        AnalyzeDiffs.PR_TIMEOUT_SECONDS = DIFF_TIMEOUT_SECONDS;
+        AnalyzeDiffs.CACHE_ENABLED = DIFF_CACHE;
+        AnalyzeDiffs.CACHE_MAX_BYTES = DIFF_CACHE_MAX_MB * 1024L * 1024L;
+        ActivityAggregator.DEBUG = DEBUG;
+        LocalChangesDetector.DEBUG = DEBUG;
+        LocalChangesDetector.SINGLE_PASS = SINGLE_PASS_LOCAL_CHANGES;
+        ActivityAggregator.USE_DAEMON = LOCAL_CHANGES_DAEMON;
+        ActivityAggregator.LOCAL_PARALLELISM = LOCAL_CHANGES_PARALLELISM;
+        ActivityAggregator.LOCAL_TIMEOUT_SECONDS = LOCAL_CHANGES_TIMEOUT_SECONDS;
+    }
+
     static class Args {
         int days = 1;
         String user = null;
@@ -216,8 +347,10 @@ public class Main {
         List<String> team = null;
         String output = null;
         boolean noClaude = false;
+        boolean refresh = false;
         boolean debug = false;
         boolean debugOverride = false;
+        boolean subprocess = false;
 
         // Date shortcuts
         boolean yesterday = false;
@@ -273,6 +406,9 @@ public class Main {
                 case "--no-claude":
                     parsed.noClaude = true;
                     break;
+                case "--refresh":
+                    parsed.refresh = true;
+                    break;
                 case "--yesterday":
                     parsed.yesterday = true;
                     break;
@@ -314,6 +450,9 @@ public class Main {
                 case "--debug-override":
                     parsed.debugOverride = true;
                     break;
+                case "--subprocess":
+                    parsed.subprocess = true;
+                    break;
                 case "--help":
                 case "-h":
                     printHelp();
@@ -338,8 +477,10 @@ public class Main {
         System.out.println("  --team USERS...     Generate team report for multiple users");
         System.out.println("  --output, -o FILE   Write to file instead of stdout");
         System.out.println("  --no-claude         Skip claude -p call and output prompt directly");
+        System.out.println("  --refresh           Regenerate the report even if activity is unchanged since the last one");
         System.out.println("  --debug, -D         Enable verbose debug logging (saves to ~/.claude-gh-standup/debug/)");
         System.out.println("  --debug-override    Use fixed debug filenames (overwrite previous, no timestamps)");
+        System.out.println("  --subprocess        Run each pipeline stage in its own jbang JVM (legacy mode)");
         System.out.println("  --help, -h          Show this help message");
         System.out.println();
         System.out.println("Date Shortcuts:");
@@ -417,7 +558,7 @@ public class Main {
                 String state = pr.get("state").getAsString();
 
                 sb.append("- [").append(repoName).append("] #").append(number).append(": ")
-                        .append(title).append(" (").append(state).append(")\n");
+                        .append(title).append(" (").append(state).append(commitCount(pr)).append(")\n");
             }
             sb.append("\n");
         }
@@ -452,6 +593,17 @@ public class Main {
         return sb.toString();
     }
 
+    /**
+     * ", N commits" for a PR that absorbed commits in deduplicateCommits, else ""
+     */
+    private static String commitCount(JsonObject pr) {
+        if (!pr.has(CommitDeduplicator.COMMIT_COUNT)) {
+            return "";
+        }
+        int count = pr.get(CommitDeduplicator.COMMIT_COUNT).getAsInt();
+        return ", " + count + (count == 1 ? " commit" : " commits");
+    }
+
     /**
      * Groups GitHub activities by repository name for multi-directory mode display.
      * Activities are extracted from the single githubActivity object and grouped by repo.
@@ -504,7 +656,7 @@ public class Main {
                 String state = pr.get("state").getAsString();
 
                 repoActivities.computeIfAbsent(repoName, k -> new ArrayList<>())
-                    .add("- PR #" + number + ": " + title + " (" + state + ")");
+                    .add("- PR #" + number + ": " + title + " (" + state + commitCount(pr) + ")");
             }
         }
 
@@ -594,6 +746,14 @@ public class Main {
     }
 
     public static String runScript(String scriptName, List<String> scriptArgs, String directorySuffix) throws Exception {
+        return runScript(scriptName, scriptArgs, directorySuffix, null);
+    }
+
+    /**
+     * @param stdin Payload streamed to the script's stdin (for a "-" argument), or null
+     */
+    public static String runScript(String scriptName, List<String> scriptArgs, String directorySuffix,
+                                   StageIO.Payload stdin) throws Exception {
         long startTime = System.currentTimeMillis();
         debug("runScript called for: " + scriptName);
         debug("Number of args: " + scriptArgs.size());
@@ -623,11 +783,70 @@ public class Main {
         if (DEBUG) {
             command.add("--debug");
         }
+        if (!CONCURRENT_SEARCHES && scriptName.equals("CollectActivity.java")) {
+            command.add("--sequential");
+        }
+        if (!INCREMENTAL_COLLECTION && scriptName.equals("CollectActivity.java")) {
+            command.add("--full");
+        }
+        if (scriptName.equals("CollectActivity.java")) {
+            command.add("--search-parallelism");
+            command.add(String.valueOf(SEARCH_WINDOW_PARALLELISM));
+            if (!GITHUB_RATE_LIMITING) {
+                command.add("--no-rate-limit");
+            }
+        }
 
         debug("Command: " + String.join(" ", command));
         ProcessBuilder pb = new ProcessBuilder(command);
         debug("Starting process...");
         Process process = pb.start();
+        Set<Process> running = RUNNING_SCRIPTS.computeIfAbsent(Thread.currentThread(), t -> ConcurrentHashMap.newKeySet());
+        running.add(process);
+        try {
+            return awaitScript(scriptName, scriptArgs, directorySuffix, stdin, process, startTime);
+        } finally {
+            running.remove(process);
+            if (running.isEmpty()) {
+                RUNNING_SCRIPTS.remove(Thread.currentThread(), running);
+            }
+        }
+    }
+
+    // jbang processes per calling thread, so a timed-out team member's scripts can be killed
+    private static final Map<Thread, Set<Process>> RUNNING_SCRIPTS = new ConcurrentHashMap<>();
+
+    /**
+     * Forcibly stop every script (and its children, e.g. gh) that runScript
+     * started on the given thread and that is still running.
+     */
+    static void destroyScripts(Thread thread) {
+        Set<Process> processes = RUNNING_SCRIPTS.remove(thread);
+        if (processes == null) {
+            return;
+        }
+        for (Process process : processes) {
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+        }
+    }
+
+    /**
+     * TeamReportPipeline timeout hook: kill the scripts and in-process gh
+     * searches a timed-out member is still blocked on.
+     */
+    private static void destroyMemberProcesses(Thread member) {
+        destroyScripts(member);
+        CollectActivity.destroyProcesses(member);
+    }
+
+    private static String awaitScript(String scriptName, List<String> scriptArgs, String directorySuffix,
+                                      StageIO.Payload stdin, Process process, long startTime) throws Exception {
+        if (stdin != null) {
+            StageIO.send(process, stdin);
+        } else {
+            process.getOutputStream().close();
+        }
         debug("Process started, reading stdout...");
 
         // Capture stdout
@@ -670,6 +889,110 @@ public class Main {
         return output.toString();
     }
 
+    /**
+     * A pipeline stage executed inside the current JVM.
+     */
+    @FunctionalInterface
+    interface InProcessStage<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * Run a stage in-process, with the same timing and debug capture as runScript().
+     */
+    private static <T> T runInProcess(String scriptName, List<String> scriptArgs, InProcessStage<T> stage) throws Exception {
+        long startTime = System.currentTimeMillis();
+        debug("Running " + scriptName + " in-process");
+
+        T result;
+        try {
+            result = stage.run();
+        } catch (Exception e) {
+            long elapsed = System.currentTimeMillis() - startTime;
+            saveScriptDebugLog(scriptName, scriptArgs, "", String.valueOf(e), 1, elapsed, null);
+            throw e;
+        }
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        // Serializing a large stage result is wasted work unless it is captured
+        if (capturesScriptOutput()) {
+            String output = result instanceof String ? (String) result : gson.toJson(result);
+            saveScriptDebugLog(scriptName, scriptArgs, output, "", 0, elapsed, null);
+        }
+        debug(scriptName + " completed in-process in " + elapsed + "ms");
+        return result;
+    }
+
+    /**
+     * Collect GitHub activity (CollectActivity stage).
+     */
+    private static JsonObject collectActivity(String user, int days, String repo) throws Exception {
+        List<String> activityArgs = new ArrayList<>();
+        activityArgs.add(user);
+        activityArgs.add(String.valueOf(days));
+        if (repo != null) {
+            activityArgs.add(repo);
+        }
+        debug("Calling CollectActivity with args: " + activityArgs);
+
+        if (IN_PROCESS) {
+            return runInProcess("CollectActivity.java", activityArgs,
+                () -> CollectActivity.collectAllActivity(user, days, repo));
+        }
+
+        String activityJson = runScript("CollectActivity.java", activityArgs);
+        debug("Activity JSON received, length: " + activityJson.length() + " chars");
+        return com.google.gson.JsonParser.parseString(activityJson).getAsJsonObject();
+    }
+
+    /**
+     * Analyze PR diffs for collected activity (AnalyzeDiffs stage).
+     */
+    private static String analyzeDiffs(JsonObject activity) throws Exception {
+        if (IN_PROCESS) {
+            return runInProcess("AnalyzeDiffs.java", List.of("<activity>"), () -> {
+                JsonArray prs = activity.getAsJsonArray("pull_requests");
+                return AnalyzeDiffs.formatDiffSummary(AnalyzeDiffs.analyzePRDiffs(prs)) + "\n";
+            });
+        }
+
+        List<String> diffArgs = new ArrayList<>();
+        diffArgs.add(StageIO.STDIN);
+        diffArgs.add("--parallelism");
+        diffArgs.add(String.valueOf(DIFF_PARALLELISM));
+        diffArgs.add("--pr-timeout");
+        diffArgs.add(String.valueOf(DIFF_TIMEOUT_SECONDS));
+        if (!DIFF_CACHE) {
+            diffArgs.add("--no-cache");
+        }
+        return runScript("AnalyzeDiffs.java", diffArgs, null, StageIO.Payload.json(activity));
+    }
+
+    /**
+     * Fold commits that belong to one of the user's PRs into that PR's commit count
+     * (performanceSettings.commitDedup). All PR commit lists are read with one
+     * GraphQL call, bounded by diffTimeoutSeconds. Runs after the report cache
+     * check, so a cached report costs no lookup.
+     */
+    private static JsonObject deduplicateCommits(JsonObject activity) {
+        if (!COMMIT_DEDUP || activity == null) {
+            return activity;
+        }
+        long startTime = System.currentTimeMillis();
+        CommitDeduplicator deduplicator = new CommitDeduplicator(
+            CommitDeduplicator.gh(Duration.ofSeconds(DIFF_TIMEOUT_SECONDS)));
+        try {
+            CommitDeduplicator.Result result = deduplicator.deduplicate(activity);
+            debug("Commit dedup: folded " + result.foldedCommits() + " commits into " + result.linkedPrs() +
+                  " PRs (" + result.failedLookups() + " PR lookups failed) in " +
+                  (System.currentTimeMillis() - startTime) + "ms");
+            return result.activity();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return activity;
+        }
+    }
+
     private static int calculateDays(Args parsed) {
         if (parsed.yesterday) {
             LocalDate today = LocalDate.now();
@@ -708,6 +1031,7 @@ public class Main {
     private static boolean shouldUseMultiDirectoryMode(JsonObject config, Args parsed) {
         if (config == null) return false;
         if (parsed.repo != null) return false;  // Explicit --repo overrides config
+        if (parsed.team != null) return false;  // Team reports cover GitHub activity only
         if (!config.has("directories")) return false;
 
         JsonArray dirs = config.getAsJsonArray("directories");
@@ -733,9 +1057,78 @@ public class Main {
 
         // Call ActivityAggregator
         System.err.println("Aggregating activities across directories...");
-        String configJson = gson.toJson(config);
-        debug("Config JSON length: " + configJson.length() + " chars");
+        JsonObject aggregated;
+        if (IN_PROCESS) {
+            final String aggregatorUser = user;
+            List<String> aggregatorArgs = Arrays.asList("<config>", user, String.valueOf(days));
+            try {
+                aggregated = runInProcess("ActivityAggregator.java", aggregatorArgs,
+                    () -> gson.toJsonTree(ActivityAggregator.aggregate(config, aggregatorUser, days)).getAsJsonObject());
+            } catch (Exception e) {
+                System.err.println("ActivityAggregator failed: " + e.getMessage());
+                System.exit(1);
+                return;
+            }
+        } else {
+            aggregated = runActivityAggregatorProcess(config, user, days);
+        }
+
+        String template = loadPromptTemplate("multidir-standup.prompt.md");
+        boolean autoSave = config.has("reportSettings") &&
+            config.getAsJsonObject("reportSettings").get("autoSaveReports").getAsBoolean();
+        Path reportPath = autoSave ? reportPath(config, aggregated) : null;
+
+        JsonObject metadata = aggregated.getAsJsonObject("metadata");
+        JsonObject githubActivity = aggregated.getAsJsonObject("githubActivity");
+        ReportCache.Fingerprint fingerprint = new ReportCache.Fingerprint()
+            .add("template", template)
+            .add("user", metadata.get("user"))
+            .add("days", metadata.get("days"))
+            .add("promptTokenBudget", PROMPT_TOKEN_BUDGET)
+            .add("commitDedup", COMMIT_DEDUP)
+            .addItems("localChanges", aggregated.getAsJsonArray("localChanges"));
+        for (String field : List.of("commits", "pull_requests", "issues")) {
+            fingerprint.addItems(field, githubActivity == null ? null : githubActivity.getAsJsonArray(field));
+        }
+        ReportCache cache = reportCache(config, parsed);
+        String key = fingerprint.hex();
+        if (cache != null && !parsed.refresh && reuseCachedReport(cache, key, reportPath)) {
+            return;
+        }
+
+        if (githubActivity != null) {
+            aggregated.add("githubActivity", deduplicateCommits(githubActivity));
+        }
 
+        // Format multi-dir prompt
+        debug("Formatting multi-directory prompt");
+        String prompt = formatMultiDirPrompt(aggregated, template);
+        debug("Multi-dir prompt length: " + prompt.length() + " chars");
+
+        if (parsed.noClaude) {
+            debug("--no-claude flag set, returning prompt directly");
+            if (reportPath != null) {
+                saveReport(prompt, reportPath);
+            }
+            System.out.println(prompt);
+            return;
+        }
+
+        // Report is printed and saved as it streams in
+        debug("Invoking Claude for report generation");
+        ClaudeStream.Metrics metrics = generateReportWithClaude(prompt, reportPath, cache, key);
+        if (!metrics.succeeded()) {
+            throw new RuntimeException("Claude generation failed with exit code: " + metrics.exitCode());
+        }
+        if (reportPath != null) {
+            System.err.println("✓ Report saved to: " + reportPath);
+        }
+    }
+
+    /**
+     * Run ActivityAggregator in its own jbang JVM (legacy --subprocess mode).
+     */
+    private static JsonObject runActivityAggregatorProcess(JsonObject config, String user, int days) throws Exception {
         String installDir = System.getProperty("user.home") + "/.claude-gh-standup";
         String aggregatorScript = installDir + "/scripts/ActivityAggregator.java";
         if (!Files.exists(Paths.get(aggregatorScript))) {
@@ -746,18 +1139,41 @@ public class Main {
         List<String> command = new ArrayList<>();
         command.add("jbang");
         command.add(aggregatorScript);
-        command.add(configJson);
+        command.add(StageIO.STDIN);   // Config is streamed to stdin
         command.add(user);
         command.add(String.valueOf(days));
+        command.add("--subprocess");
         if (DEBUG) {
             command.add("--debug");
         }
-        debug("ActivityAggregator command args: configJson=" + configJson.length() + "chars, user=" + user + ", days=" + days);
+        if (!SINGLE_PASS_LOCAL_CHANGES) {
+            command.add("--multi-pass");
+        }
+        if (!LOCAL_CHANGES_DAEMON) {
+            command.add("--no-daemon");
+        }
+        command.add("--local-parallelism");
+        command.add(String.valueOf(LOCAL_CHANGES_PARALLELISM));
+        command.add("--local-timeout");
+        command.add(String.valueOf(LOCAL_CHANGES_TIMEOUT_SECONDS));
+        if (!CONCURRENT_SEARCHES) {
+            command.add("--sequential");
+        }
+        if (!INCREMENTAL_COLLECTION) {
+            command.add("--full");
+        }
+        command.add("--search-parallelism");
+        command.add(String.valueOf(SEARCH_WINDOW_PARALLELISM));
+        if (!GITHUB_RATE_LIMITING) {
+            command.add("--no-rate-limit");
+        }
+        debug("ActivityAggregator command args: config=<stdin>, user=" + user + ", days=" + days);
 
         ProcessBuilder pb = new ProcessBuilder(command);
         long startTime = System.currentTimeMillis();
 
         Process process = pb.start();
+        StageIO.send(process, StageIO.Payload.json(config));
         StringBuilder aggregatedJson = new StringBuilder();
         StringBuilder stderrCapture = new StringBuilder();
 
@@ -788,7 +1204,7 @@ public class Main {
         debug("ActivityAggregator exited with code: " + exitCode + " (elapsed: " + elapsed + "ms)");
 
         // Save debug log for ActivityAggregator
-        List<String> aggregatorArgs = Arrays.asList(configJson.length() + " chars", user, String.valueOf(days));
+        List<String> aggregatorArgs = Arrays.asList("<config>", user, String.valueOf(days));
         saveScriptDebugLog("ActivityAggregator.java", aggregatorArgs,
                           aggregatedJson.toString(), stderrCapture.toString(),
                           exitCode, elapsed, null);
@@ -800,58 +1216,16 @@ public class Main {
 
         // Parse aggregated data
         debug("Aggregated JSON length: " + aggregatedJson.length() + " chars");
-        JsonObject aggregated = gson.fromJson(aggregatedJson.toString(), JsonObject.class);
-
-        // Format multi-dir prompt
-        debug("Formatting multi-directory prompt");
-        String prompt = formatMultiDirPrompt(aggregated);
-        debug("Multi-dir prompt length: " + prompt.length() + " chars");
-
-        // Generate report
-        String report;
-        if (parsed.noClaude) {
-            debug("--no-claude flag set, returning prompt directly");
-            report = prompt;
-        } else {
-            debug("Invoking Claude for report generation");
-            report = generateReportWithClaude(prompt);
-            debug("Report generated, length: " + report.length() + " chars");
-        }
-
-        // Auto-save if enabled
-        if (config.has("reportSettings")) {
-            JsonObject reportSettings = config.getAsJsonObject("reportSettings");
-            boolean autoSave = reportSettings.get("autoSaveReports").getAsBoolean();
-            if (autoSave) {
-                saveReport(report, config, aggregated);
-            }
-        }
-
-        // Note: report is already printed in real-time by generateReportWithClaude()
-        // Only print here if --no-claude was used (prompt mode)
-        if (parsed.noClaude) {
-            System.out.println(report);
-        }
+        return gson.fromJson(aggregatedJson.toString(), JsonObject.class);
     }
 
-    private static String formatMultiDirPrompt(JsonObject aggregated) throws IOException {
-        // Load template
-        String installDir = System.getProperty("user.home") + "/.claude-gh-standup";
-        Path templatePath = Paths.get(installDir, "prompts/multidir-standup.prompt.md");
-        if (!Files.exists(templatePath)) {
-            templatePath = Paths.get("prompts/multidir-standup.prompt.md");  // Fallback for development
-        }
-        String template = Files.readString(templatePath);
-
+    private static String formatMultiDirPrompt(JsonObject aggregated, String template) {
         // Extract data
         JsonObject githubActivity = aggregated.getAsJsonObject("githubActivity");
         JsonArray localChanges = aggregated.getAsJsonArray("localChanges");
         JsonObject metadata = aggregated.getAsJsonObject("metadata");
         int days = metadata.get("days").getAsInt();
 
-        // Format GitHub activity (now a single object with commits/PRs/issues arrays, grouped by repo)
-        String githubStr = formatActivitiesGroupedByRepo(githubActivity, days);
-
         // Format local changes
         StringBuilder localStr = new StringBuilder();
         for (JsonElement elem : localChanges) {
@@ -911,6 +1285,12 @@ public class Main {
             localStr.append("\n");
         }
 
+        // Format GitHub activity (now a single object with commits/PRs/issues arrays, grouped by repo),
+        // condensed to fit the prompt budget
+        PromptBudget.Result budget = fitPromptBudget(githubActivity, null,
+            PromptBudget.estimateTokens(template) + PromptBudget.estimateTokens(localStr));
+        String githubStr = formatActivitiesGroupedByRepo(budget.activity(), days) + budget.note();
+
         // Replace placeholders
         String formatted = template
             .replace("{{githubActivity}}", githubStr)
@@ -923,60 +1303,255 @@ public class Main {
         return formatted;
     }
 
-    private static String generateReportWithClaude(String prompt) throws Exception {
-        // Use stdin to pass prompt (avoids command-line length limits)
-        ProcessBuilder pb = new ProcessBuilder("claude", "-p", "-");
-        Process process = pb.start();
+    /**
+     * Condense the lowest-priority activity (and diff file list) when the prompt
+     * would exceed performanceSettings.promptTokenBudget.
+     */
+    private static PromptBudget.Result fitPromptBudget(JsonObject activity, String diffSummary, int fixedTokens) {
+        PromptBudget.Result result = new PromptBudget(PROMPT_TOKEN_BUDGET).fit(activity, diffSummary, fixedTokens);
+        debug("Prompt estimate: ~" + result.tokensBefore() + " tokens (budget " + PROMPT_TOKEN_BUDGET + ")");
+        if (result.isCompacted()) {
+            System.err.println("ℹ Prompt over budget (~" + result.tokensBefore() + " > " + PROMPT_TOKEN_BUDGET +
+                " tokens): condensed " + result.collapsedItems() + " items into " + result.compacted().size() +
+                " summary lines (~" + result.tokensAfter() + " tokens)");
+            for (String line : result.compacted()) {
+                debug("Condensed: " + line);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A prompt template in the install directory, or in the working directory
+     * during development.
+     */
+    private static Path promptTemplatePath(String name) {
+        String installDir = System.getProperty("user.home") + "/.claude-gh-standup";
+        Path templatePath = Paths.get(installDir, "prompts", name);
+        if (!Files.exists(templatePath)) {
+            templatePath = Paths.get("prompts", name);  // Fallback for development
+        }
+        return templatePath;
+    }
 
-        StringBuilder reportOutput = new StringBuilder();
+    private static String loadPromptTemplate(String name) throws IOException {
+        Path templatePath = promptTemplatePath(name);
+        debug("Loading prompt template from: " + templatePath);
+        return Files.readString(templatePath);
+    }
 
-        // Write prompt to claude's stdin in a separate thread
-        new Thread(() -> {
-            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()))) {
-                writer.write(prompt);
-                writer.flush();
-            } catch (IOException e) {
-                System.err.println("Error writing to claude stdin: " + e.getMessage());
-            }
-        }).start();
+    /**
+     * Fill standup.prompt.md for one user, condensing activity to fit the prompt budget.
+     */
+    private static String standupPrompt(String template, JsonObject activity, String diffSummary, int days) {
+        PromptBudget.Result budget = fitPromptBudget(activity, diffSummary, PromptBudget.estimateTokens(template));
+        String formattedActivities = formatActivities(budget.activity()) + budget.note();
+        debug("Formatted activities length: " + formattedActivities.length() + " chars");
+
+        String fullPrompt = template
+                .replace("{{activities}}", formattedActivities)
+                .replace("{{diffs}}", budget.diffSummary())
+                .replace("{{days}}", String.valueOf(days));
+        debug("Full prompt assembled, length: " + fullPrompt.length() + " chars");
+        return fullPrompt;
+    }
 
-        // Stream stderr to System.err in real-time (for status messages)
-        new Thread(() -> {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    System.err.println(line);
-                }
-            } catch (IOException e) {
-                // Ignore
+    /**
+     * Report cache key for a standupPrompt() report, taken from the activity
+     * before deduplicateCommits() so a cache hit needs no PR commit lookup.
+     */
+    private static String standupFingerprint(String template, String user, String repo, int days,
+                                             JsonObject activity, String diffSummary) {
+        ReportCache.Fingerprint fingerprint = new ReportCache.Fingerprint()
+            .add("template", template)
+            .add("user", user)
+            .add("repo", repo)
+            .add("days", days)
+            .add("promptTokenBudget", PROMPT_TOKEN_BUDGET)
+            .add("commitDedup", COMMIT_DEDUP)
+            .addLines("diffs", diffSummary);
+        for (String field : List.of("commits", "pull_requests", "issues")) {
+            fingerprint.addItems(field, activity.getAsJsonArray(field));
+        }
+        return fingerprint.hex();
+    }
+
+    /**
+     * Team mode: generate every member's report with TeamReportPipeline
+     * (performanceSettings.teamParallelism members at a time, each limited to
+     * teamMemberTimeoutSeconds), then consolidate them with TeamAggregator.
+     */
+    private static void runTeamMode(JsonObject config, Args parsed) throws Exception {
+        int days = calculateDays(parsed);
+        String template = loadPromptTemplate("standup.prompt.md");
+        ReportCache cache = reportCache(config, parsed);
+        int parallelism = Math.max(1, Math.min(TEAM_PARALLELISM, parsed.team.size()));
+        int memberTimeoutSeconds = Math.max(1, TEAM_MEMBER_TIMEOUT_SECONDS);
+        System.err.println("Generating team report for " + parsed.team.size() + " members (" +
+            parallelism + " at a time)...");
+        debug("Team pipeline: parallelism=" + parallelism + ", memberTimeout=" + memberTimeoutSeconds + "s");
+
+        long startTime = System.currentTimeMillis();
+        TeamReportPipeline pipeline = new TeamReportPipeline(
+            (member, deadline) -> memberReport(member, days, parsed, template, cache, deadline),
+            parallelism, Duration.ofSeconds(memberTimeoutSeconds), Main::destroyMemberProcesses);
+        List<TeamReportPipeline.MemberResult> results = pipeline.run(parsed.team);
+
+        StringBuilder teamReports = new StringBuilder();
+        int completed = 0;
+        for (TeamReportPipeline.MemberResult result : results) {
+            teamReports.append("## ").append(result.member()).append("\n\n");
+            if (result.completed()) {
+                completed++;
+                teamReports.append(result.report().strip()).append("\n\n");
+            } else {
+                System.err.println("⚠ Warning: No report for " + result.member() + " (" +
+                    result.status().name().toLowerCase().replace('_', ' ') + ": " + result.error() + ")");
+                teamReports.append("_No report available (").append(result.error()).append(")._\n\n");
             }
-        }).start();
+            debug("Team member " + result.member() + ": " + result.status() + " in " + result.elapsedMillis() + "ms");
+        }
+        System.err.println("✓ " + completed + "/" + results.size() + " member reports in " +
+            (System.currentTimeMillis() - startTime) + "ms");
 
-        // Capture stdout and print in real-time
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                System.out.println(line);  // Print to user
-                reportOutput.append(line).append("\n");  // Capture for saving
+        Path teamPrompt = promptTemplatePath("team.prompt.md");
+        if (parsed.noClaude) {
+            debug("--no-claude flag set, outputting team prompt directly");
+            System.out.println(Files.readString(teamPrompt).replace("{{team_reports}}", teamReports.toString()));
+        } else if (IN_PROCESS) {
+            runInProcess("TeamAggregator.java", List.of("<team-reports>", teamPrompt.toString()),
+                () -> TeamAggregator.generateTeamReport(teamReports.toString(), teamPrompt.toString()));
+        } else {
+            List<String> teamArgs = new ArrayList<>();
+            teamArgs.add(StageIO.STDIN);
+            teamArgs.add(teamPrompt.toString());
+            System.out.print(runScript("TeamAggregator.java", teamArgs, null, StageIO.Payload.text(teamReports.toString())));
+        }
+    }
+
+    /**
+     * One member's individual report for runTeamMode(). Reports are collected
+     * rather than printed, since members finish in any order. With --no-claude
+     * the member's formatted activity stands in for the report.
+     */
+    private static String memberReport(String member, int days, Args parsed, String template,
+                                       ReportCache cache, long deadlineNanos) throws Exception {
+        System.err.println("Collecting activity for " + member + "...");
+        JsonObject activity = collectActivity(member, days, parsed.repo);
+        String diffSummary = analyzeDiffs(activity);
+
+        if (parsed.noClaude) {
+            return formatActivities(deduplicateCommits(activity)) + "\n" + diffSummary;
+        }
+
+        String key = standupFingerprint(template, member, parsed.repo, days, activity, diffSummary);
+        if (cache != null && !parsed.refresh) {
+            Optional<String> cached = cache.lookup(key);
+            if (cached.isPresent()) {
+                System.err.println("✓ " + member + ": activity unchanged, reusing the previous report");
+                return cached.get();
             }
         }
+        activity = deduplicateCommits(activity);
 
-        int exitCode = process.waitFor();
+        StringBuilder report = new StringBuilder();
+        List<ClaudeStream.Sink> sinks = new ArrayList<>();
+        sinks.add((chunk, length) -> report.append(chunk, 0, length));
+        if (cache != null) {
+            sinks.add(ClaudeStream.file(cache.entryFile(key)));
+        }
+        String prompt = standupPrompt(template, activity, diffSummary, days);
+        ClaudeStream.Metrics metrics = ClaudeStream.run(ClaudeStream.CLAUDE_COMMAND, new StringReader(prompt), sinks,
+            TeamReportPipeline.remaining(deadlineNanos));
+        debug("Claude finished for " + member + ": " + gson.toJson(metrics.toJson()).replaceAll("\\s+", " "));
+        if (!metrics.succeeded()) {
+            throw new RuntimeException("claude exited with code " + metrics.exitCode());
+        }
+        if (cache != null && metrics.bytesOut() > 0) {
+            cache.stored(key);
+        }
+        System.err.println("✓ " + member + ": report generated in " + metrics.totalMillis() + "ms");
+        return report.toString();
+    }
 
-        if (exitCode != 0) {
-            throw new RuntimeException("Claude generation failed with exit code: " + exitCode);
+    /**
+     * The report cache under reportSettings.reportDirectory, or null when
+     * performanceSettings.reportCache is off. With --refresh the new report is
+     * still stored, but a cached one is never reused.
+     */
+    private static ReportCache reportCache(JsonObject config, Args parsed) {
+        if (!REPORT_CACHE || parsed.noClaude) {
+            return null;
         }
+        String reportDir = "~/.claude-gh-standup/reports";
+        if (config != null && config.has("reportSettings") &&
+            config.getAsJsonObject("reportSettings").has("reportDirectory")) {
+            reportDir = config.getAsJsonObject("reportSettings").get("reportDirectory").getAsString();
+        }
+        return new ReportCache(Paths.get(expandTilde(reportDir)));
+    }
 
-        return reportOutput.toString();
+    /**
+     * Print the cached report for this fingerprint (and auto-save it to
+     * reportPath, if not null) when there is one.
+     *
+     * @return Whether a cached report was used
+     */
+    private static boolean reuseCachedReport(ReportCache cache, String fingerprint, Path reportPath) throws IOException {
+        Optional<String> cached = cache.lookup(fingerprint);
+        debug("Report cache " + (cached.isPresent() ? "hit" : "miss") + ": " + fingerprint);
+        if (cached.isEmpty()) {
+            return false;
+        }
+        System.err.println("ℹ Activity unchanged since the last report; reusing it (use --refresh to regenerate)");
+        System.out.print(cached.get());
+        System.out.flush();
+        if (reportPath != null) {
+            saveReport(cached.get(), reportPath);
+        }
+        return true;
     }
 
-    private static void saveReport(String report, JsonObject config, JsonObject aggregated) throws IOException {
+    /**
+     * Pipe the prompt through claude -p (stdin avoids command-line length limits),
+     * printing the report as it arrives and writing it to saveTo (if not null)
+     * and to the report cache (if not null).
+     */
+    private static ClaudeStream.Metrics generateReportWithClaude(String prompt, Path saveTo,
+                                                                 ReportCache cache, String fingerprint) throws Exception {
+        List<ClaudeStream.Sink> sinks = new ArrayList<>();
+        sinks.add(ClaudeStream.console(System.out));
+        if (saveTo != null) {
+            sinks.add(ClaudeStream.file(saveTo));
+        }
+        if (cache != null) {
+            sinks.add(ClaudeStream.file(cache.entryFile(fingerprint)));
+        }
+
+        ClaudeStream.Metrics metrics = ClaudeStream.run(ClaudeStream.CLAUDE_COMMAND, new StringReader(prompt), sinks);
+        debug("Claude finished: exit=" + metrics.exitCode() +
+              ", firstOutput=" + metrics.firstOutputMillis() + "ms" +
+              ", firstLine=" + metrics.firstLineMillis() + "ms" +
+              ", total=" + metrics.totalMillis() + "ms" +
+              ", bytesIn=" + metrics.bytesIn() + ", bytesOut=" + metrics.bytesOut());
+        saveScriptDebugLog("claude", ClaudeStream.CLAUDE_COMMAND.subList(1, 3),
+            gson.toJson(metrics.toJson()), "", metrics.exitCode(), metrics.totalMillis(), null);
+        if (cache != null && metrics.succeeded() && metrics.bytesOut() > 0) {
+            cache.stored(fingerprint);
+        }
+        return metrics;
+    }
+
+    private static void saveReport(String report, Path filepath) throws IOException {
+        Files.createDirectories(filepath.getParent());
+        Files.writeString(filepath, report);
+        System.err.println("✓ Report saved to: " + filepath);
+    }
+
+    private static Path reportPath(JsonObject config, JsonObject aggregated) {
         JsonObject reportSettings = config.getAsJsonObject("reportSettings");
         String reportDir = expandTilde(reportSettings.get("reportDirectory").getAsString());
 
-        // Create directory if needed
-        Files.createDirectories(Paths.get(reportDir));
-
         // Generate filename
         LocalDate today = LocalDate.now();
         String date = today.toString();  // YYYY-MM-DD format
@@ -998,17 +1573,12 @@ public class Main {
             filename = date + "-all-repos.md";
         }
 
-        Path filepath = Paths.get(reportDir, filename);
-        Files.writeString(filepath, report);
-        System.err.println("✓ Report saved to: " + filepath);
+        return Paths.get(reportDir, filename);
     }
 
-    private static void saveLegacyReport(String report, JsonObject reportSettings, String repo) throws IOException {
+    private static Path legacyReportPath(JsonObject reportSettings, String repo) {
         String reportDir = expandTilde(reportSettings.get("reportDirectory").getAsString());
 
-        // Create directory if needed
-        Files.createDirectories(Paths.get(reportDir));
-
         // Generate filename
         LocalDate today = LocalDate.now();
         String date = today.toString();  // YYYY-MM-DD format
@@ -1023,9 +1593,7 @@ public class Main {
             filename = date + "-all-repos.md";
         }
 
-        Path filepath = Paths.get(reportDir, filename);
-        Files.writeString(filepath, report);
-        System.err.println("✓ Report saved to: " + filepath);
+        return Paths.get(reportDir, filename);
     }
 
     private static void handleConfigCommand(Args parsed) throws Exception {
@@ -1066,6 +1634,12 @@ public class Main {
                 break;
         }
 
+        if (IN_PROCESS) {
+            // Same commands without a second JVM (and the only way in a native image)
+            ConfigManager.main(cmArgs.toArray(new String[0]));
+            System.exit(0);
+        }
+
         // Run ConfigManager with direct stdout (inheritIO)
         String installDir = System.getProperty("user.home") + "/.claude-gh-standup";
         String configScript = installDir + "/scripts/ConfigManager.java";
@@ -1094,6 +1668,7 @@ public class Main {
 
             // Apply debug settings from config (as defaults)
             applyDebugSettings(config);
+            applyPerformanceSettings(config);
 
             // CLI args override config settings
             if (parsed.debug) {
@@ -1102,6 +1677,10 @@ public class Main {
             if (parsed.debugOverride) {
                 DEBUG_OVERRIDE = true;
             }
+            if (parsed.subprocess) {
+                IN_PROCESS = false;
+            }
+            propagateStageSettings();
 
             // Initialize debug session (creates debug directory and session log)
             initDebugSession();
@@ -1112,10 +1691,27 @@ public class Main {
                   ", maxSessions=" + MAX_DEBUG_SESSIONS +
                   ", captureScriptOutput=" + CAPTURE_SCRIPT_OUTPUT +
                   ", verboseGit=" + VERBOSE_GIT_COMMANDS +
-                  ", verboseGitHub=" + VERBOSE_GITHUB_API);
+                  ", verboseGitHub=" + VERBOSE_GITHUB_API +
+                  ", inProcess=" + IN_PROCESS +
+                  ", concurrentSearches=" + CONCURRENT_SEARCHES +
+                  ", incrementalCollection=" + INCREMENTAL_COLLECTION +
+                  ", searchWindowParallelism=" + SEARCH_WINDOW_PARALLELISM +
+                  ", githubRateLimiting=" + GITHUB_RATE_LIMITING +
+                  ", diffParallelism=" + DIFF_PARALLELISM +
+                  ", diffTimeoutSeconds=" + DIFF_TIMEOUT_SECONDS +
+                  ", diffCache=" + DIFF_CACHE +
+                  ", singlePassLocalChanges=" + SINGLE_PASS_LOCAL_CHANGES +
+                  ", localChangesDaemon=" + LOCAL_CHANGES_DAEMON +
+                  ", localChangesParallelism=" + LOCAL_CHANGES_PARALLELISM +
+                  ", localChangesTimeoutSeconds=" + LOCAL_CHANGES_TIMEOUT_SECONDS +
+                  ", commitDedup=" + COMMIT_DEDUP +
+                  ", promptTokenBudget=" + PROMPT_TOKEN_BUDGET +
+                  ", reportCache=" + REPORT_CACHE +
+                  ", teamParallelism=" + TEAM_PARALLELISM +
+                  ", teamMemberTimeoutSeconds=" + TEAM_MEMBER_TIMEOUT_SECONDS);
             debug("Parsed arguments: days=" + parsed.days + ", user=" + parsed.user +
                   ", repo=" + parsed.repo + ", format=" + parsed.format +
-                  ", noClaude=" + parsed.noClaude + ", yesterday=" + parsed.yesterday +
+                  ", noClaude=" + parsed.noClaude + ", refresh=" + parsed.refresh + ", yesterday=" + parsed.yesterday +
                   ", lastWeek=" + parsed.lastWeek);
             if (parsed.team != null) {
                 debug("Team members: " + String.join(", ", parsed.team));
@@ -1168,38 +1764,7 @@ public class Main {
 
             // Team mode
             if (parsed.team != null) {
-                System.err.println("Generating team report for " + parsed.team.size() + " members...");
-                StringBuilder teamReports = new StringBuilder();
-
-                for (String member : parsed.team) {
-                    System.err.println("Generating report for " + member + "...");
-
-                    // Collect activity
-                    int days = calculateDays(parsed);
-                    List<String> activityArgs = new ArrayList<>();
-                    activityArgs.add(member);
-                    activityArgs.add(String.valueOf(days));
-                    if (parsed.repo != null) {
-                        activityArgs.add(parsed.repo);
-                    }
-                    String activityJson = runScript("CollectActivity.java", activityArgs);
-
-                    // Analyze diffs
-                    List<String> diffArgs = new ArrayList<>();
-                    diffArgs.add(activityJson);
-                    String diffSummary = runScript("AnalyzeDiffs.java", diffArgs);
-
-                    // Generate individual report (capture stdout differently for team mode)
-                    // For simplicity, we'll generate reports and consolidate them
-                    teamReports.append("## ").append(member).append("\n\n");
-                    teamReports.append("[Individual report would go here]\n\n");
-                }
-
-                // Generate team report
-                List<String> teamArgs = new ArrayList<>();
-                teamArgs.add(teamReports.toString());
-                runScript("TeamAggregator.java", teamArgs);
-
+                runTeamMode(config, parsed);
                 System.exit(0);
             }
 
@@ -1210,108 +1775,53 @@ public class Main {
             // Collect activity
             int days = calculateDays(parsed);
             debug("Effective days: " + days);
-            List<String> activityArgs = new ArrayList<>();
-            activityArgs.add(parsed.user);
-            activityArgs.add(String.valueOf(days));
-            if (parsed.repo != null) {
-                activityArgs.add(parsed.repo);
-            }
-            debug("Calling CollectActivity with args: " + activityArgs);
-            String activityJson = runScript("CollectActivity.java", activityArgs);
-            debug("Activity JSON received, length: " + activityJson.length() + " chars");
+            JsonObject activity = collectActivity(parsed.user, days, parsed.repo);
 
             System.err.println("Analyzing file changes...");
 
             // Analyze diffs
-            List<String> diffArgs = new ArrayList<>();
-            diffArgs.add(activityJson);
             debug("Calling AnalyzeDiffs");
-            String diffSummary = runScript("AnalyzeDiffs.java", diffArgs);
+            String diffSummary = analyzeDiffs(activity);
             debug("Diff summary received, length: " + diffSummary.length() + " chars");
 
             System.err.println("Generating standup report...");
 
             // Call claude directly instead of through GenerateReport.java subprocess
-            String installDir = System.getProperty("user.home") + "/.claude-gh-standup";
-            Path promptPath = Paths.get(installDir, "prompts/standup.prompt.md");
-            if (!Files.exists(promptPath)) {
-                promptPath = Paths.get("prompts/standup.prompt.md");  // Fallback for development
-            }
-            debug("Loading prompt template from: " + promptPath);
-            String promptTemplate = Files.readString(promptPath);
+            String promptTemplate = loadPromptTemplate("standup.prompt.md");
             debug("Prompt template loaded, length: " + promptTemplate.length() + " chars");
 
-            // Parse and format activities
-            JsonObject activity = com.google.gson.JsonParser.parseString(activityJson).getAsJsonObject();
-            String formattedActivities = formatActivities(activity);
-            debug("Formatted activities length: " + formattedActivities.length() + " chars");
-
-            // Inject data into template
-            String fullPrompt = promptTemplate
-                    .replace("{{activities}}", formattedActivities)
-                    .replace("{{diffs}}", diffSummary)
-                    .replace("{{days}}", String.valueOf(days));
-            debug("Full prompt assembled, length: " + fullPrompt.length() + " chars");
-
             // Check if we should skip claude -p (when running inside Claude Code)
             if (parsed.noClaude) {
                 debug("--no-claude flag set, outputting prompt directly");
                 // Output the prompt directly for Claude Code to process
-                System.out.println(fullPrompt);
+                System.out.println(standupPrompt(promptTemplate, deduplicateCommits(activity), diffSummary, days));
             } else {
                 debug("Invoking Claude CLI with prompt via stdin");
-                // Call claude -p and pipe prompt via stdin (avoids command-line length limits)
-                ProcessBuilder claudeBuilder = new ProcessBuilder("claude", "-p", "-");
-                Process claudeProcess = claudeBuilder.start();
-
-                // Capture output for auto-save
-                StringBuilder reportOutput = new StringBuilder();
-
-                // Write prompt to claude's stdin in a separate thread
-                new Thread(() -> {
-                    try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(claudeProcess.getOutputStream()))) {
-                        writer.write(fullPrompt);
-                        writer.flush();
-                    } catch (IOException e) {
-                        System.err.println("Error writing to claude stdin: " + e.getMessage());
-                    }
-                }).start();
-
-                // Stream stderr to System.err in real-time (for status messages)
-                new Thread(() -> {
-                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(claudeProcess.getErrorStream()))) {
-                        String line;
-                        while ((line = reader.readLine()) != null) {
-                            System.err.println(line);
-                        }
-                    } catch (IOException e) {
-                        // Ignore
-                    }
-                }).start();
-
-                // Capture stdout and print in real-time
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(claudeProcess.getInputStream()))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        System.out.println(line);  // Print to user
-                        reportOutput.append(line).append("\n");  // Capture for saving
-                    }
-                }
 
-                int claudeExitCode = claudeProcess.waitFor();
-
-                if (claudeExitCode != 0) {
-                    System.err.println("Claude invocation failed with exit code: " + claudeExitCode);
-                    System.exit(claudeExitCode);
-                }
-
-                // Auto-save if enabled in config
+                // Auto-save if enabled in config (written while the report streams in)
+                Path reportPath = null;
                 if (config != null && config.has("reportSettings")) {
                     JsonObject reportSettings = config.getAsJsonObject("reportSettings");
                     if (reportSettings.has("autoSaveReports") && reportSettings.get("autoSaveReports").getAsBoolean()) {
-                        saveLegacyReport(reportOutput.toString(), reportSettings, parsed.repo);
+                        reportPath = legacyReportPath(reportSettings, parsed.repo);
                     }
                 }
+
+                ReportCache cache = reportCache(config, parsed);
+                String key = standupFingerprint(promptTemplate, parsed.user, parsed.repo, days, activity, diffSummary);
+                if (cache != null && !parsed.refresh && reuseCachedReport(cache, key, reportPath)) {
+                    return;
+                }
+
+                String fullPrompt = standupPrompt(promptTemplate, deduplicateCommits(activity), diffSummary, days);
+                ClaudeStream.Metrics metrics = generateReportWithClaude(fullPrompt, reportPath, cache, key);
+                if (!metrics.succeeded()) {
+                    System.err.println("Claude invocation failed with exit code: " + metrics.exitCode());
+                    System.exit(metrics.exitCode());
+                }
+                if (reportPath != null) {
+                    System.err.println("✓ Report saved to: " + reportPath);
+                }
             }
 
         } catch (NumberFormatException e) {
@@ -0,0 +1,87 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS com.google.code.gson:gson:2.10.1
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * StageIO - Payload transport between pipeline stages in subprocess mode
+ *
+ * Config and activity JSON used to travel as command-line arguments, which the
+ * OS caps (128 KB per argument on Linux) and which every hop pretty-printed.
+ * Stages now accept, in place of a payload argument:
+ *   -        read the payload from stdin (what Main sends)
+ *   @<path>  read the payload from a file
+ * Any other value is taken as the payload itself, so direct invocation still works.
+ * Payloads are written as compact JSON and parsed straight from the stream.
+ */
+public class StageIO {
+
+    static final String STDIN = "-";
+
+    // Stage payloads are read by programs, not people
+    static final Gson COMPACT = new Gson();
+
+    /**
+     * Writes a payload to a stage's stdin.
+     */
+    @FunctionalInterface
+    interface Payload {
+        void writeTo(Writer out) throws IOException;
+
+        static Payload json(JsonElement element) {
+            return out -> COMPACT.toJson(element, out);
+        }
+
+        static Payload text(String text) {
+            return out -> out.write(text);
+        }
+    }
+
+    static Reader open(String arg) throws IOException {
+        if (arg.equals(STDIN)) {
+            return new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        }
+        if (arg.startsWith("@")) {
+            return Files.newBufferedReader(Paths.get(arg.substring(1)), StandardCharsets.UTF_8);
+        }
+        return new StringReader(arg);
+    }
+
+    static JsonElement readJson(String arg) throws IOException {
+        try (Reader reader = open(arg)) {
+            return JsonParser.parseReader(reader);
+        }
+    }
+
+    static String readText(String arg) throws IOException {
+        try (Reader reader = open(arg)) {
+            StringWriter text = new StringWriter();
+            reader.transferTo(text);
+            return text.toString();
+        }
+    }
+
+    /**
+     * Stream a payload into a started process's stdin on a background thread,
+     * so the caller can drain stdout at the same time.
+     */
+    static Thread send(Process process, Payload payload) {
+        Thread writer = new Thread(() -> {
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8))) {
+                payload.writeTo(out);
+            } catch (IOException e) {
+                // Stage exited before reading its input; its exit code reports the failure
+            }
+        }, "stage-stdin");
+        writer.setDaemon(true);
+        writer.start();
+        return writer;
+    }
+}
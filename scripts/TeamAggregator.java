@@ -1,15 +1,19 @@
 ///usr/bin/env jbang "$0" "$@" ; exit $?
 
 //DEPS com.google.code.gson:gson:2.10.1
+//SOURCES StageIO.java
+//SOURCES infrastructure/ai/ClaudeStream.java
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.List;
 
 /**
  * TeamAggregator - Aggregates individual standup reports into team summary
  *
- * Usage: jbang TeamAggregator.java <team-reports> [prompt-path]
+ * Usage: jbang TeamAggregator.java <team-reports|-|@file> [prompt-path]
  */
 public class TeamAggregator {
 
@@ -29,15 +33,13 @@ public class TeamAggregator {
         // Inject team reports
         String fullPrompt = promptTemplate.replace("{{team_reports}}", teamReports);
 
-        // Call claude -p with the team prompt
-        ProcessBuilder processBuilder = new ProcessBuilder("claude", "-p", fullPrompt);
-        processBuilder.inheritIO();
+        // Pipe the team prompt through claude -p (one report per member can exceed
+        // command-line limits) and print the team report as it arrives
+        ClaudeStream.Metrics metrics = ClaudeStream.run(ClaudeStream.CLAUDE_COMMAND, new StringReader(fullPrompt),
+            List.of(ClaudeStream.console(System.out)));
 
-        Process process = processBuilder.start();
-        int exitCode = process.waitFor();
-
-        if (exitCode != 0) {
-            throw new RuntimeException("Claude invocation failed with exit code: " + exitCode);
+        if (!metrics.succeeded()) {
+            throw new RuntimeException("Claude invocation failed with exit code: " + metrics.exitCode());
         }
 
         return "Team report generated successfully";
@@ -46,11 +48,11 @@ public class TeamAggregator {
     public static void main(String... args) {
         try {
             if (args.length < 1) {
-                System.err.println("Usage: jbang TeamAggregator.java <team-reports> [prompt-path]");
+                System.err.println("Usage: jbang TeamAggregator.java <team-reports|-|@file> [prompt-path]");
                 System.exit(1);
             }
 
-            String teamReports = args[0];
+            String teamReports = StageIO.readText(args[0]);
             String promptPath = args.length > 1 ? args[1] : "prompts/team.prompt.md";
 
             generateTeamReport(teamReports, promptPath);
@@ -1,3 +1,4 @@
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -12,6 +13,7 @@ import java.util.List;
  * @param url        The URL to view the issue on GitHub (optional)
  * @param repository The repository in "owner/repo" format (optional)
  * @param labels     List of label names (optional, can be null or empty)
+ * @param createdAt  When the issue was opened (optional)
  */
 public record Issue(
     int number,
@@ -19,7 +21,8 @@ public record Issue(
     String state,
     String url,
     String repository,
-    List<String> labels
+    List<String> labels,
+    Instant createdAt
 ) {
     /**
      * Compact constructor for validation.
@@ -40,6 +43,13 @@ public record Issue(
         }
     }
 
+    /**
+     * Create an issue without a creation timestamp.
+     */
+    public Issue(int number, String title, String state, String url, String repository, List<String> labels) {
+        this(number, title, state, url, repository, labels, null);
+    }
+
     /**
      * Check if issue is still open.
      */
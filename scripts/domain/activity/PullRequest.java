@@ -1,3 +1,5 @@
+import java.time.Instant;
+
 /**
  * Domain entity representing a GitHub Pull Request.
  *
@@ -11,6 +13,7 @@
  * @param repository The repository in "owner/repo" format (optional)
  * @param additions  Number of lines added (non-negative)
  * @param deletions  Number of lines deleted (non-negative)
+ * @param createdAt  When the PR was opened (optional)
  */
 public record PullRequest(
     int number,
@@ -19,7 +22,8 @@ public record PullRequest(
     String url,
     String repository,
     int additions,
-    int deletions
+    int deletions,
+    Instant createdAt
 ) {
     /**
      * Compact constructor for validation.
@@ -42,6 +46,14 @@ public record PullRequest(
         }
     }
 
+    /**
+     * Create a pull request without a creation timestamp.
+     */
+    public PullRequest(int number, String title, String state, String url, String repository,
+                       int additions, int deletions) {
+        this(number, title, state, url, repository, additions, deletions, null);
+    }
+
     /**
      * Total lines changed (additions + deletions).
      */
@@ -1,6 +1,7 @@
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 /**
  * Value object representing a date range for activity queries.
@@ -58,6 +59,16 @@ public record DateRange(LocalDate start, LocalDate end) {
         return end.format(ISO_FORMAT);
     }
 
+    /**
+     * Get the GitHub search window for this range ("YYYY-MM-DD..YYYY-MM-DD").
+     *
+     * Covers the days after start through end, which is what the ">start"
+     * qualifier used for lastDays() ranges matches, with an explicit upper bound.
+     */
+    public String searchWindow() {
+        return start.plusDays(1).format(ISO_FORMAT) + ".." + endIso();
+    }
+
     /**
      * Calculate the number of days between start and end (exclusive of end).
      * For a range of Jan 1 to Jan 3, this returns 2.
@@ -66,6 +77,25 @@ public record DateRange(LocalDate start, LocalDate end) {
         return ChronoUnit.DAYS.between(start, end);
     }
 
+    /**
+     * Whether the search window covers more than one day and can be split.
+     */
+    public boolean canSplit() {
+        return days() > 1;
+    }
+
+    /**
+     * Split into two ranges whose search windows are disjoint and together
+     * cover this range's search window.
+     */
+    public List<DateRange> split() {
+        if (!canSplit()) {
+            throw new IllegalStateException("Search window " + searchWindow() + " covers a single day");
+        }
+        LocalDate middle = start.plusDays(days() / 2);
+        return List.of(new DateRange(start, middle), new DateRange(middle, end));
+    }
+
     /**
      * Check if a date falls within this range (inclusive).
      */
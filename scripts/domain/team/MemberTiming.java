@@ -0,0 +1,35 @@
+import java.time.Duration;
+
+/**
+ * Value object recording how long activity collection took for one team member.
+ *
+ * This is a pure domain object with no external dependencies.
+ *
+ * @param username  The GitHub username (required)
+ * @param elapsed   Wall-clock collection time (required, non-negative)
+ * @param collected Whether activity was collected (false if the member degraded to pending)
+ */
+public record MemberTiming(String username, Duration elapsed, boolean collected) {
+
+    /**
+     * Compact constructor for validation.
+     */
+    public MemberTiming {
+        if (username == null || username.isBlank()) {
+            throw new IllegalArgumentException("Username is required");
+        }
+        if (elapsed == null) {
+            throw new IllegalArgumentException("Elapsed time is required");
+        }
+        if (elapsed.isNegative()) {
+            throw new IllegalArgumentException("Elapsed time cannot be negative");
+        }
+    }
+
+    /**
+     * Elapsed time in milliseconds.
+     */
+    public long elapsedMillis() {
+        return elapsed.toMillis();
+    }
+}
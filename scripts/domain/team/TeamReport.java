@@ -1,5 +1,6 @@
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Aggregate root representing a team standup report.
@@ -9,11 +10,13 @@ import java.util.List;
  * @param members     List of team members with their activity (immutable)
  * @param days        Number of days of activity covered
  * @param generatedAt When the report was generated
+ * @param timings     Per-member collection timings (immutable, may be empty)
  */
 public record TeamReport(
     List<TeamMember> members,
     int days,
-    Instant generatedAt
+    Instant generatedAt,
+    List<MemberTiming> timings
 ) {
     /**
      * Compact constructor for validation and immutability.
@@ -25,8 +28,16 @@ public record TeamReport(
         if (generatedAt == null) {
             throw new IllegalArgumentException("Generated timestamp is required");
         }
-        // Make members immutable
+        // Make members and timings immutable
         members = members == null ? List.of() : List.copyOf(members);
+        timings = timings == null ? List.of() : List.copyOf(timings);
+    }
+
+    /**
+     * Create a team report without timing information.
+     */
+    public TeamReport(List<TeamMember> members, int days, Instant generatedAt) {
+        this(members, days, generatedAt, List.of());
     }
 
     /**
@@ -81,4 +92,20 @@ public record TeamReport(
     public long activeMemberCount() {
         return members.stream().filter(m -> m.totalActivityCount() > 0).count();
     }
+
+    /**
+     * Number of team members whose activity could not be collected.
+     */
+    public long pendingMemberCount() {
+        return members.stream().filter(m -> !m.hasActivity()).count();
+    }
+
+    /**
+     * Find the collection timing for a member.
+     */
+    public Optional<MemberTiming> timingFor(String username) {
+        return timings.stream()
+            .filter(t -> t.username().equals(username))
+            .findFirst();
+    }
 }
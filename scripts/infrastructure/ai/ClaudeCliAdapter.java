@@ -1,27 +1,23 @@
 import java.io.*;
+import java.util.List;
 
 /**
  * Infrastructure adapter that implements ReportGeneratorPort
  * using the Claude CLI.
  *
- * Uses claude -p for prompt mode with streaming output.
+ * Pipes the prompt to claude -p over stdin (no command-line length limit)
+ * and streams the output to stdout as it arrives, via {@link ClaudeStream}.
  */
 public class ClaudeCliAdapter implements ReportGeneratorPort {
 
     @Override
     public void generate(String prompt) {
         try {
-            ProcessBuilder pb = new ProcessBuilder("claude", "-p", prompt);
+            ClaudeStream.Metrics metrics = ClaudeStream.run(ClaudeStream.CLAUDE_COMMAND,
+                new StringReader(prompt), List.of(ClaudeStream.console(System.out)));
 
-            // inheritIO() pipes claude's streaming output directly to stdout
-            // This provides real-time output without buffering
-            pb.inheritIO();
-
-            Process process = pb.start();
-            int exitCode = process.waitFor();
-
-            if (exitCode != 0) {
-                System.err.println("Warning: Claude CLI exited with code " + exitCode);
+            if (!metrics.succeeded()) {
+                System.err.println("Warning: Claude CLI exited with code " + metrics.exitCode());
             }
         } catch (IOException e) {
             System.err.println("Error: Could not execute claude CLI - " + e.getMessage());
@@ -0,0 +1,310 @@
+import com.google.gson.JsonObject;
+import java.io.*;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams a prompt through `claude -p -` and its output to several sinks at once.
+ *
+ * The prompt is copied into the process's stdin on its own thread through a
+ * fixed-size buffer, and stderr is drained on another. The calling thread reads
+ * stdout, so a prompt larger than the pipe can never deadlock against output
+ * that Claude has not been allowed to write yet.
+ *
+ * Output is forwarded chunk by chunk, as soon as it is read, to every sink
+ * (console, auto-save file, ...). Sinks are written on the reading thread, so
+ * a slow sink slows the reads and the full pipe pauses Claude instead of
+ * output piling up in memory. A sink that fails is dropped with a warning and
+ * the others keep receiving output.
+ *
+ * {@link Metrics} records time to first output and first line, total time and
+ * bytes in each direction. With a timeout, a process still running when it
+ * expires is killed (with its descendants) and the sinks are aborted.
+ */
+public class ClaudeStream {
+
+    public static final List<String> CLAUDE_COMMAND = List.of("claude", "-p", "-");
+
+    static final int BUFFER_CHARS = 8192;
+
+    /**
+     * Receives output as it arrives. complete() is called after a successful
+     * run, abort() after a failed one or when the sink itself failed.
+     */
+    public interface Sink {
+        void write(char[] chunk, int length) throws IOException;
+
+        default void complete() throws IOException {}
+
+        default void abort() {}
+    }
+
+    public record Metrics(int exitCode, long firstOutputMillis, long firstLineMillis, long totalMillis,
+                          long bytesIn, long bytesOut) {
+
+        public boolean succeeded() {
+            return exitCode == 0;
+        }
+
+        public JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("exitCode", exitCode);
+            json.addProperty("firstOutputMs", firstOutputMillis);
+            json.addProperty("firstLineMs", firstLineMillis);
+            json.addProperty("totalMs", totalMillis);
+            json.addProperty("bytesIn", bytesIn);
+            json.addProperty("bytesOut", bytesOut);
+            return json;
+        }
+    }
+
+    /**
+     * Run the command with the prompt on stdin and stream its stdout to the sinks.
+     * Timings are -1 when the process produced no output (or no complete line).
+     */
+    public static Metrics run(List<String> command, Reader prompt, List<Sink> sinks)
+            throws IOException, InterruptedException {
+        try {
+            return run(command, prompt, sinks, null);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(e);  // Unreachable without a timeout
+        }
+    }
+
+    /**
+     * Like {@link #run(List, Reader, List)}, but kill the process if it has not
+     * finished within timeout (null for no limit).
+     *
+     * @throws TimeoutException if the process was killed; every sink was aborted
+     */
+    public static Metrics run(List<String> command, Reader prompt, List<Sink> sinks, Duration timeout)
+            throws IOException, InterruptedException, TimeoutException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).start();
+
+        AtomicBoolean timedOut = new AtomicBoolean();
+        if (timeout != null) {
+            Thread watchdog = new Thread(() -> {
+                try {
+                    if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                        timedOut.set(true);
+                        // Descendants too, or one still holding stdout keeps the read below open
+                        process.descendants().forEach(ProcessHandle::destroyForcibly);
+                        process.destroyForcibly();
+                    }
+                } catch (InterruptedException e) {
+                    // Ignore
+                }
+            }, "claude-timeout");
+            watchdog.setDaemon(true);
+            watchdog.start();
+        }
+
+        AtomicLong bytesIn = new AtomicLong();
+        Thread writer = new Thread(() -> {
+            try (Writer stdin = new OutputStreamWriter(
+                    new CountingOutputStream(process.getOutputStream(), bytesIn), StandardCharsets.UTF_8)) {
+                char[] buffer = new char[BUFFER_CHARS];
+                int read;
+                while ((read = prompt.read(buffer)) != -1) {
+                    stdin.write(buffer, 0, read);
+                }
+            } catch (IOException e) {
+                // Process exited before reading its whole prompt; the exit code reports why
+            }
+        }, "claude-stdin");
+        writer.setDaemon(true);
+        writer.start();
+
+        Thread errors = new Thread(() -> {
+            try (BufferedReader stderr = new BufferedReader(
+                    new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = stderr.readLine()) != null) {
+                    System.err.println(line);  // Status messages pass straight through
+                }
+            } catch (IOException e) {
+                // Ignore
+            }
+        }, "claude-stderr");
+        errors.setDaemon(true);
+        errors.start();
+
+        List<Sink> active = new ArrayList<>(sinks);
+        AtomicLong bytesOut = new AtomicLong();
+        long firstOutput = -1;
+        long firstLine = -1;
+        try (Reader stdout = new InputStreamReader(
+                new CountingInputStream(process.getInputStream(), bytesOut), StandardCharsets.UTF_8)) {
+            char[] buffer = new char[BUFFER_CHARS];
+            int read;
+            while ((read = stdout.read(buffer)) != -1) {
+                if (firstOutput < 0) {
+                    firstOutput = System.nanoTime();
+                }
+                if (firstLine < 0 && contains(buffer, read, '\n')) {
+                    firstLine = System.nanoTime();
+                }
+                for (Iterator<Sink> it = active.iterator(); it.hasNext(); ) {
+                    Sink sink = it.next();
+                    try {
+                        sink.write(buffer, read);
+                    } catch (IOException e) {
+                        System.err.println("⚠ Warning: Report output stopped for one destination: " + e.getMessage());
+                        sink.abort();
+                        it.remove();
+                    }
+                }
+            }
+        }
+
+        int exitCode = process.waitFor();
+        errors.join(TimeUnit.SECONDS.toMillis(5));
+        long end = System.nanoTime();
+
+        if (timedOut.get()) {
+            active.forEach(Sink::abort);
+            throw new TimeoutException("claude did not finish within " + timeout.toSeconds() + "s");
+        }
+
+        for (Sink sink : active) {
+            if (exitCode == 0) {
+                try {
+                    sink.complete();
+                } catch (IOException e) {
+                    System.err.println("⚠ Warning: Could not finish report output: " + e.getMessage());
+                    sink.abort();
+                }
+            } else {
+                sink.abort();
+            }
+        }
+
+        return new Metrics(exitCode, millisSince(start, firstOutput), millisSince(start, firstLine),
+            millisSince(start, end), bytesIn.get(), bytesOut.get());
+    }
+
+    /**
+     * Print output as it arrives, flushing every chunk.
+     */
+    public static Sink console(PrintStream out) {
+        return (chunk, length) -> {
+            out.append(CharBuffer.wrap(chunk, 0, length));
+            out.flush();
+            if (out.checkError()) {
+                throw new IOException("console closed");
+            }
+        };
+    }
+
+    /**
+     * Write output to a file as it arrives. The text goes to a ".partial" file
+     * next to the target. It is moved over the target only when the run
+     * succeeds, so a failed run keeps the previous report.
+     */
+    public static Sink file(Path target) {
+        Path partial = target.resolveSibling(target.getFileName() + ".partial");
+        return new Sink() {
+            private Writer out;
+
+            @Override
+            public void write(char[] chunk, int length) throws IOException {
+                if (out == null) {
+                    Files.createDirectories(target.toAbsolutePath().getParent());
+                    out = Files.newBufferedWriter(partial, StandardCharsets.UTF_8);
+                }
+                out.write(chunk, 0, length);
+                out.flush();  // Keep the partial file current while Claude is still writing
+            }
+
+            @Override
+            public void complete() throws IOException {
+                if (out == null) {
+                    return;  // No output: leave any previous report alone
+                }
+                out.close();
+                Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            @Override
+            public void abort() {
+                try {
+                    if (out != null) {
+                        out.close();
+                    }
+                    Files.deleteIfExists(partial);
+                } catch (IOException e) {
+                    // Ignore
+                }
+            }
+        };
+    }
+
+    private static boolean contains(char[] buffer, int length, char c) {
+        for (int i = 0; i < length; i++) {
+            if (buffer[i] == c) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long millisSince(long start, long time) {
+        return time < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(time - start);
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private final AtomicLong count;
+
+        CountingOutputStream(OutputStream out, AtomicLong count) {
+            super(out);
+            this.count = count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count.addAndGet(len);
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private final AtomicLong count;
+
+        CountingInputStream(InputStream in, AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b != -1) {
+                count.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            if (read > 0) {
+                count.addAndGet(read);
+            }
+            return read;
+        }
+    }
+}
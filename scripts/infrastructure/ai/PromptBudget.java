@@ -0,0 +1,327 @@
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the report prompt within a token budget.
+ *
+ * Tokens are estimated from characters (about four per token for English
+ * text and code identifiers). That is close enough to decide whether to
+ * compact, and it needs no tokenizer. When the activity listing plus the
+ * fixed part of the prompt is over budget, the least significant items are
+ * collapsed into one summary line per repository (or one for files). This
+ * repeats, least significant first, until the prompt fits:
+ *
+ *   commits   1-30   merge commits lowest; feat/fix above chore/docs/typo
+ *   files     5-25   AnalyzeDiffs "Modified files" entries, by lines changed
+ *   issues   45-50
+ *   PRs      55-100  merged above open above closed
+ *
+ * The collapsed items are listed in {@link Result#note()}, which goes into
+ * the prompt so the report can say what was condensed.
+ */
+public class PromptBudget {
+
+    public static final int CHARS_PER_TOKEN = 4;
+    public static final int DEFAULT_BUDGET_TOKENS = 20000;
+
+    private static final int EXAMPLES_PER_GROUP = 2;
+    private static final int EXAMPLE_MAX_CHARS = 60;
+    private static final Pattern FILE_LINE = Pattern.compile("^- (.+) \\(\\+(\\d+), -(\\d+)\\)$");
+
+    /**
+     * @param activity    Activity with the collapsed commits, PRs and issues removed (a copy)
+     * @param diffSummary Diff summary with the collapsed files removed (null if none was given)
+     * @param compacted   One line per collapsed group, e.g. "[o/r] 42 commits, e.g. ..."
+     */
+    public record Result(JsonObject activity, String diffSummary, List<String> compacted,
+                         int tokensBefore, int tokensAfter, int collapsedItems) {
+
+        public boolean isCompacted() {
+            return !compacted.isEmpty();
+        }
+
+        /**
+         * Prompt section listing what was condensed, or "" when nothing was.
+         */
+        public String note() {
+            if (compacted.isEmpty()) {
+                return "";
+            }
+            StringBuilder sb = new StringBuilder();
+            sb.append("SUMMARIZED TO FIT THE PROMPT (").append(collapsedItems)
+              .append(" lower-priority items condensed; mention this briefly in the report):\n");
+            for (String line : compacted) {
+                sb.append("- ").append(line).append("\n");
+            }
+            return sb.append("\n").toString();
+        }
+    }
+
+    private enum Kind {
+        COMMIT("commit", "commits"),
+        PULL_REQUEST("pull request", "pull requests"),
+        ISSUE("issue", "issues"),
+        FILE("modified file", "modified files");
+
+        final String singular;
+        final String plural;
+
+        Kind(String singular, String plural) {
+            this.singular = singular;
+            this.plural = plural;
+        }
+    }
+
+    /**
+     * A commit, PR or issue (element set) or a diff file line (line set, else -1).
+     */
+    private record Item(Kind kind, String group, String label, int score, int tokens, int order,
+                        JsonElement element, int line, int additions, int deletions) {}
+
+    private final int budgetTokens;
+
+    /**
+     * @param budgetTokens Estimated token limit for the whole prompt; 0 or less disables compaction
+     */
+    public PromptBudget(int budgetTokens) {
+        this.budgetTokens = budgetTokens;
+    }
+
+    public static int estimateTokens(CharSequence text) {
+        return text == null ? 0 : (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    /**
+     * Compact the activity (and diff summary) until the prompt fits the budget.
+     *
+     * @param activity    Object with commits, pull_requests and issues arrays (not modified)
+     * @param diffSummary AnalyzeDiffs.formatDiffSummary output, or null
+     * @param fixedTokens Estimated tokens of everything else in the prompt (template, local changes)
+     */
+    public Result fit(JsonObject activity, String diffSummary, int fixedTokens) {
+        List<Item> items = new ArrayList<>();
+        collectActivity(activity, items);
+        List<String> diffLines = diffSummary == null ? List.of() : Arrays.asList(diffSummary.split("\n", -1));
+        collectFiles(diffLines, items);
+
+        int itemTokens = 0;
+        for (Item item : items) {
+            itemTokens += item.tokens();
+        }
+        int otherDiffTokens = estimateTokens(diffSummary);
+        for (Item item : items) {
+            if (item.kind() == Kind.FILE) {
+                otherDiffTokens -= item.tokens();
+            }
+        }
+        int before = fixedTokens + itemTokens + Math.max(0, otherDiffTokens);
+
+        if (budgetTokens <= 0 || before <= budgetTokens) {
+            return new Result(activity, diffSummary, List.of(), before, before, 0);
+        }
+
+        // Collapse least significant first; ties keep the earlier (listed first) items
+        List<Item> candidates = new ArrayList<>(items);
+        candidates.sort(Comparator.comparingInt(Item::score).thenComparing(Comparator.comparingInt(Item::order).reversed()));
+
+        Map<String, List<Item>> groups = new LinkedHashMap<>();
+        Set<JsonElement> collapsedElements = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Integer> collapsedFileLines = new HashSet<>();
+        int total = before;
+        for (Item item : candidates) {
+            if (total <= budgetTokens) {
+                break;
+            }
+            String key = item.kind() + "\u0000" + item.group();
+            List<Item> group = groups.get(key);
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(key, group);
+                total += estimateTokens(item.group()) + 20;  // The summary line itself
+            }
+            group.add(item);
+            total -= item.tokens();
+            if (item.element() != null) {
+                collapsedElements.add(item.element());
+            } else {
+                collapsedFileLines.add(item.line());
+            }
+        }
+
+        JsonObject compactedActivity = activity == null ? null : activity.deepCopy();
+        if (compactedActivity != null) {
+            for (String field : List.of("commits", "pull_requests", "issues")) {
+                JsonArray original = activity.getAsJsonArray(field);
+                if (original == null) {
+                    continue;
+                }
+                JsonArray kept = new JsonArray();
+                for (int i = 0; i < original.size(); i++) {
+                    if (!collapsedElements.contains(original.get(i))) {
+                        kept.add(compactedActivity.getAsJsonArray(field).get(i));
+                    }
+                }
+                compactedActivity.add(field, kept);
+            }
+        }
+
+        String compactedDiff = diffSummary;
+        if (diffSummary != null && !collapsedFileLines.isEmpty()) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < diffLines.size(); i++) {
+                if (!collapsedFileLines.contains(i)) {
+                    sb.append(diffLines.get(i));
+                    if (i < diffLines.size() - 1) {
+                        sb.append("\n");
+                    }
+                }
+            }
+            compactedDiff = sb.toString();
+        }
+
+        List<String> summary = new ArrayList<>();
+        int collapsed = 0;
+        for (List<Item> group : groups.values()) {
+            summary.add(describe(group));
+            collapsed += group.size();
+        }
+        return new Result(compactedActivity, compactedDiff, summary, before, total, collapsed);
+    }
+
+    // --- Item collection and scoring ---
+
+    private static void collectActivity(JsonObject activity, List<Item> items) {
+        if (activity == null) {
+            return;
+        }
+        JsonArray commits = activity.getAsJsonArray("commits");
+        if (commits != null) {
+            for (JsonElement element : commits) {
+                JsonObject commit = element.getAsJsonObject();
+                String repo = repoName(commit);
+                JsonObject data = commit.getAsJsonObject("commit");
+                String message = data != null && data.has("message") && !data.get("message").isJsonNull()
+                    ? data.get("message").getAsString().split("\n")[0] : "";
+                // "- [owner/repo] message (abc1234)"
+                int tokens = estimateTokens(message) + estimateTokens(repo) + 5;
+                items.add(new Item(Kind.COMMIT, repo, message, commitScore(message), tokens, items.size(),
+                    element, -1, 0, 0));
+            }
+        }
+        collectNumbered(activity.getAsJsonArray("pull_requests"), Kind.PULL_REQUEST, items);
+        collectNumbered(activity.getAsJsonArray("issues"), Kind.ISSUE, items);
+    }
+
+    private static void collectNumbered(JsonArray array, Kind kind, List<Item> items) {
+        if (array == null) {
+            return;
+        }
+        for (JsonElement element : array) {
+            JsonObject object = element.getAsJsonObject();
+            String repo = repoName(object);
+            String title = object.has("title") && !object.get("title").isJsonNull() ? object.get("title").getAsString() : "";
+            String number = object.has("number") ? "#" + object.get("number").getAsString() : "";
+            String state = object.has("state") && !object.get("state").isJsonNull()
+                ? object.get("state").getAsString().toLowerCase(Locale.ROOT) : "";
+            boolean merged = state.equals("merged") ||
+                (object.has("mergedAt") && !object.get("mergedAt").isJsonNull());
+
+            int score;
+            if (kind == Kind.PULL_REQUEST) {
+                score = merged ? 100 : state.equals("open") ? 80 : 55;
+            } else {
+                score = state.equals("closed") ? 50 : 45;
+            }
+            // "- [owner/repo] #12: title (state)"
+            int tokens = estimateTokens(title) + estimateTokens(repo) + 6;
+            items.add(new Item(kind, repo, number + " " + title, score, tokens, items.size(), element, -1, 0, 0));
+        }
+    }
+
+    private static void collectFiles(List<String> diffLines, List<Item> items) {
+        for (int i = 0; i < diffLines.size(); i++) {
+            Matcher m = FILE_LINE.matcher(diffLines.get(i));
+            if (!m.matches()) {
+                continue;
+            }
+            int additions = Integer.parseInt(m.group(2));
+            int deletions = Integer.parseInt(m.group(3));
+            int churn = additions + deletions;
+            int score = 5 + Math.min(20, (int) (2 * Math.log(1 + churn) / Math.log(2)));
+            items.add(new Item(Kind.FILE, "", m.group(1), score, estimateTokens(diffLines.get(i)) + 1, items.size(),
+                null, i, additions, deletions));
+        }
+    }
+
+    static int commitScore(String message) {
+        String text = message.toLowerCase(Locale.ROOT).trim();
+        if (text.startsWith("merge ")) {
+            return 1;
+        }
+        int score = 10;
+        if (text.startsWith("feat")) {
+            score += 10;
+        } else if (text.startsWith("fix")) {
+            score += 6;
+        } else if (text.startsWith("perf") || text.startsWith("refactor") || text.startsWith("revert")) {
+            score += 4;
+        } else if (text.startsWith("chore") || text.startsWith("docs") || text.startsWith("style") ||
+                   text.startsWith("test") || text.startsWith("ci") || text.startsWith("build")) {
+            score -= 4;
+        }
+        if (text.contains("typo") || text.contains("wip") || text.contains("lint") || text.contains("formatting") ||
+            text.contains("bump ")) {
+            score -= 5;
+        }
+        score += Math.min(5, text.length() / 20);
+        return Math.max(2, Math.min(30, score));
+    }
+
+    private static String repoName(JsonObject object) {
+        JsonObject repo = object.has("repository") && object.get("repository").isJsonObject()
+            ? object.getAsJsonObject("repository") : null;
+        if (repo == null || !repo.has("nameWithOwner") || repo.get("nameWithOwner").isJsonNull()) {
+            return "unknown";
+        }
+        return repo.get("nameWithOwner").getAsString();
+    }
+
+    private static String describe(List<Item> group) {
+        Item first = group.get(0);
+        int count = group.size();
+        StringBuilder sb = new StringBuilder();
+        if (first.kind() != Kind.FILE) {
+            sb.append("[").append(first.group()).append("] ");
+        }
+        sb.append(count).append(" ").append(count == 1 ? first.kind().singular : first.kind().plural);
+
+        if (first.kind() == Kind.FILE) {
+            int additions = 0;
+            int deletions = 0;
+            for (Item item : group) {
+                additions += item.additions();
+                deletions += item.deletions();
+            }
+            return sb.append(" (+").append(additions).append(", -").append(deletions).append(")").toString();
+        }
+
+        // Most significant collapsed items as examples (the group is in collapse order)
+        List<String> examples = new ArrayList<>();
+        for (int i = group.size() - 1; i >= 0 && examples.size() < EXAMPLES_PER_GROUP; i--) {
+            String label = group.get(i).label().trim();
+            String example = "\"" + (label.length() > EXAMPLE_MAX_CHARS
+                ? label.substring(0, EXAMPLE_MAX_CHARS - 3) + "..." : label) + "\"";
+            if (!label.isEmpty() && !examples.contains(example)) {
+                examples.add(example);
+            }
+        }
+        if (!examples.isEmpty()) {
+            sb.append(", e.g. ").append(String.join(", ", examples));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,166 @@
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Produces one report per team member, several members at a time.
+ *
+ * Each member runs the whole stage (collect activity, analyze diffs, claude -p)
+ * on its own thread, and at most parallelism members run at once. Members
+ * mostly wait on gh and claude, so a team of 10 at parallelism 10 takes
+ * about as long as its slowest member. GitHub requests from all members
+ * still share the GhRequestScheduler quotas.
+ *
+ * Every member gets memberTimeout from the moment it starts. The stage
+ * receives that deadline so it can bound its own subprocesses (see
+ * ClaudeStream.run with a timeout). A member still running at the deadline
+ * is reported as TIMED_OUT, the onTimeout hook kills what its thread started
+ * (e.g. the jbang and gh processes it is blocked on), and the thread is
+ * interrupted. Its slot only goes to the next member once the stage has
+ * actually returned, so stuck members never push the number of running
+ * members past parallelism. A member that fails or times out never fails
+ * the team; results come back in the order the members were given.
+ */
+public class TeamReportPipeline {
+
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final int DEFAULT_MEMBER_TIMEOUT_SECONDS = 300;
+
+    /**
+     * Generates one member's report.
+     */
+    @FunctionalInterface
+    public interface MemberStage {
+        /**
+         * @param deadlineNanos System.nanoTime() by which the report must be done
+         */
+        String run(String member, long deadlineNanos) throws Exception;
+    }
+
+    public enum Status { COMPLETED, FAILED, TIMED_OUT }
+
+    /**
+     * @param report Generated report, or null unless COMPLETED
+     * @param error  Why there is no report, or null when COMPLETED
+     */
+    public record MemberResult(String member, Status status, String report, long elapsedMillis, String error) {
+
+        public boolean completed() {
+            return status == Status.COMPLETED;
+        }
+    }
+
+    private final MemberStage stage;
+    private final int parallelism;
+    private final Duration memberTimeout;
+    private final Consumer<Thread> onTimeout;
+
+    public TeamReportPipeline(MemberStage stage, int parallelism, Duration memberTimeout) {
+        this(stage, parallelism, memberTimeout, thread -> {});
+    }
+
+    /**
+     * @param stage         Report generation for one member
+     * @param parallelism   Maximum number of members at once (positive)
+     * @param memberTimeout Time each member gets once it starts (positive)
+     * @param onTimeout     Called with a timed-out member's thread to stop the work it started
+     */
+    public TeamReportPipeline(MemberStage stage, int parallelism, Duration memberTimeout, Consumer<Thread> onTimeout) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        if (memberTimeout.isNegative() || memberTimeout.isZero()) {
+            throw new IllegalArgumentException("Member timeout must be positive");
+        }
+        this.stage = stage;
+        this.parallelism = parallelism;
+        this.memberTimeout = memberTimeout;
+        this.onTimeout = onTimeout;
+    }
+
+    /**
+     * Time left until a deadline passed to {@link MemberStage#run} (at least 1ms).
+     */
+    public static Duration remaining(long deadlineNanos) {
+        return Duration.ofNanos(Math.max(TimeUnit.MILLISECONDS.toNanos(1), deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Generate every member's report.
+     *
+     * @return One result per member, in the given order
+     */
+    public List<MemberResult> run(List<String> members) throws InterruptedException {
+        Semaphore slots = new Semaphore(parallelism, true);
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "team-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<CompletableFuture<MemberResult>> results = new ArrayList<>();
+        try {
+            for (String member : members) {
+                CompletableFuture<MemberResult> result = new CompletableFuture<>();
+                results.add(result);
+                Thread worker = new Thread(() -> runMember(member, result, slots, timer), "team-" + member);
+                worker.setDaemon(true);  // A member stuck past its timeout must not keep the JVM alive
+                worker.start();
+            }
+
+            List<MemberResult> ordered = new ArrayList<>();
+            for (CompletableFuture<MemberResult> result : results) {
+                try {
+                    ordered.add(result.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Team member failed", e.getCause());  // runMember completes normally
+                }
+            }
+            return ordered;
+        } finally {
+            timer.shutdownNow();
+        }
+    }
+
+    private void runMember(String member, CompletableFuture<MemberResult> result, Semaphore slots,
+                           ScheduledExecutorService timer) {
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            result.complete(new MemberResult(member, Status.FAILED, null, 0, "interrupted"));
+            return;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + memberTimeout.toNanos();
+        Thread worker = Thread.currentThread();
+        ScheduledFuture<?> timeout = timer.schedule(() -> {
+            if (result.complete(new MemberResult(member, Status.TIMED_OUT, null, elapsedMillis(start),
+                    "no report within " + memberTimeout.toSeconds() + "s"))) {
+                onTimeout.accept(worker);
+                worker.interrupt();
+            }
+        }, memberTimeout.toNanos(), TimeUnit.NANOSECONDS);
+
+        try {
+            String report = stage.run(member, deadline);
+            result.complete(new MemberResult(member, Status.COMPLETED, report, elapsedMillis(start), null));
+        } catch (TimeoutException e) {
+            result.complete(new MemberResult(member, Status.TIMED_OUT, null, elapsedMillis(start), e.getMessage()));
+        } catch (Exception e) {
+            result.complete(new MemberResult(member, Status.FAILED, null, elapsedMillis(start),
+                e.getMessage() != null ? e.getMessage() : e.toString()));
+        } catch (Error e) {
+            result.complete(new MemberResult(member, Status.FAILED, null, elapsedMillis(start), e.toString()));
+        } finally {
+            // The slot is held until the stage returns, even after a timeout was reported
+            timeout.cancel(false);
+            slots.release();
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
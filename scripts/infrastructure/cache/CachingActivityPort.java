@@ -0,0 +1,292 @@
+import com.google.gson.*;
+import com.google.gson.reflect.TypeToken;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.*;
+import java.time.*;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Infrastructure decorator that adds a persistent on-disk cache in front of
+ * another ActivityPort (normally a GitHubCliAdapter with reportFailures on).
+ *
+ * Commits, pull requests and issues are cached per UTC day under
+ * ~/.claude-gh-standup/cache/activity/<user>/<repo|all>/<kind>.json, so a
+ * request only queries the days it does not already hold. A cached day is
+ * reused when it is younger than the TTL, or when it was fetched after the
+ * day ended and holds only closed/merged PRs or issues: nothing new can be
+ * created on a past day, and those items do not change. Days holding open
+ * items, empty days and commit days are revalidated once the TTL expires,
+ * since an empty result may be a silent failure and a late push can add
+ * commits with older author dates.
+ *
+ * A delegate that throws is treated as a failed search: nothing is stored
+ * for the affected days, and whatever the cache already held for them is
+ * returned instead.
+ *
+ * Reviews carry no date, so they are cached per exact DateRange with the TTL.
+ */
+public class CachingActivityPort implements ActivityPort {
+
+    public static final Duration DEFAULT_TTL = Duration.ofHours(1);
+    private static final Duration RETENTION = Duration.ofDays(30);
+
+    private static final Gson gson = new GsonBuilder()
+        .registerTypeAdapter(Instant.class, (JsonSerializer<Instant>) (src, type, ctx) -> new JsonPrimitive(src.toString()))
+        .registerTypeAdapter(Instant.class, (JsonDeserializer<Instant>) (json, type, ctx) -> Instant.parse(json.getAsString()))
+        .create();
+    private static final Type BUCKETS_TYPE = new TypeToken<Map<String, Bucket>>() {}.getType();
+
+    private final ActivityPort delegate;
+    private final Path cacheDir;
+    private final Duration ttl;
+    private final Clock clock;
+
+    public CachingActivityPort(ActivityPort delegate) {
+        this(delegate, defaultCacheDir(), DEFAULT_TTL, Clock.systemUTC());
+    }
+
+    /**
+     * @param delegate Port that performs the actual queries
+     * @param cacheDir Root directory for cache files
+     * @param ttl      How long any cached entry is trusted without revalidation
+     * @param clock    Clock used for freshness checks
+     */
+    public CachingActivityPort(ActivityPort delegate, Path cacheDir, Duration ttl, Clock clock) {
+        this.delegate = delegate;
+        this.cacheDir = cacheDir;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    public static Path defaultCacheDir() {
+        return Paths.get(System.getProperty("user.home"), ".claude-gh-standup", "cache", "activity");
+    }
+
+    // --- ActivityPort implementation ---
+
+    @Override
+    public List<Commit> fetchCommits(String username, DateRange range, Repository repo) {
+        // Any commit day may still grow: pushes land with their original author dates
+        return fetchByDay("commits", Commit.class, username, range, repo,
+            delegate::fetchCommits, Commit::date, c -> true);
+    }
+
+    @Override
+    public List<PullRequest> fetchPullRequests(String username, DateRange range, Repository repo) {
+        return fetchByDay("pull_requests", PullRequest.class, username, range, repo,
+            delegate::fetchPullRequests, PullRequest::createdAt, PullRequest::isOpen);
+    }
+
+    @Override
+    public List<Issue> fetchIssues(String username, DateRange range, Repository repo) {
+        return fetchByDay("issues", Issue.class, username, range, repo,
+            delegate::fetchIssues, Issue::createdAt, Issue::isOpen);
+    }
+
+    @Override
+    public List<Review> fetchReviews(String username, DateRange range, Repository repo) {
+        Path file = cacheFile(username, repo, "reviews");
+        Map<String, Bucket> buckets = load(file);
+        String key = range.startIso() + ".." + range.endIso();
+        Instant now = clock.instant();
+
+        Bucket cached = buckets.get(key);
+        if (cached != null && isYoung(cached, now)) {
+            return cached.items(Review.class);
+        }
+
+        List<Review> reviews;
+        try {
+            reviews = delegate.fetchReviews(username, range, repo);
+        } catch (RuntimeException e) {
+            System.err.println("Warning: " + e.getMessage() + " (using cached reviews, if any)");
+            return cached != null ? cached.items(Review.class) : List.of();
+        }
+        buckets.put(key, Bucket.of(now, reviews));
+        save(file, buckets, now);
+        return reviews;
+    }
+
+    // --- Day-bucketed caching ---
+
+    @FunctionalInterface
+    private interface Search<T> {
+        List<T> fetch(String username, DateRange range, Repository repo);
+    }
+
+    private <T> List<T> fetchByDay(String kind, Class<T> type, String username, DateRange range, Repository repo,
+                                   Search<T> search, Function<T, Instant> dateOf, Predicate<T> mayChange) {
+        List<LocalDate> days = daysOf(range);
+        if (days.isEmpty()) {
+            return List.of();
+        }
+
+        Path file = cacheFile(username, repo, kind);
+        Map<String, Bucket> buckets = load(file);
+        Instant now = clock.instant();
+
+        List<LocalDate> stale = new ArrayList<>();
+        for (LocalDate day : days) {
+            if (!isFresh(buckets.get(day.toString()), day, type, mayChange, now)) {
+                stale.add(day);
+            }
+        }
+
+        // One query per contiguous run of missing days
+        boolean updated = false;
+        for (List<LocalDate> run : contiguousRuns(stale)) {
+            LocalDate first = run.get(0);
+            LocalDate last = run.get(run.size() - 1);
+            List<T> fetched;
+            try {
+                fetched = search.fetch(username, new DateRange(first.minusDays(1), last), repo);
+            } catch (RuntimeException e) {
+                // Keep whatever was cached for these days; an empty bucket would hide them for good
+                System.err.println("Warning: " + e.getMessage() + " (using cached " + kind + " for " + first +
+                    ".." + last + ", if any)");
+                continue;
+            }
+            updated = true;
+
+            Map<LocalDate, List<T>> byDay = new LinkedHashMap<>();
+            for (LocalDate day : run) {
+                byDay.put(day, new ArrayList<>());
+            }
+            for (T item : fetched) {
+                Instant date = dateOf.apply(item);
+                // Undated items stay with the newest day of the run so they are revalidated with it
+                LocalDate day = date != null ? LocalDate.ofInstant(date, ZoneOffset.UTC) : last;
+                List<T> bucket = byDay.get(day);
+                if (bucket != null) {
+                    bucket.add(item);
+                }
+            }
+            byDay.forEach((day, items) -> buckets.put(day.toString(), Bucket.of(now, items)));
+        }
+
+        List<T> result = new ArrayList<>();
+        for (LocalDate day : days) {
+            Bucket bucket = buckets.get(day.toString());
+            if (bucket != null) {
+                result.addAll(bucket.items(type));
+            }
+        }
+
+        if (updated) {
+            save(file, buckets, now);
+        }
+        return result;
+    }
+
+    private <T> boolean isFresh(Bucket bucket, LocalDate day, Class<T> type, Predicate<T> mayChange, Instant now) {
+        if (bucket == null) {
+            return false;
+        }
+        if (isYoung(bucket, now)) {
+            return true;
+        }
+        Instant dayEnd = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        if (bucket.fetchedAt.isBefore(dayEnd)) {
+            return false;  // Fetched while the day was still in progress
+        }
+        List<T> items = bucket.items(type);
+        return !items.isEmpty() && items.stream().noneMatch(mayChange);
+    }
+
+    private boolean isYoung(Bucket bucket, Instant now) {
+        return Duration.between(bucket.fetchedAt, now).compareTo(ttl) < 0;
+    }
+
+    /**
+     * Days covered by a search over the range (after start, through end).
+     */
+    private static List<LocalDate> daysOf(DateRange range) {
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = range.start().plusDays(1); !day.isAfter(range.end()); day = day.plusDays(1)) {
+            days.add(day);
+        }
+        return days;
+    }
+
+    private static List<List<LocalDate>> contiguousRuns(List<LocalDate> days) {
+        List<List<LocalDate>> runs = new ArrayList<>();
+        List<LocalDate> current = null;
+        for (LocalDate day : days) {
+            if (current == null || !current.get(current.size() - 1).plusDays(1).equals(day)) {
+                current = new ArrayList<>();
+                runs.add(current);
+            }
+            current.add(day);
+        }
+        return runs;
+    }
+
+    // --- Storage ---
+
+    private static class Bucket {
+        Instant fetchedAt;
+        JsonArray items;
+
+        static Bucket of(Instant fetchedAt, List<?> items) {
+            Bucket bucket = new Bucket();
+            bucket.fetchedAt = fetchedAt;
+            bucket.items = gson.toJsonTree(items).getAsJsonArray();
+            return bucket;
+        }
+
+        <T> List<T> items(Class<T> type) {
+            List<T> result = new ArrayList<>();
+            for (JsonElement element : items) {
+                result.add(gson.fromJson(element, type));
+            }
+            return result;
+        }
+    }
+
+    private Path cacheFile(String username, Repository repo, String kind) {
+        String repoKey = repo != null ? repo.owner() + "-" + repo.name() : "all";
+        return cacheDir.resolve(sanitize(username)).resolve(sanitize(repoKey)).resolve(kind + ".json");
+    }
+
+    private static String sanitize(String segment) {
+        return segment.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private Map<String, Bucket> load(Path file) {
+        if (!Files.exists(file)) {
+            return new TreeMap<>();
+        }
+        try {
+            Map<String, Bucket> buckets = gson.fromJson(Files.readString(file), BUCKETS_TYPE);
+            return buckets != null ? new TreeMap<>(buckets) : new TreeMap<>();
+        } catch (IOException | JsonParseException e) {
+            System.err.println("Warning: Ignoring unreadable activity cache " + file + " - " + e.getMessage());
+            return new TreeMap<>();
+        }
+    }
+
+    private void save(Path file, Map<String, Bucket> buckets, Instant now) {
+        buckets.values().removeIf(b -> Duration.between(b.fetchedAt, now).compareTo(RETENTION) > 0);
+        Path tempPath = null;
+        try {
+            Files.createDirectories(file.getParent());
+            // Atomic write: write to a temp file unique to this writer, then rename,
+            // so parallel members or a second terminal never clobber each other's partial file
+            tempPath = Files.createTempFile(file.getParent(), file.getFileName() + ".", ".tmp");
+            Files.writeString(tempPath, gson.toJson(buckets, BUCKETS_TYPE));
+            Files.move(tempPath, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Warning: Could not write activity cache " + file + " - " + e.getMessage());
+            if (tempPath != null) {
+                try {
+                    Files.deleteIfExists(tempPath);
+                } catch (IOException ignored) {
+                    // Best effort: a stray temp file is never read back
+                }
+            }
+        }
+    }
+}
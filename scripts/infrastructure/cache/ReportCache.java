@@ -0,0 +1,242 @@
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Caches generated reports by a fingerprint of everything that goes into the prompt.
+ *
+ * The fingerprint is a SHA-256 over normalized inputs. Activity items are
+ * reduced to canonical JSON (keys sorted) and sorted. Diff summaries and
+ * similar text are compared line by line in sorted order. The prompt template
+ * and the settings that shape the prompt are included too. gh returning the
+ * same work in a different order therefore hits the cache, while any new
+ * commit, changed PR state, edited template or different --days misses it.
+ *
+ * Entries are plain Markdown files named by fingerprint, under
+ * reportDirectory/.cache. Each hit refreshes an entry's modification time,
+ * and the least recently used entries beyond maxEntries are deleted.
+ */
+public class ReportCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 30;
+
+    /**
+     * Incremental builder for a report fingerprint.
+     */
+    public static final class Fingerprint {
+        private final MessageDigest digest;
+
+        public Fingerprint() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+
+        /**
+         * A value compared exactly (template text, settings).
+         */
+        public Fingerprint add(String label, Object value) {
+            return section(label, String.valueOf(value));
+        }
+
+        /**
+         * Items compared regardless of order and key order.
+         */
+        public Fingerprint addItems(String label, JsonArray items) {
+            List<String> canonical = new ArrayList<>();
+            if (items != null) {
+                for (JsonElement item : items) {
+                    canonical.add(canonicalJson(item));
+                }
+            }
+            Collections.sort(canonical);
+            return section(label, String.join("\n", canonical));
+        }
+
+        /**
+         * Text compared regardless of line order.
+         */
+        public Fingerprint addLines(String label, String text) {
+            List<String> lines = new ArrayList<>(text == null ? List.of() : Arrays.asList(text.strip().split("\n")));
+            Collections.sort(lines);
+            return section(label, String.join("\n", lines));
+        }
+
+        public String hex() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+
+        private Fingerprint section(String label, String value) {
+            // Length-prefixed, so no two different inputs can concatenate to the same bytes
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            digest.update((label + ":" + bytes.length + ":").getBytes(StandardCharsets.UTF_8));
+            digest.update(bytes);
+            return this;
+        }
+    }
+
+    private final Path cacheDir;
+    private final int maxEntries;
+    private final Clock clock;
+
+    /**
+     * @param reportDirectory Directory the reports are saved in; entries go in its .cache subdirectory
+     */
+    public ReportCache(Path reportDirectory) {
+        this(reportDirectory.resolve(".cache"), DEFAULT_MAX_ENTRIES, Clock.systemUTC());
+    }
+
+    /**
+     * @param cacheDir   Directory for cache entries
+     * @param maxEntries Reports kept (positive)
+     * @param clock      Clock used to stamp entry use for LRU eviction
+     */
+    public ReportCache(Path cacheDir, int maxEntries, Clock clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Max cache entries must be positive");
+        }
+        this.cacheDir = cacheDir;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * The cached report for a fingerprint, or empty.
+     */
+    public Optional<String> lookup(String fingerprint) {
+        Path file = entryFile(fingerprint);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            String report = Files.readString(file, StandardCharsets.UTF_8);
+            touch(file);
+            return Optional.of(report);
+        } catch (IOException e) {
+            System.err.println("Warning: Ignoring unreadable report cache entry " + file + " - " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Where the report for a fingerprint is stored. Write it there (e.g. with
+     * ClaudeStream.file) and call {@link #stored(String)} afterwards.
+     */
+    public Path entryFile(String fingerprint) {
+        return cacheDir.resolve(fingerprint + ".md");
+    }
+
+    public void store(String fingerprint, String report) {
+        Path file = entryFile(fingerprint);
+        Path tempPath = null;
+        try {
+            Files.createDirectories(cacheDir);
+            // Atomic write: write to a temp file unique to this writer, then rename,
+            // so a second terminal storing the same report never clobbers the partial file
+            tempPath = Files.createTempFile(cacheDir, file.getFileName() + ".", ".tmp");
+            Files.writeString(tempPath, report, StandardCharsets.UTF_8);
+            Files.move(tempPath, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Warning: Could not write report cache entry " + file + " - " + e.getMessage());
+            if (tempPath != null) {
+                try {
+                    Files.deleteIfExists(tempPath);
+                } catch (IOException ignored) {
+                    // Best effort: a stray temp file is never read back
+                }
+            }
+            return;
+        }
+        stored(fingerprint);
+    }
+
+    /**
+     * Record that an entry was written and evict the oldest beyond maxEntries.
+     */
+    public void stored(String fingerprint) {
+        touch(entryFile(fingerprint));
+        evict();
+    }
+
+    // --- Storage ---
+
+    private void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(clock.instant()));
+        } catch (IOException e) {
+            // Entry was evicted concurrently; it will simply be generated again
+        }
+    }
+
+    private synchronized void evict() {
+        Map<Path, FileTime> lastUsed = new HashMap<>();
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            for (Path entry : files.filter(p -> p.getFileName().toString().endsWith(".md")).toList()) {
+                try {
+                    lastUsed.put(entry, Files.getLastModifiedTime(entry));
+                } catch (IOException e) {
+                    // Deleted while listing
+                }
+            }
+        } catch (IOException e) {
+            return;
+        }
+        if (lastUsed.size() <= maxEntries) {
+            return;
+        }
+
+        List<Path> oldestFirst = new ArrayList<>(lastUsed.keySet());
+        oldestFirst.sort(Comparator.comparing(lastUsed::get));
+        for (Path entry : oldestFirst.subList(0, oldestFirst.size() - maxEntries)) {
+            try {
+                Files.deleteIfExists(entry);
+            } catch (IOException e) {
+                System.err.println("Warning: Could not evict report cache entry " + entry + " - " + e.getMessage());
+            }
+        }
+    }
+
+    static String canonicalJson(JsonElement element) {
+        if (element == null || element.isJsonNull()) {
+            return "null";
+        }
+        if (element.isJsonPrimitive()) {
+            return element.toString();
+        }
+        StringBuilder sb = new StringBuilder();
+        if (element.isJsonArray()) {
+            sb.append('[');
+            JsonArray array = element.getAsJsonArray();
+            for (int i = 0; i < array.size(); i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(canonicalJson(array.get(i)));
+            }
+            return sb.append(']').toString();
+        }
+        JsonObject object = element.getAsJsonObject();
+        sb.append('{');
+        boolean first = true;
+        for (String key : new TreeSet<>(object.keySet())) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append(new JsonPrimitive(key)).append(':').append(canonicalJson(object.get(key)));
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,692 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Infrastructure adapter that implements GitPort by reading .git/index directly.
+ *
+ * Staged and unstaged files are computed without forking git. The index is
+ * memory-mapped; unstaged files are found by comparing each entry's cached
+ * stat data (mtime, size, inode) with the working tree, hashing only files
+ * whose stat data changed. Staged files come from comparing the index with
+ * the HEAD tree, read from loose objects or packfiles.
+ *
+ * Repositories this reader does not handle (index v4, split or sparse
+ * indexes, conflicts, submodules, intent-to-add entries, linked worktrees,
+ * SHA-256 object format, possible renames, content filters) are delegated to
+ * the fallback port, GitCliAdapter by default. So are indexes or objects it
+ * cannot parse, e.g. an index truncated or rewritten while it was read.
+ */
+public class GitIndexAdapter implements GitPort {
+
+    private static final int INDEX_SIGNATURE = 0x44495243;   // "DIRC"
+    private static final int PACK_INDEX_SIGNATURE = 0xff744f63;
+    private static final int EXTENSION_LINK = 0x6c696e6b;    // "link" (split index)
+    private static final int EXTENSION_SDIR = 0x73646972;    // "sdir" (sparse index)
+
+    private static final int TYPE_MASK = 0170000;
+    private static final int TYPE_REGULAR = 0100000;
+    private static final int TYPE_SYMLINK = 0120000;
+    private static final int TYPE_GITLINK = 0160000;
+    private static final int TYPE_TREE = 0040000;
+
+    private static final int OBJ_COMMIT = 1;
+    private static final int OBJ_TREE = 2;
+    private static final int OBJ_OFS_DELTA = 6;
+    private static final int OBJ_REF_DELTA = 7;
+
+    private final GitPort fallback;
+
+    public GitIndexAdapter() {
+        this(new GitCliAdapter());
+    }
+
+    /**
+     * @param fallback Port used for repositories this reader cannot handle
+     */
+    public GitIndexAdapter(GitPort fallback) {
+        this.fallback = fallback;
+    }
+
+    // --- GitPort implementation ---
+
+    @Override
+    public String getCurrentBranch(Path repoPath) {
+        try {
+            String head = readHead(gitDir(repoPath));
+            return head.startsWith("ref: refs/heads/") ? head.substring("ref: refs/heads/".length()) : "HEAD";
+        } catch (UnsupportedRepositoryException | IOException | RuntimeException e) {
+            return fallback.getCurrentBranch(repoPath);
+        }
+    }
+
+    @Override
+    public List<String> getStagedFiles(Path repoPath) {
+        try {
+            Path gitDir = gitDir(repoPath);
+            Index index = readIndex(gitDir);
+            Map<String, TreeEntry> head = readHeadTree(gitDir);
+            return stagedFiles(index, head);
+        } catch (UnsupportedRepositoryException | IOException | RuntimeException e) {
+            // RuntimeException: a corrupt or concurrently rewritten index or object failed to parse
+            return fallback.getStagedFiles(repoPath);
+        }
+    }
+
+    @Override
+    public List<String> getUnstagedFiles(Path repoPath) {
+        try {
+            Path gitDir = gitDir(repoPath);
+            Index index = readIndex(gitDir);
+            return unstagedFiles(repoPath, gitDir, index);
+        } catch (UnsupportedRepositoryException | IOException | RuntimeException e) {
+            // RuntimeException: a corrupt or concurrently rewritten index failed to parse
+            return fallback.getUnstagedFiles(repoPath);
+        }
+    }
+
+    @Override
+    public List<String> getUnpushedCommits(Path repoPath, String branch) {
+        return fallback.getUnpushedCommits(repoPath, branch);
+    }
+
+    @Override
+    public Optional<Repository> detectRepository(Path repoPath) {
+        return fallback.detectRepository(repoPath);
+    }
+
+    // --- Staged and unstaged comparison ---
+
+    private List<String> stagedFiles(Index index, Map<String, TreeEntry> head) throws UnsupportedRepositoryException {
+        Set<String> staged = new TreeSet<>();
+        Set<String> indexed = new HashSet<>();
+        boolean added = false;
+        for (IndexEntry entry : index.entries()) {
+            indexed.add(entry.path());
+            TreeEntry committed = head.get(entry.path());
+            if (committed == null) {
+                staged.add(entry.path());
+                added = true;
+            } else if (committed.mode() != entry.mode() || !committed.sha().equals(entry.sha())) {
+                staged.add(entry.path());
+            }
+        }
+        boolean deleted = false;
+        for (String path : head.keySet()) {
+            if (!indexed.contains(path)) {
+                staged.add(path);
+                deleted = true;
+            }
+        }
+        // git diff --cached reports a rename as the new path only
+        if (added && deleted) {
+            throw new UnsupportedRepositoryException("possible renames");
+        }
+        return new ArrayList<>(staged);
+    }
+
+    private List<String> unstagedFiles(Path workTree, Path gitDir, Index index)
+            throws UnsupportedRepositoryException, IOException {
+        boolean trustFileMode = !"false".equalsIgnoreCase(readConfig(gitDir.resolve("config"), "core", "filemode"));
+        Boolean contentFilters = null;
+
+        List<String> unstaged = new ArrayList<>();
+        for (IndexEntry entry : index.entries()) {
+            if (entry.skipWorktree() || entry.assumeValid()) {
+                continue;
+            }
+
+            Map<String, Object> stat;
+            try {
+                stat = Files.readAttributes(workTree.resolve(entry.path()),
+                    "unix:mode,size,lastModifiedTime,ino", LinkOption.NOFOLLOW_LINKS);
+            } catch (NoSuchFileException | NotDirectoryException e) {
+                unstaged.add(entry.path());   // Deleted in the working tree
+                continue;
+            } catch (UnsupportedOperationException e) {
+                throw new UnsupportedRepositoryException("no unix file attributes");
+            }
+
+            int fsMode = (Integer) stat.get("mode");
+            if ((fsMode & TYPE_MASK) != (entry.mode() & TYPE_MASK)) {
+                unstaged.add(entry.path());   // Type changed, e.g. file replaced by symlink
+                continue;
+            }
+            if (trustFileMode && (entry.mode() & TYPE_MASK) == TYPE_REGULAR
+                    && (fsMode & 0100) != (entry.mode() & 0100)) {
+                unstaged.add(entry.path());   // Executable bit changed
+                continue;
+            }
+
+            long size = (Long) stat.get("size");
+            FileTime mtime = (FileTime) stat.get("lastModifiedTime");
+            if (statMatches(entry, size, mtime, (Long) stat.get("ino")) && !racilyClean(entry, index)) {
+                continue;
+            }
+            if ((int) size != entry.size()) {
+                unstaged.add(entry.path());
+                continue;
+            }
+
+            // Same size but stat data changed: only the content can tell
+            if (contentFilters == null) {
+                contentFilters = hasContentFilters(gitDir, index);
+            }
+            if (contentFilters) {
+                throw new UnsupportedRepositoryException("content filters");
+            }
+            if (!hashObject(workTree.resolve(entry.path()), entry.mode()).equals(entry.sha())) {
+                unstaged.add(entry.path());
+            }
+        }
+        return unstaged;
+    }
+
+    private static boolean statMatches(IndexEntry entry, long size, FileTime mtime, long inode) {
+        java.time.Instant modified = mtime.toInstant();
+        return (int) size == entry.size()
+            && (int) modified.getEpochSecond() == entry.mtimeSeconds()
+            && (entry.mtimeNanos() == 0 || modified.getNano() == entry.mtimeNanos())
+            && (int) inode == entry.inode();
+    }
+
+    /**
+     * An entry modified in the same instant the index was written may have
+     * changed again without its stat data showing it; git hashes those too.
+     */
+    private static boolean racilyClean(IndexEntry entry, Index index) {
+        return entry.mtimeSeconds() > index.mtimeSeconds()
+            || (entry.mtimeSeconds() == index.mtimeSeconds() && entry.mtimeNanos() >= index.mtimeNanos());
+    }
+
+    /**
+     * Whether a working tree file could differ from its blob only through
+     * autocrlf or .gitattributes conversion, which this reader does not apply.
+     */
+    private static boolean hasContentFilters(Path gitDir, Index index) throws IOException {
+        Path home = Paths.get(System.getProperty("user.home"));
+        for (Path config : List.of(gitDir.resolve("config"), home.resolve(".gitconfig"))) {
+            String autocrlf = readConfig(config, "core", "autocrlf");
+            if (autocrlf != null && !autocrlf.equalsIgnoreCase("false")) {
+                return true;
+            }
+            if (readConfig(config, "core", "attributesfile") != null) {
+                return true;
+            }
+        }
+        if (Files.exists(gitDir.resolve("info").resolve("attributes"))
+                || Files.exists(home.resolve(".config").resolve("git").resolve("attributes"))) {
+            return true;
+        }
+        for (IndexEntry entry : index.entries()) {
+            if (entry.path().equals(".gitattributes") || entry.path().endsWith("/.gitattributes")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // --- Repository layout ---
+
+    private static Path gitDir(Path repoPath) throws UnsupportedRepositoryException, IOException {
+        Path gitDir = repoPath.resolve(".git");
+        if (!Files.isDirectory(gitDir)) {
+            // Subdirectory of a repository, linked worktree or submodule
+            throw new UnsupportedRepositoryException("no .git directory at " + repoPath);
+        }
+        if (Files.exists(gitDir.resolve("reftable")) || Files.exists(gitDir.resolve("objects").resolve("info").resolve("alternates"))) {
+            throw new UnsupportedRepositoryException("reftable or alternates");
+        }
+        String objectFormat = readConfig(gitDir.resolve("config"), "extensions", "objectformat");
+        if (objectFormat != null && !objectFormat.equalsIgnoreCase("sha1")) {
+            throw new UnsupportedRepositoryException("object format " + objectFormat);
+        }
+        return gitDir;
+    }
+
+    private static String readHead(Path gitDir) throws IOException {
+        return Files.readString(gitDir.resolve("HEAD")).trim();
+    }
+
+    /**
+     * Resolve HEAD to a commit SHA, or null on an unborn branch.
+     */
+    private static String resolveHead(Path gitDir) throws IOException {
+        String head = readHead(gitDir);
+        if (!head.startsWith("ref: ")) {
+            return head;
+        }
+        String ref = head.substring("ref: ".length());
+        Path looseRef = gitDir.resolve(ref);
+        if (Files.isRegularFile(looseRef)) {
+            return Files.readString(looseRef).trim();
+        }
+        Path packedRefs = gitDir.resolve("packed-refs");
+        if (Files.exists(packedRefs)) {
+            for (String line : Files.readAllLines(packedRefs)) {
+                if (line.endsWith(" " + ref) && !line.startsWith("#") && !line.startsWith("^")) {
+                    return line.substring(0, line.indexOf(' '));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Read a single value from a git config file, ignoring subsections.
+     */
+    private static String readConfig(Path configFile, String section, String key) throws IOException {
+        if (!Files.isRegularFile(configFile)) {
+            return null;
+        }
+        String value = null;
+        String current = "";
+        for (String raw : Files.readAllLines(configFile)) {
+            String line = raw.trim();
+            if (line.startsWith("[")) {
+                int end = line.indexOf(']');
+                current = (end > 0 ? line.substring(1, end) : line.substring(1)).trim().toLowerCase(Locale.ROOT);
+                continue;
+            }
+            int equals = line.indexOf('=');
+            if (current.equals(section) && equals > 0
+                    && line.substring(0, equals).trim().equalsIgnoreCase(key)) {
+                value = line.substring(equals + 1).trim();
+            }
+        }
+        return value;
+    }
+
+    // --- Index ---
+
+    private record IndexEntry(String path, int mode, String sha, int size, int mtimeSeconds, int mtimeNanos,
+                              int inode, boolean assumeValid, boolean skipWorktree) {
+    }
+
+    private record Index(List<IndexEntry> entries, int mtimeSeconds, int mtimeNanos) {
+    }
+
+    private static Index readIndex(Path gitDir) throws IOException, UnsupportedRepositoryException {
+        Path indexFile = gitDir.resolve("index");
+        if (!Files.exists(indexFile)) {
+            return new Index(List.of(), 0, 0);   // Nothing added yet
+        }
+        java.time.Instant written = Files.getLastModifiedTime(indexFile).toInstant();
+
+        ByteBuffer buffer = map(indexFile);
+        if (buffer.getInt() != INDEX_SIGNATURE) {
+            throw new IOException("Not a git index: " + indexFile);
+        }
+        int version = buffer.getInt();
+        if (version != 2 && version != 3) {
+            throw new UnsupportedRepositoryException("index version " + version);
+        }
+
+        int count = buffer.getInt();
+        List<IndexEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int start = buffer.position();
+            buffer.position(start + 8);           // ctime
+            int mtimeSeconds = buffer.getInt();
+            int mtimeNanos = buffer.getInt();
+            buffer.getInt();                      // dev
+            int inode = buffer.getInt();
+            int mode = buffer.getInt();
+            buffer.position(buffer.position() + 8);   // uid, gid
+            int size = buffer.getInt();
+            byte[] sha = new byte[20];
+            buffer.get(sha);
+            int flags = buffer.getShort() & 0xffff;
+            int extendedFlags = (flags & 0x4000) != 0 ? buffer.getShort() & 0xffff : 0;
+
+            int nameLength = flags & 0xfff;
+            if (nameLength == 0xfff) {
+                nameLength = 0;
+                while (buffer.get(buffer.position() + nameLength) != 0) {
+                    nameLength++;
+                }
+            }
+            byte[] name = new byte[nameLength];
+            buffer.get(name);
+            // Entries are NUL-padded to a multiple of eight bytes
+            buffer.position(start + ((buffer.position() - start + 8) & ~7));
+
+            if (((flags >> 12) & 3) != 0) {
+                throw new UnsupportedRepositoryException("unmerged entries");
+            }
+            if ((extendedFlags & 0x2000) != 0) {
+                throw new UnsupportedRepositoryException("intent-to-add entries");
+            }
+            int type = mode & TYPE_MASK;
+            if (type == TYPE_GITLINK || type == TYPE_TREE) {
+                throw new UnsupportedRepositoryException("submodules or sparse index");
+            }
+
+            entries.add(new IndexEntry(new String(name, StandardCharsets.UTF_8), mode, HexFormat.of().formatHex(sha),
+                size, mtimeSeconds, mtimeNanos, inode, (flags & 0x8000) != 0, (extendedFlags & 0x4000) != 0));
+        }
+
+        // Extensions run up to the trailing checksum
+        while (buffer.remaining() > 20) {
+            int signature = buffer.getInt();
+            int length = buffer.getInt();
+            if (signature == EXTENSION_LINK || signature == EXTENSION_SDIR) {
+                throw new UnsupportedRepositoryException("split or sparse index");
+            }
+            buffer.position(buffer.position() + length);
+        }
+        return new Index(entries, (int) written.getEpochSecond(), written.getNano());
+    }
+
+    private static MappedByteBuffer map(Path file) throws IOException, UnsupportedRepositoryException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new UnsupportedRepositoryException("file over 2 GB: " + file);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    // --- Objects ---
+
+    private record TreeEntry(int mode, String sha) {
+    }
+
+    private record GitObject(int type, byte[] data) {
+    }
+
+    private record Pack(ByteBuffer index, ByteBuffer data) {
+    }
+
+    private static Map<String, TreeEntry> readHeadTree(Path gitDir) throws IOException, UnsupportedRepositoryException {
+        String headSha = resolveHead(gitDir);
+        Map<String, TreeEntry> tree = new HashMap<>();
+        if (headSha == null) {
+            return tree;   // Unborn branch: everything in the index is staged
+        }
+        ObjectReader objects = new ObjectReader(gitDir.resolve("objects"));
+        GitObject commit = objects.read(headSha);
+        if (commit.type() != OBJ_COMMIT) {
+            throw new IOException("HEAD is not a commit: " + headSha);
+        }
+        String treeSha = new String(commit.data(), 5, 40, StandardCharsets.US_ASCII);   // "tree <sha>\n..."
+        walkTree(objects, treeSha, "", tree);
+        return tree;
+    }
+
+    private static void walkTree(ObjectReader objects, String sha, String prefix, Map<String, TreeEntry> out)
+            throws IOException, UnsupportedRepositoryException {
+        GitObject tree = objects.read(sha);
+        if (tree.type() != OBJ_TREE) {
+            throw new IOException("Not a tree: " + sha);
+        }
+        byte[] data = tree.data();
+        int pos = 0;
+        while (pos < data.length) {
+            int space = pos;
+            while (data[space] != ' ') {
+                space++;
+            }
+            int nul = space + 1;
+            while (data[nul] != 0) {
+                nul++;
+            }
+            int mode = Integer.parseInt(new String(data, pos, space - pos, StandardCharsets.US_ASCII), 8);
+            String name = new String(data, space + 1, nul - space - 1, StandardCharsets.UTF_8);
+            String entrySha = HexFormat.of().formatHex(data, nul + 1, nul + 21);
+            if ((mode & TYPE_MASK) == TYPE_TREE) {
+                walkTree(objects, entrySha, prefix + name + "/", out);
+            } else {
+                out.put(prefix + name, new TreeEntry(mode, entrySha));
+            }
+            pos = nul + 21;
+        }
+    }
+
+    /**
+     * Reads objects from loose files and version 2 pack indexes, resolving deltas.
+     */
+    private static class ObjectReader {
+        private final Path objectsDir;
+        private List<Pack> packs;
+
+        ObjectReader(Path objectsDir) {
+            this.objectsDir = objectsDir;
+        }
+
+        GitObject read(String sha) throws IOException, UnsupportedRepositoryException {
+            Path loose = objectsDir.resolve(sha.substring(0, 2)).resolve(sha.substring(2));
+            if (Files.exists(loose)) {
+                byte[] raw = inflate(ByteBuffer.wrap(Files.readAllBytes(loose)), -1);
+                int nul = 0;
+                while (raw[nul] != 0) {
+                    nul++;
+                }
+                String header = new String(raw, 0, nul, StandardCharsets.US_ASCII);   // "<type> <size>"
+                int type = switch (header.substring(0, header.indexOf(' '))) {
+                    case "commit" -> OBJ_COMMIT;
+                    case "tree" -> OBJ_TREE;
+                    default -> 0;
+                };
+                return new GitObject(type, Arrays.copyOfRange(raw, nul + 1, raw.length));
+            }
+            byte[] id = HexFormat.of().parseHex(sha);
+            for (Pack pack : packs()) {
+                long offset = findOffset(pack.index(), id);
+                if (offset >= 0) {
+                    return readPacked(pack, offset);
+                }
+            }
+            throw new IOException("Object not found: " + sha);
+        }
+
+        private List<Pack> packs() throws IOException, UnsupportedRepositoryException {
+            if (packs == null) {
+                packs = new ArrayList<>();
+                Path packDir = objectsDir.resolve("pack");
+                if (Files.isDirectory(packDir)) {
+                    List<Path> indexes;
+                    try (Stream<Path> files = Files.list(packDir)) {
+                        indexes = files.filter(p -> p.getFileName().toString().endsWith(".idx")).toList();
+                    }
+                    for (Path idx : indexes) {
+                        String name = idx.getFileName().toString();
+                        Path data = idx.resolveSibling(name.substring(0, name.length() - 4) + ".pack");
+                        ByteBuffer index = map(idx);
+                        if (index.getInt(0) != PACK_INDEX_SIGNATURE || index.getInt(4) != 2) {
+                            throw new UnsupportedRepositoryException("pack index version");
+                        }
+                        packs.add(new Pack(index, map(data)));
+                    }
+                }
+            }
+            return packs;
+        }
+
+        private GitObject readPacked(Pack pack, long offset) throws IOException, UnsupportedRepositoryException {
+            ByteBuffer data = pack.data();
+            int pos = (int) offset;
+            int c = data.get(pos++) & 0xff;
+            int type = (c >> 4) & 7;
+            long size = c & 0x0f;
+            int shift = 4;
+            while ((c & 0x80) != 0) {
+                c = data.get(pos++) & 0xff;
+                size |= (long) (c & 0x7f) << shift;
+                shift += 7;
+            }
+
+            if (type == OBJ_OFS_DELTA) {
+                c = data.get(pos++) & 0xff;
+                long distance = c & 0x7f;
+                while ((c & 0x80) != 0) {
+                    c = data.get(pos++) & 0xff;
+                    distance = ((distance + 1) << 7) | (c & 0x7f);
+                }
+                GitObject base = readPacked(pack, offset - distance);
+                return new GitObject(base.type(), applyDelta(base.data(), inflate(data.slice(pos, data.limit() - pos), (int) size)));
+            }
+            if (type == OBJ_REF_DELTA) {
+                byte[] baseId = new byte[20];
+                data.get(pos, baseId);
+                GitObject base = read(HexFormat.of().formatHex(baseId));
+                pos += 20;
+                return new GitObject(base.type(), applyDelta(base.data(), inflate(data.slice(pos, data.limit() - pos), (int) size)));
+            }
+            return new GitObject(type, inflate(data.slice(pos, data.limit() - pos), (int) size));
+        }
+
+        /**
+         * Binary search the SHA table of a version 2 pack index, or -1 when absent.
+         */
+        private static long findOffset(ByteBuffer index, byte[] id) {
+            int first = id[0] & 0xff;
+            int low = first == 0 ? 0 : index.getInt(8 + (first - 1) * 4);
+            int high = index.getInt(8 + first * 4);
+            int count = index.getInt(8 + 255 * 4);
+            int shaTable = 8 + 256 * 4;
+            byte[] candidate = new byte[20];
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                index.get(shaTable + mid * 20, candidate);
+                int cmp = Arrays.compareUnsigned(candidate, id);
+                if (cmp == 0) {
+                    int offsetTable = shaTable + count * 24;   // SHAs, then CRC32s
+                    int offset = index.getInt(offsetTable + mid * 4);
+                    if (offset >= 0) {
+                        return offset;
+                    }
+                    return index.getLong(offsetTable + count * 4 + (offset & 0x7fffffff) * 8);
+                }
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Inflate a zlib stream; expectedSize of -1 reads until the stream ends.
+     */
+    private static byte[] inflate(ByteBuffer input, int expectedSize) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(expectedSize > 0 ? expectedSize : 8192);
+            byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(chunk);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated object data");
+                }
+                out.write(chunk, 0, n);
+            }
+            byte[] result = out.toByteArray();
+            if (expectedSize >= 0 && result.length != expectedSize) {
+                throw new IOException("Object size mismatch");
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt object data", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] applyDelta(byte[] base, byte[] delta) throws IOException {
+        int[] pos = {0};
+        readVarint(delta, pos);   // Base size
+        byte[] out = new byte[(int) readVarint(delta, pos)];
+        int written = 0;
+        int p = pos[0];
+        while (p < delta.length) {
+            int cmd = delta[p++] & 0xff;
+            if ((cmd & 0x80) != 0) {
+                int offset = 0;
+                int length = 0;
+                if ((cmd & 0x01) != 0) offset = delta[p++] & 0xff;
+                if ((cmd & 0x02) != 0) offset |= (delta[p++] & 0xff) << 8;
+                if ((cmd & 0x04) != 0) offset |= (delta[p++] & 0xff) << 16;
+                if ((cmd & 0x08) != 0) offset |= (delta[p++] & 0xff) << 24;
+                if ((cmd & 0x10) != 0) length = delta[p++] & 0xff;
+                if ((cmd & 0x20) != 0) length |= (delta[p++] & 0xff) << 8;
+                if ((cmd & 0x40) != 0) length |= (delta[p++] & 0xff) << 16;
+                if (length == 0) length = 0x10000;
+                System.arraycopy(base, offset, out, written, length);
+                written += length;
+            } else if (cmd != 0) {
+                System.arraycopy(delta, p, out, written, cmd);
+                p += cmd;
+                written += cmd;
+            } else {
+                throw new IOException("Invalid delta opcode");
+            }
+        }
+        return out;
+    }
+
+    private static long readVarint(byte[] data, int[] pos) {
+        long value = 0;
+        int shift = 0;
+        int c;
+        do {
+            c = data[pos[0]++] & 0xff;
+            value |= (long) (c & 0x7f) << shift;
+            shift += 7;
+        } while ((c & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Blob SHA-1 of a working tree file (or symlink target), as `git hash-object` computes it.
+     */
+    private static String hashObject(Path file, int mode) throws IOException {
+        MessageDigest sha1;
+        try {
+            sha1 = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+        if ((mode & TYPE_MASK) == TYPE_SYMLINK) {
+            byte[] target = Files.readSymbolicLink(file).toString().getBytes(StandardCharsets.UTF_8);
+            sha1.update(("blob " + target.length + "\0").getBytes(StandardCharsets.US_ASCII));
+            sha1.update(target);
+            return HexFormat.of().formatHex(sha1.digest());
+        }
+        sha1.update(("blob " + Files.size(file) + "\0").getBytes(StandardCharsets.US_ASCII));
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[65536];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                sha1.update(buffer, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(sha1.digest());
+    }
+
+    /**
+     * Raised for repository features this reader leaves to the fallback port.
+     */
+    private static class UnsupportedRepositoryException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedRepositoryException(String message) {
+            super(message);
+        }
+    }
+}
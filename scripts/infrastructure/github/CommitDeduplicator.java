@@ -0,0 +1,287 @@
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Folds commits that are already represented by a pull request into that PR.
+ *
+ * gh search returns a user's commits and PRs independently, so work that
+ * went through a PR shows up once per commit and again as the PR. This stage
+ * looks up the commit SHAs of all PRs at once (one `gh api graphql` call) and
+ * builds a SHA -> PR hash index. Each commit then costs one lookup: commits
+ * found in the index, plus merge and squash commits that name a PR of the
+ * same repository ("Merge pull request #12", "Title (#12)"), are removed.
+ * Instead, the PR gets a "commitCount" of the commits it absorbed.
+ *
+ * Total work is linear in commits plus PR commits. A PR whose lookup fails
+ * only keeps its commits; it never drops them.
+ */
+public class CommitDeduplicator {
+
+    public static final String COMMIT_COUNT = "commitCount";
+
+    private static final Pattern SQUASH_REFERENCE = Pattern.compile("\\(#(\\d+)\\)\\s*$");
+    private static final Pattern MERGE_REFERENCE = Pattern.compile("^Merge pull request #(\\d+)\\b");
+    // Commits read per PR; a longer PR only folds its first ones
+    private static final int MAX_COMMITS_PER_PR = 100;
+
+    /**
+     * Commit SHAs of several pull requests.
+     */
+    @FunctionalInterface
+    public interface PrCommitSource {
+        /**
+         * @param pullRequests PRs to look up
+         * @return "owner/repo#number" -> commit SHAs; PRs that could not be read are left out
+         */
+        Map<String, List<String>> commitShas(List<JsonObject> pullRequests) throws Exception;
+    }
+
+    /**
+     * @param activity       Copy of the input with folded commits removed and PR commit counts set
+     * @param foldedCommits  Commits removed because a PR already covers them
+     * @param linkedPrs      PRs that absorbed at least one commit
+     * @param failedLookups  PRs whose commits could not be listed (their commits were kept)
+     */
+    public record Result(JsonObject activity, int foldedCommits, int linkedPrs, int failedLookups) {}
+
+    private final PrCommitSource source;
+
+    /**
+     * @param source Where the PRs' commit SHAs come from (normally {@link #gh})
+     */
+    public CommitDeduplicator(PrCommitSource source) {
+        this.source = source;
+    }
+
+    /**
+     * List the commits of all PRs with one `gh api graphql` call, killed once it
+     * runs longer than the timeout. The call is scheduled by the shared
+     * {@link GhRequestScheduler}, which retries it when rate limited.
+     */
+    public static PrCommitSource gh(Duration timeout) {
+        return prs -> GhRequestScheduler.shared().execute(GhRequestScheduler.Resource.CORE, () -> queryCommits(prs, timeout));
+    }
+
+    /**
+     * @param activity Object with commits and pull_requests arrays (not modified)
+     */
+    public Result deduplicate(JsonObject activity) throws InterruptedException {
+        JsonArray commits = activity.getAsJsonArray("commits");
+        JsonArray prs = activity.getAsJsonArray("pull_requests");
+        if (commits == null || commits.isEmpty() || prs == null || prs.isEmpty()) {
+            return new Result(activity, 0, 0, 0);
+        }
+
+        JsonObject copy = activity.deepCopy();
+        JsonArray copiedPrs = copy.getAsJsonArray("pull_requests");
+
+        // "owner/repo#12" -> PR, for merge and squash commit references
+        Map<String, JsonObject> byNumber = new HashMap<>();
+        for (JsonElement element : copiedPrs) {
+            JsonObject pr = element.getAsJsonObject();
+            String key = prKey(pr);
+            if (key != null) {
+                byNumber.put(key, pr);
+            }
+        }
+
+        // SHA -> PR, from every PR's commit list
+        List<JsonObject> prList = new ArrayList<>();
+        copiedPrs.forEach(element -> prList.add(element.getAsJsonObject()));
+        Map<String, List<String>> shasByPr;
+        try {
+            shasByPr = source.commitShas(prList);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            System.err.println("Warning: Could not list PR commits - " + e.getMessage());
+            shasByPr = Map.of();
+        }
+        Map<String, JsonObject> bySha = new HashMap<>();
+        int failed = 0;
+        for (JsonObject pr : prList) {
+            String key = prKey(pr);
+            List<String> shas = key != null ? shasByPr.get(key) : null;
+            if (shas == null) {
+                failed++;
+                continue;
+            }
+            for (String sha : shas) {
+                bySha.put(sha, pr);
+            }
+        }
+
+        JsonArray kept = new JsonArray();
+        Map<JsonObject, Integer> counts = new IdentityHashMap<>();
+        for (JsonElement element : copy.getAsJsonArray("commits")) {
+            JsonObject commit = element.getAsJsonObject();
+            JsonObject pr = commit.has("sha") ? bySha.get(commit.get("sha").getAsString()) : null;
+            if (pr == null) {
+                pr = referencedPr(commit, byNumber);
+            }
+            if (pr == null) {
+                kept.add(commit);
+            } else {
+                counts.merge(pr, 1, Integer::sum);
+            }
+        }
+
+        int folded = 0;
+        for (Map.Entry<JsonObject, Integer> entry : counts.entrySet()) {
+            entry.getKey().addProperty(COMMIT_COUNT, entry.getValue());
+            folded += entry.getValue();
+        }
+        copy.add("commits", kept);
+        return new Result(copy, folded, counts.size(), failed);
+    }
+
+    // --- Internals ---
+
+    private static JsonObject referencedPr(JsonObject commit, Map<String, JsonObject> byNumber) {
+        String repo = repoName(commit);
+        JsonObject data = commit.has("commit") && commit.get("commit").isJsonObject() ? commit.getAsJsonObject("commit") : null;
+        if (repo == null || data == null || !data.has("message") || data.get("message").isJsonNull()) {
+            return null;
+        }
+        String title = data.get("message").getAsString().split("\n", 2)[0];
+        Matcher m = MERGE_REFERENCE.matcher(title);
+        if (!m.find()) {
+            m = SQUASH_REFERENCE.matcher(title);
+            if (!m.find()) {
+                return null;
+            }
+        }
+        return byNumber.get(repo + "#" + m.group(1));
+    }
+
+    private static String prKey(JsonObject pr) {
+        String repo = repoName(pr);
+        return repo == null || !pr.has("number") ? null : repo + "#" + pr.get("number").getAsInt();
+    }
+
+    private static String repoName(JsonObject object) {
+        if (!object.has("repository") || !object.get("repository").isJsonObject()) {
+            return null;
+        }
+        JsonElement name = object.getAsJsonObject("repository").get("nameWithOwner");
+        return name == null || name.isJsonNull() ? null : name.getAsString();
+    }
+
+    /**
+     * One query for every PR: r<i> aliases a repository, p<number> one of its PRs.
+     */
+    static String commitsQuery(Map<String, List<Integer>> numbersByRepo) {
+        StringBuilder query = new StringBuilder("query {");
+        int i = 0;
+        for (Map.Entry<String, List<Integer>> entry : numbersByRepo.entrySet()) {
+            String[] ownerAndName = entry.getKey().split("/");
+            query.append(" r").append(i++).append(": repository(owner: \"").append(ownerAndName[0])
+                .append("\", name: \"").append(ownerAndName[1]).append("\") {");
+            for (int number : entry.getValue()) {
+                query.append(" p").append(number).append(": pullRequest(number: ").append(number)
+                    .append(") { commits(first: ").append(MAX_COMMITS_PER_PR).append(") { nodes { commit { oid } } } }");
+            }
+            query.append(" }");
+        }
+        return query.append(" }").toString();
+    }
+
+    /**
+     * Read the commit SHAs out of a commitsQuery response.
+     *
+     * @return "owner/repo#number" -> SHAs for every PR the response resolved
+     */
+    static Map<String, List<String>> parseCommits(JsonObject data, Map<String, List<Integer>> numbersByRepo) {
+        Map<String, List<String>> shasByPr = new HashMap<>();
+        int i = 0;
+        for (Map.Entry<String, List<Integer>> entry : numbersByRepo.entrySet()) {
+            JsonElement repoEl = data.get("r" + i++);
+            if (repoEl == null || !repoEl.isJsonObject()) {
+                continue;
+            }
+            for (int number : entry.getValue()) {
+                JsonElement prEl = repoEl.getAsJsonObject().get("p" + number);
+                if (prEl == null || !prEl.isJsonObject() || !prEl.getAsJsonObject().has("commits")) {
+                    continue;
+                }
+                List<String> shas = new ArrayList<>();
+                for (JsonElement node : prEl.getAsJsonObject().getAsJsonObject("commits").getAsJsonArray("nodes")) {
+                    JsonElement oid = node.getAsJsonObject().getAsJsonObject("commit").get("oid");
+                    if (oid != null && !oid.isJsonNull()) {
+                        shas.add(oid.getAsString());
+                    }
+                }
+                shasByPr.put(entry.getKey() + "#" + number, shas);
+            }
+        }
+        return shasByPr;
+    }
+
+    private static Map<String, List<String>> queryCommits(List<JsonObject> prs, Duration timeout)
+            throws IOException, InterruptedException {
+        Map<String, List<Integer>> numbersByRepo = new LinkedHashMap<>();
+        for (JsonObject pr : prs) {
+            String repo = repoName(pr);
+            // Names are inlined into the query, so only accept plain owner/name pairs
+            if (repo != null && pr.has("number") && repo.matches("[A-Za-z0-9._-]+/[A-Za-z0-9._-]+")) {
+                List<Integer> numbers = numbersByRepo.computeIfAbsent(repo, k -> new ArrayList<>());
+                int number = pr.get("number").getAsInt();
+                if (!numbers.contains(number)) {
+                    numbers.add(number);
+                }
+            }
+        }
+        if (numbersByRepo.isEmpty()) {
+            return Map.of();
+        }
+
+        List<String> command = List.of("gh", "api", "graphql", "-f", "query=" + commitsQuery(numbersByRepo));
+        Process process = new ProcessBuilder(command).start();
+        CompletableFuture<String> stderr = CompletableFuture.supplyAsync(() -> {
+            try {
+                return new String(process.getErrorStream().readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                return "";
+            }
+        });
+        // Kill gh if it runs past the timeout; the reader then sees EOF
+        AtomicBoolean timedOut = new AtomicBoolean(false);
+        CompletableFuture.delayedExecutor(timeout.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+            if (process.isAlive()) {
+                timedOut.set(true);
+                process.destroyForcibly();
+            }
+        });
+
+        JsonElement response;
+        try (Reader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            response = JsonParser.parseReader(reader);
+        } catch (RuntimeException e) {
+            response = null;  // Empty or malformed output; the exit code explains it
+        }
+        int exitCode = process.waitFor();
+        if (timedOut.get()) {
+            throw new IOException("gh api graphql timed out after " + timeout.toSeconds() + "s");
+        }
+        // gh exits non-zero on partial GraphQL errors (e.g. a deleted PR); keep what resolved
+        if (response == null || !response.isJsonObject() || !response.getAsJsonObject().has("data")
+                || !response.getAsJsonObject().get("data").isJsonObject()) {
+            String errors = stderr.join().trim();
+            if (GhRequestScheduler.isRateLimited(errors)) {
+                throw new GhRequestScheduler.RateLimitedException(errors);
+            }
+            throw new IOException("gh api graphql failed (" + exitCode + "): " + errors);
+        }
+        return parseCommits(response.getAsJsonObject().getAsJsonObject("data"), numbersByRepo);
+    }
+}
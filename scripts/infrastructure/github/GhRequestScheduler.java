@@ -0,0 +1,349 @@
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Schedules gh calls against GitHub's rate limits.
+ *
+ * Every request takes a token from the bucket for its quota (search: 30
+ * requests per minute, core: 5000 per hour). Buckets refill at the quota's
+ * rate and allow a small burst, so parallel searches are spaced out instead
+ * of tripping the secondary rate limit. The hourly core quota may be spent
+ * faster than its average, at up to 900 requests per minute (the REST
+ * secondary limit), so a few hundred core calls do not take minutes. The
+ * remaining quota and reset time are read once from `gh api rate_limit`.
+ * When the quota is used up, requests wait for the reset.
+ *
+ * A request that fails with a rate-limit response (403 "rate limit" or 429)
+ * is retried with exponential backoff. The quota is refreshed first, so a
+ * short reset window is waited out. A reset further away than the maximum
+ * backoff fails the request.
+ *
+ * One scheduler is shared per JVM ({@link #shared()}), so team reports and
+ * concurrent searches draw from the same buckets. {@link #usage()} reports
+ * the requests, retries and waiting done so far.
+ */
+public class GhRequestScheduler {
+
+    public enum Resource {
+        SEARCH("search", 30, Duration.ofMinutes(1), 10, 0),
+        CORE("core", 5000, Duration.ofHours(1), 20, 900);
+
+        final String apiName;
+        final int defaultLimit;
+        final Duration window;
+        final int burst;
+        final int sustainedPerMinute;  // Refill floor when the quota's average rate is lower (0 = none)
+
+        Resource(String apiName, int defaultLimit, Duration window, int burst, int sustainedPerMinute) {
+            this.apiName = apiName;
+            this.defaultLimit = defaultLimit;
+            this.window = window;
+            this.burst = burst;
+            this.sustainedPerMinute = sustainedPerMinute;
+        }
+    }
+
+    /**
+     * A gh call failed because of a rate limit; the scheduler retries it.
+     */
+    public static class RateLimitedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public RateLimitedException(String message) {
+            super(message);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Request<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * Quota as reported by GitHub for one resource.
+     */
+    public record Quota(int limit, int remaining, Instant reset) {}
+
+    /**
+     * Source of current quotas; null entries mean unknown.
+     */
+    @FunctionalInterface
+    public interface QuotaSource {
+        Map<Resource, Quota> fetch() throws Exception;
+    }
+
+    /**
+     * Requests, retries and waiting done through the scheduler, plus the last
+     * known remaining quota (-1 when unknown).
+     */
+    public record Usage(int searchRequests, int coreRequests, int retries, long waitedMillis,
+                        int searchRemaining, int coreRemaining) {
+
+        /**
+         * Activity since an earlier snapshot; remaining quota stays current.
+         */
+        public Usage since(Usage before) {
+            return new Usage(searchRequests - before.searchRequests, coreRequests - before.coreRequests,
+                retries - before.retries, waitedMillis - before.waitedMillis, searchRemaining, coreRemaining);
+        }
+
+        public JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("searchRequests", searchRequests);
+            json.addProperty("coreRequests", coreRequests);
+            json.addProperty("retries", retries);
+            json.addProperty("waitedMs", waitedMillis);
+            if (searchRemaining >= 0) json.addProperty("searchRemaining", searchRemaining);
+            if (coreRemaining >= 0) json.addProperty("coreRemaining", coreRemaining);
+            return json;
+        }
+    }
+
+    public static final int DEFAULT_MAX_RETRIES = 4;
+    public static final Duration DEFAULT_BASE_BACKOFF = Duration.ofSeconds(2);
+    public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(60);
+
+    private static final GhRequestScheduler SHARED = new GhRequestScheduler(
+        GhRequestScheduler::fetchQuotasFromGh, DEFAULT_MAX_RETRIES, DEFAULT_BASE_BACKOFF, DEFAULT_MAX_BACKOFF);
+
+    public static GhRequestScheduler shared() {
+        return SHARED;
+    }
+
+    private final QuotaSource quotaSource;
+    private final int maxRetries;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final Map<Resource, Bucket> buckets = new EnumMap<>(Resource.class);
+    private final AtomicInteger retries = new AtomicInteger();
+    private final AtomicLong waitedNanos = new AtomicLong();
+    private volatile boolean quotaLoaded;
+
+    /**
+     * @param quotaSource Where quotas are read from (normally `gh api rate_limit`)
+     * @param maxRetries  Retries of a rate-limited request before giving up
+     * @param baseBackoff First retry delay, doubled on each further retry
+     * @param maxBackoff  Longest single wait; a later quota reset fails the request
+     */
+    public GhRequestScheduler(QuotaSource quotaSource, int maxRetries, Duration baseBackoff, Duration maxBackoff) {
+        this.quotaSource = quotaSource;
+        this.maxRetries = maxRetries;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        for (Resource resource : Resource.values()) {
+            buckets.put(resource, new Bucket(resource));
+        }
+    }
+
+    /**
+     * Run a request once a token is available, retrying rate-limit failures.
+     */
+    public <T> T execute(Resource resource, Request<T> request) throws Exception {
+        for (int attempt = 0; ; attempt++) {
+            acquire(resource);
+            try {
+                return request.run();
+            } catch (RateLimitedException e) {
+                if (attempt >= maxRetries) {
+                    throw e;
+                }
+                retries.incrementAndGet();
+                sleep(backoff(resource, attempt, e));
+            }
+        }
+    }
+
+    /**
+     * Take one token, waiting for the bucket to refill or the quota to reset.
+     * Fails instead of waiting longer than the maximum backoff.
+     */
+    public void acquire(Resource resource) throws IOException, InterruptedException {
+        loadQuotasOnce();
+        Bucket bucket = buckets.get(resource);
+        bucket.lock.lock();
+        try {
+            while (true) {
+                long wait = bucket.nanosUntilAvailable();
+                if (wait <= 0) {
+                    bucket.take();
+                    return;
+                }
+                if (wait > maxBackoff.toNanos()) {
+                    throw new RateLimitedException("GitHub " + resource.apiName + " quota exhausted until " + bucket.reset);
+                }
+                sleep(Duration.ofNanos(wait));
+            }
+        } finally {
+            bucket.lock.unlock();
+        }
+    }
+
+    public Usage usage() {
+        Bucket search = buckets.get(Resource.SEARCH);
+        Bucket core = buckets.get(Resource.CORE);
+        return new Usage(search.used.get(), core.used.get(), retries.get(),
+            TimeUnit.NANOSECONDS.toMillis(waitedNanos.get()), search.remaining, core.remaining);
+    }
+
+    /**
+     * Whether gh's error output describes a rate limit (as opposed to e.g. a permission 403).
+     */
+    public static boolean isRateLimited(String stderr) {
+        if (stderr == null) {
+            return false;
+        }
+        String text = stderr.toLowerCase(Locale.ROOT);
+        return text.contains("rate limit") || text.contains("http 429") || text.contains("too many requests");
+    }
+
+    // --- Internals ---
+
+    private Duration backoff(Resource resource, int attempt, RateLimitedException cause) throws RateLimitedException {
+        Duration exponential = baseBackoff.multipliedBy(1L << Math.min(attempt, 20));
+        Duration wait = exponential.compareTo(maxBackoff) > 0 ? maxBackoff : exponential;
+
+        // A used-up primary quota only recovers at its reset
+        refreshQuotas();
+        Bucket bucket = buckets.get(resource);
+        if (bucket.remaining == 0 && bucket.reset != null) {
+            Duration untilReset = Duration.between(Instant.now(), bucket.reset).plusSeconds(1);
+            if (untilReset.compareTo(maxBackoff) > 0) {
+                throw new RateLimitedException("GitHub " + resource.apiName + " quota exhausted until " + bucket.reset +
+                    " (" + cause.getMessage() + ")");
+            }
+            if (untilReset.compareTo(wait) > 0) {
+                wait = untilReset;
+            }
+        }
+
+        long jitter = ThreadLocalRandom.current().nextLong(wait.toMillis() / 4 + 1);
+        return wait.plusMillis(jitter);
+    }
+
+    private void sleep(Duration duration) throws InterruptedException {
+        waitedNanos.addAndGet(duration.toNanos());
+        TimeUnit.NANOSECONDS.sleep(duration.toNanos());
+    }
+
+    private void loadQuotasOnce() {
+        if (!quotaLoaded) {
+            synchronized (this) {
+                if (!quotaLoaded) {
+                    refreshQuotas();
+                    quotaLoaded = true;
+                }
+            }
+        }
+    }
+
+    private void refreshQuotas() {
+        Map<Resource, Quota> quotas;
+        try {
+            quotas = quotaSource.fetch();
+        } catch (Exception e) {
+            // Offline or not logged in: keep spacing requests at the default rates
+            return;
+        }
+        for (Map.Entry<Resource, Quota> entry : quotas.entrySet()) {
+            if (entry.getValue() != null) {
+                buckets.get(entry.getKey()).update(entry.getValue());
+            }
+        }
+    }
+
+    private static Map<Resource, Quota> fetchQuotasFromGh() throws IOException, InterruptedException {
+        // rate_limit requests do not count against the quota
+        Process process = new ProcessBuilder("gh", "api", "rate_limit")
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        JsonObject response;
+        try (Reader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            response = JsonParser.parseReader(reader).getAsJsonObject();
+        }
+        if (process.waitFor() != 0 || !response.has("resources")) {
+            throw new IOException("gh api rate_limit failed");
+        }
+
+        JsonObject resources = response.getAsJsonObject("resources");
+        Map<Resource, Quota> quotas = new EnumMap<>(Resource.class);
+        for (Resource resource : Resource.values()) {
+            if (resources.has(resource.apiName)) {
+                JsonObject quota = resources.getAsJsonObject(resource.apiName);
+                quotas.put(resource, new Quota(quota.get("limit").getAsInt(), quota.get("remaining").getAsInt(),
+                    Instant.ofEpochSecond(quota.get("reset").getAsLong())));
+            }
+        }
+        return quotas;
+    }
+
+    /**
+     * Token bucket for one resource, bounded by the primary quota when known.
+     */
+    private static final class Bucket {
+        final ReentrantLock lock = new ReentrantLock(true);
+        final AtomicInteger used = new AtomicInteger();
+        final Duration window;
+        final int burst;
+        final double minTokensPerNano;
+
+        double tokens;
+        volatile double tokensPerNano;
+        long lastRefill = System.nanoTime();
+        volatile int remaining = -1;
+        volatile Instant reset;
+
+        Bucket(Resource resource) {
+            this.window = resource.window;
+            this.burst = resource.burst;
+            this.tokens = burst;
+            this.minTokensPerNano = (double) resource.sustainedPerMinute / Duration.ofMinutes(1).toNanos();
+            this.tokensPerNano = rate(resource.defaultLimit);
+        }
+
+        double rate(int limit) {
+            return Math.max((double) limit / window.toNanos(), minTokensPerNano);
+        }
+
+        // Not under the lock: a waiter may hold it while sleeping until the reset
+        void update(Quota quota) {
+            tokensPerNano = rate(quota.limit());
+            reset = quota.reset();
+            remaining = quota.remaining();
+        }
+
+        long nanosUntilAvailable() {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+
+            if (remaining == 0 && reset != null) {
+                if (Instant.now().isBefore(reset)) {
+                    return Duration.between(Instant.now(), reset).toNanos() + 1;
+                }
+                remaining = -1;  // Quota has reset; the real count is unknown again
+            }
+            if (tokens >= 1) {
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+
+        void take() {
+            tokens -= 1;
+            used.incrementAndGet();
+            if (remaining > 0) {
+                remaining--;
+            }
+        }
+    }
+}
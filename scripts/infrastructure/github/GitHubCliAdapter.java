@@ -1,7 +1,11 @@
 import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -9,156 +13,106 @@ import java.util.stream.Collectors;
  * using the GitHub CLI (gh).
  *
  * This is the only place where gh CLI calls and JSON parsing happen.
+ *
+ * Searches go through {@link WindowedSearch}, so a range with more results
+ * than one search returns is split into smaller date windows rather than
+ * truncated. Every gh call is scheduled by {@link GhRequestScheduler}, which
+ * spaces requests under GitHub's rate limits and retries rate-limited ones.
+ *
+ * A failed search normally degrades to an empty list. With reportFailures it
+ * throws instead, so a caller that stores results (CachingActivityPort) can
+ * tell "no activity" from "the search failed".
  */
 public class GitHubCliAdapter implements ActivityPort, DiffPort {
 
     private static final Gson gson = new Gson();
 
+    private final WindowedSearch windowedSearch;
+    private final GhRequestScheduler scheduler;
+    private final boolean reportFailures;
+
+    public GitHubCliAdapter() {
+        this(new WindowedSearch());
+    }
+
+    public GitHubCliAdapter(WindowedSearch windowedSearch) {
+        this(windowedSearch, GhRequestScheduler.shared());
+    }
+
+    public GitHubCliAdapter(WindowedSearch windowedSearch, GhRequestScheduler scheduler) {
+        this(windowedSearch, scheduler, false);
+    }
+
+    /**
+     * @param reportFailures Throw an IllegalStateException when a search fails instead of returning an empty list
+     */
+    public GitHubCliAdapter(WindowedSearch windowedSearch, GhRequestScheduler scheduler, boolean reportFailures) {
+        this.windowedSearch = windowedSearch;
+        this.scheduler = scheduler;
+        this.reportFailures = reportFailures;
+    }
+
     // --- ActivityPort implementation ---
 
     @Override
     public List<Commit> fetchCommits(String username, DateRange range, Repository repo) {
         try {
-            String repoArg = repo != null ? " --repo=" + repo : "";
-            String[] cmd = {
-                "gh", "search", "commits",
-                "--author=" + username,
-                "--author-date=>" + range.startIso(),
-                "--json=sha,commit",
-                "--limit=100"
-            };
-
-            String json = executeCommand(cmd);
-            if (json == null || json.isBlank()) {
-                return List.of();
-            }
-
-            JsonArray items = gson.fromJson(json, JsonArray.class);
-            List<Commit> commits = new ArrayList<>();
-
-            for (JsonElement element : items) {
-                JsonObject obj = element.getAsJsonObject();
-                String sha = getStringOrNull(obj, "sha");
-                JsonObject commitObj = obj.has("commit") ? obj.getAsJsonObject("commit") : null;
-                String message = commitObj != null ? getStringOrNull(commitObj, "message") : "";
-
-                if (sha != null) {
-                    commits.add(new Commit(
-                        sha,
-                        message != null ? message.split("\n")[0] : "", // First line only
-                        username,
-                        null, // Date parsing would need more work
-                        null, // URL
-                        repo != null ? repo.toString() : null
-                    ));
-                }
-            }
-
-            return commits;
+            String repoName = repo != null ? repo.toString() : null;
+            return windowedSearch.collectPages(range, window -> {
+                String[] cmd = {
+                    "gh", "search", "commits",
+                    "--author=" + username,
+                    "--author-date=" + window.searchWindow(),
+                    "--json=sha,commit",
+                    "--limit=" + windowedSearch.cap()
+                };
+                return executeAndParse(cmd, reader -> readCommit(reader, username, repoName));
+            }, Commit::sha);
         } catch (Exception e) {
             // Graceful degradation - commit search often fails
-            System.err.println("Warning: Commit search failed - " + e.getMessage());
-            return List.of();
+            return searchFailed("Commit", e);
         }
     }
 
     @Override
     public List<PullRequest> fetchPullRequests(String username, DateRange range, Repository repo) {
         try {
-            List<String> cmdList = new ArrayList<>(Arrays.asList(
-                "gh", "search", "prs",
-                "--author=" + username,
-                "--created=>" + range.startIso(),
-                "--json=number,title,state,url,additions,deletions,repository",
-                "--limit=100"
-            ));
-            if (repo != null) {
-                cmdList.add("--repo=" + repo);
-            }
-
-            String json = executeCommand(cmdList.toArray(new String[0]));
-            if (json == null || json.isBlank()) {
-                return List.of();
-            }
-
-            JsonArray items = gson.fromJson(json, JsonArray.class);
-            List<PullRequest> prs = new ArrayList<>();
-
-            for (JsonElement element : items) {
-                JsonObject obj = element.getAsJsonObject();
-                int number = obj.has("number") ? obj.get("number").getAsInt() : 0;
-                String title = getStringOrNull(obj, "title");
-                String state = getStringOrNull(obj, "state");
-                String url = getStringOrNull(obj, "url");
-                int additions = obj.has("additions") ? obj.get("additions").getAsInt() : 0;
-                int deletions = obj.has("deletions") ? obj.get("deletions").getAsInt() : 0;
-
-                JsonObject repoObj = obj.has("repository") ? obj.getAsJsonObject("repository") : null;
-                String repoName = repoObj != null ? getStringOrNull(repoObj, "nameWithOwner") : null;
-
-                if (number > 0 && title != null && state != null) {
-                    prs.add(new PullRequest(number, title, state, url, repoName, additions, deletions));
+            return windowedSearch.collectPages(range, window -> {
+                List<String> cmdList = new ArrayList<>(Arrays.asList(
+                    "gh", "search", "prs",
+                    "--author=" + username,
+                    "--created=" + window.searchWindow(),
+                    "--json=number,title,state,url,additions,deletions,repository,createdAt",
+                    "--limit=" + windowedSearch.cap()
+                ));
+                if (repo != null) {
+                    cmdList.add("--repo=" + repo);
                 }
-            }
-
-            return prs;
+                return executeAndParse(cmdList.toArray(new String[0]), GitHubCliAdapter::readPullRequest);
+            }, pr -> pr.repository() + "#" + pr.number());
         } catch (Exception e) {
-            System.err.println("Warning: PR search failed - " + e.getMessage());
-            return List.of();
+            return searchFailed("PR", e);
         }
     }
 
     @Override
     public List<Issue> fetchIssues(String username, DateRange range, Repository repo) {
         try {
-            List<String> cmdList = new ArrayList<>(Arrays.asList(
-                "gh", "search", "issues",
-                "--author=" + username,
-                "--created=>" + range.startIso(),
-                "--json=number,title,state,url,labels,repository",
-                "--limit=100"
-            ));
-            if (repo != null) {
-                cmdList.add("--repo=" + repo);
-            }
-
-            String json = executeCommand(cmdList.toArray(new String[0]));
-            if (json == null || json.isBlank()) {
-                return List.of();
-            }
-
-            JsonArray items = gson.fromJson(json, JsonArray.class);
-            List<Issue> issues = new ArrayList<>();
-
-            for (JsonElement element : items) {
-                JsonObject obj = element.getAsJsonObject();
-                int number = obj.has("number") ? obj.get("number").getAsInt() : 0;
-                String title = getStringOrNull(obj, "title");
-                String state = getStringOrNull(obj, "state");
-                String url = getStringOrNull(obj, "url");
-
-                List<String> labels = new ArrayList<>();
-                if (obj.has("labels") && obj.get("labels").isJsonArray()) {
-                    for (JsonElement labelEl : obj.getAsJsonArray("labels")) {
-                        if (labelEl.isJsonObject()) {
-                            String name = getStringOrNull(labelEl.getAsJsonObject(), "name");
-                            if (name != null) labels.add(name);
-                        }
-                    }
-                }
-
-                JsonObject repoObj = obj.has("repository") ? obj.getAsJsonObject("repository") : null;
-                String repoName = repoObj != null ? getStringOrNull(repoObj, "nameWithOwner") : null;
-
-                if (number > 0 && title != null && state != null) {
-                    issues.add(new Issue(number, title, state, url, repoName, labels));
+            return windowedSearch.collectPages(range, window -> {
+                List<String> cmdList = new ArrayList<>(Arrays.asList(
+                    "gh", "search", "issues",
+                    "--author=" + username,
+                    "--created=" + window.searchWindow(),
+                    "--json=number,title,state,url,labels,repository,createdAt",
+                    "--limit=" + windowedSearch.cap()
+                ));
+                if (repo != null) {
+                    cmdList.add("--repo=" + repo);
                 }
-            }
-
-            return issues;
+                return executeAndParse(cmdList.toArray(new String[0]), GitHubCliAdapter::readIssue);
+            }, issue -> issue.repository() + "#" + issue.number());
         } catch (Exception e) {
-            System.err.println("Warning: Issue search failed - " + e.getMessage());
-            return List.of();
+            return searchFailed("Issue", e);
         }
     }
 
@@ -167,46 +121,33 @@ public class GitHubCliAdapter implements ActivityPort, DiffPort {
         // Note: gh search doesn't directly support reviews, so we use a different approach
         // This is a simplified implementation that gets reviews from PRs the user has reviewed
         try {
-            List<String> cmdList = new ArrayList<>(Arrays.asList(
-                "gh", "search", "prs",
-                "--reviewed-by=" + username,
-                "--created=>" + range.startIso(),
-                "--json=number,repository",
-                "--limit=50"
-            ));
-            if (repo != null) {
-                cmdList.add("--repo=" + repo);
-            }
-
-            String json = executeCommand(cmdList.toArray(new String[0]));
-            if (json == null || json.isBlank()) {
-                return List.of();
-            }
-
-            JsonArray items = gson.fromJson(json, JsonArray.class);
-            List<Review> reviews = new ArrayList<>();
-
-            // For each PR, we create a simplified review entry
-            for (JsonElement element : items) {
-                JsonObject obj = element.getAsJsonObject();
-                int prNumber = obj.has("number") ? obj.get("number").getAsInt() : 0;
-
-                JsonObject repoObj = obj.has("repository") ? obj.getAsJsonObject("repository") : null;
-                String repoName = repoObj != null ? getStringOrNull(repoObj, "nameWithOwner") : null;
-
-                if (prNumber > 0) {
-                    // Simplified: we don't know the exact review state without more API calls
-                    reviews.add(new Review(prNumber, "REVIEWED", null, null, repoName));
+            return windowedSearch.collectPages(range, window -> {
+                List<String> cmdList = new ArrayList<>(Arrays.asList(
+                    "gh", "search", "prs",
+                    "--reviewed-by=" + username,
+                    "--created=" + window.searchWindow(),
+                    "--json=number,repository",
+                    "--limit=" + windowedSearch.cap()
+                ));
+                if (repo != null) {
+                    cmdList.add("--repo=" + repo);
                 }
-            }
-
-            return reviews;
+                // For each PR, we create a simplified review entry
+                return executeAndParse(cmdList.toArray(new String[0]), GitHubCliAdapter::readReview);
+            }, review -> review.repository() + "#" + review.prNumber());
         } catch (Exception e) {
-            System.err.println("Warning: Review search failed - " + e.getMessage());
-            return List.of();
+            return searchFailed("Review", e);
         }
     }
 
+    private <T> List<T> searchFailed(String kind, Exception e) {
+        if (reportFailures) {
+            throw new IllegalStateException(kind + " search failed - " + e.getMessage(), e);
+        }
+        System.err.println("Warning: " + kind + " search failed - " + e.getMessage());
+        return List.of();
+    }
+
     // --- DiffPort implementation ---
 
     @Override
@@ -235,9 +176,273 @@ public class GitHubCliAdapter implements ActivityPort, DiffPort {
         }
     }
 
+    // --- Streaming parsers ---
+    //
+    // Search results are read token by token from gh's stdout straight into
+    // domain records; no String or JsonArray of the whole result is built.
+
+    /**
+     * Reads one array element into a domain record, or returns null to drop it.
+     */
+    @FunctionalInterface
+    interface ItemParser<T> {
+        T parse(JsonReader reader) throws IOException;
+    }
+
+    /**
+     * Parse a JSON array from a stream; empty input is an empty list.
+     */
+    static <T> List<T> parseArray(Reader in, ItemParser<T> parser) throws IOException {
+        return parsePage(in, parser).items();
+    }
+
+    /**
+     * Parse a JSON array from a stream, counting every element (including
+     * those the parser drops) so a full search window is recognized.
+     */
+    static <T> WindowedSearch.Page<T> parsePage(Reader in, ItemParser<T> parser) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        List<T> items = new ArrayList<>();
+        try {
+            reader.peek();
+        } catch (EOFException e) {
+            return WindowedSearch.Page.of(items);
+        }
+        int count = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            count++;
+            T item = parser.parse(reader);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        reader.endArray();
+        return new WindowedSearch.Page<>(items, count);
+    }
+
+    static Commit readCommit(JsonReader reader, String username, String repoName) throws IOException {
+        String sha = null;
+        String message = null;
+        Instant date = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "sha" -> sha = nextStringOrNull(reader);
+                case "commit" -> {
+                    if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                        reader.skipValue();
+                        continue;
+                    }
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "message" -> message = nextStringOrNull(reader);
+                            case "author" -> date = readField(reader, "date", GitHubCliAdapter::nextInstantOrNull);
+                            default -> reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (sha == null) {
+            return null;
+        }
+        return new Commit(
+            sha,
+            message != null ? message.split("\n")[0] : "", // First line only
+            username,
+            date,
+            null, // URL
+            repoName
+        );
+    }
+
+    static PullRequest readPullRequest(JsonReader reader) throws IOException {
+        int number = 0;
+        String title = null;
+        String state = null;
+        String url = null;
+        String repoName = null;
+        int additions = 0;
+        int deletions = 0;
+        Instant createdAt = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "number" -> number = nextIntOrZero(reader);
+                case "title" -> title = nextStringOrNull(reader);
+                case "state" -> state = nextStringOrNull(reader);
+                case "url" -> url = nextStringOrNull(reader);
+                case "additions" -> additions = nextIntOrZero(reader);
+                case "deletions" -> deletions = nextIntOrZero(reader);
+                case "createdAt" -> createdAt = nextInstantOrNull(reader);
+                case "repository" -> repoName = readField(reader, "nameWithOwner", GitHubCliAdapter::nextStringOrNull);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (number > 0 && title != null && state != null) {
+            return new PullRequest(number, title, state, url, repoName, additions, deletions, createdAt);
+        }
+        return null;
+    }
+
+    static Issue readIssue(JsonReader reader) throws IOException {
+        int number = 0;
+        String title = null;
+        String state = null;
+        String url = null;
+        String repoName = null;
+        Instant createdAt = null;
+        List<String> labels = new ArrayList<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "number" -> number = nextIntOrZero(reader);
+                case "title" -> title = nextStringOrNull(reader);
+                case "state" -> state = nextStringOrNull(reader);
+                case "url" -> url = nextStringOrNull(reader);
+                case "createdAt" -> createdAt = nextInstantOrNull(reader);
+                case "repository" -> repoName = readField(reader, "nameWithOwner", GitHubCliAdapter::nextStringOrNull);
+                case "labels" -> {
+                    if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                        reader.skipValue();
+                        continue;
+                    }
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        String name = readField(reader, "name", GitHubCliAdapter::nextStringOrNull);
+                        if (name != null) labels.add(name);
+                    }
+                    reader.endArray();
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (number > 0 && title != null && state != null) {
+            return new Issue(number, title, state, url, repoName, labels, createdAt);
+        }
+        return null;
+    }
+
+    static Review readReview(JsonReader reader) throws IOException {
+        int prNumber = 0;
+        String repoName = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "number" -> prNumber = nextIntOrZero(reader);
+                case "repository" -> repoName = readField(reader, "nameWithOwner", GitHubCliAdapter::nextStringOrNull);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        // Simplified: we don't know the exact review state without more API calls
+        return prNumber > 0 ? new Review(prNumber, "REVIEWED", null, null, repoName) : null;
+    }
+
+    /**
+     * Read one field of a nested object (e.g. repository.nameWithOwner), skipping the rest.
+     */
+    private static <T> T readField(JsonReader reader, String field, ItemParser<T> value) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+        T result = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals(field)) {
+                result = value.parse(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return result;
+    }
+
+    private static String nextStringOrNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    private static int nextIntOrZero(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return 0;
+        }
+        return reader.nextInt();
+    }
+
+    private static Instant nextInstantOrNull(JsonReader reader) throws IOException {
+        String value = nextStringOrNull(reader);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Instant.parse(value);
+        } catch (java.time.format.DateTimeParseException e) {
+            return null;
+        }
+    }
+
     // --- Helper methods ---
 
+    /**
+     * Run a gh search and parse its JSON array output as it streams in.
+     * stderr is drained separately so warnings cannot corrupt the JSON.
+     */
+    private <T> WindowedSearch.Page<T> executeAndParse(String[] cmd, ItemParser<T> parser) throws Exception {
+        return scheduler.execute(GhRequestScheduler.Resource.SEARCH, () -> runAndParse(cmd, parser));
+    }
+
+    private <T> WindowedSearch.Page<T> runAndParse(String[] cmd, ItemParser<T> parser) throws Exception {
+        Process process = new ProcessBuilder(cmd).start();
+        CompletableFuture<String> stderr = CompletableFuture.supplyAsync(() -> {
+            try (InputStream err = process.getErrorStream()) {
+                return new String(err.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                return "";
+            }
+        });
+
+        WindowedSearch.Page<T> items;
+        try (Reader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            items = parsePage(reader, parser);
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            process.destroyForcibly();
+            throw e;
+        }
+
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            String errors = stderr.join().trim();
+            if (GhRequestScheduler.isRateLimited(errors)) {
+                throw new GhRequestScheduler.RateLimitedException(errors);
+            }
+            throw new RuntimeException("Command failed with exit code " + exitCode + ": " + errors);
+        }
+        return items;
+    }
+
     private String executeCommand(String[] cmd) throws Exception {
+        return scheduler.execute(GhRequestScheduler.Resource.CORE, () -> runCommand(cmd));
+    }
+
+    private String runCommand(String[] cmd) throws Exception {
         ProcessBuilder pb = new ProcessBuilder(cmd);
         pb.redirectErrorStream(true);
         Process process = pb.start();
@@ -247,17 +452,13 @@ public class GitHubCliAdapter implements ActivityPort, DiffPort {
             int exitCode = process.waitFor();
 
             if (exitCode != 0) {
+                if (GhRequestScheduler.isRateLimited(output)) {
+                    throw new GhRequestScheduler.RateLimitedException(output);
+                }
                 throw new RuntimeException("Command failed with exit code " + exitCode + ": " + output);
             }
 
             return output;
         }
     }
-
-    private String getStringOrNull(JsonObject obj, String key) {
-        if (obj.has(key) && !obj.get(key).isJsonNull()) {
-            return obj.get(key).getAsString();
-        }
-        return null;
-    }
 }
@@ -0,0 +1,653 @@
+import com.google.gson.*;
+import java.io.*;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Infrastructure adapter that implements ActivityPort and DiffPort
+ * using the GitHub GraphQL API over a shared java.net.http.HttpClient.
+ *
+ * The first fetch for a (user, range, repo) sends one GraphQL request that
+ * covers PRs (with additions/deletions/changedFiles), issues, reviews and
+ * the repositories the user committed to, then one more request that reads
+ * commit history from all of those repositories at once. The other fetches
+ * for the same key reuse that result, so a full collection costs two HTTP
+ * round trips instead of four gh processes plus one per PR diff.
+ *
+ * Searches and commit histories longer than one page are read to the end
+ * with pageInfo cursors, one more request per page. A snapshot is only
+ * reused when every request succeeded without GraphQL errors; partial data
+ * is returned once and queried again on the next call.
+ *
+ * Commits are read from each repository's default branch history.
+ * Authentication uses the token held by the GitHub CLI (gh auth token).
+ */
+public class GitHubGraphQLAdapter implements ActivityPort, DiffPort {
+
+    public static final URI DEFAULT_ENDPOINT = URI.create("https://api.github.com/graphql");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int MAX_COMMIT_REPOSITORIES = 25;
+    private static final int MAX_SNAPSHOTS = 64;
+    private static final int PAGE_SIZE = 100;
+    private static final int REVIEW_PAGE_SIZE = 50;  // Each node also reads the user's latest review
+    // GitHub search returns at most this many results per query, however many pages are read
+    static final int SEARCH_RESULT_CAP = 1000;
+
+    private static final Gson gson = new Gson();
+
+    private static final String PAGE_INFO = "pageInfo { hasNextPage endCursor }";
+    private static final String PR_FIELDS =
+        "... on PullRequest { number title state url additions deletions changedFiles createdAt repository { nameWithOwner } }";
+    private static final String ISSUE_FIELDS =
+        "... on Issue { number title state url createdAt labels(first: 20) { nodes { name } } repository { nameWithOwner } }";
+    private static final String REVIEW_FIELDS =
+        "... on PullRequest { number repository { nameWithOwner } reviews(author: $login, last: 1) { nodes { state body url } } }";
+    private static final String COMMIT_FIELDS = "oid messageHeadline committedDate url";
+
+    private static final String ACTIVITY_QUERY = """
+        query($login: String!, $from: DateTime!, $to: DateTime!, $prQuery: String!, $issueQuery: String!, $reviewQuery: String!) {
+          user(login: $login) {
+            id
+            contributionsCollection(from: $from, to: $to) {
+              commitContributionsByRepository(maxRepositories: %d) { repository { nameWithOwner } }
+            }
+          }
+          prs: search(type: ISSUE, query: $prQuery, first: %d) {
+            issueCount %s
+            nodes { %s }
+          }
+          issues: search(type: ISSUE, query: $issueQuery, first: %d) {
+            issueCount %s
+            nodes { %s }
+          }
+          reviewed: search(type: ISSUE, query: $reviewQuery, first: %d) {
+            issueCount %s
+            nodes { %s }
+          }
+        }
+        """.formatted(MAX_COMMIT_REPOSITORIES, PAGE_SIZE, PAGE_INFO, PR_FIELDS, PAGE_SIZE, PAGE_INFO, ISSUE_FIELDS,
+            REVIEW_PAGE_SIZE, PAGE_INFO, REVIEW_FIELDS);
+
+    private static final String HISTORY_PAGE_QUERY = """
+        query($owner: String!, $name: String!, $author: ID!, $since: GitTimestamp!, $until: GitTimestamp!, $after: String!) {
+          repository(owner: $owner, name: $name) {
+            defaultBranchRef { target { ... on Commit {
+              history(author: {id: $author}, since: $since, until: $until, first: %d, after: $after) {
+                %s
+                nodes { %s }
+              }
+            } } }
+          }
+        }
+        """.formatted(PAGE_SIZE, PAGE_INFO, COMMIT_FIELDS);
+
+    private final HttpClient httpClient;
+    private final URI endpoint;
+    private final String explicitToken;
+    private volatile String token;
+
+    // One batched fetch per (user, range, repo), shared by the four ActivityPort calls.
+    // Least recently used keys are dropped beyond MAX_SNAPSHOTS.
+    private final Map<String, CompletableFuture<Snapshot>> snapshots = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<Snapshot>> eldest) {
+                return size() > MAX_SNAPSHOTS;
+            }
+        });
+    // Diff stats seen in PR search results, keyed by "owner/repo#number"
+    private final Map<String, DiffSummary> knownDiffs = new ConcurrentHashMap<>();
+
+    public GitHubGraphQLAdapter() {
+        this(DEFAULT_ENDPOINT, null);
+    }
+
+    /**
+     * @param endpoint GraphQL endpoint
+     * @param token    API token, or null to ask the GitHub CLI (gh auth token) on first use
+     */
+    public GitHubGraphQLAdapter(URI endpoint, String token) {
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        this.endpoint = endpoint;
+        this.explicitToken = token;
+    }
+
+    // --- ActivityPort implementation ---
+
+    @Override
+    public List<Commit> fetchCommits(String username, DateRange range, Repository repo) {
+        return snapshot(username, range, repo).commits();
+    }
+
+    @Override
+    public List<PullRequest> fetchPullRequests(String username, DateRange range, Repository repo) {
+        return snapshot(username, range, repo).pullRequests();
+    }
+
+    @Override
+    public List<Issue> fetchIssues(String username, DateRange range, Repository repo) {
+        return snapshot(username, range, repo).issues();
+    }
+
+    @Override
+    public List<Review> fetchReviews(String username, DateRange range, Repository repo) {
+        return snapshot(username, range, repo).reviews();
+    }
+
+    // --- DiffPort implementation ---
+
+    @Override
+    public DiffSummary fetchPRDiff(Repository repo, int prNumber) {
+        return fetchPRDiffs(repo, List.of(prNumber)).getOrDefault(prNumber, DiffSummary.empty());
+    }
+
+    /**
+     * Fetch diff summaries for several PRs of one repository in a single request.
+     * PRs already seen in search results are answered without a request.
+     *
+     * @param repo      Repository containing the PRs
+     * @param prNumbers Pull request numbers
+     * @return Diff summary per PR number (empty summaries for PRs that could not be read)
+     */
+    public Map<Integer, DiffSummary> fetchPRDiffs(Repository repo, List<Integer> prNumbers) {
+        Map<Integer, DiffSummary> result = new LinkedHashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (int prNumber : prNumbers) {
+            DiffSummary known = knownDiffs.get(repo + "#" + prNumber);
+            if (known != null) {
+                result.put(prNumber, known);
+            } else if (!missing.contains(prNumber)) {
+                missing.add(prNumber);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        StringBuilder query = new StringBuilder("query($owner: String!, $name: String!) {\n")
+            .append("  repository(owner: $owner, name: $name) {\n");
+        for (int prNumber : missing) {
+            query.append("    pr").append(prNumber).append(": pullRequest(number: ").append(prNumber)
+                .append(") { additions deletions changedFiles }\n");
+        }
+        query.append("  }\n}\n");
+
+        JsonObject variables = new JsonObject();
+        variables.addProperty("owner", repo.owner());
+        variables.addProperty("name", repo.name());
+
+        try {
+            JsonObject data = execute(query.toString(), variables).data();
+            JsonObject repoObj = objectOrNull(data, "repository");
+            for (int prNumber : missing) {
+                JsonObject pr = repoObj != null ? objectOrNull(repoObj, "pr" + prNumber) : null;
+                DiffSummary summary = pr != null ? toDiffSummary(pr) : DiffSummary.empty();
+                if (pr != null) {
+                    knownDiffs.put(repo + "#" + prNumber, summary);
+                }
+                result.put(prNumber, summary);
+            }
+        } catch (Exception e) {
+            System.err.println("Warning: PR diff fetch failed for " + repo + " " + missing + " - " + e.getMessage());
+            missing.forEach(prNumber -> result.put(prNumber, DiffSummary.empty()));
+        }
+        return result;
+    }
+
+    // --- Batched activity fetch ---
+
+    /**
+     * @param complete False when a query failed and the lists are partial or empty
+     */
+    private record Snapshot(List<Commit> commits, List<PullRequest> pullRequests,
+                            List<Issue> issues, List<Review> reviews, boolean complete) {
+
+        static Snapshot failed() {
+            return new Snapshot(List.of(), List.of(), List.of(), List.of(), false);
+        }
+    }
+
+    /**
+     * @param complete False when a request failed or returned GraphQL errors
+     */
+    private record Fetched<T>(List<T> items, boolean complete) {}
+
+    private Snapshot snapshot(String username, DateRange range, Repository repo) {
+        String key = username + "|" + range.startIso() + ".." + range.endIso() + "|" + repo;
+        CompletableFuture<Snapshot> pending = new CompletableFuture<>();
+        CompletableFuture<Snapshot> existing = snapshots.putIfAbsent(key, pending);
+        if (existing == null) {
+            // First caller loads; concurrent callers for the same key wait on its result.
+            // A failed load is not kept, so the next call for the key queries again.
+            try {
+                Snapshot loaded = loadSnapshot(username, range, repo);
+                if (!loaded.complete()) {
+                    snapshots.remove(key, pending);
+                }
+                pending.complete(loaded);
+            } catch (RuntimeException e) {
+                snapshots.remove(key, pending);
+                pending.completeExceptionally(e);
+            }
+        }
+        try {
+            return (existing != null ? existing : pending).join();
+        } catch (CompletionException e) {
+            // loadSnapshot degrades on its own, so only unexpected errors get here
+            System.err.println("Warning: GitHub GraphQL fetch failed - " + e.getCause().getMessage());
+            return Snapshot.failed();
+        }
+    }
+
+    private Snapshot loadSnapshot(String username, DateRange range, Repository repo) {
+        String repoFilter = repo != null ? " repo:" + repo : "";
+        String window = " created:" + range.searchWindow();
+
+        JsonObject variables = new JsonObject();
+        variables.addProperty("login", username);
+        variables.addProperty("from", range.start().plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().toString());
+        variables.addProperty("to", range.end().plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().toString());
+        variables.addProperty("prQuery", "author:" + username + " is:pr" + window + repoFilter);
+        variables.addProperty("issueQuery", "author:" + username + " is:issue" + window + repoFilter);
+        variables.addProperty("reviewQuery", "reviewed-by:" + username + " is:pr" + window + repoFilter);
+
+        GraphQLResponse response;
+        try {
+            response = execute(ACTIVITY_QUERY, variables);
+        } catch (Exception e) {
+            System.err.println("Warning: GitHub GraphQL activity query failed - " + e.getMessage());
+            return Snapshot.failed();
+        }
+        JsonObject data = response.data();
+
+        Fetched<JsonObject> prNodes = searchNodes("PR", objectOrNull(data, "prs"),
+            variables.get("prQuery").getAsString(), PAGE_SIZE, PR_FIELDS, username);
+        Fetched<JsonObject> issueNodes = searchNodes("issue", objectOrNull(data, "issues"),
+            variables.get("issueQuery").getAsString(), PAGE_SIZE, ISSUE_FIELDS, username);
+        Fetched<JsonObject> reviewNodes = searchNodes("review", objectOrNull(data, "reviewed"),
+            variables.get("reviewQuery").getAsString(), REVIEW_PAGE_SIZE, REVIEW_FIELDS, username);
+        boolean complete = !response.partial() && prNodes.complete() && issueNodes.complete() && reviewNodes.complete();
+
+        List<PullRequest> prs = parsePullRequests(prNodes.items());
+        List<Issue> issues = parseIssues(issueNodes.items());
+        List<Review> reviews = parseReviews(reviewNodes.items());
+
+        JsonObject user = objectOrNull(data, "user");
+        List<Commit> commits = List.of();
+        if (user != null && getStringOrNull(user, "id") != null) {
+            List<String> repos = repo != null ? List.of(repo.toString()) : committedRepositories(user);
+            Fetched<Commit> history = fetchCommitHistory(username, getStringOrNull(user, "id"), range, repos);
+            commits = history.items();
+            complete &= history.complete();
+        }
+
+        return new Snapshot(commits, prs, issues, reviews, complete);
+    }
+
+    /**
+     * All nodes of a search: the first page from the activity query, then one
+     * request per further page. Stops early, incomplete, when a page fails.
+     */
+    private Fetched<JsonObject> searchNodes(String kind, JsonObject firstPage, String searchQuery, int pageSize,
+                                            String fields, String login) {
+        List<JsonObject> items = new ArrayList<>(nodes(firstPage));
+        int matched = firstPage != null && firstPage.has("issueCount") ? firstPage.get("issueCount").getAsInt() : 0;
+        if (matched > SEARCH_RESULT_CAP) {
+            System.err.println("Warning: GitHub " + kind + " search matched " + matched + " results, the search limit is " +
+                SEARCH_RESULT_CAP + "; results may be incomplete");
+        }
+
+        boolean needsLogin = fields.contains("$login");
+        String query = "query($query: String!, $after: String!" + (needsLogin ? ", $login: String!" : "") + ") {\n"
+            + "  search(type: ISSUE, query: $query, first: " + pageSize + ", after: $after) {\n"
+            + "    " + PAGE_INFO + "\n"
+            + "    nodes { " + fields + " }\n"
+            + "  }\n"
+            + "}\n";
+
+        JsonObject page = firstPage;
+        while (nextCursor(page) != null && items.size() < SEARCH_RESULT_CAP) {
+            JsonObject variables = new JsonObject();
+            variables.addProperty("query", searchQuery);
+            variables.addProperty("after", nextCursor(page));
+            if (needsLogin) {
+                variables.addProperty("login", login);
+            }
+            try {
+                GraphQLResponse response = execute(query, variables);
+                page = objectOrNull(response.data(), "search");
+                items.addAll(nodes(page));
+                if (response.partial()) {
+                    return new Fetched<>(items, false);
+                }
+            } catch (Exception e) {
+                System.err.println("Warning: GitHub " + kind + " search page failed - " + e.getMessage());
+                return new Fetched<>(items, false);
+            }
+        }
+        return new Fetched<>(items, true);
+    }
+
+    private List<String> committedRepositories(JsonObject user) {
+        List<String> repos = new ArrayList<>();
+        JsonObject contributions = objectOrNull(user, "contributionsCollection");
+        if (contributions == null || !contributions.has("commitContributionsByRepository")) {
+            return repos;
+        }
+        for (JsonElement element : contributions.getAsJsonArray("commitContributionsByRepository")) {
+            JsonObject repoObj = objectOrNull(element.getAsJsonObject(), "repository");
+            String name = repoObj != null ? getStringOrNull(repoObj, "nameWithOwner") : null;
+            if (name != null) {
+                repos.add(name);
+            }
+        }
+        return repos;
+    }
+
+    /**
+     * Read the user's commits from all repositories in one aliased request,
+     * then one request per further page of a repository's history.
+     */
+    private Fetched<Commit> fetchCommitHistory(String username, String authorId, DateRange range, List<String> repos) {
+        if (repos.isEmpty()) {
+            return new Fetched<>(List.of(), true);
+        }
+
+        JsonObject variables = new JsonObject();
+        variables.addProperty("author", authorId);
+        variables.addProperty("since", range.start().plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().toString());
+        variables.addProperty("until", range.end().plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().toString());
+
+        StringBuilder declarations = new StringBuilder("$author: ID!, $since: GitTimestamp!, $until: GitTimestamp!");
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < repos.size(); i++) {
+            Repository repository = Repository.parse(repos.get(i));
+            variables.addProperty("o" + i, repository.owner());
+            variables.addProperty("n" + i, repository.name());
+            declarations.append(", $o").append(i).append(": String!, $n").append(i).append(": String!");
+            body.append("  r").append(i).append(": repository(owner: $o").append(i).append(", name: $n").append(i).append(") {\n")
+                .append("    nameWithOwner\n")
+                .append("    defaultBranchRef { target { ... on Commit {\n")
+                .append("      history(author: {id: $author}, since: $since, until: $until, first: ").append(PAGE_SIZE).append(") {\n")
+                .append("        ").append(PAGE_INFO).append("\n")
+                .append("        nodes { ").append(COMMIT_FIELDS).append(" }\n")
+                .append("      }\n")
+                .append("    } } }\n")
+                .append("  }\n");
+        }
+        String query = "query(" + declarations + ") {\n" + body + "}\n";
+
+        GraphQLResponse response;
+        try {
+            response = execute(query, variables);
+        } catch (Exception e) {
+            // Graceful degradation - mirrors the CLI adapter's commit search
+            System.err.println("Warning: Commit history query failed - " + e.getMessage());
+            return new Fetched<>(List.of(), false);
+        }
+
+        List<Commit> commits = new ArrayList<>();
+        boolean complete = !response.partial();
+        for (int i = 0; i < repos.size(); i++) {
+            JsonObject repoObj = objectOrNull(response.data(), "r" + i);
+            String repoName = repoObj != null ? getStringOrNull(repoObj, "nameWithOwner") : null;
+            JsonObject history = history(repoObj);
+            addCommits(commits, history, username, repoName);
+
+            // Further pages of this repository's history
+            Repository repository = Repository.parse(repos.get(i));
+            while (complete && nextCursor(history) != null) {
+                JsonObject pageVariables = new JsonObject();
+                pageVariables.addProperty("owner", repository.owner());
+                pageVariables.addProperty("name", repository.name());
+                pageVariables.add("author", variables.get("author"));
+                pageVariables.add("since", variables.get("since"));
+                pageVariables.add("until", variables.get("until"));
+                pageVariables.addProperty("after", nextCursor(history));
+                try {
+                    GraphQLResponse page = execute(HISTORY_PAGE_QUERY, pageVariables);
+                    history = history(objectOrNull(page.data(), "repository"));
+                    addCommits(commits, history, username, repoName);
+                    complete = !page.partial();
+                } catch (Exception e) {
+                    System.err.println("Warning: Commit history page for " + repos.get(i) + " failed - " + e.getMessage());
+                    complete = false;
+                }
+            }
+        }
+        return new Fetched<>(commits, complete);
+    }
+
+    private static JsonObject history(JsonObject repoObj) {
+        JsonObject branch = repoObj != null ? objectOrNull(repoObj, "defaultBranchRef") : null;
+        JsonObject target = branch != null ? objectOrNull(branch, "target") : null;
+        return target != null ? objectOrNull(target, "history") : null;
+    }
+
+    private static void addCommits(List<Commit> commits, JsonObject history, String username, String repoName) {
+        for (JsonObject node : nodes(history)) {
+            String sha = getStringOrNull(node, "oid");
+            if (sha != null) {
+                String message = getStringOrNull(node, "messageHeadline");
+                commits.add(new Commit(
+                    sha,
+                    message != null ? message : "",
+                    username,
+                    getInstantOrNull(node, "committedDate"),
+                    getStringOrNull(node, "url"),
+                    repoName
+                ));
+            }
+        }
+    }
+
+    private List<PullRequest> parsePullRequests(List<JsonObject> nodes) {
+        List<PullRequest> prs = new ArrayList<>();
+        for (JsonObject obj : nodes) {
+            int number = obj.has("number") ? obj.get("number").getAsInt() : 0;
+            String title = getStringOrNull(obj, "title");
+            String state = getStringOrNull(obj, "state");
+            String repoName = nameWithOwner(obj);
+
+            if (number > 0 && title != null && state != null) {
+                DiffSummary diff = toDiffSummary(obj);
+                if (repoName != null) {
+                    knownDiffs.put(repoName + "#" + number, diff);
+                }
+                prs.add(new PullRequest(number, title, state, getStringOrNull(obj, "url"), repoName,
+                    diff.additions(), diff.deletions(), getInstantOrNull(obj, "createdAt")));
+            }
+        }
+        return prs;
+    }
+
+    private List<Issue> parseIssues(List<JsonObject> nodes) {
+        List<Issue> issues = new ArrayList<>();
+        for (JsonObject obj : nodes) {
+            int number = obj.has("number") ? obj.get("number").getAsInt() : 0;
+            String title = getStringOrNull(obj, "title");
+            String state = getStringOrNull(obj, "state");
+
+            List<String> labels = new ArrayList<>();
+            for (JsonObject label : nodes(objectOrNull(obj, "labels"))) {
+                String name = getStringOrNull(label, "name");
+                if (name != null) labels.add(name);
+            }
+
+            if (number > 0 && title != null && state != null) {
+                issues.add(new Issue(number, title, state, getStringOrNull(obj, "url"), nameWithOwner(obj),
+                    labels, getInstantOrNull(obj, "createdAt")));
+            }
+        }
+        return issues;
+    }
+
+    private List<Review> parseReviews(List<JsonObject> nodes) {
+        List<Review> reviews = new ArrayList<>();
+        for (JsonObject obj : nodes) {
+            int prNumber = obj.has("number") ? obj.get("number").getAsInt() : 0;
+            if (prNumber <= 0) {
+                continue;
+            }
+            List<JsonObject> latest = nodes(objectOrNull(obj, "reviews"));
+            JsonObject review = latest.isEmpty() ? null : latest.get(latest.size() - 1);
+            String state = review != null ? getStringOrNull(review, "state") : null;
+            reviews.add(new Review(
+                prNumber,
+                state != null ? state : "REVIEWED",
+                review != null ? getStringOrNull(review, "body") : null,
+                review != null ? getStringOrNull(review, "url") : null,
+                nameWithOwner(obj)
+            ));
+        }
+        return reviews;
+    }
+
+    // --- Helper methods ---
+
+    /**
+     * @param partial True when GraphQL reported errors next to the data
+     */
+    private record GraphQLResponse(JsonObject data, boolean partial) {}
+
+    /**
+     * POST a GraphQL request and return its data object.
+     * Partial results are kept and flagged; GraphQL errors are reported as warnings.
+     */
+    private GraphQLResponse execute(String query, JsonObject variables) throws IOException, InterruptedException {
+        JsonObject payload = new JsonObject();
+        payload.addProperty("query", query);
+        payload.add("variables", variables);
+
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+            .timeout(REQUEST_TIMEOUT)
+            .header("Authorization", "bearer " + token())
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(payload)))
+            .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("GraphQL request failed with HTTP " + response.statusCode() + ": " + response.body());
+        }
+
+        JsonObject body = gson.fromJson(response.body(), JsonObject.class);
+        JsonObject data = objectOrNull(body, "data");
+        if (body.has("errors")) {
+            String messages = body.getAsJsonArray("errors").asList().stream()
+                .map(error -> getStringOrNull(error.getAsJsonObject(), "message"))
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining("; "));
+            if (data == null) {
+                throw new IOException("GraphQL errors: " + messages);
+            }
+            System.err.println("Warning: GitHub GraphQL returned partial results - " + messages);
+        }
+        return new GraphQLResponse(data != null ? data : new JsonObject(), body.has("errors"));
+    }
+
+    private String token() throws IOException, InterruptedException {
+        if (explicitToken != null) {
+            return explicitToken;
+        }
+        String cached = token;
+        if (cached != null) {
+            return cached;
+        }
+        synchronized (this) {
+            if (token == null) {
+                token = readGhToken();
+            }
+            return token;
+        }
+    }
+
+    private static String readGhToken() throws IOException, InterruptedException {
+        ProcessBuilder pb = new ProcessBuilder("gh", "auth", "token");
+        Process process = pb.start();
+
+        String output;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            output = reader.lines().collect(Collectors.joining("\n")).trim();
+        }
+        int exitCode = process.waitFor();
+        if (exitCode != 0 || output.isEmpty()) {
+            throw new IOException("Could not read token from 'gh auth token' (exit code " + exitCode + ")");
+        }
+        return output;
+    }
+
+    private static DiffSummary toDiffSummary(JsonObject pr) {
+        int additions = pr.has("additions") ? pr.get("additions").getAsInt() : 0;
+        int deletions = pr.has("deletions") ? pr.get("deletions").getAsInt() : 0;
+        int filesChanged = pr.has("changedFiles") ? pr.get("changedFiles").getAsInt() : 0;
+        return new DiffSummary(filesChanged, additions, deletions);
+    }
+
+    private static List<JsonObject> nodes(JsonObject connection) {
+        List<JsonObject> result = new ArrayList<>();
+        if (connection != null && connection.has("nodes") && connection.get("nodes").isJsonArray()) {
+            for (JsonElement node : connection.getAsJsonArray("nodes")) {
+                // Search nodes that don't match the fragment come back as empty objects
+                if (node.isJsonObject() && node.getAsJsonObject().size() > 0) {
+                    result.add(node.getAsJsonObject());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return Cursor of the next page of a connection, or null on its last page
+     */
+    private static String nextCursor(JsonObject connection) {
+        JsonObject pageInfo = objectOrNull(connection, "pageInfo");
+        if (pageInfo == null || !pageInfo.has("hasNextPage") || !pageInfo.get("hasNextPage").getAsBoolean()) {
+            return null;
+        }
+        return getStringOrNull(pageInfo, "endCursor");
+    }
+
+    private static String nameWithOwner(JsonObject obj) {
+        JsonObject repoObj = objectOrNull(obj, "repository");
+        return repoObj != null ? getStringOrNull(repoObj, "nameWithOwner") : null;
+    }
+
+    private static JsonObject objectOrNull(JsonObject obj, String key) {
+        if (obj != null && obj.has(key) && obj.get(key).isJsonObject()) {
+            return obj.getAsJsonObject(key);
+        }
+        return null;
+    }
+
+    private static String getStringOrNull(JsonObject obj, String key) {
+        if (obj.has(key) && !obj.get(key).isJsonNull()) {
+            return obj.get(key).getAsString();
+        }
+        return null;
+    }
+
+    private static Instant getInstantOrNull(JsonObject obj, String key) {
+        String value = getStringOrNull(obj, key);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Instant.parse(value);
+        } catch (java.time.format.DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Collects complete GitHub search results over a date range.
+ *
+ * A GitHub search returns at most a fixed number of results (1000 for the
+ * search API), and anything beyond that is silently dropped. When a window comes
+ * back full, it is split in half and both halves are searched again,
+ * recursively, until every window is under the cap. Split windows are fetched
+ * concurrently and the results are deduplicated by key.
+ *
+ * Whether a window is full is decided on the number of results the search
+ * returned, before any of them are dropped by parsing (see {@link Page}).
+ *
+ * The common case (one window under the cap) costs a single search on the
+ * calling thread. A single day that still hits the cap cannot be split further
+ * and is reported as possibly incomplete.
+ */
+public class WindowedSearch {
+
+    public static final int SEARCH_API_CAP = 1000;
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    /**
+     * Runs one search restricted to a window (e.g. via {@link DateRange#searchWindow()}).
+     */
+    @FunctionalInterface
+    public interface WindowFetcher<T> {
+        List<T> fetch(DateRange window) throws Exception;
+    }
+
+    /**
+     * Items parsed from one search, and how many results the search returned
+     * (at least items.size(); more when the parser dropped invalid rows).
+     */
+    public record Page<T>(List<T> items, int resultCount) {
+
+        public static <T> Page<T> of(List<T> items) {
+            return new Page<>(items, items.size());
+        }
+    }
+
+    /**
+     * Like {@link WindowFetcher}, for searches whose parser may drop results.
+     */
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+        Page<T> fetch(DateRange window) throws Exception;
+    }
+
+    private record Window<T>(DateRange range, Page<T> page) {}
+
+    private final int cap;
+    private final int parallelism;
+
+    public WindowedSearch() {
+        this(SEARCH_API_CAP, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * @param cap         Result count at which a window is treated as truncated
+     * @param parallelism Maximum number of windows searched at once
+     */
+    public WindowedSearch(int cap, int parallelism) {
+        if (cap <= 0) {
+            throw new IllegalArgumentException("Cap must be positive");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.cap = cap;
+        this.parallelism = parallelism;
+    }
+
+    public int cap() {
+        return cap;
+    }
+
+    /**
+     * Search the whole range, splitting windows that hit the cap.
+     *
+     * Results are ordered newest window first. Items with the same key are kept
+     * once; items with a null key are always kept. Any failed window fails the
+     * whole collection, since a partial result would look complete.
+     */
+    public <T> List<T> collect(DateRange range, WindowFetcher<T> fetcher, Function<T, ?> keyOf) throws Exception {
+        return collectPages(range, window -> Page.of(fetcher.fetch(window)), keyOf);
+    }
+
+    /**
+     * {@link #collect} for fetchers that report the raw result count, so a
+     * window full of results is split even when some of them failed to parse.
+     */
+    public <T> List<T> collectPages(DateRange range, PageFetcher<T> fetcher, Function<T, ?> keyOf) throws Exception {
+        Page<T> page = fetcher.fetch(range);
+        if (!mustSplit(range, page)) {
+            return page.items();
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            CompletionService<Window<T>> completion = new ExecutorCompletionService<>(pool);
+            int pending = submitHalves(completion, range, fetcher);
+            NavigableMap<java.time.LocalDate, List<T>> leaves = new TreeMap<>(Comparator.reverseOrder());
+
+            while (pending > 0) {
+                Window<T> window = take(completion);
+                pending--;
+                if (mustSplit(window.range(), window.page())) {
+                    pending += submitHalves(completion, window.range(), fetcher);
+                } else {
+                    leaves.put(window.range().start(), window.page().items());
+                }
+            }
+
+            return deduplicate(leaves.values(), keyOf);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private boolean mustSplit(DateRange range, Page<?> page) {
+        if (page.resultCount() < cap) {
+            return false;
+        }
+        if (!range.canSplit()) {
+            System.err.println("Warning: Search window " + range.searchWindow() + " returned " + page.resultCount() +
+                " results, the search limit; results for that day may be incomplete");
+            return false;
+        }
+        return true;
+    }
+
+    private <T> int submitHalves(CompletionService<Window<T>> completion, DateRange range, PageFetcher<T> fetcher) {
+        List<DateRange> halves = range.split();
+        for (DateRange half : halves) {
+            completion.submit(() -> new Window<>(half, fetcher.fetch(half)));
+        }
+        return halves.size();
+    }
+
+    private static <T> Window<T> take(CompletionService<Window<T>> completion) throws Exception {
+        try {
+            return completion.take().get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw new RuntimeException("Search window failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    private static <T> List<T> deduplicate(Collection<List<T>> windows, Function<T, ?> keyOf) {
+        Set<Object> seen = new HashSet<>();
+        List<T> result = new ArrayList<>();
+        for (List<T> window : windows) {
+            for (T item : window) {
+                Object key = keyOf.apply(item);
+                if (key == null || seen.add(key)) {
+                    result.add(item);
+                }
+            }
+        }
+        return result;
+    }
+}
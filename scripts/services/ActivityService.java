@@ -1,16 +1,35 @@
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Service for collecting GitHub activity using ports.
  *
  * Orchestrates calls to ActivityPort to gather commits, PRs, issues, and reviews.
+ * In concurrent mode the four searches run in parallel on a bounded pool
+ * (one thread per search), so collection latency is the slowest search
+ * rather than the sum of all four.
  */
 public class ActivityService {
 
+    private static final int SEARCH_COUNT = 4;
+
     private final ActivityPort activityPort;
+    private final boolean concurrent;
 
     public ActivityService(ActivityPort activityPort) {
+        this(activityPort, false);
+    }
+
+    /**
+     * @param activityPort Port used for all searches
+     * @param concurrent   Run the four searches in parallel (port must be thread-safe)
+     */
+    public ActivityService(ActivityPort activityPort, boolean concurrent) {
         this.activityPort = activityPort;
+        this.concurrent = concurrent;
     }
 
     /**
@@ -22,12 +41,53 @@ public class ActivityService {
      * @return Activity aggregate with all collected data
      */
     public Activity collect(String username, DateRange range, Repository repo) {
+        if (concurrent) {
+            return collectConcurrently(username, range, repo);
+        }
+
         List<Commit> commits = activityPort.fetchCommits(username, range, repo);
         List<PullRequest> prs = activityPort.fetchPullRequests(username, range, repo);
         List<Issue> issues = activityPort.fetchIssues(username, range, repo);
         List<Review> reviews = activityPort.fetchReviews(username, range, repo);
 
+        return toActivity(commits, prs, issues, reviews, username, range, repo);
+    }
+
+    private Activity collectConcurrently(String username, DateRange range, Repository repo) {
+        ExecutorService executor = Executors.newFixedThreadPool(SEARCH_COUNT);
+        try {
+            Future<List<Commit>> commits = executor.submit(() -> activityPort.fetchCommits(username, range, repo));
+            Future<List<PullRequest>> prs = executor.submit(() -> activityPort.fetchPullRequests(username, range, repo));
+            Future<List<Issue>> issues = executor.submit(() -> activityPort.fetchIssues(username, range, repo));
+            Future<List<Review>> reviews = executor.submit(() -> activityPort.fetchReviews(username, range, repo));
+
+            return toActivity(await(commits), await(prs), await(issues), await(reviews), username, range, repo);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Activity toActivity(List<Commit> commits, List<PullRequest> prs, List<Issue> issues,
+                                List<Review> reviews, String username, DateRange range, Repository repo) {
         String repoString = repo != null ? repo.toString() : null;
         return new Activity(commits, prs, issues, reviews, username, (int) range.days(), repoString);
     }
+
+    /**
+     * Wait for a search and surface its failure the same way sequential mode would.
+     */
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Activity collection was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Activity search failed", cause);
+        }
+    }
 }
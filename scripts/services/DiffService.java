@@ -1,17 +1,49 @@
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Service for analyzing PR diffs using ports.
  *
  * Orchestrates calls to DiffPort to gather file change statistics
  * for pull requests.
+ *
+ * With maxParallelism above one, diffs are fetched on a bounded pool and
+ * merged in PR order. All PRs share one deadline, counted from when analyze()
+ * submits them, so slow PRs never add their waits together. A PR whose diff is
+ * not ready by the deadline is cancelled and counted as empty.
  */
 public class DiffService {
 
     private final DiffPort diffPort;
+    private final int maxParallelism;
+    private final Duration timeout;
 
     public DiffService(DiffPort diffPort) {
+        this(diffPort, 1, null);
+    }
+
+    /**
+     * @param diffPort       Port used to fetch each PR diff (must be thread-safe when parallel)
+     * @param maxParallelism Maximum number of diffs fetched at once (positive)
+     * @param timeout        How long to wait for all PR diffs together, or null to wait indefinitely
+     */
+    public DiffService(DiffPort diffPort, int maxParallelism, Duration timeout) {
+        if (maxParallelism <= 0) {
+            throw new IllegalArgumentException("Max parallelism must be positive");
+        }
+        if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+            throw new IllegalArgumentException("Timeout must be positive");
+        }
         this.diffPort = diffPort;
+        this.maxParallelism = maxParallelism;
+        this.timeout = timeout;
     }
 
     /**
@@ -26,17 +58,51 @@ public class DiffService {
             return new DiffSummary(0, 0, 0);
         }
 
-        int totalFiles = 0;
-        int totalAdditions = 0;
-        int totalDeletions = 0;
+        DiffSummary total = DiffSummary.empty();
+        if (maxParallelism == 1 && timeout == null) {
+            for (PullRequest pr : prs) {
+                total = total.combine(diffPort.fetchPRDiff(repo, pr.number()));
+            }
+            return total;
+        }
+
+        int threadCount = Math.min(maxParallelism, prs.size());
+        long deadline = timeout != null ? System.nanoTime() + timeout.toNanos() : 0;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<DiffSummary>> futures = new ArrayList<>();
+            for (PullRequest pr : prs) {
+                futures.add(executor.submit(() -> diffPort.fetchPRDiff(repo, pr.number())));
+            }
 
-        for (PullRequest pr : prs) {
-            DiffSummary diff = diffPort.fetchPRDiff(repo, pr.number());
-            totalFiles += diff.filesChanged();
-            totalAdditions += diff.additions();
-            totalDeletions += diff.deletions();
+            // Merge in PR order so results do not depend on completion order
+            for (int i = 0; i < futures.size(); i++) {
+                total = total.combine(await(futures.get(i), prs.get(i), deadline));
+            }
+        } finally {
+            executor.shutdownNow();
         }
+        return total;
+    }
 
-        return new DiffSummary(totalFiles, totalAdditions, totalDeletions);
+    private DiffSummary await(Future<DiffSummary> future, PullRequest pr, long deadlineNanos) {
+        try {
+            return timeout != null
+                ? future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)
+                : future.get();
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            System.err.println("Warning: Diff for PR #" + pr.number() + " not ready within " + timeout.toSeconds() + "s");
+            return DiffSummary.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Diff analysis was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Diff fetch failed for PR #" + pr.number(), cause);
+        }
     }
 }
@@ -1,19 +1,42 @@
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Service for aggregating team activity reports.
  *
  * Orchestrates activity collection for multiple team members
  * and produces a consolidated team report.
+ *
+ * Members are collected on a pool capped at maxParallelism threads, so a
+ * large team does not exceed GitHub search rate limits. A member whose
+ * collection fails is reported as TeamMember.pending instead of aborting
+ * the whole report.
  */
 public class TeamService {
 
     private final ActivityService activityService;
+    private final int maxParallelism;
 
     public TeamService(ActivityService activityService) {
+        this(activityService, 1);
+    }
+
+    /**
+     * @param activityService Service used to collect each member's activity
+     * @param maxParallelism  Maximum number of members collected at once (positive)
+     */
+    public TeamService(ActivityService activityService, int maxParallelism) {
+        if (maxParallelism <= 0) {
+            throw new IllegalArgumentException("Max parallelism must be positive");
+        }
         this.activityService = activityService;
+        this.maxParallelism = maxParallelism;
     }
 
     /**
@@ -22,16 +45,65 @@ public class TeamService {
      * @param usernames List of GitHub usernames
      * @param range     Date range to query
      * @param repo      Optional repository filter (null for all repos)
-     * @return TeamReport with all members' activity
+     * @return TeamReport with all members' activity and per-member timings
      */
     public TeamReport aggregate(List<String> usernames, DateRange range, Repository repo) {
         List<TeamMember> members = new ArrayList<>();
+        List<MemberTiming> timings = new ArrayList<>();
+
+        if (usernames.isEmpty()) {
+            return new TeamReport(members, (int) range.days(), Instant.now(), timings);
+        }
 
-        for (String username : usernames) {
+        int threadCount = Math.min(maxParallelism, usernames.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<MemberResult>> futures = new ArrayList<>();
+            for (String username : usernames) {
+                futures.add(executor.submit(() -> collectMember(username, range, repo)));
+            }
+
+            // Merge in submission order so the report lists members as requested
+            for (Future<MemberResult> future : futures) {
+                MemberResult result = await(future);
+                members.add(result.member());
+                timings.add(result.timing());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new TeamReport(members, (int) range.days(), Instant.now(), timings);
+    }
+
+    private MemberResult collectMember(String username, DateRange range, Repository repo) {
+        long start = System.nanoTime();
+        TeamMember member;
+        boolean collected;
+        try {
             Activity activity = activityService.collect(username, range, repo);
-            members.add(new TeamMember(username, activity));
+            member = new TeamMember(username, activity);
+            collected = true;
+        } catch (RuntimeException e) {
+            System.err.println("Warning: Activity collection failed for " + username + " - " + e.getMessage());
+            member = TeamMember.pending(username);
+            collected = false;
         }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        return new MemberResult(member, new MemberTiming(username, elapsed, collected));
+    }
 
-        return new TeamReport(members, (int) range.days(), Instant.now());
+    private static MemberResult await(Future<MemberResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Team collection was interrupted", e);
+        } catch (ExecutionException e) {
+            // collectMember catches RuntimeExceptions, so only Errors get here
+            throw new IllegalStateException("Team collection failed", e.getCause());
+        }
     }
+
+    private record MemberResult(TeamMember member, MemberTiming timing) {}
 }
@@ -17,6 +17,7 @@
 //SOURCES ../scripts/domain/report/StandupReport.java
 //SOURCES ../scripts/domain/team/TeamMember.java
 //SOURCES ../scripts/domain/team/TeamReport.java
+//SOURCES ../scripts/domain/team/MemberTiming.java
 
 // Ports
 //SOURCES ../scripts/ports/ActivityPort.java
@@ -40,11 +41,29 @@
 
 // Infrastructure
 //SOURCES ../scripts/infrastructure/github/GitHubCliAdapter.java
+//SOURCES ../scripts/infrastructure/github/WindowedSearch.java
+//SOURCES ../scripts/infrastructure/github/GhRequestScheduler.java
+//SOURCES ../scripts/infrastructure/github/CommitDeduplicator.java
+//SOURCES ../scripts/infrastructure/cache/ReportCache.java
+//SOURCES ../scripts/infrastructure/ai/TeamReportPipeline.java
+//SOURCES ../scripts/infrastructure/github/GitHubGraphQLAdapter.java
 //SOURCES ../scripts/infrastructure/git/GitCliAdapter.java
+//SOURCES ../scripts/infrastructure/git/GitIndexAdapter.java
+//SOURCES ../scripts/infrastructure/ai/ClaudeStream.java
+//SOURCES ../scripts/infrastructure/ai/PromptBudget.java
 //SOURCES ../scripts/infrastructure/ai/ClaudeCliAdapter.java
 //SOURCES ../scripts/infrastructure/export/MarkdownExporter.java
 //SOURCES ../scripts/infrastructure/export/JsonExporter.java
 //SOURCES ../scripts/infrastructure/export/HtmlExporter.java
+//SOURCES ../scripts/infrastructure/cache/CachingActivityPort.java
+
+// Pipeline scripts
+//SOURCES ../scripts/StageIO.java
+//SOURCES ../scripts/CollectActivity.java
+//SOURCES ../scripts/LocalChangesDetector.java
+//SOURCES ../scripts/ConfigManager.java
+//SOURCES ../scripts/LocalChangesDaemon.java
+//SOURCES ../scripts/AnalyzeDiffs.java
 
 // Test classes
 //SOURCES domain/activity/CommitTest.java
@@ -64,6 +83,22 @@
 //SOURCES services/ReportServiceTest.java
 //SOURCES services/TeamServiceTest.java
 //SOURCES infrastructure/InfrastructureCompilationTest.java
+//SOURCES infrastructure/CachingActivityPortTest.java
+//SOURCES infrastructure/GitHubGraphQLAdapterTest.java
+//SOURCES infrastructure/GitHubCliAdapterTest.java
+//SOURCES infrastructure/WindowedSearchTest.java
+//SOURCES infrastructure/GhRequestSchedulerTest.java
+//SOURCES infrastructure/CommitDeduplicatorTest.java
+//SOURCES infrastructure/ReportCacheTest.java
+//SOURCES infrastructure/TeamReportPipelineTest.java
+//SOURCES infrastructure/ClaudeStreamTest.java
+//SOURCES infrastructure/PromptBudgetTest.java
+//SOURCES infrastructure/GitIndexAdapterTest.java
+//SOURCES scripts/CollectActivityTest.java
+//SOURCES scripts/LocalChangesDetectorTest.java
+//SOURCES scripts/LocalChangesDaemonTest.java
+//SOURCES scripts/AnalyzeDiffsTest.java
+//SOURCES scripts/StageIOTest.java
 
 import org.junit.platform.launcher.Launcher;
 import org.junit.platform.launcher.LauncherDiscoveryRequest;
@@ -127,7 +162,25 @@ public class RunAllTests {
                 selectClass(TeamServiceTest.class),
 
                 // Infrastructure
-                selectClass(InfrastructureCompilationTest.class)
+                selectClass(InfrastructureCompilationTest.class),
+                selectClass(CachingActivityPortTest.class),
+                selectClass(GitHubGraphQLAdapterTest.class),
+                selectClass(GitHubCliAdapterTest.class),
+                selectClass(WindowedSearchTest.class),
+                selectClass(GhRequestSchedulerTest.class),
+                selectClass(CommitDeduplicatorTest.class),
+                selectClass(ReportCacheTest.class),
+                selectClass(TeamReportPipelineTest.class),
+                selectClass(ClaudeStreamTest.class),
+                selectClass(PromptBudgetTest.class),
+                selectClass(GitIndexAdapterTest.class),
+
+                // Pipeline scripts
+                selectClass(CollectActivityTest.class),
+                selectClass(LocalChangesDetectorTest.class),
+                selectClass(LocalChangesDaemonTest.class),
+                selectClass(AnalyzeDiffsTest.class),
+                selectClass(StageIOTest.class)
             )
             .build();
 
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -36,6 +37,16 @@ public class IssueTest {
         assertEquals(labels, issue.labels());
     }
 
+    @Test
+    @DisplayName("Issue stores optional creation timestamp")
+    void issueStoresCreatedAt() {
+        Instant created = Instant.parse("2024-03-15T10:00:00Z");
+        Issue issue = new Issue(1, "Title", "open", null, null, null, created);
+
+        assertEquals(created, issue.createdAt());
+        assertNull(new Issue(1, "Title", "open", null, null, null).createdAt());
+    }
+
     @Test
     @DisplayName("Issue with empty labels list is valid")
     void issueWithEmptyLabels() {
@@ -8,6 +8,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.Instant;
+
 /**
  * TDD tests for PullRequest domain entity.
  */
@@ -35,6 +37,16 @@ public class PullRequestTest {
         assertEquals(30, pr.deletions());
     }
 
+    @Test
+    @DisplayName("PullRequest stores optional creation timestamp")
+    void pullRequestStoresCreatedAt() {
+        Instant created = Instant.parse("2024-03-15T10:00:00Z");
+        PullRequest pr = new PullRequest(1, "Title", "open", null, null, 0, 0, created);
+
+        assertEquals(created, pr.createdAt());
+        assertNull(new PullRequest(1, "Title", "open", null, null, 0, 0).createdAt());
+    }
+
     @Test
     @DisplayName("PullRequest with zero additions/deletions is valid")
     void pullRequestWithZeroChanges() {
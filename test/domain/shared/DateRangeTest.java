@@ -10,6 +10,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 /**
  * TDD tests for DateRange value object.
@@ -59,6 +60,14 @@ public class DateRangeTest {
         assertEquals("2024-03-15", range.endIso());
     }
 
+    @Test
+    @DisplayName("DateRange provides bounded GitHub search window")
+    void dateRangeProvidesSearchWindow() {
+        DateRange range = new DateRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 8));
+
+        assertEquals("2024-01-02..2024-01-08", range.searchWindow());
+    }
+
     @Test
     @DisplayName("DateRange calculates duration in days")
     void dateRangeCalculatesDays() {
@@ -115,6 +124,26 @@ public class DateRangeTest {
         assertThrows(IllegalArgumentException.class, () -> DateRange.lastDays(-1));
     }
 
+    @Test
+    @DisplayName("DateRange.split halves the search window without gaps or overlap")
+    void splitHalvesSearchWindow() {
+        DateRange range = new DateRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 8));
+
+        List<DateRange> halves = range.split();
+
+        assertEquals("2024-01-02..2024-01-04", halves.get(0).searchWindow());
+        assertEquals("2024-01-05..2024-01-08", halves.get(1).searchWindow());
+    }
+
+    @Test
+    @DisplayName("DateRange.split rejects a single-day search window")
+    void splitRejectsSingleDay() {
+        DateRange range = new DateRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2));
+
+        assertFalse(range.canSplit());
+        assertThrows(IllegalStateException.class, range::split);
+    }
+
     // Main method to run tests via JBang
     public static void main(String[] args) {
         var launcher = org.junit.platform.launcher.core.LauncherFactory.create();
@@ -9,11 +9,13 @@
 //SOURCES ../../../scripts/domain/activity/Activity.java
 //SOURCES ../../../scripts/domain/team/TeamMember.java
 //SOURCES ../../../scripts/domain/team/TeamReport.java
+//SOURCES ../../../scripts/domain/team/MemberTiming.java
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 
@@ -141,6 +143,53 @@ public class TeamReportTest {
             new TeamReport(List.of(), 1, null));
     }
 
+    @Test
+    @DisplayName("TeamReport counts pending members")
+    void teamReportPendingMemberCount() {
+        List<TeamMember> members = List.of(
+            new TeamMember("done", createActivity("done", 1, 0, 0, 0)),
+            TeamMember.pending("failed")
+        );
+
+        TeamReport report = new TeamReport(members, 7, Instant.now());
+
+        assertEquals(1, report.pendingMemberCount());
+    }
+
+    // --- MemberTiming Tests ---
+
+    @Test
+    @DisplayName("TeamReport without timings has empty timing list")
+    void teamReportWithoutTimings() {
+        TeamReport report = new TeamReport(List.of(), 1, Instant.now());
+
+        assertTrue(report.timings().isEmpty());
+        assertTrue(report.timingFor("user1").isEmpty());
+    }
+
+    @Test
+    @DisplayName("TeamReport finds timing by username")
+    void teamReportFindsTiming() {
+        MemberTiming timing = new MemberTiming("user1", Duration.ofMillis(1500), true);
+        TeamReport report = new TeamReport(
+            List.of(new TeamMember("user1", null)), 1, Instant.now(), List.of(timing)
+        );
+
+        assertEquals(timing, report.timingFor("user1").orElseThrow());
+        assertEquals(1500, report.timingFor("user1").orElseThrow().elapsedMillis());
+        assertThrows(UnsupportedOperationException.class, () ->
+            report.timings().add(new MemberTiming("user2", Duration.ZERO, true)));
+    }
+
+    @Test
+    @DisplayName("MemberTiming rejects invalid inputs")
+    void memberTimingRejectsInvalidInputs() {
+        assertThrows(IllegalArgumentException.class, () -> new MemberTiming(null, Duration.ZERO, true));
+        assertThrows(IllegalArgumentException.class, () -> new MemberTiming("user1", null, true));
+        assertThrows(IllegalArgumentException.class, () ->
+            new MemberTiming("user1", Duration.ofMillis(-1), true));
+    }
+
     // Helper to create Activity with specified counts
     private Activity createActivity(String username, int commits, int prs, int issues, int reviews) {
         return new Activity(
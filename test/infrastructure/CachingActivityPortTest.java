@@ -0,0 +1,309 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS com.google.code.gson:gson:2.10.1
+//DEPS org.junit.jupiter:junit-jupiter:5.10.0
+//DEPS org.junit.platform:junit-platform-launcher:1.10.0
+//SOURCES ../../scripts/domain/activity/Commit.java
+//SOURCES ../../scripts/domain/activity/PullRequest.java
+//SOURCES ../../scripts/domain/activity/Issue.java
+//SOURCES ../../scripts/domain/activity/Review.java
+//SOURCES ../../scripts/domain/shared/DateRange.java
+//SOURCES ../../scripts/domain/shared/Repository.java
+//SOURCES ../../scripts/ports/ActivityPort.java
+//SOURCES ../mocks/MockActivityPort.java
+//SOURCES ../../scripts/infrastructure/cache/CachingActivityPort.java
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Tests for the on-disk activity cache decorator.
+ */
+public class CachingActivityPortTest {
+
+    private static final Duration TTL = Duration.ofHours(1);
+    private static final Repository REPO = new Repository("owner", "repo");
+
+    @TempDir
+    Path cacheDir;
+
+    private MockActivityPort mockPort;
+    private MutableClock clock;
+    private CachingActivityPort cachingPort;
+
+    @BeforeEach
+    void setUp() {
+        mockPort = new MockActivityPort();
+        // Shortly after midnight, so every day up to Jan 8 has fully elapsed
+        clock = new MutableClock(Instant.parse("2024-01-09T00:30:00Z"));
+        cachingPort = new CachingActivityPort(mockPort, cacheDir, TTL, clock);
+    }
+
+    @Test
+    @DisplayName("Cache serves repeated requests within the TTL")
+    void servesRepeatedRequestsWithinTtl() {
+        mockPort.stubCommits(List.of(commit("sha1", "2024-01-03T10:00:00Z")));
+        DateRange range = range(1, 8);
+
+        List<Commit> first = cachingPort.fetchCommits("alice", range, REPO);
+        clock.advance(Duration.ofMinutes(10));
+        List<Commit> second = cachingPort.fetchCommits("alice", range, REPO);
+
+        assertEquals(1, mockPort.getFetchCommitsCalls());
+        assertEquals(first, second);
+    }
+
+    @Test
+    @DisplayName("Cache persists across instances")
+    void persistsAcrossInstances() {
+        mockPort.stubCommits(List.of(commit("sha1", "2024-01-03T10:00:00Z")));
+        cachingPort.fetchCommits("alice", range(1, 8), REPO);
+
+        CachingActivityPort reopened = new CachingActivityPort(mockPort, cacheDir, TTL, clock);
+        List<Commit> commits = reopened.fetchCommits("alice", range(1, 8), REPO);
+
+        assertEquals(1, mockPort.getFetchCommitsCalls());
+        assertEquals("sha1", commits.get(0).sha());
+        assertEquals(Instant.parse("2024-01-03T10:00:00Z"), commits.get(0).date());
+    }
+
+    @Test
+    @DisplayName("Rolling window only queries the days not yet covered")
+    void rollingWindowQueriesOnlyNewDays() {
+        mockPort.stubPullRequests(mergedPrPerDay(2, 8));
+        cachingPort.fetchPullRequests("alice", range(1, 8), REPO);
+
+        // Next morning, past the TTL: Jan 2..8 are complete, only Jan 9 is missing
+        clock.set(Instant.parse("2024-01-10T09:00:00Z"));
+        List<PullRequest> prs = cachingPort.fetchPullRequests("alice", range(1, 9), REPO);
+
+        assertEquals(2, mockPort.getFetchPullRequestsCalls());
+        assertEquals(range(8, 9), mockPort.getLastDateRange());
+        assertEquals(7, prs.size());
+    }
+
+    @Test
+    @DisplayName("Days fetched while still in progress are refreshed after the TTL")
+    void inProgressDayRefreshedAfterTtl() {
+        mockPort.stubPullRequests(mergedPrPerDay(2, 8));
+        clock.set(Instant.parse("2024-01-08T12:00:00Z"));
+        cachingPort.fetchPullRequests("alice", range(1, 8), REPO);
+
+        clock.advance(Duration.ofHours(2));
+        cachingPort.fetchPullRequests("alice", range(1, 8), REPO);
+
+        assertEquals(2, mockPort.getFetchPullRequestsCalls());
+        assertEquals(range(7, 8), mockPort.getLastDateRange());
+    }
+
+    @Test
+    @DisplayName("Only days with open items are revalidated after the TTL")
+    void revalidatesOnlyDaysWithOpenItems() {
+        List<PullRequest> prs = new ArrayList<>(mergedPrPerDay(2, 8));
+        prs.set(3, pr(5, "open", "2024-01-05T10:00:00Z"));
+        mockPort.stubPullRequests(prs);
+        cachingPort.fetchPullRequests("alice", range(1, 8), REPO);
+
+        clock.advance(Duration.ofHours(2));
+        List<PullRequest> second = cachingPort.fetchPullRequests("alice", range(1, 8), REPO);
+
+        assertEquals(2, mockPort.getFetchPullRequestsCalls());
+        assertEquals(range(4, 5), mockPort.getLastDateRange());
+        assertEquals(List.of(2, 3, 4, 5, 6, 7, 8), second.stream().map(PullRequest::number).toList());
+    }
+
+    @Test
+    @DisplayName("Empty days are revalidated after the TTL")
+    void revalidatesEmptyDays() {
+        mockPort.stubPullRequests(List.of(pr(3, "merged", "2024-01-03T10:00:00Z")));
+        cachingPort.fetchPullRequests("alice", range(1, 3), REPO);
+
+        clock.advance(Duration.ofHours(2));
+        cachingPort.fetchPullRequests("alice", range(1, 3), REPO);
+
+        assertEquals(2, mockPort.getFetchPullRequestsCalls());
+        assertEquals(range(1, 2), mockPort.getLastDateRange());
+    }
+
+    @Test
+    @DisplayName("Commit days are revalidated after the TTL, since late pushes keep their author dates")
+    void revalidatesCommitDays() {
+        mockPort.stubCommits(List.of(commit("sha1", "2024-01-03T10:00:00Z")));
+        cachingPort.fetchCommits("alice", range(2, 3), REPO);
+
+        clock.advance(Duration.ofHours(2));
+        mockPort.stubCommits(List.of(commit("sha1", "2024-01-03T10:00:00Z"), commit("sha2", "2024-01-03T16:00:00Z")));
+        List<Commit> commits = cachingPort.fetchCommits("alice", range(2, 3), REPO);
+
+        assertEquals(2, mockPort.getFetchCommitsCalls());
+        assertEquals(List.of("sha1", "sha2"), commits.stream().map(Commit::sha).toList());
+    }
+
+    @Test
+    @DisplayName("A failed search stores nothing and falls back to the cached days")
+    void failedSearchIsNotCached() {
+        mockPort.stubPullRequests(mergedPrPerDay(2, 8));
+        cachingPort.fetchPullRequests("alice", range(1, 5), REPO);
+
+        // The next day's search fails: the known days are still served, the failed ones are not stored
+        clock.set(Instant.parse("2024-01-10T09:00:00Z"));
+        mockPort.stubFailure(new IllegalStateException("PR search failed - HTTP 502"));
+        List<PullRequest> degraded = cachingPort.fetchPullRequests("alice", range(1, 8), REPO);
+
+        mockPort.stubFailure(null);
+        List<PullRequest> recovered = cachingPort.fetchPullRequests("alice", range(1, 8), REPO);
+
+        assertEquals(List.of(2, 3, 4, 5), degraded.stream().map(PullRequest::number).toList());
+        assertEquals(3, mockPort.getFetchPullRequestsCalls());
+        assertEquals(range(5, 8), mockPort.getLastDateRange());
+        assertEquals(List.of(2, 3, 4, 5, 6, 7, 8), recovered.stream().map(PullRequest::number).toList());
+    }
+
+    @Test
+    @DisplayName("A failed review search is not cached")
+    void failedReviewSearchIsNotCached() {
+        mockPort.stubFailure(new IllegalStateException("Review search failed - timeout"));
+        assertEquals(List.of(), cachingPort.fetchReviews("alice", range(1, 8), REPO));
+
+        mockPort.stubFailure(null);
+        mockPort.stubReviews(List.of(new Review(7, "REVIEWED", null, null, "owner/repo")));
+        assertEquals(1, cachingPort.fetchReviews("alice", range(1, 8), REPO).size());
+        assertEquals(2, mockPort.getFetchReviewsCalls());
+    }
+
+    @Test
+    @DisplayName("Reviews are cached per exact date range with the TTL")
+    void reviewsCachedPerExactRange() {
+        mockPort.stubReviews(List.of(new Review(7, "REVIEWED", null, null, "owner/repo")));
+
+        cachingPort.fetchReviews("alice", range(1, 8), REPO);
+        cachingPort.fetchReviews("alice", range(1, 8), REPO);
+        assertEquals(1, mockPort.getFetchReviewsCalls());
+
+        cachingPort.fetchReviews("alice", range(2, 8), REPO);
+        assertEquals(2, mockPort.getFetchReviewsCalls());
+
+        clock.advance(Duration.ofHours(2));
+        cachingPort.fetchReviews("alice", range(1, 8), REPO);
+        assertEquals(3, mockPort.getFetchReviewsCalls());
+    }
+
+    @Test
+    @DisplayName("Cache entries are separated by user and repository")
+    void entriesSeparatedByUserAndRepo() {
+        mockPort.stubCommits(List.of(commit("sha1", "2024-01-03T10:00:00Z")));
+
+        cachingPort.fetchCommits("alice", range(1, 8), REPO);
+        cachingPort.fetchCommits("bob", range(1, 8), REPO);
+        cachingPort.fetchCommits("alice", range(1, 8), null);
+
+        assertEquals(3, mockPort.getFetchCommitsCalls());
+    }
+
+    @Test
+    @DisplayName("A save never touches another writer's in-progress temp file")
+    void leavesOtherWritersTempFilesAlone() throws Exception {
+        // Another process (a parallel team member, a second terminal) is midway through its write
+        Path entryDir = cacheDir.resolve("alice").resolve("owner-repo");
+        Files.createDirectories(entryDir);
+        Path othersPartial = entryDir.resolve("commits.json.tmp");
+        Files.writeString(othersPartial, "{\"partial\":");
+        mockPort.stubCommits(List.of(commit("sha1", "2024-01-03T10:00:00Z")));
+
+        cachingPort.fetchCommits("alice", range(1, 8), REPO);
+
+        assertEquals("{\"partial\":", Files.readString(othersPartial));
+        CachingActivityPort reopened = new CachingActivityPort(mockPort, cacheDir, TTL, clock);
+        assertEquals("sha1", reopened.fetchCommits("alice", range(1, 8), REPO).get(0).sha());
+        assertEquals(1, mockPort.getFetchCommitsCalls());
+        try (Stream<Path> files = Files.list(entryDir)) {
+            assertEquals(List.of(othersPartial), files.filter(p -> p.toString().endsWith(".tmp")).toList(),
+                "no temp file of its own is left behind");
+        }
+    }
+
+    // --- Helpers ---
+
+    private static DateRange range(int startDay, int endDay) {
+        return new DateRange(LocalDate.of(2024, 1, startDay), LocalDate.of(2024, 1, endDay));
+    }
+
+    private static Commit commit(String sha, String date) {
+        return new Commit(sha, "msg", "alice", Instant.parse(date), null, "owner/repo");
+    }
+
+    /**
+     * One merged PR per day, numbered by its day of January.
+     */
+    private static List<PullRequest> mergedPrPerDay(int firstDay, int lastDay) {
+        List<PullRequest> prs = new ArrayList<>();
+        for (int day = firstDay; day <= lastDay; day++) {
+            prs.add(pr(day, "merged", LocalDate.of(2024, 1, day) + "T10:00:00Z"));
+        }
+        return prs;
+    }
+
+    private static PullRequest pr(int number, String state, String createdAt) {
+        return new PullRequest(number, "PR " + number, state, null, "owner/repo", 1, 1, Instant.parse(createdAt));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void set(Instant instant) {
+            this.now = instant;
+        }
+
+        void advance(Duration duration) {
+            this.now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
+    // Main method to run tests via JBang
+    public static void main(String[] args) {
+        var launcher = org.junit.platform.launcher.core.LauncherFactory.create();
+        var listener = new org.junit.platform.launcher.listeners.SummaryGeneratingListener();
+
+        launcher.registerTestExecutionListeners(listener);
+        launcher.execute(org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request()
+            .selectors(org.junit.platform.engine.discovery.DiscoverySelectors.selectClass(CachingActivityPortTest.class))
+            .build());
+
+        listener.getSummary().printTo(new java.io.PrintWriter(System.out));
+        if (listener.getSummary().getTotalFailureCount() > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,183 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS com.google.code.gson:gson:2.10.1
+//DEPS org.junit.jupiter:junit-jupiter:5.10.0
+//DEPS org.junit.platform:junit-platform-launcher:1.10.0
+//SOURCES ../../scripts/infrastructure/ai/ClaudeStream.java
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tests for streaming a prompt through a process and its output to sinks.
+ * Uses cat and sh in place of the claude CLI.
+ */
+public class ClaudeStreamTest {
+
+    private static final List<String> ECHO = List.of("cat");
+
+    @TempDir
+    Path tempDir;
+
+    private static ClaudeStream.Sink collect(StringBuilder into) {
+        return (chunk, length) -> into.append(chunk, 0, length);
+    }
+
+    private static List<String> shell(String script) {
+        return List.of("sh", "-c", script);
+    }
+
+    @Test
+    @DisplayName("Output reaches every sink and bytes are counted both ways")
+    void fansOutAndCounts() throws Exception {
+        String prompt = "line one\nline two é\n";
+        StringBuilder first = new StringBuilder();
+        StringBuilder second = new StringBuilder();
+
+        ClaudeStream.Metrics metrics = ClaudeStream.run(ECHO, new StringReader(prompt),
+            List.of(collect(first), collect(second)));
+
+        assertTrue(metrics.succeeded());
+        assertEquals(prompt, first.toString());
+        assertEquals(prompt, second.toString());
+        long utf8Bytes = prompt.getBytes(StandardCharsets.UTF_8).length;
+        assertEquals(utf8Bytes, metrics.bytesIn());
+        assertEquals(utf8Bytes, metrics.bytesOut());
+        assertTrue(metrics.firstLineMillis() >= 0);
+    }
+
+    @Test
+    @Timeout(30)
+    @DisplayName("A prompt larger than the pipe does not deadlock")
+    void largePromptDoesNotDeadlock() throws Exception {
+        String prompt = "x".repeat(99) + "\n";
+        prompt = prompt.repeat(40_000);  // 4 MB, far beyond a pipe buffer
+        StringBuilder out = new StringBuilder();
+
+        ClaudeStream.Metrics metrics = ClaudeStream.run(ECHO, new StringReader(prompt), List.of(collect(out)));
+
+        assertTrue(metrics.succeeded());
+        assertEquals(prompt.length(), out.length());
+        assertEquals(4_000_000, metrics.bytesIn());
+    }
+
+    @Test
+    @DisplayName("The first line is recorded before the process finishes")
+    void firstLineBeforeExit() throws Exception {
+        List<Long> arrivals = new ArrayList<>();
+        long start = System.nanoTime();
+
+        ClaudeStream.Metrics metrics = ClaudeStream.run(shell("echo first; sleep 0.5; echo second"),
+            new StringReader(""), List.of((chunk, length) -> arrivals.add(System.nanoTime() - start)));
+
+        assertTrue(metrics.succeeded());
+        assertTrue(arrivals.size() >= 2, "output arrived in " + arrivals.size() + " chunk(s)");
+        assertTrue(metrics.totalMillis() >= 500);
+        assertTrue(metrics.firstLineMillis() < metrics.totalMillis() - 300,
+            "first line " + metrics.firstLineMillis() + " ms, total " + metrics.totalMillis() + " ms");
+    }
+
+    @Test
+    @DisplayName("File sink replaces the target only after a successful run")
+    void fileSinkReplacesOnSuccess() throws Exception {
+        Path target = tempDir.resolve("reports/today.md");
+
+        ClaudeStream.run(ECHO, new StringReader("# Report\n"), List.of(ClaudeStream.file(target)));
+
+        assertEquals("# Report\n", Files.readString(target));
+        assertFalse(Files.exists(tempDir.resolve("reports/today.md.partial")));
+    }
+
+    @Test
+    @DisplayName("A failed run keeps the previous file")
+    void fileSinkKeepsPreviousOnFailure() throws Exception {
+        Path target = tempDir.resolve("today.md");
+        Files.writeString(target, "previous");
+
+        ClaudeStream.Metrics metrics = ClaudeStream.run(shell("echo half a report; exit 3"),
+            new StringReader(""), List.of(ClaudeStream.file(target)));
+
+        assertEquals(3, metrics.exitCode());
+        assertEquals("previous", Files.readString(target));
+        assertFalse(Files.exists(tempDir.resolve("today.md.partial")));
+    }
+
+    @Test
+    @DisplayName("A failing sink is dropped and the others keep receiving output")
+    void failingSinkIsDropped() throws Exception {
+        StringBuilder out = new StringBuilder();
+        boolean[] aborted = {false};
+        ClaudeStream.Sink broken = new ClaudeStream.Sink() {
+            @Override
+            public void write(char[] chunk, int length) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void abort() {
+                aborted[0] = true;
+            }
+        };
+
+        ClaudeStream.Metrics metrics = ClaudeStream.run(ECHO, new StringReader("report\n"),
+            List.of(broken, collect(out)));
+
+        assertTrue(metrics.succeeded());
+        assertTrue(aborted[0]);
+        assertEquals("report\n", out.toString());
+    }
+
+    @Test
+    @Timeout(30)
+    @DisplayName("A run past its timeout is killed and keeps the previous file")
+    void timeoutKillsProcess() throws Exception {
+        Path target = tempDir.resolve("today.md");
+        Files.writeString(target, "previous");
+        long start = System.nanoTime();
+
+        assertThrows(TimeoutException.class, () -> ClaudeStream.run(shell("echo partial; sleep 20; echo done"),
+            new StringReader(""), List.of(ClaudeStream.file(target)), Duration.ofMillis(300)));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toSeconds() < 10);
+        assertEquals("previous", Files.readString(target));
+        assertFalse(Files.exists(tempDir.resolve("today.md.partial")));
+    }
+
+    @Test
+    @DisplayName("No output leaves timings unset")
+    void noOutput() throws Exception {
+        ClaudeStream.Metrics metrics = ClaudeStream.run(shell("exit 0"), new StringReader(""), List.of());
+
+        assertEquals(-1, metrics.firstOutputMillis());
+        assertEquals(-1, metrics.firstLineMillis());
+        assertEquals(0, metrics.bytesOut());
+        assertFalse(metrics.toJson().get("firstLineMs").getAsLong() >= 0);
+    }
+
+    // Main method to run tests via JBang
+    public static void main(String[] args) {
+        var launcher = org.junit.platform.launcher.core.LauncherFactory.create();
+        var listener = new org.junit.platform.launcher.listeners.SummaryGeneratingListener();
+
+        launcher.registerTestExecutionListeners(listener);
+        launcher.execute(org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request()
+            .selectors(org.junit.platform.engine.discovery.DiscoverySelectors.selectClass(ClaudeStreamTest.class))
+            .build());
+
+        listener.getSummary().printTo(new java.io.PrintWriter(System.out));
+        if (listener.getSummary().getTotalFailureCount() > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,235 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS com.google.code.gson:gson:2.10.1
+//DEPS org.junit.jupiter:junit-jupiter:5.10.0
+//DEPS org.junit.platform:junit-platform-launcher:1.10.0
+//SOURCES ../../scripts/infrastructure/github/CommitDeduplicator.java
+//SOURCES ../../scripts/infrastructure/github/GhRequestScheduler.java
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for folding commits into the pull requests that contain them.
+ */
+public class CommitDeduplicatorTest {
+
+    private static JsonObject repo(String name) {
+        JsonObject repo = new JsonObject();
+        repo.addProperty("nameWithOwner", name);
+        return repo;
+    }
+
+    private static JsonObject commit(String repoName, String sha, String message) {
+        JsonObject data = new JsonObject();
+        data.addProperty("message", message);
+        JsonObject commit = new JsonObject();
+        commit.addProperty("sha", sha);
+        commit.add("commit", data);
+        commit.add("repository", repo(repoName));
+        return commit;
+    }
+
+    private static JsonObject pr(String repoName, int number) {
+        JsonObject pr = new JsonObject();
+        pr.addProperty("number", number);
+        pr.addProperty("title", "PR " + number);
+        pr.addProperty("state", "merged");
+        pr.add("repository", repo(repoName));
+        return pr;
+    }
+
+    private static JsonObject activity(List<JsonObject> commits, List<JsonObject> prs) {
+        JsonArray commitArray = new JsonArray();
+        commits.forEach(commitArray::add);
+        JsonArray prArray = new JsonArray();
+        prs.forEach(prArray::add);
+        JsonObject activity = new JsonObject();
+        activity.add("commits", commitArray);
+        activity.add("pull_requests", prArray);
+        activity.add("issues", new JsonArray());
+        return activity;
+    }
+
+    private static CommitDeduplicator.PrCommitSource shas(Map<Integer, List<String>> byNumber) {
+        return prs -> {
+            Map<String, List<String>> found = new HashMap<>();
+            for (JsonObject pr : prs) {
+                int number = pr.get("number").getAsInt();
+                if (byNumber.containsKey(number)) {
+                    found.put(pr.getAsJsonObject("repository").get("nameWithOwner").getAsString() + "#" + number,
+                        byNumber.get(number));
+                }
+            }
+            return found;
+        };
+    }
+
+    @Test
+    @DisplayName("Commits contained in a PR fold into its commit count")
+    void foldsBySha() throws Exception {
+        JsonObject activity = activity(
+            List.of(commit("o/app", "aaa", "Add parser"), commit("o/app", "bbb", "Test parser"),
+                    commit("o/app", "ccc", "Unrelated hotfix")),
+            List.of(pr("o/app", 12)));
+
+        CommitDeduplicator.Result result = new CommitDeduplicator(shas(Map.of(12, List.of("aaa", "bbb"))))
+            .deduplicate(activity);
+
+        assertEquals(2, result.foldedCommits());
+        assertEquals(1, result.linkedPrs());
+        JsonArray commits = result.activity().getAsJsonArray("commits");
+        assertEquals(1, commits.size());
+        assertEquals("ccc", commits.get(0).getAsJsonObject().get("sha").getAsString());
+        JsonObject pr = result.activity().getAsJsonArray("pull_requests").get(0).getAsJsonObject();
+        assertEquals(2, pr.get(CommitDeduplicator.COMMIT_COUNT).getAsInt());
+        assertEquals(3, activity.getAsJsonArray("commits").size(), "input is not modified");
+    }
+
+    @Test
+    @DisplayName("Merge and squash commits naming a PR of the same repo fold too")
+    void foldsMergeAndSquashReferences() throws Exception {
+        JsonObject activity = activity(
+            List.of(commit("o/app", "m1", "Merge pull request #12 from o/feature\n\nAdd parser"),
+                    commit("o/app", "s1", "Add exporter (#13)"),
+                    commit("o/lib", "s2", "Same number, other repo (#12)")),
+            List.of(pr("o/app", 12), pr("o/app", 13)));
+
+        CommitDeduplicator.Result result = new CommitDeduplicator(shas(Map.of(12, List.of(), 13, List.of())))
+            .deduplicate(activity);
+
+        assertEquals(2, result.foldedCommits());
+        assertEquals(2, result.linkedPrs());
+        assertEquals("s2", result.activity().getAsJsonArray("commits").get(0).getAsJsonObject().get("sha").getAsString());
+    }
+
+    @Test
+    @DisplayName("A failed PR lookup keeps its commits")
+    void failedLookupKeepsCommits() throws Exception {
+        JsonObject activity = activity(
+            List.of(commit("o/app", "aaa", "Add parser"), commit("o/app", "bbb", "Test parser")),
+            List.of(pr("o/app", 12), pr("o/app", 99)));
+
+        CommitDeduplicator.Result result = new CommitDeduplicator(shas(Map.of(12, List.of("aaa"))))
+            .deduplicate(activity);
+
+        assertEquals(1, result.failedLookups());
+        assertEquals(1, result.foldedCommits());
+        assertEquals(1, result.activity().getAsJsonArray("commits").size());
+        JsonObject unlinked = result.activity().getAsJsonArray("pull_requests").get(1).getAsJsonObject();
+        assertFalse(unlinked.has(CommitDeduplicator.COMMIT_COUNT));
+    }
+
+    @Test
+    @DisplayName("All PRs are looked up in one call, and a failed call keeps every commit")
+    void oneLookupForAllPrs() throws Exception {
+        AtomicInteger lookups = new AtomicInteger();
+        CommitDeduplicator deduplicator = new CommitDeduplicator(prs -> {
+            lookups.incrementAndGet();
+            assertEquals(2, prs.size());
+            throw new IOException("gh api graphql timed out after 60s");
+        });
+        JsonObject activity = activity(
+            List.of(commit("o/app", "aaa", "Add parser"), commit("o/app", "bbb", "Add exporter (#13)")),
+            List.of(pr("o/app", 12), pr("o/app", 13)));
+
+        CommitDeduplicator.Result result = deduplicator.deduplicate(activity);
+
+        assertEquals(1, lookups.get());
+        assertEquals(2, result.failedLookups());
+        assertEquals(1, result.foldedCommits(), "squash references still fold without a lookup");
+        assertEquals("aaa", result.activity().getAsJsonArray("commits").get(0).getAsJsonObject().get("sha").getAsString());
+    }
+
+    @Test
+    @DisplayName("The GraphQL query covers every repository and PR, and its response maps back to them")
+    void buildsAndParsesCommitsQuery() {
+        Map<String, List<Integer>> numbersByRepo = new LinkedHashMap<>();
+        numbersByRepo.put("o/app", List.of(12, 13));
+        numbersByRepo.put("o/lib", List.of(4));
+
+        String query = CommitDeduplicator.commitsQuery(numbersByRepo);
+        JsonObject data = JsonParser.parseString("""
+            {"r0": {"p12": {"commits": {"nodes": [{"commit": {"oid": "aaa"}}, {"commit": {"oid": "bbb"}}]}},
+                    "p13": null},
+             "r1": {"p4": {"commits": {"nodes": []}}}}
+            """).getAsJsonObject();
+        Map<String, List<String>> shas = CommitDeduplicator.parseCommits(data, numbersByRepo);
+
+        assertTrue(query.contains("r0: repository(owner: \"o\", name: \"app\")"), query);
+        assertTrue(query.contains("p12: pullRequest(number: 12) { commits(first: 100)"), query);
+        assertTrue(query.contains("r1: repository(owner: \"o\", name: \"lib\") { p4: pullRequest(number: 4)"), query);
+        assertEquals(Map.of("o/app#12", List.of("aaa", "bbb"), "o/lib#4", List.of()), shas);
+    }
+
+    @Test
+    @DisplayName("No lookups without both commits and PRs")
+    void skipsLookupsWhenNothingToFold() throws Exception {
+        AtomicInteger lookups = new AtomicInteger();
+        CommitDeduplicator deduplicator = new CommitDeduplicator(prs -> {
+            lookups.incrementAndGet();
+            return Map.of();
+        });
+        JsonObject noPrs = activity(List.of(commit("o/app", "aaa", "Add parser")), List.of());
+
+        CommitDeduplicator.Result result = deduplicator.deduplicate(noPrs);
+
+        assertSame(noPrs, result.activity());
+        assertEquals(0, lookups.get());
+    }
+
+    @Test
+    @DisplayName("Large activity sets fold in one pass over a hash index")
+    void foldsLargeSetsLinearly() throws Exception {
+        int prCount = 500;
+        int commitsPerPr = 40;
+        List<JsonObject> commits = new ArrayList<>();
+        List<JsonObject> prs = new ArrayList<>();
+        Map<Integer, List<String>> byNumber = new HashMap<>();
+        for (int p = 0; p < prCount; p++) {
+            prs.add(pr("o/app", p));
+            List<String> shas = new ArrayList<>();
+            for (int c = 0; c < commitsPerPr; c++) {
+                String sha = p + "-" + c;
+                shas.add(sha);
+                commits.add(commit("o/app", sha, "Work " + sha));
+            }
+            byNumber.put(p, shas);
+        }
+
+        long start = System.nanoTime();
+        CommitDeduplicator.Result result = new CommitDeduplicator(shas(byNumber))
+            .deduplicate(activity(commits, prs));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(prCount * commitsPerPr, result.foldedCommits());
+        assertEquals(0, result.activity().getAsJsonArray("commits").size());
+        assertTrue(elapsedMillis < 5_000, "elapsed " + elapsedMillis + " ms");
+    }
+
+    // Main method to run tests via JBang
+    public static void main(String[] args) {
+        var launcher = org.junit.platform.launcher.core.LauncherFactory.create();
+        var listener = new org.junit.platform.launcher.listeners.SummaryGeneratingListener();
+
+        launcher.registerTestExecutionListeners(listener);
+        launcher.execute(org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request()
+            .selectors(org.junit.platform.engine.discovery.DiscoverySelectors.selectClass(CommitDeduplicatorTest.class))
+            .build());
+
+        listener.getSummary().printTo(new java.io.PrintWriter(System.out));
+        if (listener.getSummary().getTotalFailureCount() > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,190 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS com.google.code.gson:gson:2.10.1
+//DEPS org.junit.jupiter:junit-jupiter:5.10.0
+//DEPS org.junit.platform:junit-platform-launcher:1.10.0
+//SOURCES ../../scripts/infrastructure/github/GhRequestScheduler.java
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for token-bucket spacing, quota waits and rate-limit retries.
+ */
+public class GhRequestSchedulerTest {
+
+    private static final Duration BACKOFF = Duration.ofMillis(1);
+
+    private static GhRequestScheduler scheduler(GhRequestScheduler.QuotaSource quotas) {
+        return new GhRequestScheduler(quotas, 3, BACKOFF, Duration.ofSeconds(2));
+    }
+
+    private static GhRequestScheduler.QuotaSource searchQuota(int limit, int remaining, Instant reset) {
+        return () -> Map.of(GhRequestScheduler.Resource.SEARCH, new GhRequestScheduler.Quota(limit, remaining, reset));
+    }
+
+    private static GhRequestScheduler.QuotaSource unavailable() {
+        return () -> {
+            throw new IOException("gh not logged in");
+        };
+    }
+
+    @Test
+    @DisplayName("Rate-limited requests are retried until they succeed")
+    void retriesRateLimited() throws Exception {
+        GhRequestScheduler scheduler = scheduler(unavailable());
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = scheduler.execute(GhRequestScheduler.Resource.SEARCH, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new GhRequestScheduler.RateLimitedException("HTTP 403: You have exceeded a secondary rate limit");
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2, scheduler.usage().retries());
+        assertEquals(3, scheduler.usage().searchRequests());
+    }
+
+    @Test
+    @DisplayName("Retries stop after the maximum")
+    void givesUpAfterMaxRetries() {
+        GhRequestScheduler scheduler = scheduler(unavailable());
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(GhRequestScheduler.RateLimitedException.class, () ->
+            scheduler.execute(GhRequestScheduler.Resource.CORE, () -> {
+                attempts.incrementAndGet();
+                throw new GhRequestScheduler.RateLimitedException("HTTP 429");
+            }));
+        assertEquals(4, attempts.get());
+    }
+
+    @Test
+    @DisplayName("Other failures are not retried")
+    void otherFailuresNotRetried() {
+        GhRequestScheduler scheduler = scheduler(unavailable());
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () ->
+            scheduler.execute(GhRequestScheduler.Resource.SEARCH, () -> {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("HTTP 422: Validation Failed");
+            }));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    @DisplayName("Requests beyond the burst are spaced at the quota rate")
+    void spacesRequestsAfterBurst() throws Exception {
+        // 600 per minute = one token every 100 ms once the burst of 10 is spent
+        GhRequestScheduler scheduler = scheduler(searchQuota(600, 600, Instant.now().plusSeconds(60)));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 12; i++) {
+            scheduler.acquire(GhRequestScheduler.Resource.SEARCH);
+        }
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertTrue(elapsedMillis >= 150, "elapsed " + elapsedMillis + " ms");
+        assertTrue(scheduler.usage().waitedMillis() > 0);
+        assertEquals(588, scheduler.usage().searchRemaining());
+    }
+
+    @Test
+    @DisplayName("Core requests beyond the burst are paced by the secondary limit, not the hourly average")
+    void corePacedPerMinute() throws Exception {
+        GhRequestScheduler scheduler = scheduler(unavailable());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 25; i++) {
+            scheduler.acquire(GhRequestScheduler.Resource.CORE);
+        }
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        // Burst of 20, then one token every ~67 ms (900 per minute) rather than every 720 ms
+        assertTrue(elapsedMillis >= 250, "elapsed " + elapsedMillis + " ms");
+        assertTrue(elapsedMillis < 2_000, "elapsed " + elapsedMillis + " ms");
+    }
+
+    @Test
+    @DisplayName("Exhausted quota waits for a near reset")
+    void waitsForNearReset() throws Exception {
+        GhRequestScheduler scheduler = scheduler(searchQuota(30, 0, Instant.now().plusMillis(300)));
+
+        scheduler.acquire(GhRequestScheduler.Resource.SEARCH);
+
+        assertTrue(scheduler.usage().waitedMillis() >= 250);
+    }
+
+    @Test
+    @DisplayName("Exhausted quota with a distant reset fails fast")
+    void failsForDistantReset() {
+        GhRequestScheduler scheduler = scheduler(searchQuota(30, 0, Instant.now().plusSeconds(3600)));
+
+        assertThrows(GhRequestScheduler.RateLimitedException.class,
+            () -> scheduler.acquire(GhRequestScheduler.Resource.SEARCH));
+        assertEquals(0, scheduler.usage().searchRequests());
+    }
+
+    @Test
+    @DisplayName("Unknown quota falls back to default rates")
+    void unknownQuotaUsesDefaults() throws Exception {
+        GhRequestScheduler scheduler = scheduler(unavailable());
+
+        scheduler.acquire(GhRequestScheduler.Resource.CORE);
+
+        GhRequestScheduler.Usage usage = scheduler.usage();
+        assertEquals(1, usage.coreRequests());
+        assertEquals(-1, usage.coreRemaining());
+        assertFalse(usage.toJson().has("coreRemaining"));
+    }
+
+    @Test
+    @DisplayName("Usage since a snapshot counts only later requests")
+    void usageSinceSnapshot() throws Exception {
+        GhRequestScheduler scheduler = scheduler(unavailable());
+        scheduler.acquire(GhRequestScheduler.Resource.SEARCH);
+        GhRequestScheduler.Usage before = scheduler.usage();
+
+        scheduler.acquire(GhRequestScheduler.Resource.SEARCH);
+        scheduler.acquire(GhRequestScheduler.Resource.CORE);
+
+        GhRequestScheduler.Usage delta = scheduler.usage().since(before);
+        assertEquals(1, delta.searchRequests());
+        assertEquals(1, delta.coreRequests());
+    }
+
+    @Test
+    @DisplayName("Rate-limit messages are told apart from other errors")
+    void detectsRateLimitMessages() {
+        assertTrue(GhRequestScheduler.isRateLimited("HTTP 403: You have exceeded a secondary rate limit"));
+        assertTrue(GhRequestScheduler.isRateLimited("API rate limit exceeded for user ID 1."));
+        assertTrue(GhRequestScheduler.isRateLimited("HTTP 429: Too Many Requests"));
+        assertFalse(GhRequestScheduler.isRateLimited("HTTP 403: Resource not accessible by integration"));
+        assertFalse(GhRequestScheduler.isRateLimited(null));
+    }
+
+    // Main method to run tests via JBang
+    public static void main(String[] args) {
+        var launcher = org.junit.platform.launcher.core.LauncherFactory.create();
+        var listener = new org.junit.platform.launcher.listeners.SummaryGeneratingListener();
+
+        launcher.registerTestExecutionListeners(listener);
+        launcher.execute(org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request()
+            .selectors(org.junit.platform.engine.discovery.DiscoverySelectors.selectClass(GhRequestSchedulerTest.class))
+            .build());
+
+        listener.getSummary().printTo(new java.io.PrintWriter(System.out));
+        if (listener.getSummary().getTotalFailureCount() > 0) System.exit(1);
+    }
+}
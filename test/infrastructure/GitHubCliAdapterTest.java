@@ -0,0 +1,146 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS com.google.code.gson:gson:2.10.1
+//DEPS org.junit.jupiter:junit-jupiter:5.10.0
+//DEPS org.junit.platform:junit-platform-launcher:1.10.0
+//SOURCES ../../scripts/domain/activity/Commit.java
+//SOURCES ../../scripts/domain/activity/PullRequest.java
+//SOURCES ../../scripts/domain/activity/Issue.java
+//SOURCES ../../scripts/domain/activity/Review.java
+//SOURCES ../../scripts/domain/activity/Activity.java
+//SOURCES ../../scripts/domain/shared/DateRange.java
+//SOURCES ../../scripts/domain/shared/Repository.java
+//SOURCES ../../scripts/domain/report/DiffSummary.java
+//SOURCES ../../scripts/ports/ActivityPort.java
+//SOURCES ../../scripts/ports/DiffPort.java
+//SOURCES ../../scripts/infrastructure/github/GitHubCliAdapter.java
+//SOURCES ../../scripts/infrastructure/github/WindowedSearch.java
+//SOURCES ../../scripts/infrastructure/github/GhRequestScheduler.java
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Tests for the streaming parsers that turn gh search output into domain records.
+ */
+public class GitHubCliAdapterTest {
+
+    @Test
+    @DisplayName("Commits keep the first message line and skip entries without a sha")
+    void parsesCommits() throws IOException {
+        String json = """
+            [{"sha": "abc123", "url": "https://github.com/o/r/commit/abc123",
+              "commit": {"message": "Fix bug\\n\\nLonger body", "author": {"name": "octocat", "date": "2024-01-05T09:00:00Z"},
+                         "tree": {"sha": "t1"}}},
+             {"sha": null, "commit": {"message": "orphan"}},
+             {"sha": "def456", "commit": null}]
+            """;
+
+        List<Commit> commits = GitHubCliAdapter.parseArray(new StringReader(json),
+            reader -> GitHubCliAdapter.readCommit(reader, "octocat", "o/r"));
+
+        assertEquals(2, commits.size());
+        assertEquals(new Commit("abc123", "Fix bug", "octocat", Instant.parse("2024-01-05T09:00:00Z"), null, "o/r"),
+            commits.get(0));
+        assertEquals("", commits.get(1).message());
+        assertNull(commits.get(1).date());
+    }
+
+    @Test
+    @DisplayName("Pull requests read nested repository and skip incomplete entries")
+    void parsesPullRequests() throws IOException {
+        String json = """
+            [{"number": 12, "title": "Add cache", "state": "merged", "url": "https://github.com/o/r/pull/12",
+              "additions": 120, "deletions": null, "createdAt": "2024-01-03T10:00:00Z",
+              "repository": {"name": "r", "nameWithOwner": "o/r"}, "author": {"login": "octocat"}},
+             {"number": 13, "title": null, "state": "open"}]
+            """;
+
+        List<PullRequest> prs = GitHubCliAdapter.parseArray(new StringReader(json), GitHubCliAdapter::readPullRequest);
+
+        assertEquals(List.of(new PullRequest(12, "Add cache", "merged", "https://github.com/o/r/pull/12", "o/r",
+            120, 0, Instant.parse("2024-01-03T10:00:00Z"))), prs);
+    }
+
+    @Test
+    @DisplayName("Issues collect label names and tolerate bad dates")
+    void parsesIssues() throws IOException {
+        String json = """
+            [{"number": 5, "title": "Bug", "state": "open", "createdAt": "not a date",
+              "labels": [{"name": "bug", "color": "d73a4a"}, {"color": "ffffff"}, {"name": "p1"}],
+              "repository": {"nameWithOwner": "o/r"}}]
+            """;
+
+        List<Issue> issues = GitHubCliAdapter.parseArray(new StringReader(json), GitHubCliAdapter::readIssue);
+
+        assertEquals(1, issues.size());
+        assertEquals(List.of("bug", "p1"), issues.get(0).labels());
+        assertEquals("o/r", issues.get(0).repository());
+        assertNull(issues.get(0).createdAt());
+    }
+
+    @Test
+    @DisplayName("Reviewed PRs become simplified review entries")
+    void parsesReviews() throws IOException {
+        String json = """
+            [{"number": 9, "repository": {"nameWithOwner": "o/other"}}, {"number": 0}]
+            """;
+
+        List<Review> reviews = GitHubCliAdapter.parseArray(new StringReader(json), GitHubCliAdapter::readReview);
+
+        assertEquals(List.of(new Review(9, "REVIEWED", null, null, "o/other")), reviews);
+    }
+
+    @Test
+    @DisplayName("A page counts every result, including rows the parser drops")
+    void pageCountsDroppedRows() throws IOException {
+        String json = """
+            [{"number": 12, "title": "Add cache", "state": "merged", "url": "u",
+              "repository": {"nameWithOwner": "o/r"}},
+             {"number": 13, "title": null, "state": "open"}]
+            """;
+
+        WindowedSearch.Page<PullRequest> page = GitHubCliAdapter.parsePage(new StringReader(json),
+            GitHubCliAdapter::readPullRequest);
+
+        assertEquals(1, page.items().size());
+        assertEquals(2, page.resultCount());
+        assertEquals(0, GitHubCliAdapter.parsePage(new StringReader(""), GitHubCliAdapter::readReview).resultCount());
+    }
+
+    @Test
+    @DisplayName("Empty output is an empty result")
+    void emptyOutput() throws IOException {
+        assertEquals(List.of(), GitHubCliAdapter.parseArray(new StringReader(""), GitHubCliAdapter::readReview));
+        assertEquals(List.of(), GitHubCliAdapter.parseArray(new StringReader("[]"), GitHubCliAdapter::readReview));
+    }
+
+    @Test
+    @DisplayName("Non-JSON output is rejected")
+    void malformedOutput() {
+        assertThrows(IOException.class, () -> GitHubCliAdapter.parseArray(
+            new StringReader("[{\"number\": 1,"), GitHubCliAdapter::readReview));
+        assertThrows(IllegalStateException.class, () -> GitHubCliAdapter.parseArray(
+            new StringReader("{\"message\": \"Not Found\"}"), GitHubCliAdapter::readReview));
+    }
+
+    // Main method to run tests via JBang
+    public static void main(String[] args) {
+        var launcher = org.junit.platform.launcher.core.LauncherFactory.create();
+        var listener = new org.junit.platform.launcher.listeners.SummaryGeneratingListener();
+
+        launcher.registerTestExecutionListeners(listener);
+        launcher.execute(org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request()
+            .selectors(org.junit.platform.engine.discovery.DiscoverySelectors.selectClass(GitHubCliAdapterTest.class))
+            .build());
+
+        listener.getSummary().printTo(new java.io.PrintWriter(System.out));
+        if (listener.getSummary().getTotalFailureCount() > 0) System.exit(1);
+    }
+}
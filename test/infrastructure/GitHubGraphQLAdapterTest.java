@@ -0,0 +1,315 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS com.google.code.gson:gson:2.10.1
+//DEPS org.junit.jupiter:junit-jupiter:5.10.0
+//DEPS org.junit.platform:junit-platform-launcher:1.10.0
+//SOURCES ../../scripts/domain/activity/Commit.java
+//SOURCES ../../scripts/domain/activity/PullRequest.java
+//SOURCES ../../scripts/domain/activity/Issue.java
+//SOURCES ../../scripts/domain/activity/Review.java
+//SOURCES ../../scripts/domain/activity/Activity.java
+//SOURCES ../../scripts/domain/shared/DateRange.java
+//SOURCES ../../scripts/domain/shared/Repository.java
+//SOURCES ../../scripts/domain/report/DiffSummary.java
+//SOURCES ../../scripts/ports/ActivityPort.java
+//SOURCES ../../scripts/ports/DiffPort.java
+//SOURCES ../../scripts/services/ActivityService.java
+//SOURCES ../../scripts/infrastructure/github/GitHubGraphQLAdapter.java
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Tests for GitHubGraphQLAdapter against a local stub GraphQL server.
+ */
+public class GitHubGraphQLAdapterTest {
+
+    private static final DateRange RANGE = new DateRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 8));
+
+    private static final String ACTIVITY_RESPONSE = """
+        {"data": {
+          "user": {"id": "U_1", "contributionsCollection": {"commitContributionsByRepository": [
+            {"repository": {"nameWithOwner": "owner/repo"}}
+          ]}},
+          "prs": {"nodes": [
+            {"number": 12, "title": "Add cache", "state": "MERGED", "url": "https://github.com/owner/repo/pull/12",
+             "additions": 120, "deletions": 30, "changedFiles": 4, "createdAt": "2024-01-03T10:00:00Z",
+             "repository": {"nameWithOwner": "owner/repo"}},
+            {}
+          ]},
+          "issues": {"nodes": [
+            {"number": 5, "title": "Bug", "state": "OPEN", "url": "https://github.com/owner/repo/issues/5",
+             "createdAt": "2024-01-04T10:00:00Z", "labels": {"nodes": [{"name": "bug"}]},
+             "repository": {"nameWithOwner": "owner/repo"}}
+          ]},
+          "reviewed": {"nodes": [
+            {"number": 9, "repository": {"nameWithOwner": "owner/other"},
+             "reviews": {"nodes": [{"state": "APPROVED", "body": "LGTM", "url": "https://github.com/owner/other/pull/9#r1"}]}}
+          ]}
+        }}
+        """;
+
+    private static final String HISTORY_RESPONSE = """
+        {"data": {
+          "r0": {"nameWithOwner": "owner/repo", "defaultBranchRef": {"target": {"history": {"nodes": [
+            {"oid": "abc123", "messageHeadline": "Fix bug", "committedDate": "2024-01-05T09:00:00Z",
+             "url": "https://github.com/owner/repo/commit/abc123"}
+          ]}}}}
+        }}
+        """;
+
+    private static final String DIFF_RESPONSE = """
+        {"data": {"repository": {
+          "pr40": {"additions": 10, "deletions": 2, "changedFiles": 1},
+          "pr41": {"additions": 5, "deletions": 5, "changedFiles": 3}
+        }}}
+        """;
+
+    private HttpServer server;
+    private final List<JsonObject> requests = new CopyOnWriteArrayList<>();
+    private final List<String> authHeaders = new CopyOnWriteArrayList<>();
+    private volatile int status = 200;
+    private volatile Function<JsonObject, String> responder = request -> null;  // Non-null body overrides the defaults
+    private GitHubGraphQLAdapter adapter;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/graphql", exchange -> {
+            JsonObject request = JsonParser.parseString(
+                new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)).getAsJsonObject();
+            requests.add(request);
+            authHeaders.add(exchange.getRequestHeaders().getFirst("Authorization"));
+
+            String query = request.get("query").getAsString();
+            String override = responder.apply(request);
+            String body = override != null ? override
+                : status != 200 ? "{\"message\": \"Bad credentials\"}"
+                : query.contains("history(") ? HISTORY_RESPONSE
+                : query.contains("pullRequest(") ? DIFF_RESPONSE
+                : ACTIVITY_RESPONSE;
+
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+
+        URI endpoint = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/graphql");
+        adapter = new GitHubGraphQLAdapter(endpoint, "test-token");
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Full collection takes two round trips")
+    void fullCollectionTakesTwoRoundTrips() {
+        Activity activity = new ActivityService(adapter, true).collect("alice", RANGE, null);
+
+        assertEquals(2, requests.size());
+        assertEquals(1, activity.commits().size());
+        assertEquals(1, activity.pullRequests().size());
+        assertEquals(1, activity.issues().size());
+        assertEquals(1, activity.reviews().size());
+    }
+
+    @Test
+    @DisplayName("Maps GraphQL nodes to domain objects")
+    void mapsNodesToDomainObjects() {
+        PullRequest pr = adapter.fetchPullRequests("alice", RANGE, null).get(0);
+        assertEquals(12, pr.number());
+        assertTrue(pr.isMerged());
+        assertEquals("owner/repo", pr.repository());
+        assertEquals(150, pr.totalChanges());
+        assertEquals(Instant.parse("2024-01-03T10:00:00Z"), pr.createdAt());
+
+        Issue issue = adapter.fetchIssues("alice", RANGE, null).get(0);
+        assertTrue(issue.isOpen());
+        assertTrue(issue.hasLabel("bug"));
+
+        Review review = adapter.fetchReviews("alice", RANGE, null).get(0);
+        assertTrue(review.isApproved());
+        assertEquals("owner/other", review.repository());
+
+        Commit commit = adapter.fetchCommits("alice", RANGE, null).get(0);
+        assertEquals("abc123", commit.sha());
+        assertEquals("Fix bug", commit.message());
+        assertEquals("alice", commit.author());
+        assertEquals("owner/repo", commit.repository());
+    }
+
+    @Test
+    @DisplayName("Sends token and bounded search queries")
+    void sendsTokenAndSearchQueries() {
+        adapter.fetchPullRequests("alice", RANGE, new Repository("owner", "repo"));
+
+        assertEquals("bearer test-token", authHeaders.get(0));
+        JsonObject variables = requests.get(0).getAsJsonObject("variables");
+        assertEquals("author:alice is:pr created:2024-01-02..2024-01-08 repo:owner/repo",
+            variables.get("prQuery").getAsString());
+        assertEquals("2024-01-02T00:00:00Z", variables.get("from").getAsString());
+        assertEquals("2024-01-09T00:00:00Z", variables.get("to").getAsString());
+
+        // With a repository filter, commit history is read from that repository only
+        JsonObject historyVariables = requests.get(1).getAsJsonObject("variables");
+        assertEquals("owner", historyVariables.get("o0").getAsString());
+        assertEquals("repo", historyVariables.get("n0").getAsString());
+        assertEquals("U_1", historyVariables.get("author").getAsString());
+    }
+
+    @Test
+    @DisplayName("PR diffs seen in search results need no request")
+    void prDiffFromSearchResults() {
+        adapter.fetchPullRequests("alice", RANGE, null);
+        int before = requests.size();
+
+        DiffSummary diff = adapter.fetchPRDiff(new Repository("owner", "repo"), 12);
+
+        assertEquals(before, requests.size());
+        assertEquals(new DiffSummary(4, 120, 30), diff);
+    }
+
+    @Test
+    @DisplayName("Unknown PR diffs are fetched in one batched request")
+    void unknownPrDiffsBatched() {
+        Map<Integer, DiffSummary> diffs = adapter.fetchPRDiffs(new Repository("owner", "repo"), List.of(40, 41));
+
+        assertEquals(1, requests.size());
+        assertEquals(new DiffSummary(1, 10, 2), diffs.get(40));
+        assertEquals(new DiffSummary(3, 5, 5), diffs.get(41));
+    }
+
+    @Test
+    @DisplayName("HTTP errors degrade to empty results")
+    void httpErrorsDegradeGracefully() {
+        status = 401;
+
+        assertTrue(adapter.fetchPullRequests("alice", RANGE, null).isEmpty());
+        assertTrue(adapter.fetchCommits("alice", RANGE, null).isEmpty());
+        assertEquals(DiffSummary.empty(), adapter.fetchPRDiff(new Repository("owner", "repo"), 7));
+    }
+
+    @Test
+    @DisplayName("A failed query is not remembered; the next call queries again")
+    void failedSnapshotIsRetried() {
+        status = 502;
+        assertTrue(adapter.fetchPullRequests("alice", RANGE, null).isEmpty());
+
+        status = 200;
+        assertEquals(1, adapter.fetchPullRequests("alice", RANGE, null).size());
+        int afterRecovery = requests.size();
+        assertEquals(1, adapter.fetchIssues("alice", RANGE, null).size());
+        assertEquals(afterRecovery, requests.size(), "a successful snapshot is reused");
+    }
+
+    @Test
+    @DisplayName("A response with GraphQL errors is used once but not remembered")
+    void partialSnapshotIsRetried() {
+        responder = request -> request.get("query").getAsString().contains("history(")
+            ? HISTORY_RESPONSE.replace("{\"data\": {", "{\"errors\": [{\"message\": \"timeout\"}], \"data\": {")
+            : null;
+
+        assertEquals(1, adapter.fetchPullRequests("alice", RANGE, null).size());
+        int afterFirst = requests.size();
+        assertEquals(1, adapter.fetchIssues("alice", RANGE, null).size());
+
+        assertEquals(2 * afterFirst, requests.size(), "a partial snapshot is queried again");
+    }
+
+    @Test
+    @DisplayName("Searches follow pageInfo cursors to the last page")
+    void searchesFollowPages() {
+        responder = request -> {
+            String query = request.get("query").getAsString();
+            if (query.contains("prs: search(")) {
+                return ACTIVITY_RESPONSE.replace("\"prs\": {\"nodes\"",
+                    "\"prs\": {\"issueCount\": 2, \"pageInfo\": {\"hasNextPage\": true, \"endCursor\": \"c1\"}, \"nodes\"");
+            }
+            if (query.contains("search(") && request.getAsJsonObject("variables").get("after").getAsString().equals("c1")) {
+                return """
+                    {"data": {"search": {"pageInfo": {"hasNextPage": false, "endCursor": "c2"}, "nodes": [
+                      {"number": 13, "title": "Second page", "state": "OPEN", "url": "https://github.com/owner/repo/pull/13",
+                       "additions": 1, "deletions": 1, "changedFiles": 1, "createdAt": "2024-01-06T10:00:00Z",
+                       "repository": {"nameWithOwner": "owner/repo"}}
+                    ]}}}
+                    """;
+            }
+            return null;
+        };
+
+        List<PullRequest> prs = adapter.fetchPullRequests("alice", RANGE, null);
+
+        assertEquals(List.of(12, 13), prs.stream().map(PullRequest::number).toList());
+        JsonObject pageVariables = requests.get(1).getAsJsonObject("variables");
+        assertEquals("author:alice is:pr created:2024-01-02..2024-01-08", pageVariables.get("query").getAsString());
+        assertFalse(requests.get(1).get("query").getAsString().contains("$login"), "PR pages declare no unused variables");
+    }
+
+    @Test
+    @DisplayName("Commit history follows pageInfo cursors per repository")
+    void historyFollowsPages() {
+        responder = request -> {
+            String query = request.get("query").getAsString();
+            if (query.contains("r0: repository(")) {
+                return HISTORY_RESPONSE.replace("\"history\": {\"nodes\"",
+                    "\"history\": {\"pageInfo\": {\"hasNextPage\": true, \"endCursor\": \"h1\"}, \"nodes\"");
+            }
+            if (query.contains("history(")) {
+                return """
+                    {"data": {"repository": {"defaultBranchRef": {"target": {"history": {
+                      "pageInfo": {"hasNextPage": false, "endCursor": "h2"},
+                      "nodes": [{"oid": "def456", "messageHeadline": "Older fix", "committedDate": "2024-01-02T09:00:00Z",
+                                 "url": "https://github.com/owner/repo/commit/def456"}]
+                    }}}}}}
+                    """;
+            }
+            return null;
+        };
+
+        List<Commit> commits = adapter.fetchCommits("alice", RANGE, null);
+
+        assertEquals(List.of("abc123", "def456"), commits.stream().map(Commit::sha).toList());
+        assertEquals("owner/repo", commits.get(1).repository());
+        JsonObject pageVariables = requests.get(2).getAsJsonObject("variables");
+        assertEquals("h1", pageVariables.get("after").getAsString());
+        assertEquals("owner", pageVariables.get("owner").getAsString());
+        assertEquals("U_1", pageVariables.get("author").getAsString());
+    }
+
+    // Main method to run tests via JBang
+    public static void main(String[] args) {
+        var launcher = org.junit.platform.launcher.core.LauncherFactory.create();
+        var listener = new org.junit.platform.launcher.listeners.SummaryGeneratingListener();
+
+        launcher.registerTestExecutionListeners(listener);
+        launcher.execute(org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request()
+            .selectors(org.junit.platform.engine.discovery.DiscoverySelectors.selectClass(GitHubGraphQLAdapterTest.class))
+            .build());
+
+        listener.getSummary().printTo(new java.io.PrintWriter(System.out));
+        if (listener.getSummary().getTotalFailureCount() > 0) System.exit(1);
+    }
+}
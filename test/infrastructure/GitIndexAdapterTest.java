@@ -0,0 +1,249 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS org.junit.jupiter:junit-jupiter:5.10.0
+//DEPS org.junit.platform:junit-platform-launcher:1.10.0
+//SOURCES ../../scripts/domain/shared/Repository.java
+//SOURCES ../../scripts/ports/GitPort.java
+//SOURCES ../mocks/MockGitPort.java
+//SOURCES ../../scripts/infrastructure/git/GitCliAdapter.java
+//SOURCES ../../scripts/infrastructure/git/GitIndexAdapter.java
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Tests for the .git/index reader against repositories built by the local git binary.
+ */
+public class GitIndexAdapterTest {
+
+    @TempDir
+    Path repo;
+
+    private MockGitPort fallback;
+    private GitIndexAdapter adapter;
+    private GitCliAdapter cli;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fallback = new MockGitPort();
+        fallback.stubStagedFiles(List.of("from-fallback"));
+        fallback.stubUnstagedFiles(List.of("from-fallback"));
+        adapter = new GitIndexAdapter(fallback);
+        cli = new GitCliAdapter();
+
+        git("init", "-q", "-b", "main");
+        write("README.md", "# readme\n");
+        write("src/main/App.java", "class App {}\n");
+        write("src/test/AppTest.java", "class AppTest {}\n");
+        git("add", ".");
+        git("commit", "-q", "-m", "initial");
+    }
+
+    @Test
+    @DisplayName("Clean repository has no staged or unstaged files")
+    void cleanRepository() {
+        assertEquals(List.of(), adapter.getStagedFiles(repo));
+        assertEquals(List.of(), adapter.getUnstagedFiles(repo));
+        assertEquals(0, fallback.getGetStagedFilesCalls() + fallback.getGetUnstagedFilesCalls());
+    }
+
+    @Test
+    @DisplayName("Modified and deleted working tree files are unstaged")
+    void modifiedAndDeletedAreUnstaged() throws Exception {
+        write("src/main/App.java", "class App { int x; }\n");
+        Files.delete(repo.resolve("README.md"));
+
+        assertEquals(List.of("README.md", "src/main/App.java"), adapter.getUnstagedFiles(repo));
+        assertEquals(cli.getUnstagedFiles(repo), adapter.getUnstagedFiles(repo));
+        assertEquals(0, fallback.getGetUnstagedFilesCalls());
+    }
+
+    @Test
+    @DisplayName("Touched file with unchanged content is not unstaged")
+    void touchedFileIsClean() throws Exception {
+        Files.setLastModifiedTime(repo.resolve("README.md"), FileTime.from(Instant.now().plusSeconds(60)));
+
+        assertEquals(List.of(), adapter.getUnstagedFiles(repo));
+    }
+
+    @Test
+    @DisplayName("Same-size edit is found by hashing")
+    void sameSizeEditIsUnstaged() throws Exception {
+        write("README.md", "# README\n");
+        Files.setLastModifiedTime(repo.resolve("README.md"), FileTime.from(Instant.now().plusSeconds(60)));
+
+        assertEquals(List.of("README.md"), adapter.getUnstagedFiles(repo));
+    }
+
+    @Test
+    @DisplayName("Executable bit change is unstaged")
+    void executableBitIsUnstaged() throws Exception {
+        Files.setPosixFilePermissions(repo.resolve("README.md"), PosixFilePermissions.fromString("rwxr-xr-x"));
+
+        assertEquals(cli.getUnstagedFiles(repo), adapter.getUnstagedFiles(repo));
+        assertEquals(List.of("README.md"), adapter.getUnstagedFiles(repo));
+    }
+
+    @Test
+    @DisplayName("Staged modifications and additions match git diff --cached")
+    void stagedChanges() throws Exception {
+        write("src/main/App.java", "class App { int y; }\n");
+        write("docs/guide.md", "guide\n");
+        git("add", ".");
+        write("src/test/AppTest.java", "class AppTest { }\n");
+
+        assertEquals(List.of("docs/guide.md", "src/main/App.java"), adapter.getStagedFiles(repo));
+        assertEquals(cli.getStagedFiles(repo), adapter.getStagedFiles(repo));
+        assertEquals(List.of("src/test/AppTest.java"), adapter.getUnstagedFiles(repo));
+    }
+
+    @Test
+    @DisplayName("Staged deletion is reported")
+    void stagedDeletion() throws Exception {
+        git("rm", "-q", "README.md");
+
+        assertEquals(List.of("README.md"), adapter.getStagedFiles(repo));
+        assertEquals(List.of(), adapter.getUnstagedFiles(repo));
+    }
+
+    @Test
+    @DisplayName("HEAD tree is read from packfiles with deltas")
+    void readsPackedObjects() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            content.append("line ").append(i).append(" of a file that compresses well as a delta\n");
+            write("src/main/App.java", content.toString());
+            git("commit", "-q", "-am", "change " + i);
+        }
+        git("gc", "-q", "--aggressive");
+        // gc also moves the branch into packed-refs
+        assertFalse(Files.exists(repo.resolve(".git/refs/heads/main")));
+
+        write("README.md", "# changed\n");
+        git("add", "README.md");
+
+        assertEquals(List.of("README.md"), adapter.getStagedFiles(repo));
+        assertEquals(0, fallback.getGetStagedFilesCalls());
+    }
+
+    @Test
+    @DisplayName("Unborn branch stages every index entry")
+    void unbornBranch() throws Exception {
+        git("checkout", "-q", "--orphan", "fresh");
+
+        assertEquals(cli.getStagedFiles(repo), adapter.getStagedFiles(repo));
+    }
+
+    @Test
+    @DisplayName("Current branch is read from HEAD")
+    void currentBranch() throws Exception {
+        git("checkout", "-q", "-b", "feature/index");
+
+        assertEquals("feature/index", adapter.getCurrentBranch(repo));
+        assertEquals(0, fallback.getGetCurrentBranchCalls());
+    }
+
+    @Test
+    @DisplayName("Index version 4 falls back")
+    void indexVersion4FallsBack() throws Exception {
+        git("update-index", "--index-version", "4");
+
+        assertEquals(List.of("from-fallback"), adapter.getUnstagedFiles(repo));
+        assertEquals(1, fallback.getGetUnstagedFilesCalls());
+    }
+
+    @Test
+    @DisplayName("Possible rename falls back")
+    void renameFallsBack() throws Exception {
+        git("mv", "README.md", "GUIDE.md");
+
+        assertEquals(List.of("from-fallback"), adapter.getStagedFiles(repo));
+        assertEquals(1, fallback.getGetStagedFilesCalls());
+    }
+
+    @Test
+    @DisplayName("Conflicted index falls back")
+    void conflictFallsBack() throws Exception {
+        git("checkout", "-q", "-b", "other");
+        write("README.md", "# other\n");
+        git("commit", "-q", "-am", "other");
+        git("checkout", "-q", "main");
+        write("README.md", "# main\n");
+        git("commit", "-q", "-am", "main");
+        gitAllowFailure("merge", "-q", "other");
+
+        assertEquals(List.of("from-fallback"), adapter.getStagedFiles(repo));
+        assertEquals(List.of("from-fallback"), adapter.getUnstagedFiles(repo));
+    }
+
+    @Test
+    @DisplayName("Truncated index falls back")
+    void truncatedIndexFallsBack() throws Exception {
+        Path index = repo.resolve(".git").resolve("index");
+        byte[] bytes = Files.readAllBytes(index);
+        Files.write(index, java.util.Arrays.copyOf(bytes, 40));
+
+        assertEquals(List.of("from-fallback"), adapter.getStagedFiles(repo));
+        assertEquals(List.of("from-fallback"), adapter.getUnstagedFiles(repo));
+    }
+
+    @Test
+    @DisplayName("SHA-256 repository falls back")
+    void sha256FallsBack() throws Exception {
+        Files.writeString(repo.resolve(".git").resolve("config"), "[extensions]\n\tobjectFormat = sha256\n",
+            java.nio.file.StandardOpenOption.APPEND);
+
+        assertEquals(List.of("from-fallback"), adapter.getStagedFiles(repo));
+        assertEquals(List.of("from-fallback"), adapter.getUnstagedFiles(repo));
+        assertEquals(1, fallback.getGetStagedFilesCalls());
+    }
+
+    // --- Helpers ---
+
+    private void write(String path, String content) throws IOException {
+        Path file = repo.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private void git(String... args) throws Exception {
+        int exitCode = gitAllowFailure(args);
+        assertEquals(0, exitCode, "git " + String.join(" ", args));
+    }
+
+    private int gitAllowFailure(String... args) throws Exception {
+        List<String> command = new java.util.ArrayList<>(List.of("git",
+            "-c", "user.name=Test", "-c", "user.email=test@example.com", "-c", "commit.gpgsign=false"));
+        command.addAll(List.of(args));
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.directory(repo.toFile());
+        pb.redirectErrorStream(true);
+        pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        return pb.start().waitFor();
+    }
+
+    // Main method to run tests via JBang
+    public static void main(String[] args) {
+        var launcher = org.junit.platform.launcher.core.LauncherFactory.create();
+        var listener = new org.junit.platform.launcher.listeners.SummaryGeneratingListener();
+
+        launcher.registerTestExecutionListeners(listener);
+        launcher.execute(org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request()
+            .selectors(org.junit.platform.engine.discovery.DiscoverySelectors.selectClass(GitIndexAdapterTest.class))
+            .build());
+
+        listener.getSummary().printTo(new java.io.PrintWriter(System.out));
+        if (listener.getSummary().getTotalFailureCount() > 0) System.exit(1);
+    }
+}
@@ -19,7 +19,12 @@
 //SOURCES ../../scripts/ports/ReportGeneratorPort.java
 //SOURCES ../../scripts/ports/ExportPort.java
 //SOURCES ../../scripts/infrastructure/github/GitHubCliAdapter.java
+//SOURCES ../../scripts/infrastructure/github/WindowedSearch.java
+//SOURCES ../../scripts/infrastructure/github/GhRequestScheduler.java
+//SOURCES ../../scripts/infrastructure/github/GitHubGraphQLAdapter.java
 //SOURCES ../../scripts/infrastructure/git/GitCliAdapter.java
+//SOURCES ../../scripts/infrastructure/git/GitIndexAdapter.java
+//SOURCES ../../scripts/infrastructure/ai/ClaudeStream.java
 //SOURCES ../../scripts/infrastructure/ai/ClaudeCliAdapter.java
 //SOURCES ../../scripts/infrastructure/export/MarkdownExporter.java
 //SOURCES ../../scripts/infrastructure/export/JsonExporter.java
@@ -46,6 +51,15 @@ public class InfrastructureCompilationTest {
         assertTrue(adapter instanceof DiffPort);
     }
 
+    @Test
+    @DisplayName("GitHubGraphQLAdapter implements ActivityPort and DiffPort")
+    void gitHubGraphQLAdapterImplementsPorts() {
+        GitHubGraphQLAdapter adapter = new GitHubGraphQLAdapter();
+
+        assertTrue(adapter instanceof ActivityPort);
+        assertTrue(adapter instanceof DiffPort);
+    }
+
     @Test
     @DisplayName("GitCliAdapter implements GitPort")
     void gitCliAdapterImplementsPort() {
@@ -54,6 +68,14 @@ public class InfrastructureCompilationTest {
         assertTrue(adapter instanceof GitPort);
     }
 
+    @Test
+    @DisplayName("GitIndexAdapter implements GitPort")
+    void gitIndexAdapterImplementsPort() {
+        GitIndexAdapter adapter = new GitIndexAdapter();
+
+        assertTrue(adapter instanceof GitPort);
+    }
+
     @Test
     @DisplayName("ClaudeCliAdapter implements ReportGeneratorPort")
     void claudeCliAdapterImplementsPort() {
@@ -0,0 +1,170 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS com.google.code.gson:gson:2.10.1
+//DEPS org.junit.jupiter:junit-jupiter:5.10.0
+//DEPS org.junit.platform:junit-platform-launcher:1.10.0
+//SOURCES ../../scripts/infrastructure/ai/PromptBudget.java
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for prompt token estimation and significance-ordered compaction.
+ */
+public class PromptBudgetTest {
+
+    private static JsonObject repo(String name) {
+        JsonObject repo = new JsonObject();
+        repo.addProperty("nameWithOwner", name);
+        return repo;
+    }
+
+    private static JsonObject commit(String repoName, String message) {
+        JsonObject data = new JsonObject();
+        data.addProperty("message", message);
+        JsonObject commit = new JsonObject();
+        commit.addProperty("sha", "0123456789abcdef");
+        commit.add("commit", data);
+        commit.add("repository", repo(repoName));
+        return commit;
+    }
+
+    private static JsonObject numbered(String repoName, int number, String title, String state) {
+        JsonObject item = new JsonObject();
+        item.addProperty("number", number);
+        item.addProperty("title", title);
+        item.addProperty("state", state);
+        item.add("repository", repo(repoName));
+        return item;
+    }
+
+    private static JsonObject activity(int commitCount) {
+        JsonArray commits = new JsonArray();
+        for (int i = 0; i < commitCount; i++) {
+            commits.add(commit("o/app", "chore: tidy up module " + i));
+        }
+        JsonArray prs = new JsonArray();
+        prs.add(numbered("o/app", 7, "Add export to HTML", "merged"));
+        JsonArray issues = new JsonArray();
+        issues.add(numbered("o/lib", 3, "Crash on empty config", "open"));
+
+        JsonObject activity = new JsonObject();
+        activity.add("commits", commits);
+        activity.add("pull_requests", prs);
+        activity.add("issues", issues);
+        return activity;
+    }
+
+    @Test
+    @DisplayName("Tokens are estimated at four characters each, rounded up")
+    void estimatesTokens() {
+        assertEquals(0, PromptBudget.estimateTokens(""));
+        assertEquals(1, PromptBudget.estimateTokens("abc"));
+        assertEquals(3, PromptBudget.estimateTokens("abcdefghi"));
+        assertEquals(0, PromptBudget.estimateTokens(null));
+    }
+
+    @Test
+    @DisplayName("A prompt within budget is left untouched")
+    void withinBudgetUnchanged() {
+        JsonObject activity = activity(3);
+
+        PromptBudget.Result result = new PromptBudget(10_000).fit(activity, "No file changes analyzed.", 500);
+
+        assertFalse(result.isCompacted());
+        assertSame(activity, result.activity());
+        assertEquals("", result.note());
+    }
+
+    @Test
+    @DisplayName("Budget 0 disables compaction")
+    void zeroBudgetDisables() {
+        PromptBudget.Result result = new PromptBudget(0).fit(activity(500), null, 0);
+
+        assertFalse(result.isCompacted());
+        assertEquals(500, result.activity().getAsJsonArray("commits").size());
+    }
+
+    @Test
+    @DisplayName("Low-value commits collapse into a per-repo summary before PRs and issues")
+    void collapsesCommitsFirst() {
+        JsonObject activity = activity(200);
+
+        PromptBudget.Result result = new PromptBudget(1_000).fit(activity, null, 200);
+
+        assertTrue(result.isCompacted());
+        assertTrue(result.tokensAfter() <= 1_000, "after: " + result.tokensAfter());
+        assertTrue(result.activity().getAsJsonArray("commits").size() < 200);
+        assertEquals(1, result.activity().getAsJsonArray("pull_requests").size());
+        assertEquals(1, result.activity().getAsJsonArray("issues").size());
+        assertEquals(200, activity.getAsJsonArray("commits").size(), "input is not modified");
+
+        int collapsed = 200 - result.activity().getAsJsonArray("commits").size();
+        assertEquals(collapsed, result.collapsedItems());
+        assertEquals(1, result.compacted().size());
+        assertTrue(result.compacted().get(0).startsWith("[o/app] " + collapsed + " commits, e.g. \"chore: tidy up"),
+            result.compacted().get(0));
+        assertTrue(result.note().contains("mention this briefly in the report"));
+    }
+
+    @Test
+    @DisplayName("Feature commits outrank chores and merge commits")
+    void scoresCommits() {
+        assertTrue(PromptBudget.commitScore("feat: add team report") > PromptBudget.commitScore("chore: bump deps"));
+        assertTrue(PromptBudget.commitScore("fix: null config crash") > PromptBudget.commitScore("docs: typo"));
+        assertEquals(1, PromptBudget.commitScore("Merge pull request #12 from o/branch"));
+
+        JsonArray commits = new JsonArray();
+        commits.add(commit("o/app", "feat: add team report"));
+        for (int i = 0; i < 50; i++) {
+            commits.add(commit("o/app", "Merge branch 'main' into feature-" + i));
+        }
+        JsonObject activity = new JsonObject();
+        activity.add("commits", commits);
+
+        PromptBudget.Result result = new PromptBudget(100).fit(activity, null, 0);
+
+        JsonArray kept = result.activity().getAsJsonArray("commits");
+        boolean featureKept = false;
+        for (JsonElement element : kept) {
+            featureKept |= element.getAsJsonObject().getAsJsonObject("commit").get("message").getAsString().startsWith("feat");
+        }
+        assertTrue(featureKept);
+    }
+
+    @Test
+    @DisplayName("Small files in the diff summary collapse before large ones")
+    void collapsesSmallFiles() {
+        StringBuilder diff = new StringBuilder("Files changed: 101\nLines added: 5010\nLines deleted: 100\n\nModified files:\n");
+        diff.append("- src/Core.java (+4000, -0)\n");
+        for (int i = 0; i < 100; i++) {
+            diff.append("- docs/page").append(i).append(".md (+10, -1)\n");
+        }
+
+        PromptBudget.Result result = new PromptBudget(300).fit(new JsonObject(), diff.toString(), 0);
+
+        assertTrue(result.diffSummary().contains("- src/Core.java (+4000, -0)"));
+        assertTrue(result.diffSummary().startsWith("Files changed: 101"));
+        assertTrue(result.diffSummary().length() < diff.length());
+        String summary = result.compacted().get(0);
+        assertTrue(summary.matches("\\d+ modified files \\(\\+\\d+, -\\d+\\)"), summary);
+    }
+
+    // Main method to run tests via JBang
+    public static void main(String[] args) {
+        var launcher = org.junit.platform.launcher.core.LauncherFactory.create();
+        var listener = new org.junit.platform.launcher.listeners.SummaryGeneratingListener();
+
+        launcher.registerTestExecutionListeners(listener);
+        launcher.execute(org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request()
+            .selectors(org.junit.platform.engine.discovery.DiscoverySelectors.selectClass(PromptBudgetTest.class))
+            .build());
+
+        listener.getSummary().printTo(new java.io.PrintWriter(System.out));
+        if (listener.getSummary().getTotalFailureCount() > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,177 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS com.google.code.gson:gson:2.10.1
+//DEPS org.junit.jupiter:junit-jupiter:5.10.0
+//DEPS org.junit.platform:junit-platform-launcher:1.10.0
+//SOURCES ../../scripts/infrastructure/cache/ReportCache.java
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+/**
+ * Tests for report fingerprints and the LRU report cache.
+ */
+public class ReportCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static JsonObject pr(int number, String state) {
+        JsonObject repo = new JsonObject();
+        repo.addProperty("nameWithOwner", "o/app");
+        JsonObject pr = new JsonObject();
+        pr.addProperty("number", number);
+        pr.addProperty("title", "PR " + number);
+        pr.addProperty("state", state);
+        pr.add("repository", repo);
+        return pr;
+    }
+
+    private static JsonArray array(JsonObject... items) {
+        JsonArray array = new JsonArray();
+        for (JsonObject item : items) {
+            array.add(item);
+        }
+        return array;
+    }
+
+    private static String fingerprint(JsonArray prs, String diffs) {
+        return new ReportCache.Fingerprint()
+            .add("template", "Report for {{days}} days")
+            .add("days", 1)
+            .addItems("pull_requests", prs)
+            .addLines("diffs", diffs)
+            .hex();
+    }
+
+    /** A clock that advances one minute per reading */
+    private static Clock ticking() {
+        return new Clock() {
+            private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+            @Override
+            public synchronized Instant instant() {
+                now = now.plus(Duration.ofMinutes(1));
+                return now;
+            }
+
+            @Override
+            public java.time.ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(java.time.ZoneId zone) {
+                return this;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Item, key and line order do not change the fingerprint")
+    void fingerprintIgnoresOrder() {
+        JsonObject reordered = new JsonObject();
+        reordered.add("repository", pr(1, "open").get("repository"));
+        reordered.addProperty("state", "open");
+        reordered.addProperty("title", "PR 1");
+        reordered.addProperty("number", 1);
+
+        String first = fingerprint(array(pr(1, "open"), pr(2, "merged")), "- a.java (+1, -0)\n- b.java (+2, -0)");
+        String second = fingerprint(array(pr(2, "merged"), reordered), "- b.java (+2, -0)\n- a.java (+1, -0)\n");
+
+        assertEquals(first, second);
+        assertEquals(64, first.length());
+    }
+
+    @Test
+    @DisplayName("Any changed item, setting or template changes the fingerprint")
+    void fingerprintDetectsChanges() {
+        String base = fingerprint(array(pr(1, "open")), "");
+
+        assertNotEquals(base, fingerprint(array(pr(1, "merged")), ""));
+        assertNotEquals(base, fingerprint(array(pr(1, "open"), pr(2, "open")), ""));
+        assertNotEquals(base, fingerprint(array(pr(1, "open")), "- a.java (+1, -0)"));
+        assertNotEquals(base, new ReportCache.Fingerprint()
+            .add("template", "Report for {{days}} days")
+            .add("days", 7)
+            .addItems("pull_requests", array(pr(1, "open")))
+            .addLines("diffs", "")
+            .hex());
+    }
+
+    @Test
+    @DisplayName("Labels keep adjacent sections from running together")
+    void sectionsAreDelimited() {
+        String ab = new ReportCache.Fingerprint().add("x", "ab").add("y", "").hex();
+        String a_b = new ReportCache.Fingerprint().add("x", "a").add("y", "b").hex();
+        assertNotEquals(ab, a_b);
+    }
+
+    @Test
+    @DisplayName("A stored report is returned for the same fingerprint only")
+    void storeAndLookup() throws Exception {
+        ReportCache cache = new ReportCache(tempDir);
+        String key = fingerprint(array(pr(1, "open")), "");
+
+        assertEquals(Optional.empty(), cache.lookup(key));
+        cache.store(key, "# Standup\n- shipped PR 1\n");
+
+        assertEquals(Optional.of("# Standup\n- shipped PR 1\n"), cache.lookup(key));
+        assertEquals(Optional.empty(), cache.lookup(fingerprint(array(pr(1, "merged")), "")));
+        assertEquals(tempDir.resolve(".cache"), cache.entryFile(key).getParent());
+    }
+
+    @Test
+    @DisplayName("Reports written to entryFile become visible after stored()")
+    void streamedEntry() throws Exception {
+        ReportCache cache = new ReportCache(tempDir.resolve("cache"), 5, ticking());
+        String key = fingerprint(array(), "");
+
+        Files.createDirectories(cache.entryFile(key).getParent());
+        Files.writeString(cache.entryFile(key), "streamed");
+        cache.stored(key);
+
+        assertEquals(Optional.of("streamed"), cache.lookup(key));
+    }
+
+    @Test
+    @DisplayName("Least recently used reports are evicted beyond the limit")
+    void evictsLeastRecentlyUsed() throws Exception {
+        ReportCache cache = new ReportCache(tempDir.resolve("cache"), 2, ticking());
+
+        cache.store("a", "A");
+        cache.store("b", "B");
+        assertTrue(cache.lookup("a").isPresent());  // "a" is now more recent than "b"
+        cache.store("c", "C");
+
+        assertTrue(cache.lookup("a").isPresent());
+        assertFalse(cache.lookup("b").isPresent());
+        assertTrue(cache.lookup("c").isPresent());
+    }
+
+    // Main method to run tests via JBang
+    public static void main(String[] args) {
+        var launcher = org.junit.platform.launcher.core.LauncherFactory.create();
+        var listener = new org.junit.platform.launcher.listeners.SummaryGeneratingListener();
+
+        launcher.registerTestExecutionListeners(listener);
+        launcher.execute(org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request()
+            .selectors(org.junit.platform.engine.discovery.DiscoverySelectors.selectClass(ReportCacheTest.class))
+            .build());
+
+        listener.getSummary().printTo(new java.io.PrintWriter(System.out));
+        if (listener.getSummary().getTotalFailureCount() > 0) System.exit(1);
+    }
+}
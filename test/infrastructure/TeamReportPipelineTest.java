@@ -0,0 +1,213 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS org.junit.jupiter:junit-jupiter:5.10.0
+//DEPS org.junit.platform:junit-platform-launcher:1.10.0
+//SOURCES ../../scripts/infrastructure/ai/TeamReportPipeline.java
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for bounded, time-limited per-member report generation.
+ */
+public class TeamReportPipelineTest {
+
+    private static List<String> team(int size) {
+        List<String> members = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            members.add("member" + i);
+        }
+        return members;
+    }
+
+    @Test
+    @Timeout(30)
+    @DisplayName("A team takes about as long as its slowest member, not the sum")
+    void membersRunConcurrently() throws Exception {
+        TeamReportPipeline pipeline = new TeamReportPipeline((member, deadline) -> {
+            Thread.sleep(member.equals("member9") ? 600 : 300);
+            return "report of " + member;
+        }, 10, Duration.ofSeconds(10));
+
+        long start = System.nanoTime();
+        List<TeamReportPipeline.MemberResult> results = pipeline.run(team(10));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertEquals(10, results.size());
+        assertTrue(elapsedMillis < 2_000, "elapsed " + elapsedMillis + " ms (sequential would be 3300 ms)");
+        for (int i = 0; i < 10; i++) {
+            assertEquals("member" + i, results.get(i).member(), "results keep the given order");
+            assertTrue(results.get(i).completed());
+            assertEquals("report of member" + i, results.get(i).report());
+        }
+    }
+
+    @Test
+    @Timeout(30)
+    @DisplayName("No more than parallelism members run at once")
+    void respectsParallelism() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        TeamReportPipeline pipeline = new TeamReportPipeline((member, deadline) -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            running.decrementAndGet();
+            return member;
+        }, 3, Duration.ofSeconds(10));
+
+        List<TeamReportPipeline.MemberResult> results = pipeline.run(team(12));
+
+        assertEquals(12, results.stream().filter(TeamReportPipeline.MemberResult::completed).count());
+        assertTrue(peak.get() <= 3, "peak " + peak.get());
+    }
+
+    @Test
+    @Timeout(30)
+    @DisplayName("A member past its timeout is reported and its work is stopped")
+    void timesOutStuckMember() throws Exception {
+        AtomicBoolean killed = new AtomicBoolean();
+        CountDownLatch hooked = new CountDownLatch(1);
+        List<Thread> stopped = new CopyOnWriteArrayList<>();
+        TeamReportPipeline pipeline = new TeamReportPipeline((member, deadline) -> {
+            if (member.equals("member0")) {
+                while (!killed.get()) {
+                    // Ignores interrupts, like a read from a child process would
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        // Keep going
+                    }
+                }
+            }
+            return member;
+        }, 1, Duration.ofMillis(300), thread -> {
+            stopped.add(thread);
+            killed.set(true);  // Stands in for killing the member's child processes
+            hooked.countDown();
+        });
+
+        long start = System.nanoTime();
+        List<TeamReportPipeline.MemberResult> results = pipeline.run(team(3));
+
+        assertEquals(TeamReportPipeline.Status.TIMED_OUT, results.get(0).status());
+        assertNull(results.get(0).report());
+        // The result is reported before the hook runs; member0 may have been the last to get a slot
+        assertTrue(hooked.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("team-member0"), stopped.stream().map(Thread::getName).toList());
+        assertTrue(results.get(1).completed());
+        assertTrue(results.get(2).completed());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5_000);
+    }
+
+    @Test
+    @Timeout(30)
+    @DisplayName("A timed-out member keeps its slot until its stage returns")
+    void timedOutMemberHoldsSlot() throws Exception {
+        AtomicBoolean finished = new AtomicBoolean();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        TeamReportPipeline pipeline = new TeamReportPipeline((member, deadline) -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                if (member.equals("member0")) {
+                    while (!finished.get()) {
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            // Keep going
+                        }
+                    }
+                }
+                return member;
+            } finally {
+                running.decrementAndGet();
+            }
+        }, 1, Duration.ofMillis(200));
+        Thread release = new Thread(() -> {
+            try {
+                Thread.sleep(800);
+            } catch (InterruptedException e) {
+                // Release early
+            }
+            finished.set(true);
+        });
+        release.start();
+
+        List<TeamReportPipeline.MemberResult> results = pipeline.run(team(2));
+        release.join();
+
+        assertEquals(TeamReportPipeline.Status.TIMED_OUT, results.get(0).status());
+        assertTrue(results.get(1).completed());
+        assertEquals(1, peak.get(), "member1 must not start while member0 is still running");
+    }
+
+    @Test
+    @DisplayName("The stage's deadline matches the member timeout")
+    void passesDeadline() throws Exception {
+        List<Duration> remaining = new ArrayList<>();
+        TeamReportPipeline pipeline = new TeamReportPipeline((member, deadline) -> {
+            remaining.add(TeamReportPipeline.remaining(deadline));
+            throw new TimeoutException("claude did not finish within 60s");
+        }, 1, Duration.ofSeconds(60));
+
+        TeamReportPipeline.MemberResult result = pipeline.run(List.of("alice")).get(0);
+
+        assertEquals(TeamReportPipeline.Status.TIMED_OUT, result.status());
+        assertEquals("claude did not finish within 60s", result.error());
+        assertTrue(remaining.get(0).toSeconds() >= 59 && remaining.get(0).toSeconds() <= 60);
+        assertEquals(Duration.ofMillis(1), TeamReportPipeline.remaining(System.nanoTime() - 1_000));
+    }
+
+    @Test
+    @DisplayName("A failing member does not fail the others")
+    void isolatesFailures() throws Exception {
+        TeamReportPipeline pipeline = new TeamReportPipeline((member, deadline) -> {
+            if (member.equals("member1")) {
+                throw new IllegalStateException("gh search failed");
+            }
+            return member;
+        }, 2, Duration.ofSeconds(10));
+
+        List<TeamReportPipeline.MemberResult> results = pipeline.run(team(3));
+
+        assertTrue(results.get(0).completed());
+        assertEquals(TeamReportPipeline.Status.FAILED, results.get(1).status());
+        assertEquals("gh search failed", results.get(1).error());
+        assertTrue(results.get(2).completed());
+    }
+
+    @Test
+    @DisplayName("Parallelism and timeout must be positive")
+    void validatesSettings() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new TeamReportPipeline((m, d) -> m, 0, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class,
+            () -> new TeamReportPipeline((m, d) -> m, 1, Duration.ZERO));
+    }
+
+    // Main method to run tests via JBang
+    public static void main(String[] args) {
+        var launcher = org.junit.platform.launcher.core.LauncherFactory.create();
+        var listener = new org.junit.platform.launcher.listeners.SummaryGeneratingListener();
+
+        launcher.registerTestExecutionListeners(listener);
+        launcher.execute(org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request()
+            .selectors(org.junit.platform.engine.discovery.DiscoverySelectors.selectClass(TeamReportPipelineTest.class))
+            .build());
+
+        listener.getSummary().printTo(new java.io.PrintWriter(System.out));
+        if (listener.getSummary().getTotalFailureCount() > 0) System.exit(1);
+    }
+}
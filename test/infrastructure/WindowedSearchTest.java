@@ -0,0 +1,162 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS org.junit.jupiter:junit-jupiter:5.10.0
+//DEPS org.junit.platform:junit-platform-launcher:1.10.0
+//SOURCES ../../scripts/domain/shared/DateRange.java
+//SOURCES ../../scripts/infrastructure/github/WindowedSearch.java
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Tests for adaptive date-window splitting against a fake capped search.
+ */
+public class WindowedSearchTest {
+
+    private static final DateRange MONTH = new DateRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+
+    /**
+     * Fake search: a fixed number of items per day, truncated to the cap like GitHub does.
+     */
+    private static WindowedSearch.WindowFetcher<String> perDay(int itemsPerDay, int cap, List<DateRange> calls) {
+        return window -> {
+            calls.add(window);
+            List<String> items = new ArrayList<>();
+            for (LocalDate day = window.start().plusDays(1); !day.isAfter(window.end()); day = day.plusDays(1)) {
+                for (int i = 0; i < itemsPerDay; i++) {
+                    items.add(day + "/" + i);
+                }
+            }
+            return items.size() > cap ? items.subList(0, cap) : items;
+        };
+    }
+
+    @Test
+    @DisplayName("Window under the cap is a single search")
+    void singleSearchUnderCap() throws Exception {
+        List<DateRange> calls = new CopyOnWriteArrayList<>();
+        WindowedSearch search = new WindowedSearch(100, 4);
+
+        List<String> items = search.collect(MONTH, perDay(2, 100, calls), Function.identity());
+
+        assertEquals(60, items.size());
+        assertEquals(List.of(MONTH), calls);
+    }
+
+    @Test
+    @DisplayName("Capped windows are split until every item is found")
+    void splitsCappedWindows() throws Exception {
+        List<DateRange> calls = new CopyOnWriteArrayList<>();
+        WindowedSearch search = new WindowedSearch(25, 4);
+
+        List<String> items = search.collect(MONTH, perDay(3, 25, calls), Function.identity());
+
+        assertEquals(90, items.size());
+        assertEquals(90, new HashSet<>(items).size());
+        assertTrue(calls.size() > 3);
+        // Newest window first
+        assertTrue(items.get(0).compareTo(items.get(items.size() - 1)) > 0);
+    }
+
+    @Test
+    @DisplayName("Overlapping results are deduplicated by key")
+    void deduplicatesByKey() throws Exception {
+        WindowedSearch search = new WindowedSearch(10, 2);
+        // Every window also returns the same long-lived item
+        WindowedSearch.WindowFetcher<String> fetcher = window -> {
+            List<String> items = new ArrayList<>(perDay(1, Integer.MAX_VALUE, new ArrayList<>()).fetch(window));
+            items.add("shared");
+            return items.size() > 10 ? items.subList(0, 10) : items;
+        };
+
+        List<String> items = search.collect(new DateRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 16)),
+            fetcher, Function.identity());
+
+        assertEquals(1, items.stream().filter("shared"::equals).count());
+        Set<String> days = new HashSet<>(items);
+        assertTrue(days.contains("2024-01-02/0"));
+        assertTrue(days.contains("2024-01-16/0"));
+    }
+
+    @Test
+    @DisplayName("Single day at the cap is kept rather than split")
+    void singleDayAtCap() throws Exception {
+        List<DateRange> calls = new CopyOnWriteArrayList<>();
+        WindowedSearch search = new WindowedSearch(5, 2);
+        DateRange oneDay = new DateRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2));
+
+        List<String> items = search.collect(oneDay, perDay(50, 5, calls), Function.identity());
+
+        assertEquals(5, items.size());
+        assertEquals(1, calls.size());
+    }
+
+    @Test
+    @DisplayName("A full window splits even when parsing dropped some of its results")
+    void splitsOnRawResultCount() throws Exception {
+        List<DateRange> calls = new CopyOnWriteArrayList<>();
+        WindowedSearch search = new WindowedSearch(25, 4);
+        WindowedSearch.WindowFetcher<String> raw = perDay(3, 25, calls);
+        // Every fifth result is an invalid row the parser drops
+        WindowedSearch.PageFetcher<String> fetcher = window -> {
+            List<String> rows = raw.fetch(window);
+            List<String> parsed = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                if (i % 5 != 0) {
+                    parsed.add(rows.get(i));
+                }
+            }
+            return new WindowedSearch.Page<>(parsed, rows.size());
+        };
+
+        search.collectPages(MONTH, fetcher, Function.identity());
+
+        assertTrue(calls.size() > 1, "the capped month must be split");
+    }
+
+    @Test
+    @DisplayName("A failed window fails the collection")
+    void failedWindowFails() {
+        WindowedSearch search = new WindowedSearch(5, 2);
+        WindowedSearch.WindowFetcher<String> fetcher = window -> {
+            if (window.equals(MONTH)) {
+                return perDay(1, 5, new ArrayList<>()).fetch(window);
+            }
+            throw new IOException("secondary rate limit");
+        };
+
+        IOException e = assertThrows(IOException.class, () -> search.collect(MONTH, fetcher, Function.identity()));
+        assertEquals("secondary rate limit", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("WindowedSearch rejects non-positive settings")
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new WindowedSearch(0, 4));
+        assertThrows(IllegalArgumentException.class, () -> new WindowedSearch(100, 0));
+    }
+
+    // Main method to run tests via JBang
+    public static void main(String[] args) {
+        var launcher = org.junit.platform.launcher.core.LauncherFactory.create();
+        var listener = new org.junit.platform.launcher.listeners.SummaryGeneratingListener();
+
+        launcher.registerTestExecutionListeners(listener);
+        launcher.execute(org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request()
+            .selectors(org.junit.platform.engine.discovery.DiscoverySelectors.selectClass(WindowedSearchTest.class))
+            .build());
+
+        listener.getSummary().printTo(new java.io.PrintWriter(System.out));
+        if (listener.getSummary().getTotalFailureCount() > 0) System.exit(1);
+    }
+}
@@ -13,6 +13,7 @@ public class MockActivityPort implements ActivityPort {
     private List<PullRequest> stubbedPullRequests = new ArrayList<>();
     private List<Issue> stubbedIssues = new ArrayList<>();
     private List<Review> stubbedReviews = new ArrayList<>();
+    private RuntimeException stubbedFailure;
 
     // Call tracking
     private int fetchCommitsCalls = 0;
@@ -41,6 +42,13 @@ public class MockActivityPort implements ActivityPort {
         this.stubbedReviews = new ArrayList<>(reviews);
     }
 
+    /**
+     * Make every fetch throw, like an adapter reporting a failed search (null to succeed again).
+     */
+    public void stubFailure(RuntimeException failure) {
+        this.stubbedFailure = failure;
+    }
+
     // --- Port interface implementation ---
 
     @Override
@@ -49,6 +57,9 @@ public class MockActivityPort implements ActivityPort {
         lastUsername = username;
         lastDateRange = range;
         lastRepository = repo;
+        if (stubbedFailure != null) {
+            throw stubbedFailure;
+        }
         return stubbedCommits;
     }
 
@@ -58,6 +69,9 @@ public class MockActivityPort implements ActivityPort {
         lastUsername = username;
         lastDateRange = range;
         lastRepository = repo;
+        if (stubbedFailure != null) {
+            throw stubbedFailure;
+        }
         return stubbedPullRequests;
     }
 
@@ -67,6 +81,9 @@ public class MockActivityPort implements ActivityPort {
         lastUsername = username;
         lastDateRange = range;
         lastRepository = repo;
+        if (stubbedFailure != null) {
+            throw stubbedFailure;
+        }
         return stubbedIssues;
     }
 
@@ -76,6 +93,9 @@ public class MockActivityPort implements ActivityPort {
         lastUsername = username;
         lastDateRange = range;
         lastRepository = repo;
+        if (stubbedFailure != null) {
+            throw stubbedFailure;
+        }
         return stubbedReviews;
     }
 
@@ -114,6 +134,7 @@ public class MockActivityPort implements ActivityPort {
         stubbedPullRequests.clear();
         stubbedIssues.clear();
         stubbedReviews.clear();
+        stubbedFailure = null;
         fetchCommitsCalls = 0;
         fetchPullRequestsCalls = 0;
         fetchIssuesCalls = 0;
@@ -0,0 +1,311 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS com.google.code.gson:gson:2.10.1
+//DEPS org.junit.jupiter:junit-jupiter:5.10.0
+//DEPS org.junit.platform:junit-platform-launcher:1.10.0
+//SOURCES ../../scripts/AnalyzeDiffs.java
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for the streaming diff parser and the diff cache keyed by head SHA.
+ */
+public class AnalyzeDiffsTest {
+
+    private static final String MULTI_FILE_DIFF = """
+        diff --git a/src/App.java b/src/App.java
+        index 1111111..2222222 100644
+        --- a/src/App.java
+        +++ b/src/App.java
+        @@ -1,4 +1,5 @@
+         class App {
+        -    int x;
+        +    int x = 1;
+        +    int y;
+
+         }
+        diff --git a/docs/notes.md b/docs/notes.md
+        new file mode 100644
+        --- /dev/null
+        +++ b/docs/notes.md
+        @@ -0,0 +1,3 @@
+        +# Notes
+        +
+        +--- not a header, just a rule
+        diff --git a/old.txt b/old.txt
+        deleted file mode 100644
+        --- a/old.txt
+        +++ /dev/null
+        @@ -1,2 +0,0 @@
+        -first
+        ---- a removed line that starts with dashes
+        """;
+
+    @TempDir
+    Path cacheDir;
+
+    private Path originalCacheDir;
+    private long originalMaxBytes;
+
+    @BeforeEach
+    void useTempCache() {
+        originalCacheDir = AnalyzeDiffs.CACHE_DIR;
+        originalMaxBytes = AnalyzeDiffs.CACHE_MAX_BYTES;
+        AnalyzeDiffs.CACHE_DIR = cacheDir;
+    }
+
+    @AfterEach
+    void restoreCache() {
+        AnalyzeDiffs.CACHE_DIR = originalCacheDir;
+        AnalyzeDiffs.CACHE_MAX_BYTES = originalMaxBytes;
+    }
+
+    /**
+     * The parser as it was before it streamed: split the whole diff into lines first.
+     */
+    private static AnalyzeDiffs.DiffSummary parseWholeString(String diffContent) {
+        AnalyzeDiffs.DiffSummary summary = new AnalyzeDiffs.DiffSummary();
+        Map<String, AnalyzeDiffs.FileStat> fileStats = new HashMap<>();
+        String currentFile = null;
+        for (String line : diffContent.split("\n")) {
+            if (line.startsWith("diff --git")) {
+                String[] parts = line.split(" ");
+                if (parts.length >= 4) {
+                    currentFile = parts[3].substring(2);
+                    fileStats.put(currentFile, new AnalyzeDiffs.FileStat(currentFile));
+                }
+            } else if (currentFile != null) {
+                if (line.startsWith("+") && !line.startsWith("+++")) {
+                    fileStats.get(currentFile).additions++;
+                } else if (line.startsWith("-") && !line.startsWith("---")) {
+                    fileStats.get(currentFile).deletions++;
+                }
+            }
+        }
+        for (AnalyzeDiffs.FileStat stat : fileStats.values()) {
+            summary.files.add(stat);
+            summary.totalAdditions += stat.additions;
+            summary.totalDeletions += stat.deletions;
+        }
+        summary.filesChanged = fileStats.size();
+        return summary;
+    }
+
+    private static AnalyzeDiffs.DiffSummary stream(String diff) throws IOException {
+        return AnalyzeDiffs.parseDiff(new BufferedReader(new StringReader(diff)));
+    }
+
+    /**
+     * Per-file counts as "file +a -d", independent of file order.
+     */
+    private static List<String> stats(AnalyzeDiffs.DiffSummary summary) {
+        return summary.files.stream()
+            .map(stat -> stat.file + " +" + stat.additions + " -" + stat.deletions)
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+    private static void assertSameSummary(AnalyzeDiffs.DiffSummary expected, AnalyzeDiffs.DiffSummary actual) {
+        assertEquals(expected.filesChanged, actual.filesChanged);
+        assertEquals(expected.totalAdditions, actual.totalAdditions);
+        assertEquals(expected.totalDeletions, actual.totalDeletions);
+        assertEquals(stats(expected), stats(actual));
+    }
+
+    private static AnalyzeDiffs.DiffSummary summary(String file, int additions, int deletions) {
+        AnalyzeDiffs.DiffSummary summary = new AnalyzeDiffs.DiffSummary();
+        AnalyzeDiffs.FileStat stat = new AnalyzeDiffs.FileStat(file);
+        stat.additions = additions;
+        stat.deletions = deletions;
+        summary.files.add(stat);
+        summary.filesChanged = 1;
+        summary.totalAdditions = additions;
+        summary.totalDeletions = deletions;
+        return summary;
+    }
+
+    private static JsonObject pr(String repo, int number) {
+        JsonObject repository = new JsonObject();
+        repository.addProperty("nameWithOwner", repo);
+        JsonObject pr = new JsonObject();
+        pr.addProperty("number", number);
+        pr.add("repository", repository);
+        return pr;
+    }
+
+    // --- Streaming parser ---
+
+    @Test
+    @DisplayName("A multi-file diff parses the same as with the whole-string parser")
+    void multiFileDiffMatchesStringParser() throws IOException {
+        AnalyzeDiffs.DiffSummary streamed = stream(MULTI_FILE_DIFF);
+
+        assertSameSummary(parseWholeString(MULTI_FILE_DIFF), streamed);
+        assertEquals(List.of("docs/notes.md +3 -0", "old.txt +0 -1", "src/App.java +2 -1"), stats(streamed));
+    }
+
+    @Test
+    @DisplayName("+++ and --- file headers are not counted as changed lines")
+    void fileHeadersAreNotCounted() throws IOException {
+        String diff = """
+            diff --git a/a.txt b/a.txt
+            --- a/a.txt
+            +++ b/a.txt
+            @@ -1 +1 @@
+            -old
+            +new
+            """;
+
+        AnalyzeDiffs.DiffSummary streamed = stream(diff);
+
+        assertSameSummary(parseWholeString(diff), streamed);
+        assertEquals(List.of("a.txt +1 -1"), stats(streamed));
+    }
+
+    @Test
+    @DisplayName("Empty lines, CRLF content and text before the first file are handled like the string parser")
+    void emptyLinesAndPreamble() throws IOException {
+        String diff = "From: someone\n+not in a file\n\n" +
+            // git keeps a file's CRLF endings in content lines; headers end in LF
+            "diff --git a/b.txt b/b.txt\n--- a/b.txt\n+++ b/b.txt\n@@ -1,3 +1,3 @@\n \r\n-gone\r\n+here\r\n\n\n";
+
+        AnalyzeDiffs.DiffSummary streamed = stream(diff);
+
+        assertSameSummary(parseWholeString(diff), streamed);
+        assertEquals(List.of("b.txt +1 -1"), stats(streamed));
+        assertSameSummary(parseWholeString(""), stream(""));
+        assertEquals(0, AnalyzeDiffs.parseDiff((String) null).filesChanged);
+    }
+
+    @Test
+    @DisplayName("A stream cut off mid-file or mid-line keeps the counts read so far")
+    void truncatedStream() throws IOException {
+        for (int cut : List.of(10, 60, MULTI_FILE_DIFF.indexOf("+# Notes") + 3, MULTI_FILE_DIFF.length() - 5)) {
+            String truncated = MULTI_FILE_DIFF.substring(0, cut);
+
+            assertSameSummary(parseWholeString(truncated), stream(truncated));
+        }
+    }
+
+    @Test
+    @DisplayName("A read error from the stream is reported, not swallowed")
+    void readErrorPropagates() {
+        Reader failing = new Reader() {
+            private final Reader head = new StringReader("diff --git a/a.txt b/a.txt\n+one\n");
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                int read = head.read(buffer, offset, length);
+                if (read == -1) {
+                    throw new IOException("pipe closed");
+                }
+                return read;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        assertThrows(IOException.class, () -> AnalyzeDiffs.parseDiff(new BufferedReader(failing)));
+    }
+
+    // --- Diff cache ---
+
+    @Test
+    @DisplayName("The cache key covers repository, PR number and head SHA")
+    void cacheKey() {
+        Path file = AnalyzeDiffs.cachedDiffFile("owner/repo", 7, "abc");
+
+        assertEquals(cacheDir, file.getParent());
+        assertTrue(file.getFileName().toString().matches("[0-9a-f]{64}\\.json"));
+        assertEquals(file, AnalyzeDiffs.cachedDiffFile("owner/repo", 7, "abc"));
+        assertNotEquals(file, AnalyzeDiffs.cachedDiffFile("owner/repo", 7, "abd"), "a new push is a new entry");
+        assertNotEquals(file, AnalyzeDiffs.cachedDiffFile("owner/repo", 8, "abc"));
+        assertNotEquals(file, AnalyzeDiffs.cachedDiffFile("owner/other", 7, "abc"));
+    }
+
+    @Test
+    @DisplayName("A cached diff is read back, and a cached PR is not diffed again")
+    void cachedDiffIsReused() {
+        AnalyzeDiffs.cacheDiff("owner/repo", 7, "abc", summary("src/App.java", 3, 1));
+
+        assertEquals(List.of("src/App.java +3 -1"), stats(AnalyzeDiffs.readCachedDiff("owner/repo", 7, "abc")));
+        assertNull(AnalyzeDiffs.readCachedDiff("owner/repo", 7, "def"));
+        // Served from the cache: no gh call is made for this PR
+        assertEquals(List.of("src/App.java +3 -1"),
+            stats(AnalyzeDiffs.analyzePR(pr("owner/repo", 7), Map.of("owner/repo#7", "abc"))));
+    }
+
+    @Test
+    @DisplayName("Empty or missing results and PRs without a head SHA are not cached")
+    void emptyResultsAreNotCached() throws IOException {
+        AnalyzeDiffs.cacheDiff("owner/repo", 1, "abc", new AnalyzeDiffs.DiffSummary());
+        AnalyzeDiffs.cacheDiff("owner/repo", 2, "abc", null);
+        AnalyzeDiffs.cacheDiff("owner/repo", 3, null, summary("a.txt", 1, 0));
+
+        try (var files = Files.list(cacheDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Eviction deletes least recently used entries until the cache fits")
+    void evictsLeastRecentlyUsed() throws IOException {
+        Instant base = Instant.parse("2024-01-01T00:00:00Z");
+        for (int pr = 1; pr <= 4; pr++) {
+            AnalyzeDiffs.cacheDiff("owner/repo", pr, "sha", summary("file" + pr + ".txt", pr, 0));
+            Files.setLastModifiedTime(AnalyzeDiffs.cachedDiffFile("owner/repo", pr, "sha"),
+                FileTime.from(base.plusSeconds(pr * 60L)));
+        }
+        // Reading PR 1 marks it as the most recently used
+        assertNotNull(AnalyzeDiffs.readCachedDiff("owner/repo", 1, "sha"));
+        long entrySize = Files.size(AnalyzeDiffs.cachedDiffFile("owner/repo", 1, "sha"));
+        AnalyzeDiffs.CACHE_MAX_BYTES = entrySize * 2 + entrySize / 2;
+
+        AnalyzeDiffs.evictDiffCache();
+
+        List<Integer> kept;
+        try (var files = Files.list(cacheDir)) {
+            List<Path> remaining = files.sorted(Comparator.naturalOrder()).toList();
+            kept = List.of(1, 2, 3, 4).stream()
+                .filter(pr -> remaining.contains(AnalyzeDiffs.cachedDiffFile("owner/repo", pr, "sha")))
+                .toList();
+        }
+        assertEquals(List.of(1, 4), kept);
+    }
+
+    // Main method to run tests via JBang
+    public static void main(String[] args) {
+        var launcher = org.junit.platform.launcher.core.LauncherFactory.create();
+        var listener = new org.junit.platform.launcher.listeners.SummaryGeneratingListener();
+
+        launcher.registerTestExecutionListeners(listener);
+        launcher.execute(org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request()
+            .selectors(org.junit.platform.engine.discovery.DiscoverySelectors.selectClass(AnalyzeDiffsTest.class))
+            .build());
+
+        listener.getSummary().printTo(new java.io.PrintWriter(System.out));
+        if (listener.getSummary().getTotalFailureCount() > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,242 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS com.google.code.gson:gson:2.10.1
+//DEPS org.junit.jupiter:junit-jupiter:5.10.0
+//DEPS org.junit.platform:junit-platform-launcher:1.10.0
+//SOURCES ../../scripts/CollectActivity.java
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the incremental collection watermark and the state refresh of carried-over items.
+ */
+public class CollectActivityTest {
+
+    private static final LocalDate SINCE = LocalDate.of(2024, 1, 1);
+
+    private static Instant noonOn(LocalDate day) {
+        return day.atTime(12, 0).atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static JsonObject pr(int number, String state, LocalDate created) {
+        JsonObject repo = new JsonObject();
+        repo.addProperty("nameWithOwner", "o/app");
+        JsonObject pr = new JsonObject();
+        pr.addProperty("number", number);
+        pr.addProperty("title", "PR " + number);
+        pr.addProperty("state", state);
+        pr.addProperty("url", "https://github.com/o/app/pull/" + number);
+        pr.addProperty("createdAt", noonOn(created).toString());
+        pr.add("repository", repo);
+        return pr;
+    }
+
+    private static String json(JsonObject... items) {
+        JsonArray array = new JsonArray();
+        for (JsonObject item : items) {
+            array.add(item);
+        }
+        return array.toString();
+    }
+
+    private static JsonObject watermark(LocalDate lastRun, LocalDate coveredSince, JsonObject... items) {
+        JsonObject section = new JsonObject();
+        section.addProperty("lastRun", noonOn(lastRun).toString());
+        section.addProperty("coveredSince", coveredSince.toString());
+        section.add("items", JsonParser.parseString(json(items)));
+        JsonObject watermark = new JsonObject();
+        watermark.add("pull_requests", section);
+        return watermark;
+    }
+
+    private static JsonArray merge(JsonObject watermark, String freshJson, LocalDate fetchedSince) {
+        return CollectActivity.mergeWithWatermark(watermark, "pull_requests", freshJson, SINCE, fetchedSince,
+            noonOn(LocalDate.of(2024, 1, 10)), CollectActivity::itemKey, CollectActivity::createdDate);
+    }
+
+    private static List<Integer> numbers(JsonArray items) {
+        return items.asList().stream().map(item -> item.getAsJsonObject().get("number").getAsInt()).toList();
+    }
+
+    // --- fetchSince ---
+
+    @Test
+    @DisplayName("Without a watermark the whole window is searched")
+    void fetchSinceWithoutWatermark() {
+        assertEquals(SINCE, CollectActivity.fetchSince(new JsonObject(), "pull_requests", SINCE));
+    }
+
+    @Test
+    @DisplayName("A covering watermark narrows the search to the day before the last run")
+    void fetchSinceNarrowsToDelta() {
+        JsonObject watermark = watermark(LocalDate.of(2024, 1, 5), SINCE);
+
+        assertEquals(LocalDate.of(2024, 1, 4), CollectActivity.fetchSince(watermark, "pull_requests", SINCE));
+    }
+
+    @Test
+    @DisplayName("A watermark that does not cover the start of the window is ignored")
+    void fetchSinceIgnoresNarrowerSnapshot() {
+        JsonObject watermark = watermark(LocalDate.of(2024, 1, 5), SINCE.plusDays(2));
+
+        assertEquals(SINCE, CollectActivity.fetchSince(watermark, "pull_requests", SINCE));
+    }
+
+    @Test
+    @DisplayName("A last run before the window start searches the whole window")
+    void fetchSinceWithOldLastRun() {
+        JsonObject watermark = watermark(SINCE.minusDays(3), SINCE.minusDays(10));
+
+        assertEquals(SINCE, CollectActivity.fetchSince(watermark, "pull_requests", SINCE));
+    }
+
+    @Test
+    @DisplayName("A malformed watermark searches the whole window")
+    void fetchSinceWithMalformedWatermark() {
+        JsonObject section = new JsonObject();
+        section.addProperty("lastRun", "yesterday");
+        section.addProperty("coveredSince", SINCE.toString());
+        JsonObject watermark = new JsonObject();
+        watermark.add("pull_requests", section);
+
+        assertEquals(SINCE, CollectActivity.fetchSince(watermark, "pull_requests", SINCE));
+    }
+
+    // --- mergeWithWatermark ---
+
+    @Test
+    @DisplayName("A full fetch stores its results as the new snapshot")
+    void fullFetchStoresSnapshot() {
+        JsonObject watermark = new JsonObject();
+
+        JsonArray items = merge(watermark, json(pr(1, "open", LocalDate.of(2024, 1, 3))), SINCE);
+
+        assertEquals(List.of(1), numbers(items));
+        JsonObject section = watermark.getAsJsonObject("pull_requests");
+        assertEquals(SINCE.toString(), section.get("coveredSince").getAsString());
+        assertEquals(noonOn(LocalDate.of(2024, 1, 10)).toString(), section.get("lastRun").getAsString());
+        assertEquals(items, section.getAsJsonArray("items"));
+    }
+
+    @Test
+    @DisplayName("An incremental fetch merges into the snapshot and fresh entries win")
+    void incrementalFetchMerges() {
+        JsonObject watermark = watermark(LocalDate.of(2024, 1, 5), SINCE,
+            pr(1, "open", LocalDate.of(2024, 1, 2)), pr(2, "open", LocalDate.of(2024, 1, 4)));
+
+        JsonArray items = merge(watermark,
+            json(pr(2, "merged", LocalDate.of(2024, 1, 4)), pr(3, "open", LocalDate.of(2024, 1, 6))),
+            LocalDate.of(2024, 1, 4));
+
+        assertEquals(List.of(2, 3, 1), numbers(items));
+        assertEquals("merged", items.get(0).getAsJsonObject().get("state").getAsString());
+        assertEquals(3, watermark.getAsJsonObject("pull_requests").getAsJsonArray("items").size());
+    }
+
+    @Test
+    @DisplayName("Stored items older than the window are dropped")
+    void dropsItemsBeforeWindow() {
+        JsonObject watermark = watermark(LocalDate.of(2024, 1, 5), SINCE.minusDays(5),
+            pr(1, "open", SINCE.minusDays(2)), pr(2, "open", LocalDate.of(2024, 1, 3)));
+
+        JsonArray items = merge(watermark, json(), LocalDate.of(2024, 1, 4));
+
+        assertEquals(List.of(2), numbers(items));
+    }
+
+    @Test
+    @DisplayName("A failed incremental search reuses the snapshot and keeps the watermark")
+    void failedSearchKeepsWatermark() {
+        JsonObject watermark = watermark(LocalDate.of(2024, 1, 5), SINCE, pr(1, "open", LocalDate.of(2024, 1, 2)));
+        String before = watermark.toString();
+
+        JsonArray items = merge(watermark, null, LocalDate.of(2024, 1, 4));
+
+        assertEquals(List.of(1), numbers(items));
+        assertEquals(before, watermark.toString());
+    }
+
+    @Test
+    @DisplayName("A failed full search returns nothing and stores nothing")
+    void failedFullSearch() {
+        JsonObject watermark = new JsonObject();
+
+        JsonArray items = merge(watermark, null, SINCE);
+
+        assertEquals(0, items.size());
+        assertFalse(watermark.has("pull_requests"));
+    }
+
+    // --- State refresh ---
+
+    @Test
+    @DisplayName("Only open items carried over from the snapshot are refreshed")
+    void carriedOpenItemsSkipsFreshAndClosed() {
+        JsonObject watermark = watermark(LocalDate.of(2024, 1, 5), SINCE,
+            pr(1, "open", LocalDate.of(2024, 1, 2)), pr(2, "closed", LocalDate.of(2024, 1, 2)),
+            pr(3, "open", LocalDate.of(2024, 1, 4)));
+        String fresh = json(pr(3, "open", LocalDate.of(2024, 1, 4)));
+
+        JsonArray items = merge(watermark, fresh, LocalDate.of(2024, 1, 4));
+        List<JsonObject> carried = CollectActivity.carriedOpenItems(items, fresh);
+
+        assertEquals(List.of(1), carried.stream().map(item -> item.get("number").getAsInt()).toList());
+    }
+
+    @Test
+    @DisplayName("One query covers every repository and number")
+    void stateQueryBatchesItems() {
+        Map<String, List<JsonObject>> byRepo = new LinkedHashMap<>();
+        byRepo.put("o/app", List.of(pr(1, "open", SINCE), pr(2, "open", SINCE)));
+        byRepo.put("o/lib", List.of(pr(7, "open", SINCE)));
+
+        String query = CollectActivity.stateQuery(byRepo);
+
+        assertTrue(query.contains("r0: repository(owner: \"o\", name: \"app\")"), query);
+        assertTrue(query.contains("n1: issueOrPullRequest(number: 1)"), query);
+        assertTrue(query.contains("n2: issueOrPullRequest(number: 2)"), query);
+        assertTrue(query.contains("r1: repository(owner: \"o\", name: \"lib\") { n7: issueOrPullRequest(number: 7)"), query);
+    }
+
+    @Test
+    @DisplayName("Resolved states update items in place; unresolved ones keep the stored state")
+    void applyStatesUpdatesInPlace() {
+        JsonObject merged = pr(1, "open", SINCE);
+        JsonObject deleted = pr(2, "open", SINCE);
+        Map<String, List<JsonObject>> byRepo = Map.of("o/app", List.of(merged, deleted));
+        JsonObject data = JsonParser.parseString(
+            "{\"r0\": {\"n1\": {\"state\": \"MERGED\"}, \"n2\": null}}").getAsJsonObject();
+
+        int resolved = CollectActivity.applyStates(data, byRepo);
+
+        assertEquals(1, resolved);
+        assertEquals("merged", merged.get("state").getAsString());
+        assertEquals("open", deleted.get("state").getAsString());
+    }
+
+    // Main method to run tests via JBang
+    public static void main(String[] args) {
+        var launcher = org.junit.platform.launcher.core.LauncherFactory.create();
+        var listener = new org.junit.platform.launcher.listeners.SummaryGeneratingListener();
+
+        launcher.registerTestExecutionListeners(listener);
+        launcher.execute(org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request()
+            .selectors(org.junit.platform.engine.discovery.DiscoverySelectors.selectClass(CollectActivityTest.class))
+            .build());
+
+        listener.getSummary().printTo(new java.io.PrintWriter(System.out));
+        if (listener.getSummary().getTotalFailureCount() > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,232 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS com.google.code.gson:gson:2.10.1
+//DEPS org.junit.jupiter:junit-jupiter:5.10.0
+//DEPS org.junit.platform:junit-platform-launcher:1.10.0
+//SOURCES ../../scripts/LocalChangesDaemon.java
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Tests for the local changes daemon against repositories built by the local git binary.
+ */
+@Timeout(60)
+public class LocalChangesDaemonTest {
+
+    @TempDir
+    Path temp;
+
+    private Path repo;
+    private Thread daemon;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repo = temp.resolve("repo");
+        Files.createDirectories(repo);
+        git(repo, "init", "-q", "-b", "main");
+        write(repo, ".gitignore", "build/\n");
+        write(repo, "README.md", "# readme\n");
+        write(repo, "src/App.java", "class App {}\n");
+        git(repo, "add", ".");
+        git(repo, "commit", "-q", "-m", "initial");
+
+        LocalChangesDaemon.SOCKET_PATH = temp.resolve("daemon.sock");
+        ConfigManager.Config config = new ConfigManager.Config();
+        ConfigManager.Directory dir = new ConfigManager.Directory();
+        dir.id = "repo";
+        dir.path = repo.toString();
+        dir.branch = "main";
+        config.directories.add(dir);
+
+        daemon = new Thread(() -> {
+            try {
+                LocalChangesDaemon.serve(config);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }, "test-daemon");
+        daemon.setDaemon(true);
+        daemon.start();
+        awaitQuery("repo", repo, changes -> true);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        LocalChangesDaemon.stop();
+        daemon.join(10_000);
+    }
+
+    // --- Query and refresh ---
+
+    @Test
+    @DisplayName("A query answers with the directory's local changes")
+    void answersQuery() {
+        JsonObject changes = LocalChangesDaemon.query("repo", repo.toString(), "main");
+
+        assertNotNull(changes);
+        assertEquals("repo", changes.get("directoryId").getAsString());
+        assertFalse(uncommitted(changes).get("hasChanges").getAsBoolean());
+    }
+
+    @Test
+    @DisplayName("A working tree edit and a later git add both reach the snapshot")
+    void refreshesOnChanges() throws Exception {
+        write(repo, "src/App.java", "class App { int x; }\n");
+        awaitQuery("repo", repo, changes -> files(changes, "unstaged").contains("src/App.java"));
+
+        git(repo, "add", "src/App.java");
+        JsonObject staged = awaitQuery("repo", repo, changes -> files(changes, "staged").contains("src/App.java"));
+
+        assertEquals(List.of(), files(staged, "unstaged"));
+    }
+
+    @Test
+    @DisplayName("A git add in a linked worktree is seen through its real git dir")
+    void watchesLinkedWorktree() throws Exception {
+        Path worktree = temp.resolve("wt");
+        git(repo, "worktree", "add", "-q", "-b", "feature", worktree.toString());
+        write(worktree, "src/App.java", "class App { int y; }\n");
+        awaitQuery("wt", worktree, changes -> files(changes, "unstaged").contains("src/App.java"));
+
+        // Only the worktree's index changes: .git there is a file, the index lives under repo/.git/worktrees
+        git(worktree, "add", "src/App.java");
+
+        awaitQuery("wt", worktree, changes -> files(changes, "staged").contains("src/App.java"));
+    }
+
+    @Test
+    @DisplayName("Stop ends the daemon and removes its socket")
+    void stops() throws Exception {
+        assertTrue(LocalChangesDaemon.stop());
+        daemon.join(10_000);
+
+        assertFalse(daemon.isAlive());
+        assertFalse(Files.exists(LocalChangesDaemon.SOCKET_PATH));
+        assertNull(LocalChangesDaemon.query("repo", repo.toString(), "main"));
+        assertFalse(LocalChangesDaemon.stop());
+    }
+
+    // --- Watching ---
+
+    @Test
+    @DisplayName("New ignored directories are not watched; new source directories are")
+    void skipsNewIgnoredDirectories() throws Exception {
+        int before = LocalChangesDaemon.watchCount();
+
+        Files.createDirectories(repo.resolve("build/classes/main/com/example"));
+        Files.createDirectories(repo.resolve("src/feature"));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (LocalChangesDaemon.watchCount() == before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Thread.sleep(300);  // Let any late registrations under build/ land
+
+        assertEquals(before + 1, LocalChangesDaemon.watchCount());
+    }
+
+    @Test
+    @DisplayName("New directories in the git dir are only watched under refs")
+    void filtersNewGitDirDirectories() throws Exception {
+        LocalChangesDaemon.WatchedDirectory dir = new LocalChangesDaemon.WatchedDirectory("repo", repo.toString(), "main");
+        dir.root = repo;
+        dir.gitDirs = List.of(repo.resolve(".git"));
+
+        assertFalse(LocalChangesDaemon.shouldWatchNewDirectory(dir, repo.resolve(".git/objects/ab")));
+        assertFalse(LocalChangesDaemon.shouldWatchNewDirectory(dir, repo.resolve(".git/rebase-merge")));
+        assertTrue(LocalChangesDaemon.shouldWatchNewDirectory(dir, repo.resolve(".git/refs/heads/feature")));
+        assertTrue(LocalChangesDaemon.shouldWatchNewDirectory(dir, repo.resolve(".git/refs/remotes/origin")));
+        assertFalse(LocalChangesDaemon.shouldWatchNewDirectory(dir, repo.resolve("build/out")));
+        assertTrue(LocalChangesDaemon.shouldWatchNewDirectory(dir, repo.resolve("src/feature")));
+    }
+
+    @Test
+    @DisplayName("The git dir of a linked worktree and its common dir are both resolved")
+    void resolvesWorktreeGitDirs() throws Exception {
+        Path worktree = temp.resolve("wt");
+        git(repo, "worktree", "add", "-q", "-b", "feature", worktree.toString());
+
+        List<Path> dirs = new ArrayList<>();
+        for (Path dir : LocalChangesDaemon.gitDirs(worktree)) {
+            dirs.add(dir.toRealPath());
+        }
+
+        assertEquals(List.of(repo.resolve(".git/worktrees/wt").toRealPath(), repo.resolve(".git").toRealPath()), dirs);
+        assertEquals(List.of(repo.resolve(".git")), LocalChangesDaemon.gitDirs(repo));
+    }
+
+    // --- Helpers ---
+
+    private static JsonObject uncommitted(JsonObject changes) {
+        return changes.getAsJsonObject("uncommitted");
+    }
+
+    private static List<String> files(JsonObject changes, String kind) {
+        List<String> files = new ArrayList<>();
+        JsonArray array = uncommitted(changes).getAsJsonArray(kind);
+        array.forEach(file -> files.add(file.getAsString()));
+        return files;
+    }
+
+    /**
+     * Query until the answer matches; the daemon refreshes asynchronously after file events.
+     */
+    private static JsonObject awaitQuery(String id, Path path, Predicate<JsonObject> matches) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        JsonObject last = null;
+        while (System.currentTimeMillis() < deadline) {
+            last = LocalChangesDaemon.query(id, path.toString(), "main");
+            if (last != null && matches.test(last)) {
+                return last;
+            }
+            Thread.sleep(50);
+        }
+        fail("No matching answer from the daemon; last: " + last);
+        return null;
+    }
+
+    private static void write(Path root, String path, String content) throws IOException {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private static void git(Path dir, String... args) throws Exception {
+        List<String> command = new ArrayList<>(List.of("git",
+            "-c", "user.name=Test", "-c", "user.email=test@example.com", "-c", "commit.gpgsign=false"));
+        command.addAll(List.of(args));
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.directory(dir.toFile());
+        pb.redirectErrorStream(true);
+        pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        assertEquals(0, pb.start().waitFor(), "git " + String.join(" ", args));
+    }
+
+    // Main method to run tests via JBang
+    public static void main(String[] args) {
+        var launcher = org.junit.platform.launcher.core.LauncherFactory.create();
+        var listener = new org.junit.platform.launcher.listeners.SummaryGeneratingListener();
+
+        launcher.registerTestExecutionListeners(listener);
+        launcher.execute(org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request()
+            .selectors(org.junit.platform.engine.discovery.DiscoverySelectors.selectClass(LocalChangesDaemonTest.class))
+            .build());
+
+        listener.getSummary().printTo(new java.io.PrintWriter(System.out));
+        if (listener.getSummary().getTotalFailureCount() > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,180 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS com.google.code.gson:gson:2.10.1
+//DEPS org.junit.jupiter:junit-jupiter:5.10.0
+//DEPS org.junit.platform:junit-platform-launcher:1.10.0
+//SOURCES ../../scripts/LocalChangesDetector.java
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+/**
+ * Tests for parsing `git status --porcelain=v2 --branch -z` output.
+ */
+public class LocalChangesDetectorTest {
+
+    /**
+     * Status output as git writes it with -z: every record terminated by NUL.
+     */
+    private static String status(String... records) {
+        StringBuilder output = new StringBuilder();
+        for (String record : records) {
+            output.append(record).append('\0');
+        }
+        return output.toString();
+    }
+
+    private static String ordinary(String xy, String path) {
+        return "1 " + xy + " N... 100644 100644 100644 " + "a".repeat(40) + " " + "b".repeat(40) + " " + path;
+    }
+
+    private static String renamed(String xy, String score, String path) {
+        return "2 " + xy + " N... 100644 100644 100644 " + "a".repeat(40) + " " + "b".repeat(40) + " " + score + " " + path;
+    }
+
+    private static String unmerged(String xy, String path) {
+        return "u " + xy + " N... 100644 100644 100644 100644 " + "a".repeat(40) + " " + "b".repeat(40) + " " +
+            "c".repeat(40) + " " + path;
+    }
+
+    // --- Changed entries ---
+
+    @Test
+    @DisplayName("Ordinary entries are staged and/or unstaged by their XY code")
+    void ordinaryEntries() {
+        // XY code, expected staged, expected unstaged
+        Object[][] table = {
+            {"M.", true, false},
+            {".M", false, true},
+            {"MM", true, true},
+            {"A.", true, false},
+            {"AM", true, true},
+            {"D.", true, false},
+            {".D", false, true},
+            {".T", false, true},
+        };
+
+        for (Object[] row : table) {
+            String xy = (String) row[0];
+            LocalChangesDetector.StatusSnapshot parsed = LocalChangesDetector.parseStatus(status(ordinary(xy, "src/App.java")));
+
+            assertEquals(row[1], parsed.staged.contains("src/App.java"), xy + " staged");
+            assertEquals(row[2], parsed.unstaged.contains("src/App.java"), xy + " unstaged");
+        }
+    }
+
+    @Test
+    @DisplayName("Paths with spaces are kept whole")
+    void pathsWithSpaces() {
+        LocalChangesDetector.StatusSnapshot parsed = LocalChangesDetector.parseStatus(
+            status(ordinary(".M", "docs/release notes v2.md")));
+
+        assertEquals(List.of("docs/release notes v2.md"), parsed.unstaged);
+    }
+
+    @Test
+    @DisplayName("Rename and copy records report the new path and consume the source path field")
+    void renameAndCopyEntries() {
+        // The source paths look like records; they must be skipped, not parsed
+        LocalChangesDetector.StatusSnapshot parsed = LocalChangesDetector.parseStatus(status(
+            renamed("R.", "R100", "src/New Name.java"), ordinary(".M", "src/Old.java"),
+            renamed("C.", "C75", "src/Copy.java"), "# branch.head evil",
+            renamed("RM", "R90", "lib/Moved.java"), "lib/Original.java",
+            ordinary(".M", "README.md")));
+
+        assertEquals(List.of("src/New Name.java", "src/Copy.java", "lib/Moved.java"), parsed.staged);
+        assertEquals(List.of("lib/Moved.java", "README.md"), parsed.unstaged);
+        assertNull(parsed.head, "a source path is never read as a branch header");
+    }
+
+    @Test
+    @DisplayName("Unmerged entries count as both staged and unstaged")
+    void unmergedEntries() {
+        // XY codes for the seven kinds of conflict
+        for (String xy : List.of("DD", "AU", "UD", "UA", "DU", "AA", "UU")) {
+            LocalChangesDetector.StatusSnapshot parsed = LocalChangesDetector.parseStatus(
+                status(unmerged(xy, "src/Conflict Both.java")));
+
+            assertEquals(List.of("src/Conflict Both.java"), parsed.staged, xy);
+            assertEquals(List.of("src/Conflict Both.java"), parsed.unstaged, xy);
+        }
+    }
+
+    @Test
+    @DisplayName("Untracked and ignored entries are skipped")
+    void untrackedAndIgnoredEntries() {
+        LocalChangesDetector.StatusSnapshot parsed = LocalChangesDetector.parseStatus(
+            status("? notes.txt", "! build/out.class", "? new dir/file.txt"));
+
+        assertTrue(parsed.staged.isEmpty());
+        assertTrue(parsed.unstaged.isEmpty());
+    }
+
+    // --- Branch headers ---
+
+    @Test
+    @DisplayName("Branch headers give the head, upstream and ahead count")
+    void branchHeaders() {
+        LocalChangesDetector.StatusSnapshot parsed = LocalChangesDetector.parseStatus(status(
+            "# branch.oid " + "f".repeat(40), "# branch.head feature/login", "# branch.upstream origin/feature/login",
+            "# branch.ab +3 -1", ordinary("M.", "src/Login.java")));
+
+        assertFalse(parsed.initial);
+        assertEquals("feature/login", parsed.head);
+        assertEquals("origin/feature/login", parsed.upstream);
+        assertEquals(3, parsed.ahead);
+        assertEquals(List.of("src/Login.java"), parsed.staged);
+    }
+
+    @Test
+    @DisplayName("A repository without commits is initial; a gone upstream has no ahead count")
+    void initialAndGoneUpstream() {
+        LocalChangesDetector.StatusSnapshot initial = LocalChangesDetector.parseStatus(status(
+            "# branch.oid (initial)", "# branch.head main", ordinary("A.", "README.md")));
+        LocalChangesDetector.StatusSnapshot gone = LocalChangesDetector.parseStatus(status(
+            "# branch.oid " + "f".repeat(40), "# branch.head main", "# branch.upstream origin/main"));
+
+        assertTrue(initial.initial);
+        assertNull(initial.upstream);
+        assertNull(initial.ahead);
+        assertEquals("origin/main", gone.upstream);
+        assertNull(gone.ahead, "git omits branch.ab when the upstream ref is missing");
+    }
+
+    @Test
+    @DisplayName("A detached head and unknown headers are read without failing")
+    void detachedHeadAndUnknownHeaders() {
+        LocalChangesDetector.StatusSnapshot parsed = LocalChangesDetector.parseStatus(status(
+            "# branch.oid " + "f".repeat(40), "# branch.head (detached)", "# stash 2", "#"));
+
+        assertEquals("(detached)", parsed.head);
+        assertNull(parsed.ahead);
+    }
+
+    @Test
+    @DisplayName("Clean or empty output has no changes")
+    void emptyOutput() {
+        LocalChangesDetector.StatusSnapshot parsed = LocalChangesDetector.parseStatus("");
+
+        assertTrue(parsed.staged.isEmpty());
+        assertTrue(parsed.unstaged.isEmpty());
+        assertNull(parsed.head);
+    }
+
+    // Main method to run tests via JBang
+    public static void main(String[] args) {
+        var launcher = org.junit.platform.launcher.core.LauncherFactory.create();
+        var listener = new org.junit.platform.launcher.listeners.SummaryGeneratingListener();
+
+        launcher.registerTestExecutionListeners(listener);
+        launcher.execute(org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request()
+            .selectors(org.junit.platform.engine.discovery.DiscoverySelectors.selectClass(LocalChangesDetectorTest.class))
+            .build());
+
+        listener.getSummary().printTo(new java.io.PrintWriter(System.out));
+        if (listener.getSummary().getTotalFailureCount() > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,176 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+
+//DEPS com.google.code.gson:gson:2.10.1
+//DEPS org.junit.jupiter:junit-jupiter:5.10.0
+//DEPS org.junit.platform:junit-platform-launcher:1.10.0
+//SOURCES ../../scripts/StageIO.java
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the payload forms stages accept and for streaming payloads into a stage's stdin.
+ */
+public class StageIOTest {
+
+    @TempDir
+    Path temp;
+
+    private InputStream originalIn;
+
+    @BeforeEach
+    void saveStdin() {
+        originalIn = System.in;
+    }
+
+    @AfterEach
+    void restoreStdin() {
+        System.setIn(originalIn);
+    }
+
+    private static JsonObject activity(int items) {
+        JsonArray prs = new JsonArray();
+        for (int i = 0; i < items; i++) {
+            JsonObject pr = new JsonObject();
+            pr.addProperty("number", i);
+            pr.addProperty("title", "Pull request " + i + " – ünïcode");
+            pr.addProperty("url", "https://github.com/owner/repo/pull/" + i);
+            prs.add(pr);
+        }
+        JsonObject activity = new JsonObject();
+        activity.add("pull_requests", prs);
+        return activity;
+    }
+
+    // --- Reading payload arguments ---
+
+    @Test
+    @DisplayName("A literal argument is the payload itself")
+    void literalArgument() throws IOException {
+        assertEquals(JsonParser.parseString("{\"days\": 3}"), StageIO.readJson("{\"days\": 3}"));
+        assertEquals("plain text", StageIO.readText("plain text"));
+    }
+
+    @Test
+    @DisplayName("@path reads the payload from a UTF-8 file")
+    void fileArgument() throws IOException {
+        Path file = temp.resolve("activity.json");
+        JsonObject activity = activity(3);
+        Files.writeString(file, activity.toString(), StandardCharsets.UTF_8);
+
+        assertEquals(activity, StageIO.readJson("@" + file));
+        assertEquals(activity.toString(), StageIO.readText("@" + file));
+    }
+
+    @Test
+    @DisplayName("@path to a missing file fails instead of being read as a literal")
+    void missingFileArgument() {
+        assertThrows(NoSuchFileException.class, () -> StageIO.readJson("@" + temp.resolve("missing.json")));
+    }
+
+    @Test
+    @DisplayName("- reads the payload from stdin")
+    void stdinArgument() throws IOException {
+        JsonObject activity = activity(2);
+        System.setIn(new ByteArrayInputStream(activity.toString().getBytes(StandardCharsets.UTF_8)));
+        assertEquals(activity, StageIO.readJson(StageIO.STDIN));
+
+        System.setIn(new ByteArrayInputStream("prompt – text\n".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("prompt – text\n", StageIO.readText(StageIO.STDIN));
+    }
+
+    // --- Sending payloads ---
+
+    @Test
+    @DisplayName("JSON payloads are written compact")
+    void jsonPayloadIsCompact() throws IOException {
+        JsonObject activity = activity(1);
+        StringWriter out = new StringWriter();
+
+        StageIO.Payload.json(activity).writeTo(out);
+
+        assertFalse(out.toString().contains("\n"));
+        assertEquals(activity, JsonParser.parseString(out.toString()));
+    }
+
+    @Test
+    @Timeout(60)
+    @DisplayName("A payload far larger than the pipe buffer streams through a real process")
+    void largePayloadThroughPipe() throws Exception {
+        JsonObject activity = activity(50_000);  // Several MB, well past a 64 KB pipe buffer
+        Process cat = new ProcessBuilder("cat").start();
+
+        Thread writer = StageIO.send(cat, StageIO.Payload.json(activity));
+        // Read while the writer is still sending, as Main does with a stage's stdout
+        JsonElement echoed;
+        try (InputStreamReader reader = new InputStreamReader(cat.getInputStream(), StandardCharsets.UTF_8)) {
+            echoed = JsonParser.parseReader(reader);
+        }
+        writer.join(10_000);
+
+        assertEquals(0, cat.waitFor());
+        assertFalse(writer.isAlive());
+        assertEquals(activity, echoed);
+    }
+
+    @Test
+    @Timeout(60)
+    @DisplayName("A text payload reaches the stage unchanged")
+    void textPayloadThroughPipe() throws Exception {
+        String prompt = "## Standup – ünïcode\n".repeat(10_000);
+        Process cat = new ProcessBuilder("cat").start();
+
+        Thread writer = StageIO.send(cat, StageIO.Payload.text(prompt));
+        String echoed = new String(cat.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        writer.join(10_000);
+
+        assertEquals(prompt, echoed);
+    }
+
+    @Test
+    @Timeout(60)
+    @DisplayName("A stage that exits without reading its input does not fail the sender")
+    void stageExitsWithoutReading() throws Exception {
+        Process exits = new ProcessBuilder("true").start();
+        assertTrue(exits.waitFor(10, TimeUnit.SECONDS));
+
+        Thread writer = StageIO.send(exits, StageIO.Payload.json(activity(50_000)));
+        writer.join(10_000);
+
+        assertFalse(writer.isAlive(), "the broken pipe ends the writer");
+    }
+
+    // Main method to run tests via JBang
+    public static void main(String[] args) {
+        var launcher = org.junit.platform.launcher.core.LauncherFactory.create();
+        var listener = new org.junit.platform.launcher.listeners.SummaryGeneratingListener();
+
+        launcher.registerTestExecutionListeners(listener);
+        launcher.execute(org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request()
+            .selectors(org.junit.platform.engine.discovery.DiscoverySelectors.selectClass(StageIOTest.class))
+            .build());
+
+        listener.getSummary().printTo(new java.io.PrintWriter(System.out));
+        if (listener.getSummary().getTotalFailureCount() > 0) System.exit(1);
+    }
+}
@@ -23,6 +23,8 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * TDD tests for ActivityService.
@@ -150,6 +152,107 @@ public class ActivityServiceTest {
         assertEquals(5, result.days());
     }
 
+    @Test
+    @DisplayName("Concurrent mode merges all four searches into the Activity")
+    void concurrentModeMergesAllSearches() {
+        // Given
+        ActivityService concurrentService = new ActivityService(mockPort, true);
+        mockPort.stubCommits(List.of(new Commit("sha1", "msg", "user", null, null, null)));
+        mockPort.stubPullRequests(List.of(new PullRequest(1, "PR", "merged", null, null, 1, 1)));
+        mockPort.stubIssues(List.of(new Issue(2, "Issue", "open", null, null, null)));
+        mockPort.stubReviews(List.of(new Review(3, "APPROVED", null, null, null)));
+
+        // When
+        Activity result = concurrentService.collect("user", DateRange.lastDays(2), null);
+
+        // Then
+        assertEquals(4, result.totalCount());
+        assertEquals(1, mockPort.getFetchCommitsCalls());
+        assertEquals(1, mockPort.getFetchPullRequestsCalls());
+        assertEquals(1, mockPort.getFetchIssuesCalls());
+        assertEquals(1, mockPort.getFetchReviewsCalls());
+    }
+
+    @Test
+    @DisplayName("Concurrent mode runs the four searches in parallel")
+    void concurrentModeRunsSearchesInParallel() {
+        // Given - every search blocks until all four have started
+        BarrierActivityPort barrierPort = new BarrierActivityPort(4);
+        ActivityService concurrentService = new ActivityService(barrierPort, true);
+
+        // When
+        Activity result = concurrentService.collect("user", DateRange.lastDays(1), null);
+
+        // Then - sequential execution would time out on the first search
+        assertFalse(barrierPort.timedOut, "searches did not overlap");
+        assertEquals(0, result.totalCount());
+    }
+
+    @Test
+    @DisplayName("Concurrent mode propagates search failures")
+    void concurrentModePropagatesFailures() {
+        // Given
+        ActivityPort failingPort = new BarrierActivityPort(0) {
+            @Override
+            public List<Issue> fetchIssues(String username, DateRange range, Repository repo) {
+                throw new IllegalStateException("boom");
+            }
+        };
+        ActivityService concurrentService = new ActivityService(failingPort, true);
+
+        // When / Then
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> concurrentService.collect("user", DateRange.lastDays(1), null));
+        assertEquals("boom", e.getMessage());
+    }
+
+    /**
+     * Port whose searches wait on a shared latch, proving they run concurrently.
+     */
+    private static class BarrierActivityPort implements ActivityPort {
+        private final CountDownLatch started;
+        volatile boolean timedOut = false;
+
+        BarrierActivityPort(int parties) {
+            this.started = new CountDownLatch(parties);
+        }
+
+        private void arriveAndWait() {
+            started.countDown();
+            try {
+                if (!started.await(5, TimeUnit.SECONDS)) {
+                    timedOut = true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public List<Commit> fetchCommits(String username, DateRange range, Repository repo) {
+            arriveAndWait();
+            return List.of();
+        }
+
+        @Override
+        public List<PullRequest> fetchPullRequests(String username, DateRange range, Repository repo) {
+            arriveAndWait();
+            return List.of();
+        }
+
+        @Override
+        public List<Issue> fetchIssues(String username, DateRange range, Repository repo) {
+            arriveAndWait();
+            return List.of();
+        }
+
+        @Override
+        public List<Review> fetchReviews(String username, DateRange range, Repository repo) {
+            arriveAndWait();
+            return List.of();
+        }
+    }
+
     // Main method to run tests via JBang
     public static void main(String[] args) {
         var launcher = org.junit.platform.launcher.core.LauncherFactory.create();
@@ -21,7 +21,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * TDD tests for DiffService.
@@ -112,6 +115,119 @@ public class DiffServiceTest {
         assertEquals(42, mockPort.getLastPrNumber());
     }
 
+    @Test
+    @DisplayName("Parallel DiffService produces the same totals as sequential")
+    void parallelMatchesSequentialTotals() {
+        // Given
+        Repository repo = new Repository("owner", "repo");
+        List<PullRequest> prs = List.of(
+            new PullRequest(1, "PR 1", "open", "url1", "owner/repo", 0, 0),
+            new PullRequest(2, "PR 2", "merged", "url2", "owner/repo", 0, 0),
+            new PullRequest(3, "PR 3", "merged", "url3", "owner/repo", 0, 0)
+        );
+        DiffPort port = (r, number) -> new DiffSummary(number, number * 10, number * 2);
+
+        // When
+        DiffSummary sequential = new DiffService(port).analyze(prs, repo);
+        DiffSummary parallel = new DiffService(port, 3, Duration.ofSeconds(5)).analyze(prs, repo);
+
+        // Then
+        assertEquals(sequential, parallel);
+        assertEquals(new DiffSummary(6, 60, 12), parallel);
+    }
+
+    @Test
+    @DisplayName("Parallel DiffService fetches diffs concurrently")
+    void fetchesDiffsConcurrently() {
+        // Given - each fetch waits until all three are in flight
+        Repository repo = new Repository("owner", "repo");
+        List<PullRequest> prs = List.of(
+            new PullRequest(1, "PR 1", "open", "url", "owner/repo", 0, 0),
+            new PullRequest(2, "PR 2", "open", "url", "owner/repo", 0, 0),
+            new PullRequest(3, "PR 3", "open", "url", "owner/repo", 0, 0)
+        );
+        CountDownLatch allStarted = new CountDownLatch(3);
+        DiffPort port = (r, number) -> {
+            allStarted.countDown();
+            try {
+                assertTrue(allStarted.await(5, TimeUnit.SECONDS), "fetches did not overlap");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new DiffSummary(1, 1, 1);
+        };
+
+        // When
+        DiffSummary result = new DiffService(port, 3, Duration.ofSeconds(10)).analyze(prs, repo);
+
+        // Then
+        assertEquals(new DiffSummary(3, 3, 3), result);
+    }
+
+    @Test
+    @DisplayName("Timed out PR diff counts as empty")
+    void timedOutDiffCountsAsEmpty() {
+        // Given - PR 2 never answers in time
+        Repository repo = new Repository("owner", "repo");
+        List<PullRequest> prs = List.of(
+            new PullRequest(1, "PR 1", "open", "url", "owner/repo", 0, 0),
+            new PullRequest(2, "PR 2", "open", "url", "owner/repo", 0, 0)
+        );
+        DiffPort port = (r, number) -> {
+            if (number == 2) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new DiffSummary(1, 10, 5);
+        };
+
+        // When
+        DiffSummary result = new DiffService(port, 2, Duration.ofMillis(200)).analyze(prs, repo);
+
+        // Then
+        assertEquals(new DiffSummary(1, 10, 5), result);
+    }
+
+    @Test
+    @DisplayName("Slow PR diffs share one deadline instead of adding up their waits")
+    void slowDiffsShareOneDeadline() {
+        // Given - no PR answers in time
+        Repository repo = new Repository("owner", "repo");
+        List<PullRequest> prs = List.of(
+            new PullRequest(1, "PR 1", "open", "url", "owner/repo", 0, 0),
+            new PullRequest(2, "PR 2", "open", "url", "owner/repo", 0, 0),
+            new PullRequest(3, "PR 3", "open", "url", "owner/repo", 0, 0),
+            new PullRequest(4, "PR 4", "open", "url", "owner/repo", 0, 0)
+        );
+        DiffPort port = (r, number) -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new DiffSummary(1, 10, 5);
+        };
+
+        // When
+        long start = System.nanoTime();
+        DiffSummary result = new DiffService(port, 4, Duration.ofMillis(300)).analyze(prs, repo);
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        // Then - one 300ms wait in total, not one per PR
+        assertEquals(DiffSummary.empty(), result);
+        assertTrue(elapsedMillis < 900, "elapsed " + elapsedMillis + " ms");
+    }
+
+    @Test
+    @DisplayName("DiffService rejects non-positive parallelism")
+    void rejectsNonPositiveParallelism() {
+        assertThrows(IllegalArgumentException.class, () -> new DiffService(mockPort, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> new DiffService(mockPort, 2, Duration.ZERO));
+    }
+
     // Main method to run tests via JBang
     public static void main(String[] args) {
         var launcher = org.junit.platform.launcher.core.LauncherFactory.create();
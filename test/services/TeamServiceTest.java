@@ -14,6 +14,7 @@
 //SOURCES ../../scripts/domain/report/StandupReport.java
 //SOURCES ../../scripts/domain/team/TeamMember.java
 //SOURCES ../../scripts/domain/team/TeamReport.java
+//SOURCES ../../scripts/domain/team/MemberTiming.java
 //SOURCES ../../scripts/ports/ActivityPort.java
 //SOURCES ../mocks/MockActivityPort.java
 //SOURCES ../../scripts/services/ActivityService.java
@@ -26,6 +27,9 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * TDD tests for TeamService.
@@ -153,6 +157,110 @@ public class TeamServiceTest {
         assertEquals(6, result.totalActivityCount());
     }
 
+    @Test
+    @DisplayName("TeamService collects members concurrently up to the parallelism cap")
+    void collectsMembersConcurrently() {
+        // Given - each member blocks until three members are in flight
+        CountDownLatch inFlight = new CountDownLatch(3);
+        AtomicInteger timeouts = new AtomicInteger();
+        ActivityService blockingService = new ActivityService(mockPort) {
+            @Override
+            public Activity collect(String username, DateRange range, Repository repo) {
+                inFlight.countDown();
+                try {
+                    if (!inFlight.await(5, TimeUnit.SECONDS)) {
+                        timeouts.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new Activity(null, null, null, null, username, (int) range.days(), null);
+            }
+        };
+        TeamService parallelService = new TeamService(blockingService, 3);
+
+        // When
+        TeamReport result = parallelService.aggregate(List.of("a", "b", "c"), DateRange.lastDays(1), null);
+
+        // Then
+        assertEquals(0, timeouts.get(), "members were not collected concurrently");
+        assertEquals(List.of("a", "b", "c"),
+            result.members().stream().map(TeamMember::username).toList());
+    }
+
+    @Test
+    @DisplayName("TeamService never exceeds the parallelism cap")
+    void respectsParallelismCap() {
+        // Given
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ActivityService trackingService = new ActivityService(mockPort) {
+            @Override
+            public Activity collect(String username, DateRange range, Repository repo) {
+                int now = running.incrementAndGet();
+                maxRunning.accumulateAndGet(now, Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return new Activity(null, null, null, null, username, (int) range.days(), null);
+            }
+        };
+        TeamService parallelService = new TeamService(trackingService, 2);
+
+        // When
+        parallelService.aggregate(List.of("u1", "u2", "u3", "u4", "u5", "u6"), DateRange.lastDays(1), null);
+
+        // Then
+        assertTrue(maxRunning.get() <= 2, "ran " + maxRunning.get() + " members at once");
+    }
+
+    @Test
+    @DisplayName("TeamService degrades failed members to pending")
+    void degradesFailedMembersToPending() {
+        // Given
+        ActivityService flakyService = new ActivityService(mockPort) {
+            @Override
+            public Activity collect(String username, DateRange range, Repository repo) {
+                if (username.equals("broken")) {
+                    throw new IllegalStateException("rate limited");
+                }
+                return super.collect(username, range, repo);
+            }
+        };
+        TeamService parallelService = new TeamService(flakyService, 2);
+
+        // When
+        TeamReport result = parallelService.aggregate(List.of("ok", "broken"), DateRange.lastDays(1), null);
+
+        // Then
+        assertEquals(2, result.memberCount());
+        assertTrue(result.members().get(0).hasActivity());
+        assertFalse(result.members().get(1).hasActivity());
+        assertEquals(1, result.pendingMemberCount());
+        assertFalse(result.timingFor("broken").orElseThrow().collected());
+    }
+
+    @Test
+    @DisplayName("TeamService attaches a timing for every member")
+    void attachesTimingForEveryMember() {
+        // When
+        TeamReport result = service.aggregate(List.of("user1", "user2"), DateRange.lastDays(1), null);
+
+        // Then
+        assertEquals(2, result.timings().size());
+        assertTrue(result.timingFor("user1").orElseThrow().collected());
+        assertTrue(result.timingFor("user2").isPresent());
+    }
+
+    @Test
+    @DisplayName("TeamService rejects non-positive parallelism")
+    void rejectsNonPositiveParallelism() {
+        assertThrows(IllegalArgumentException.class, () -> new TeamService(activityService, 0));
+    }
+
     // Main method to run tests via JBang
     public static void main(String[] args) {
         var launcher = org.junit.platform.launcher.core.LauncherFactory.create();